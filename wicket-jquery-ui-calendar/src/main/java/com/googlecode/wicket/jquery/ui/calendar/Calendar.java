@@ -19,6 +19,7 @@ package com.googlecode.wicket.jquery.ui.calendar;
 import java.util.List;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Generics;
@@ -41,8 +42,12 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 {
 	private static final long serialVersionUID = 1L;
 
+	/** the source id of the calendar's model, in batch mode */
+	public static final String MODEL_SOURCE_ID = "model";
+
 	private List<EventSource> sources;
 	private CalendarModelBehavior modelBehavior; // events load
+	private CalendarSourcesBehavior sourcesBehavior = null; // model sources load
 
 	protected final Options options;
 
@@ -97,7 +102,7 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 	// Methods //
 
 	/**
-	 * Adds a {@link EventSource}, can be a {@link GoogleCalendar}
+	 * Adds a {@link EventSource}, can be a {@link GoogleCalendar} or a {@link ModelEventSource}
 	 *
 	 * @param source the {@link EventSource}, 
 	 */
@@ -121,8 +126,60 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 		handler.appendJavaScript(String.format("jQuery('%s').fullCalendar('refetchEvents');", JQueryWidget.getSelector(this)));
 	}
 
+	/**
+	 * Gets the {@link CalendarModel} of a server-side source
+	 *
+	 * @param id the source id
+	 * @return the {@code CalendarModel}, or {@code null} if the source is unknown
+	 * @see ModelEventSource
+	 */
+	protected CalendarModel getSourceModel(String id)
+	{
+		if (MODEL_SOURCE_ID.equals(id) && this.isBatchLoadingEnabled())
+		{
+			return this.getModel();
+		}
+
+		if (this.sources != null)
+		{
+			for (EventSource source : this.sources)
+			{
+				if (source instanceof ModelEventSource && ((ModelEventSource) source).getId().equals(id))
+				{
+					return ((ModelEventSource) source).getModel();
+				}
+			}
+		}
+
+		return null;
+	}
+
 	// Properties //
 
+	/**
+	 * Indicates whether the events of the calendar's model and of the {@link ModelEventSource}{@code s} are loaded in a single request<br>
+	 * If {@code true}, the sources are served by the {@link CalendarSourcesBehavior}, in parallel, and the calendar's model is served as the {@link #MODEL_SOURCE_ID} source.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isBatchLoadingEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the events of the calendar's model can be served by the browser's HTTP cache<br>
+	 * If {@code true}, requests are no longer made unique, so the browser revalidates the ranges that are versioned by the model (see {@link CalendarModel#getVersion()}) and reuses the unchanged ones.<br>
+	 * <br>
+	 * <b>Note:</b> this does not apply in batch mode
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isHttpCachingEnabled()
+	{
+		return false;
+	}
+
 	@Override
 	public boolean isSelectable()
 	{
@@ -193,22 +250,63 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 	{
 		super.onConfigure(behavior);
 
+		final boolean batched = this.isBatchLoadingEnabled();
+
+		if (this.sourcesBehavior == null && (batched || this.hasModelSources()))
+		{
+			this.sourcesBehavior = this.newCalendarSourcesBehavior();
+			this.add(this.sourcesBehavior);
+		}
+
 		// builds sources //
 		StringBuilder sourceBuilder = new StringBuilder();
-		sourceBuilder.append(String.format("{ url: '%s' }", Calendar.this.modelBehavior.getCallbackUrl()));
+
+		if (batched)
+		{
+			sourceBuilder.append(String.format("{ events: %s }", this.getSourceFunction(MODEL_SOURCE_ID, true)));
+		}
+		else
+		{
+			sourceBuilder.append(String.format("{ url: '%s', cache: %b }", Calendar.this.modelBehavior.getCallbackUrl(), this.isHttpCachingEnabled()));
+		}
 
 		if (Calendar.this.sources != null)
 		{
 			for (EventSource source : Calendar.this.sources)
 			{
 				sourceBuilder.append(", ");
-				sourceBuilder.append(source.toString());
+
+				if (source instanceof ModelEventSource)
+				{
+					sourceBuilder.append(source.createOptions().set("events", this.getSourceFunction(((ModelEventSource) source).getId(), batched)));
+				}
+				else
+				{
+					CalendarWriter.append(sourceBuilder, source);
+				}
 			}
 		}
 
 		behavior.setOption("eventSources", String.format("[%s]", sourceBuilder.toString()));
 	}
 
+	@Override
+	protected void onDetach()
+	{
+		super.onDetach();
+
+		if (this.sources != null)
+		{
+			for (EventSource source : this.sources)
+			{
+				if (source instanceof ModelEventSource)
+				{
+					((ModelEventSource) source).getModel().detach();
+				}
+			}
+		}
+	}
+
 	@Override
 	public void onSelect(AjaxRequestTarget target, CalendarView view, LocalDateTime start, LocalDateTime end, boolean allDay)
 	{
@@ -251,6 +349,41 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 		// noop
 	}
 
+	// Helpers //
+
+	/**
+	 * Indicates whether {@link ModelEventSource}{@code s} have been added
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	private boolean hasModelSources()
+	{
+		if (this.sources != null)
+		{
+			for (EventSource source : this.sources)
+			{
+				if (source instanceof ModelEventSource)
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the 'events' function of a server-side source
+	 *
+	 * @param id the source id
+	 * @param batched whether the requests of the sources are combined
+	 * @return the function
+	 */
+	private String getSourceFunction(String id, boolean batched)
+	{
+		return String.format("function(start, end, timezone, callback) { calendar_fetch('%s', %s, start, end, callback, %b); }", this.sourcesBehavior.getCallbackUrl(), JSONObject.quote(id), batched); // CalendarSourcesBehavior.js
+	}
+
 	// IJQueryWidget //
 
 	/**
@@ -274,4 +407,23 @@ public class Calendar extends JQueryContainer implements ICalendarListener
 	{
 		return new CalendarModelBehavior(model);
 	}
+
+	/**
+	 * Gets a new {@link CalendarSourcesBehavior}, which serves the {@link ModelEventSource}{@code s} (and the calendar's model in batch mode)
+	 *
+	 * @return the {@link CalendarSourcesBehavior}
+	 */
+	protected CalendarSourcesBehavior newCalendarSourcesBehavior()
+	{
+		return new CalendarSourcesBehavior() { // NOSONAR
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected CalendarModel getModel(String id)
+			{
+				return Calendar.this.getSourceModel(id);
+			}
+		};
+	}
 }
@@ -280,8 +280,34 @@ public class CalendarEvent implements Serializable
 		return options;
 	}
 
+	/**
+	 * Writes the (default) properties of this {@link CalendarEvent}, the same way as {@link #createOptions()}
+	 *
+	 * @param writer the {@link CalendarWriter}
+	 */
+	void write(CalendarWriter writer)
+	{
+		writer.write("id", this.id);
+		writer.write("title", this.title);
+		writer.write("start", this.start);
+		writer.write("end", this.end);
+		writer.write("url", this.url);
+		writer.write("source", this.source);
+		writer.write("allDay", this.allDay);
+		writer.write("editable", this.editable);
+
+		// styling //
+		writer.write("className", this.className);
+		writer.write("color", this.color);
+		writer.write("backgroundColor", this.backgroundColor);
+		writer.write("borderColor", this.borderColor);
+		writer.write("textColor", this.textColor);
+	}
+
 	/**
 	 * Gets the JSON representation of this {@link CalendarEvent}
+	 * 
+	 * @see CalendarWriter#append(StringBuilder, CalendarEvent)
 	 */
 	@Override
 	public String toString()
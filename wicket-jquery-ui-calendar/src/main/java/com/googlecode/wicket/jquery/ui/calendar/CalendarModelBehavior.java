@@ -24,7 +24,8 @@ import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
 import org.threeten.bp.LocalDate;
 
 /**
- * Provides the behavior that loads {@link CalendarEvent}{@code s} according to {@link CalendarModel} start &amp; end dates
+ * Provides the behavior that loads {@link CalendarEvent}{@code s} according to {@link CalendarModel} start &amp; end dates<br>
+ * If the model supplies a version for the range (see {@link CalendarModel#getVersion()}), the response is sent with an ETag, so unchanged ranges are answered with {@code 304 Not Modified}
  *
  * @author Sebastien Briquet - sebfz1
  *
@@ -69,29 +70,69 @@ public class CalendarModelBehavior extends AjaxCallbackBehavior
 		model.setEnd(date);
 	}
 
+	@Override
+	protected String getVersion(IRequestParameters parameters)
+	{
+		if (this.model != null)
+		{
+			this.setStartDate(this.model, LocalDate.parse(parameters.getParameterValue("start").toString()));
+			this.setEndDate(this.model, LocalDate.parse(parameters.getParameterValue("end").toString()));
+
+			return this.model.getVersion();
+		}
+
+		return null;
+	}
+
+	@Override
+	protected boolean isImmutable(IRequestParameters parameters)
+	{
+		return this.model != null && this.model.isImmutable(); // dates have been set by #getVersion
+	}
+
 	@Override
 	protected String getResponse(IRequestParameters parameters)
 	{
 		final String start = parameters.getParameterValue("start").toString();
 		final String end = parameters.getParameterValue("end").toString();
 
-		StringBuilder builder = new StringBuilder("[ ");
+		StringBuilder builder = new StringBuilder();
 
 		if (this.model != null)
 		{
 			this.setStartDate(this.model, LocalDate.parse(start));
 			this.setEndDate(this.model, LocalDate.parse(end));
+		}
+
+		return CalendarModelBehavior.append(builder, this.model).toString();
+	}
+
+	// Helpers //
 
-			List<? extends CalendarEvent> list = this.model.getObject(); // calls load()
+	/**
+	 * Loads the {@link CalendarEvent}{@code s} of a {@link CalendarModel}, which start &amp; end dates have been set, and appends them to the builder as a json array<br>
+	 * Events are streamed by the {@link CalendarWriter}
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param model the {@code CalendarModel}, may be {@code null}
+	 * @return the builder
+	 */
+	static StringBuilder append(StringBuilder builder, CalendarModel model)
+	{
+		builder.append("[ ");
+
+		if (model != null)
+		{
+			List<? extends CalendarEvent> list = model.getObject(); // calls load()
 
 			if (list != null)
 			{
 				int count = 0;
 				for (CalendarEvent event : list)
 				{
-					if (this.model instanceof ICalendarVisitor)
+					if (model instanceof ICalendarVisitor)
 					{
-						event.accept((ICalendarVisitor) this.model); // last chance to set options
+						event.accept((ICalendarVisitor) model); // last chance to set options
 					}
 
 					if (count++ > 0)
@@ -99,11 +140,11 @@ public class CalendarModelBehavior extends AjaxCallbackBehavior
 						builder.append(", ");
 					}
 
-					builder.append(event.toString());
+					CalendarWriter.append(builder, event);
 				}
 			}
 		}
 
-		return builder.append(" ]").toString();
+		return builder.append(" ]");
 	}
 }
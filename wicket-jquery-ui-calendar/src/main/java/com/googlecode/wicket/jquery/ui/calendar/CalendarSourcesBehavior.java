@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.LocalDate;
+
+import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.dashboard.DashboardService;
+import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
+import com.googlecode.wicket.jquery.core.utils.WorkerContext;
+
+/**
+ * Provides the behavior that loads the {@link CalendarEvent}{@code s} of several server-side sources, in a single response<br>
+ * The client requests the range and the ids of the sources to load; the {@link CalendarModel}{@code s} are loaded in parallel, on a bounded executor, and the response is a json object of event arrays keyed by source id.<br>
+ * A source that fails or exceeds the timeout is not part of the response, so it renders no event; its worker is interrupted, and the response is returned only once all workers have ended, so the models - which usually belong to the page - are never accessed after the response.<br>
+ * <br>
+ * <b>Note:</b> models are loaded by worker threads, which have access to the {@code Application} and to the session's locale (see {@link WorkerContext}), but neither to the {@code Session} nor to the request cycle.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public abstract class CalendarSourcesBehavior extends AjaxCallbackBehavior
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(CalendarSourcesBehavior.class);
+
+	/**
+	 * Constructor
+	 */
+	public CalendarSourcesBehavior()
+	{
+		super();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the {@link CalendarModel} of a source
+	 *
+	 * @param id the source id
+	 * @return the {@code CalendarModel}, or {@code null} if the source is unknown
+	 */
+	protected abstract CalendarModel getModel(String id);
+
+	/**
+	 * Gets the executor on which sources are loaded
+	 *
+	 * @return the {@link DashboardService}'s executor by default
+	 */
+	protected ExecutorService getExecutor()
+	{
+		return DashboardService.get().getExecutor();
+	}
+
+	/**
+	 * Gets the max duration of the load of all sources
+	 *
+	 * @return the {@link DashboardService}'s timeout by default
+	 */
+	protected Duration getTimeout()
+	{
+		return DashboardService.get().getTimeout();
+	}
+
+	// Methods //
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		response.render(new JavaScriptPackageHeaderItem(CalendarSourcesBehavior.class));
+	}
+
+	/**
+	 * Sets the start date to the model<br>
+	 * This can be overridden to perform additional operation on date before the assignment.
+	 *
+	 * @param model the {@link CalendarModel}
+	 * @param date the {@link LocalDate}
+	 */
+	protected void setStartDate(CalendarModel model, LocalDate date)
+	{
+		model.setStart(date);
+	}
+
+	/**
+	 * Sets the end date to the model<br>
+	 * This can be overridden to perform additional operation on date before the assignment.
+	 *
+	 * @param model the {@link CalendarModel}
+	 * @param date the {@link LocalDate}
+	 */
+	protected void setEndDate(CalendarModel model, LocalDate date)
+	{
+		model.setEnd(date);
+	}
+
+	@Override
+	protected String getResponse(IRequestParameters parameters)
+	{
+		final LocalDate start = LocalDate.parse(parameters.getParameterValue("start").toString());
+		final LocalDate end = LocalDate.parse(parameters.getParameterValue("end").toString());
+		final String ids = parameters.getParameterValue("sources").toString("");
+
+		// submits sources //
+		final ExecutorService executor = this.getExecutor();
+		final Map<String, Future<CharSequence>> futures = new LinkedHashMap<String, Future<CharSequence>>();
+		final Workers workers = new Workers();
+
+		for (String id : ids.split(","))
+		{
+			CalendarModel model = this.getModel(id);
+
+			if (model != null && !futures.containsKey(id))
+			{
+				this.setStartDate(model, start);
+				this.setEndDate(model, end);
+
+				futures.put(id, executor.submit(new SourceCallable(model, workers)));
+			}
+		}
+
+		// builds the response //
+		final long deadline = System.currentTimeMillis() + this.getTimeout().getMilliseconds();
+		final StringBuilder builder = new StringBuilder("{ ");
+
+		int count = 0;
+		for (Entry<String, Future<CharSequence>> entry : futures.entrySet())
+		{
+			try
+			{
+				CharSequence events = entry.getValue().get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+
+				if (count++ > 0)
+				{
+					builder.append(", ");
+				}
+
+				builder.append(JSONObject.quote(entry.getKey())).append(": ").append(events);
+			}
+			catch (TimeoutException e)
+			{
+				entry.getValue().cancel(true);
+				LOG.warn("Calendar source '{}' has not been loaded within the timeout", entry.getKey());
+			}
+			catch (ExecutionException e)
+			{
+				LOG.error(String.format("Calendar source '%s' cannot be loaded", entry.getKey()), e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		// ends workers //
+		for (Future<CharSequence> future : futures.values())
+		{
+			future.cancel(true);
+		}
+
+		workers.close();
+
+		return builder.append(" }").toString();
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the workers of a response, which can no longer start once closed
+	 */
+	private static class Workers
+	{
+		private int running = 0;
+		private boolean closed = false;
+
+		/**
+		 * Registers a starting worker
+		 *
+		 * @return {@code false} if closed, meaning that the worker should not start
+		 */
+		public synchronized boolean start()
+		{
+			if (this.closed)
+			{
+				return false;
+			}
+
+			this.running++;
+
+			return true;
+		}
+
+		/**
+		 * Unregisters an ended worker
+		 */
+		public synchronized void end()
+		{
+			this.running--;
+			this.notifyAll();
+		}
+
+		/**
+		 * Prevents workers from starting, and waits for the running workers to end
+		 */
+		public synchronized void close()
+		{
+			this.closed = true;
+
+			boolean interrupted = false;
+
+			while (this.running > 0)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Provides the {@link Callable} that loads a {@link CalendarModel}, as a json array, in a worker thread
+	 */
+	private static class SourceCallable implements Callable<CharSequence>
+	{
+		private final CalendarModel model;
+		private final Workers workers;
+		private final WorkerContext context;
+
+		public SourceCallable(CalendarModel model, Workers workers)
+		{
+			this.model = model;
+			this.workers = workers;
+			this.context = new WorkerContext();
+		}
+
+		@Override
+		public CharSequence call() throws Exception
+		{
+			if (!this.workers.start())
+			{
+				return ""; // the response has been built
+			}
+
+			ThreadContext previous = this.context.attach();
+
+			try
+			{
+				return CalendarModelBehavior.append(new StringBuilder(), this.model);
+			}
+			finally
+			{
+				WorkerContext.detach(previous);
+				this.workers.end();
+			}
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * Fetches the events of a server-side source<br>
+ * In batch mode, the requests of the sources of a same calendar, for a same range, are combined in one request
+ *
+ * @param url the sources behavior url
+ * @param id the source id
+ * @param start the start moment
+ * @param end the end moment
+ * @param callback the fullcalendar events callback
+ * @param batched whether requests are combined
+ */
+function calendar_fetch(url, id, start, end, callback, batched) {
+	var batches = calendar_fetch.batches || (calendar_fetch.batches = {});
+	var data = { start: start.format('YYYY-MM-DD'), end: end.format('YYYY-MM-DD') };
+	var key = url + '|' + data.start + '|' + data.end;
+	var batch = batched ? batches[key] : null;
+
+	if (!batch) {
+		batch = { ids: [], callbacks: {} };
+
+		if (batched) {
+			batches[key] = batch;
+		}
+
+		// sources are fetched in the same loop, the request is sent afterward
+		setTimeout(function() {
+			if (batches[key] === batch) {
+				delete batches[key];
+			}
+
+			var resolve = function(result) {
+				jQuery.each(batch.ids, function(i, id) {
+					jQuery.each(batch.callbacks[id], function(j, callback) {
+						callback(result[id] || []);
+					});
+				});
+			};
+
+			jQuery.ajax({
+				url: url,
+				data: jQuery.extend(data, { sources: batch.ids.join(',') }),
+				cache: false,
+				dataType: 'json',
+				success: function(result) {
+					resolve(result);
+				},
+				error: function() {
+					resolve({});
+				}
+			});
+		}, 0);
+	}
+
+	if (!batch.callbacks[id]) {
+		batch.ids.push(id);
+		batch.callbacks[id] = [];
+	}
+
+	batch.callbacks[id].push(callback);
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.util.lang.Generics;
+import org.threeten.bp.LocalDateTime;
+
+import com.googlecode.wicket.jquery.core.Options;
+import com.googlecode.wicket.jquery.core.utils.BuilderUtils;
+import com.googlecode.wicket.jquery.core.utils.DateUtils;
+
+/**
+ * Provides the streaming json writer of {@link CalendarEvent}{@code s} and {@link EventSource}{@code s}<br>
+ * Non-null properties are written in a single pass to the builder, without intermediate {@link Options} nor {@code String}{@code s}; the output is the same as {@code toString()}.<br>
+ * <br>
+ * <b>Note:</b> if a subclass overrides {@code createOptions()} or {@code toString()}, its {@code toString()} is appended instead, so that additional properties are still written.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class CalendarWriter
+{
+	/** whether a class can be streamed, by class */
+	private static final ConcurrentMap<Class<?>, Boolean> STREAMABLE = Generics.newConcurrentHashMap();
+
+	private final StringBuilder builder;
+	private int count = 0;
+
+	/**
+	 * Constructor, which opens the json object
+	 *
+	 * @param builder the {@link StringBuilder}
+	 */
+	CalendarWriter(StringBuilder builder)
+	{
+		this.builder = builder.append("{ ");
+	}
+
+	// Methods //
+
+	/**
+	 * Writes an unquoted number
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return this, for chaining
+	 */
+	CalendarWriter write(String key, int value)
+	{
+		this.key(key).append(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes an unquoted boolean, if not {@code null}
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return this, for chaining
+	 */
+	CalendarWriter write(String key, Boolean value)
+	{
+		if (value != null)
+		{
+			this.key(key).append(value.booleanValue());
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes a quoted string, if not {@code null}
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return this, for chaining
+	 */
+	CalendarWriter write(String key, CharSequence value)
+	{
+		if (value != null)
+		{
+			BuilderUtils.quote(this.key(key), value);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes a quoted ISO8601 date, if not {@code null}
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return this, for chaining
+	 */
+	CalendarWriter write(String key, LocalDateTime value)
+	{
+		if (value != null)
+		{
+			DateUtils.appendISOString(this.key(key).append('"'), value).append('"');
+		}
+
+		return this;
+	}
+
+	/**
+	 * Closes the json object
+	 *
+	 * @return the builder
+	 */
+	StringBuilder close()
+	{
+		return this.builder.append(" }");
+	}
+
+	/**
+	 * Writes the separator, if needed, and the quoted key
+	 *
+	 * @param key the key
+	 * @return the builder
+	 */
+	private StringBuilder key(String key)
+	{
+		if (this.count++ > 0)
+		{
+			this.builder.append(", ");
+		}
+
+		return BuilderUtils.quote(this.builder, key).append(": ");
+	}
+
+	// Statics //
+
+	/**
+	 * Appends a {@link CalendarEvent}, as json, to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param event the {@code CalendarEvent}
+	 * @return the builder
+	 */
+	public static StringBuilder append(StringBuilder builder, CalendarEvent event)
+	{
+		if (CalendarWriter.isStreamable(event.getClass(), CalendarEvent.class))
+		{
+			CalendarWriter writer = new CalendarWriter(builder);
+			event.write(writer);
+
+			return writer.close();
+		}
+
+		return builder.append(event.toString());
+	}
+
+	/**
+	 * Appends an {@link EventSource}, as json, to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param source the {@code EventSource}
+	 * @return the builder
+	 */
+	public static StringBuilder append(StringBuilder builder, EventSource source)
+	{
+		if (CalendarWriter.isStreamable(source.getClass(), EventSource.class))
+		{
+			CalendarWriter writer = new CalendarWriter(builder);
+			source.write(writer);
+
+			return writer.close();
+		}
+
+		return builder.append(source.toString());
+	}
+
+	/**
+	 * Indicates whether a class can be streamed, that is, whether neither {@code createOptions()} nor {@code toString()} is overridden
+	 *
+	 * @param type the class
+	 * @param base the base class, which declares the streamed properties
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean isStreamable(Class<?> type, Class<?> base)
+	{
+		Boolean streamable = STREAMABLE.get(type);
+
+		if (streamable == null)
+		{
+			streamable = true;
+
+			for (Class<?> c = type; c != base && c != null; c = c.getSuperclass())
+			{
+				if (CalendarWriter.declares(c, "createOptions") || CalendarWriter.declares(c, "toString"))
+				{
+					streamable = false;
+					break;
+				}
+			}
+
+			STREAMABLE.put(type, streamable);
+		}
+
+		return streamable;
+	}
+
+	/**
+	 * Indicates whether a class declares a no-arg method
+	 *
+	 * @param type the class
+	 * @param method the method name
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean declares(Class<?> type, String method)
+	{
+		try
+		{
+			type.getDeclaredMethod(method);
+
+			return true;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+}
@@ -388,8 +388,32 @@ public class EventSource implements IClusterable
 		return options;
 	}
 
+	/**
+	 * Writes the properties of this {@link EventSource}, the same way as {@link #createOptions()}
+	 *
+	 * @param writer the {@link CalendarWriter}
+	 */
+	void write(CalendarWriter writer)
+	{
+		writer.write("color", this.color);
+		writer.write("backgroundColor", this.backgroundColor);
+		writer.write("borderColor", this.borderColor);
+		writer.write("textColor", this.textColor);
+		writer.write("className", this.className);
+		writer.write("editable", this.editable);
+		writer.write("startEditable", this.startEditable);
+		writer.write("durationEditable", this.durationEditable);
+		writer.write("rendering", this.rendering);
+		writer.write("overlap", this.overlap);
+		writer.write("constraint", this.constraint);
+		writer.write("allDayDefault", this.allDayDefault);
+		writer.write("eventDataTransform", this.eventDataTransform);
+	}
+
 	/**
 	 * Gets the JSON representation of this {@link EventSource}
+	 * 
+	 * @see CalendarWriter#append(StringBuilder, EventSource)
 	 */
 	@Override
 	public String toString()
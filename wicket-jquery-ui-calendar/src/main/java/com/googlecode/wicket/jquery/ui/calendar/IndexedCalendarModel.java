@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.List;
+
+import org.apache.wicket.util.lang.Args;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneOffset;
+
+import com.googlecode.wicket.jquery.core.data.IntervalIndex;
+
+/**
+ * Provides a {@link CalendarModel} backed by an {@link IntervalIndex}<br>
+ * {@link #load()} answers the range-overlap query of {@link #getStart()} and {@link #getEnd()} in O(log n + k), instead of scanning all events. The index is typically held by an application-scoped store, and is kept up to date by {@link #add(CalendarEvent)}, {@link #update(CalendarEvent)} and {@link #remove(CalendarEvent)}.<br>
+ * <br>
+ * Usage:
+ *
+ * <pre>
+ * new IndexedCalendarModel() {
+ *
+ * 	protected IntervalIndex&lt;CalendarEvent&gt; getIndex()
+ * 	{
+ * 		return EventStore.get().getIndex(); // the model is serialized, the index is not
+ * 	}
+ * };
+ * </pre>
+ *
+ * <b>Note:</b> an event without end lasts one day if it is all-day, otherwise it is an instant.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public abstract class IndexedCalendarModel extends CalendarModel
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 */
+	public IndexedCalendarModel()
+	{
+		super();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the {@link IntervalIndex} of {@link CalendarEvent}{@code s}
+	 *
+	 * @return the {@code IntervalIndex}
+	 */
+	protected abstract IntervalIndex<CalendarEvent> getIndex();
+
+	// Methods //
+
+	@Override
+	protected List<? extends CalendarEvent> load()
+	{
+		if (this.getStart() == null || this.getEnd() == null)
+		{
+			return this.getIndex().values();
+		}
+
+		return this.getIndex().find(toLong(this.getStart().atStartOfDay()), toLong(this.getEnd().atStartOfDay()));
+	}
+
+	/**
+	 * Adds an event to the index
+	 *
+	 * @param event the {@link CalendarEvent}
+	 */
+	public void add(CalendarEvent event)
+	{
+		IndexedCalendarModel.index(this.getIndex(), event);
+	}
+
+	/**
+	 * Updates an event of the index
+	 *
+	 * @param event the {@link CalendarEvent}
+	 */
+	public void update(CalendarEvent event)
+	{
+		IndexedCalendarModel.index(this.getIndex(), event);
+	}
+
+	/**
+	 * Removes an event from the index
+	 *
+	 * @param event the {@link CalendarEvent}
+	 */
+	public void remove(CalendarEvent event)
+	{
+		this.getIndex().remove(event.getId());
+	}
+
+	// Statics //
+
+	/**
+	 * Indexes a {@link CalendarEvent}, replacing the event having the same id if any
+	 *
+	 * @param index the {@link IntervalIndex}
+	 * @param event the {@code CalendarEvent}
+	 */
+	public static void index(IntervalIndex<CalendarEvent> index, CalendarEvent event)
+	{
+		LocalDateTime start = Args.notNull(event.getStart(), "start");
+		LocalDateTime end = event.getEnd();
+
+		if (end == null)
+		{
+			end = Boolean.TRUE.equals(event.isAllDay()) ? start.plusDays(1) : start;
+		}
+
+		index.put(event.getId(), toLong(start), toLong(end), event);
+	}
+
+	// Helpers //
+
+	/**
+	 * Converts a {@link LocalDateTime} to a comparable {@code long}
+	 *
+	 * @param date the {@code LocalDateTime}
+	 * @return the number of seconds, as if the date was UTC
+	 */
+	private static long toLong(LocalDateTime date)
+	{
+		return date.toEpochSecond(ZoneOffset.UTC);
+	}
+}
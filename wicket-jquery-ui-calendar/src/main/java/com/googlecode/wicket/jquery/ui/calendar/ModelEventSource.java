@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Provides a server-side {@link EventSource}, which events are loaded from a {@link CalendarModel}<br>
+ * Model sources of a {@link Calendar} are served by its {@link CalendarSourcesBehavior}, either one request per source, or all sources in a single request if the batch mode is enabled (see {@link Calendar#isBatchLoadingEnabled()}).
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ModelEventSource extends EventSource
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String id;
+	private final CalendarModel model;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id the source id, unique within the {@link Calendar}
+	 * @param model the {@link CalendarModel}
+	 */
+	public ModelEventSource(String id, CalendarModel model)
+	{
+		this.id = Args.notEmpty(id, "id");
+		this.model = Args.notNull(model, "model");
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the source id
+	 *
+	 * @return the source id
+	 */
+	public String getId()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Gets the {@link CalendarModel}
+	 *
+	 * @return the {@code CalendarModel}
+	 */
+	public CalendarModel getModel()
+	{
+		return this.model;
+	}
+}
@@ -16,17 +16,28 @@
  */
 package com.googlecode.wicket.jquery.core.behavior;
 
+import java.net.HttpURLConnection;
+
 import org.apache.wicket.Application;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
+import org.apache.wicket.core.util.lang.WicketObjects;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.request.Request;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.handler.TextRequestHandler;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.http.WebResponse;
 import org.apache.wicket.settings.RequestCycleSettings;
+import org.apache.wicket.util.time.Duration;
 
 /**
  * Provides an ajax endpoint that sends a "text" response<br>
  * The default content type is "application/json" <br>
- * The default encoding is the current {@code Application}'s {@link RequestCycleSettings}
+ * The default encoding is the current {@code Application}'s {@link RequestCycleSettings}<br>
+ * <br>
+ * If the response is versioned (see {@link #getVersion(IRequestParameters)}), it is sent with an ETag and a request supplying the same ETag is answered with {@code 304 Not Modified}, without computing the response.
  * 
  * @author Sebastien Briquet - sebfz1
  * @see TextRequestHandler
@@ -80,6 +91,53 @@ public abstract class AjaxCallbackBehavior extends AbstractAjaxBehavior
 	 */
 	protected abstract String getResponse(IRequestParameters parameters);
 
+	/**
+	 * Gets the version stamp of the response, typically the last modification time of the data it is built from<br>
+	 * If not {@code null}, the response is sent with an ETag, and a request supplying the same ETag ({@code If-None-Match}) is answered with {@code 304 Not Modified}, without calling {@link #getResponse(IRequestParameters)}
+	 * 
+	 * @param parameters the {@link IRequestParameters}
+	 * @return {@code null} by default, meaning that the response is not versioned
+	 */
+	protected String getVersion(IRequestParameters parameters)
+	{
+		return null;
+	}
+
+	/**
+	 * Indicates whether a versioned response will not change anymore<br>
+	 * If so, the browser may cache it for {@link #getMaxAge()} without revalidating it; otherwise it is revalidated on each request<br>
+	 * This method is called after {@link #getVersion(IRequestParameters)}, if the version is not {@code null}
+	 * 
+	 * @param parameters the {@link IRequestParameters}
+	 * @return {@code false} by default
+	 */
+	protected boolean isImmutable(IRequestParameters parameters)
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the duration for which the browser may cache an immutable response
+	 * 
+	 * @return one day by default
+	 * @see #isImmutable(IRequestParameters)
+	 */
+	protected Duration getMaxAge()
+	{
+		return Duration.ONE_DAY;
+	}
+
+	/**
+	 * Gets a new {@link ICallbackSource}, a detached copy of this behavior which can compute the response outside of the page<br>
+	 * Implementations typically supply the behavior itself to {@link #newCallbackSource(AjaxCallbackBehavior)}, so the copy keeps the overridden methods of subclasses
+	 * 
+	 * @return {@code null} by default, meaning that the behavior does not support it
+	 */
+	public ICallbackSource newCallbackSource()
+	{
+		return null;
+	}
+
 	// Events //
 
 	/**
@@ -92,7 +150,172 @@ public abstract class AjaxCallbackBehavior extends AbstractAjaxBehavior
 	{
 		RequestCycle requestCycle = RequestCycle.get();
 		IRequestParameters parameters = requestCycle.getRequest().getQueryParameters();
+		String version = this.getVersion(parameters);
+
+		if (version != null)
+		{
+			String etag = AjaxCallbackBehavior.toETag(version);
+			String cacheControl = this.isImmutable(parameters) ? "private, max-age=" + (this.getMaxAge().getMilliseconds() / 1000) : "private, no-cache";
+
+			if (AjaxCallbackBehavior.matches(requestCycle.getRequest(), etag))
+			{
+				requestCycle.scheduleRequestHandlerAfterCurrent(new VersionedRequestHandler(etag, cacheControl, null));
+			}
+			else
+			{
+				requestCycle.scheduleRequestHandlerAfterCurrent(new VersionedRequestHandler(etag, cacheControl, new TextRequestHandler(this.mimetype, this.encoding, this.getResponse(parameters))));
+			}
+		}
+		else
+		{
+			requestCycle.scheduleRequestHandlerAfterCurrent(new TextRequestHandler(this.mimetype, this.encoding, this.getResponse(parameters)));
+		}
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link ICallbackSource} from a behavior<br>
+	 * The behavior is deep-copied - with its component, and therefore its page, if bound - so the copy shares no state (ie: data providers, models) with the page
+	 * 
+	 * @param behavior the {@link AjaxCallbackBehavior}
+	 * @return a new {@code ICallbackSource}
+	 */
+	protected static ICallbackSource newCallbackSource(AjaxCallbackBehavior behavior)
+	{
+		return new CallbackSource(WicketObjects.cloneObject(behavior));
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the (weak) ETag of a version<br>
+	 * Chars that are not allowed in an ETag are escaped
+	 * 
+	 * @param version the version
+	 * @return the ETag
+	 */
+	private static String toETag(String version)
+	{
+		StringBuilder builder = new StringBuilder("W/\"");
+
+		for (int i = 0; i < version.length(); i++)
+		{
+			char c = version.charAt(i);
+
+			if (c > 0x20 && c < 0x7f && c != '"' && c != '%')
+			{
+				builder.append(c);
+			}
+			else
+			{
+				builder.append(String.format("%%%04x", (int) c));
+			}
+		}
+
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * Indicates whether the request's {@code If-None-Match} header matches the ETag (weak comparison)
+	 * 
+	 * @param request the {@link Request}
+	 * @param etag the ETag
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean matches(Request request, String etag)
+	{
+		String header = request instanceof WebRequest ? ((WebRequest) request).getHeader("If-None-Match") : null;
+
+		if (header != null)
+		{
+			String opaque = etag.substring(2); // strips W/
+
+			for (String tag : header.split(","))
+			{
+				tag = tag.trim();
+
+				if (tag.equals("*") || tag.equals(etag) || tag.equals(opaque))
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the {@link IRequestHandler} that sends the ETag and cache headers of a versioned response<br>
+	 * If there is no text handler, the response is {@code 304 Not Modified}
+	 */
+	private static class VersionedRequestHandler implements IRequestHandler
+	{
+		private final String etag;
+		private final String cacheControl;
+		private final TextRequestHandler handler;
+
+		public VersionedRequestHandler(String etag, String cacheControl, TextRequestHandler handler)
+		{
+			this.etag = etag;
+			this.cacheControl = cacheControl;
+			this.handler = handler;
+		}
+
+		@Override
+		public void respond(IRequestCycle requestCycle)
+		{
+			WebResponse response = (WebResponse) requestCycle.getResponse();
+			response.setHeader("ETag", this.etag);
+			response.setHeader("Cache-Control", this.cacheControl);
+
+			if (this.handler != null)
+			{
+				this.handler.respond(requestCycle);
+			}
+			else
+			{
+				response.setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+			}
+		}
+
+		@Override
+		public void detach(IRequestCycle requestCycle)
+		{
+			if (this.handler != null)
+			{
+				this.handler.detach(requestCycle);
+			}
+		}
+	}
+
+	/**
+	 * Provides the {@link ICallbackSource} that wraps a detached {@link AjaxCallbackBehavior}
+	 */
+	private static class CallbackSource implements ICallbackSource
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final AjaxCallbackBehavior behavior;
+
+		public CallbackSource(AjaxCallbackBehavior behavior)
+		{
+			this.behavior = behavior;
+		}
 
-		requestCycle.scheduleRequestHandlerAfterCurrent(new TextRequestHandler(this.mimetype, this.encoding, this.getResponse(parameters)));
+		@Override
+		public String getResponse(IRequestParameters parameters)
+		{
+			try
+			{
+				return this.behavior.getResponse(parameters);
+			}
+			finally
+			{
+				this.behavior.detach(null);
+			}
+		}
 	}
 }
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.behavior;
+
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * Specifies a detached copy of an {@link AjaxCallbackBehavior}, which does not share any state with the page.<br>
+ * The response can therefore be computed outside of the page - and of its lock - ie: on another thread (see {@link com.googlecode.wicket.jquery.core.dashboard.DashboardBehavior})
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface ICallbackSource extends IClusterable
+{
+	/**
+	 * Gets the response text, as the originating {@link AjaxCallbackBehavior} would
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @return the response text
+	 */
+	String getResponse(IRequestParameters parameters);
+}
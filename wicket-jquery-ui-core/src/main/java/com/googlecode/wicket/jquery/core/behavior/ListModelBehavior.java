@@ -81,4 +81,10 @@ public class ListModelBehavior<T> extends AjaxCallbackBehavior
 
 		return JsonUtils.toString(list);
 	}
+
+	@Override
+	public ICallbackSource newCallbackSource()
+	{
+		return AjaxCallbackBehavior.newCallbackSource(this);
+	}
 }
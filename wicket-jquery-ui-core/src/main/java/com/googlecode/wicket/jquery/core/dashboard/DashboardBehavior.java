@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.dashboard;
+
+import java.util.Map;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Component;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.Session;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.markup.head.PriorityHeaderItem;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.visit.IVisit;
+import org.apache.wicket.util.visit.IVisitor;
+
+import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
+
+/**
+ * Provides the page-level coordinator of dashboard widgets.<br>
+ * When added to a page (or any container), the initial reads of the child widgets - which are {@link AjaxCallbackBehavior}{@code s} supplying an {@link ICallbackSource} - are intercepted client-side and issued as one combined request to the {@link DashboardResource}. The providers are then run in parallel, on the bounded executor of the {@link DashboardService}, without holding the page lock; each widget is populated as soon as its own result is streamed back.<br>
+ * <br>
+ * <b>Note:</b> {@code ICallbackSource}{@code s} are detached copies of the widget behaviors, so their providers and models should not depend on the component hierarchy (ie: should not be inner classes of the page). Subsequent reads (paging, sorting, filtering) are regular callbacks.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DashboardBehavior extends Behavior
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 */
+	public DashboardBehavior()
+	{
+		super();
+	}
+
+	// Methods //
+
+	@Override
+	public void bind(Component component)
+	{
+		super.bind(component);
+
+		Application.get().getResourceReferenceRegistry().registerResourceReference(DashboardResourceReference.get());
+	}
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		if (RequestCycle.get().find(AjaxRequestTarget.class) != null)
+		{
+			return; // widgets (re)rendered by ajax read on their own
+		}
+
+		final Map<String, ICallbackSource> sources = Generics.newHashMap();
+		final JSONObject urls = new JSONObject();
+
+		this.visit(component, sources, urls);
+
+		if (!sources.isEmpty())
+		{
+			Session session = Session.get();
+			session.bind();
+
+			String token = DashboardService.get().register(session.getId(), sources);
+			String url = RequestCycle.get().urlFor(DashboardResourceReference.get(), null).toString();
+			String statement = String.format("dashboard_register('%s', '%s', %s);", url, token, urls);
+
+			response.render(new JavaScriptPackageHeaderItem(DashboardBehavior.class));
+			response.render(new PriorityHeaderItem(OnDomReadyHeaderItem.forScript(statement))); // before widgets' initialization
+		}
+	}
+
+	/**
+	 * Collects the {@link ICallbackSource}{@code s} of the component and its visible children
+	 *
+	 * @param component the {@link Component}
+	 * @param sources the {@code ICallbackSource}{@code s}, by id
+	 * @param urls the callback urls, by id
+	 */
+	private void visit(Component component, final Map<String, ICallbackSource> sources, final JSONObject urls)
+	{
+		IVisitor<Component, Void> visitor = new IVisitor<Component, Void>() {
+
+			@Override
+			public void component(Component object, IVisit<Void> visit)
+			{
+				if (!object.isVisibleInHierarchy())
+				{
+					visit.dontGoDeeper();
+					return;
+				}
+
+				for (AjaxCallbackBehavior behavior : object.getBehaviors(AjaxCallbackBehavior.class))
+				{
+					ICallbackSource source = behavior.newCallbackSource();
+
+					if (source != null)
+					{
+						String id = "s" + sources.size();
+
+						sources.put(id, source);
+						urls.put(id, behavior.getCallbackUrl());
+					}
+				}
+			}
+		};
+
+		if (component instanceof MarkupContainer)
+		{
+			((MarkupContainer) component).visitChildren(visitor);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Registers the dashboard reads: the first request to each callback url is deferred, and all pending reads are issued as one combined request
+ *
+ * @param url the dashboard resource url
+ * @param token the dashboard token
+ * @param sources the callback urls, by id
+ */
+function dashboard_register(url, token, sources) {
+	var dashboard = { url: url, token: token, sources: sources, pending: [], timer: null };
+
+	jQuery.ajaxTransport('+*', function(options) {
+		var id = dashboard_match(dashboard, options.url);
+
+		if (id === null) {
+			return undefined;
+		}
+
+		delete dashboard.sources[id]; // only the initial read is combined
+
+		return {
+			send: function(headers, complete) {
+				dashboard.pending.push({ id: id, url: options.url, complete: complete });
+
+				if (dashboard.timer === null) {
+					dashboard.timer = setTimeout(function() { dashboard_flush(dashboard); }, 0);
+				}
+			},
+			abort: function() {
+			}
+		};
+	});
+}
+
+/**
+ * Gets the source id matching the supplied url<br>
+ * The url matches a callback url if it is the callback url itself, or the callback url followed by query parameters
+ *
+ * @param dashboard the dashboard
+ * @param url the request url
+ * @returns the id, or null
+ */
+function dashboard_match(dashboard, url) {
+	if (url) {
+		for (var id in dashboard.sources) {
+			if (dashboard.sources.hasOwnProperty(id)) {
+				var source = dashboard.sources[id];
+
+				if (url.indexOf(source) === 0 && (url.length === source.length || '?&#'.indexOf(url.charAt(source.length)) >= 0)) {
+					return id;
+				}
+			}
+		}
+	}
+
+	return null;
+}
+
+/**
+ * Issues the combined request; results are dispatched as soon as they are streamed
+ *
+ * @param dashboard the dashboard
+ */
+function dashboard_flush(dashboard) {
+	var pending = dashboard.pending;
+	var reads = [];
+	var offset = 0;
+
+	dashboard.pending = [];
+	dashboard.timer = null;
+
+	jQuery.each(pending, function(index, read) {
+		reads.push({ id: read.id, url: read.url });
+	});
+
+	var dispatch = function(text, last) {
+		var lines = text.substring(offset).split('\n');
+
+		for (var i = 0; i < lines.length - (last ? 0 : 1); i++) {
+			offset += lines[i].length + 1;
+
+			var fields = lines[i].split('\t');
+
+			for (var j = 0; j < pending.length; j++) {
+				if (pending[j] && pending[j].id === fields[0]) {
+					var read = pending[j];
+					pending[j] = null;
+
+					if (fields[1] === 'ok') {
+						read.complete(200, 'success', { text: fields.slice(2).join('\t') }, 'Content-Type: application/json');
+					} else {
+						dashboard_fallback(read);
+					}
+				}
+			}
+		}
+	};
+
+	jQuery.ajax({
+		url: dashboard.url,
+		type: 'POST',
+		dataType: 'text',
+		cache: false,
+		data: { token: dashboard.token, reads: JSON.stringify(reads) },
+		xhrFields: {
+			onprogress: function(e) {
+				dispatch(e.target.responseText, false);
+			}
+		}
+	}).done(function(text) {
+		dispatch(text, true);
+	}).always(function() {
+		jQuery.each(pending, function(index, read) {
+			if (read) {
+				dashboard_fallback(read); // missing or failed result
+			}
+		});
+	});
+}
+
+/**
+ * Issues a regular request for a read that has not been served by the combined request
+ *
+ * @param read the read
+ */
+function dashboard_fallback(read) {
+	jQuery.ajax({ url: read.url, dataType: 'text', cache: false }).done(function(text, status, xhr) {
+		read.complete(200, 'success', { text: text }, xhr.getAllResponseHeaders());
+	}).fail(function(xhr, status, error) {
+		read.complete(xhr.status || 500, error || status);
+	});
+}
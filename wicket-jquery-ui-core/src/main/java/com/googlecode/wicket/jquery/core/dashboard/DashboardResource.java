@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.dashboard;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.parameter.UrlRequestParametersAdapter;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.util.lang.Generics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+import com.googlecode.wicket.jquery.core.utils.WorkerContext;
+
+/**
+ * Provides the shared resource that serves the combined read of a dashboard.<br>
+ * The request supplies the dashboard {@code token} and the {@code reads} - a json array of {@code id} and {@code url} - that have been intercepted client-side. The corresponding {@link ICallbackSource}{@code s} are computed in parallel by the {@link DashboardService}, outside of the page lock; each result is streamed back as soon as it is available, as a line:
+ *
+ * <pre>
+ * id TAB status TAB response
+ * </pre>
+ *
+ * Where status is either {@code ok} or {@code error}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DashboardResource extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(DashboardResource.class);
+
+	private static final String OK = "ok";
+	private static final String ERROR = "error";
+
+	@Override
+	protected ResourceResponse newResourceResponse(Attributes attributes)
+	{
+		final ResourceResponse response = new ResourceResponse();
+		final IRequestParameters parameters = attributes.getRequest().getRequestParameters();
+		final String token = parameters.getParameterValue("token").toOptionalString();
+		final Map<String, ICallbackSource> sources = Session.exists() ? DashboardService.get().consume(Session.get().getId(), token) : null;
+
+		if (sources == null)
+		{
+			response.setError(HttpURLConnection.HTTP_NOT_FOUND);
+
+			return response;
+		}
+
+		final JSONArray reads = new JSONArray(parameters.getParameterValue("reads").toString("[]"));
+
+		response.setContentType("text/plain");
+		response.setTextEncoding("UTF-8");
+		response.disableCaching();
+		response.setWriteCallback(new WriteCallback() {
+
+			@Override
+			public void writeData(Attributes attributes) throws IOException
+			{
+				DashboardResource.this.write(attributes.getResponse(), sources, reads);
+			}
+		});
+
+		return response;
+	}
+
+	/**
+	 * Computes the reads in parallel, and writes each result as soon as it is available<br>
+	 * The reads that are not completed by the deadline are cancelled
+	 *
+	 * @param response the {@link Response}
+	 * @param sources the {@link ICallbackSource}{@code s}, by id
+	 * @param reads the reads
+	 */
+	private void write(Response response, Map<String, ICallbackSource> sources, JSONArray reads)
+	{
+		final DashboardService service = DashboardService.get();
+		final CompletionService<Result> completion = new ExecutorCompletionService<Result>(service.getExecutor());
+		final long deadline = System.currentTimeMillis() + service.getTimeout().getMilliseconds();
+		final List<Future<Result>> futures = Generics.newArrayList();
+
+		for (int i = 0; i < reads.length(); i++)
+		{
+			JSONObject read = reads.getJSONObject(i);
+			ICallbackSource source = sources.get(read.optString("id"));
+
+			if (source != null)
+			{
+				futures.add(completion.submit(new Read(read.optString("id"), source, read.optString("url"))));
+			}
+		}
+
+		for (int i = 0; i < futures.size(); i++)
+		{
+			try
+			{
+				Future<Result> future = completion.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+
+				if (future == null)
+				{
+					break; // timeout, remaining reads are re-issued by the client
+				}
+
+				Result result = future.get();
+				response.write(String.format("%s\t%s\t%s\n", result.id, result.status, result.text));
+
+				if (response instanceof WebResponse)
+				{
+					((WebResponse) response).flush();
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch (Exception e)
+			{
+				LOG.error(e.getMessage(), e);
+			}
+		}
+
+		// cancels the reads that are still running (timeout, interruption) //
+		for (Future<Result> future : futures)
+		{
+			future.cancel(true);
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the result of a read
+	 */
+	private static class Result
+	{
+		private final String id;
+		private final String status;
+		private final String text;
+
+		public Result(String id, String status, String text)
+		{
+			this.id = id;
+			this.status = status;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Provides the task that computes a read, on behalf of the requesting application and session's locale
+	 */
+	private static class Read implements Callable<Result>
+	{
+		private final String id;
+		private final ICallbackSource source;
+		private final String url;
+		private final WorkerContext context;
+
+		public Read(String id, ICallbackSource source, String url)
+		{
+			this.id = id;
+			this.source = source;
+			this.url = url;
+			this.context = new WorkerContext();
+		}
+
+		@Override
+		public Result call() throws Exception
+		{
+			ThreadContext previous = this.context.attach();
+
+			try
+			{
+				IRequestParameters parameters = new UrlRequestParametersAdapter(Url.parse(this.url));
+
+				return new Result(this.id, OK, this.source.getResponse(parameters).replace('\n', ' '));
+			}
+			catch (Exception e)
+			{
+				LOG.error(e.getMessage(), e);
+
+				return new Result(this.id, ERROR, "");
+			}
+			finally
+			{
+				WorkerContext.detach(previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.dashboard;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IApplicationListener;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+
+/**
+ * Provides the application-wide service that runs the {@link ICallbackSource}{@code s} of dashboards, in parallel, on a bounded executor.<br>
+ * Sources are registered at page render time, under a token, and are consumed by the first dashboard read of that token. Sources that are not read within the time-to-live are purged.<br>
+ * When all workers are busy and the queue is full, the source is computed by the requesting thread (backpressure).<br>
+ * <br>
+ * The service is lazily installed with default settings by {@link #get()}; a custom service can be installed beforehand, ie: in {@code Application#init()}:
+ *
+ * <pre>
+ * DashboardService.install(this, new DashboardService(8, 64, Duration.seconds(30), Duration.minutes(2)));
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DashboardService implements IApplicationListener
+{
+	private static final MetaDataKey<DashboardService> KEY = new MetaDataKey<DashboardService>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/** default number of workers */
+	private static final int THREADS = 4;
+
+	/** default number of queued sources */
+	private static final int CAPACITY = 32;
+
+	/** default max duration of a source computation */
+	private static final Duration TIMEOUT = Duration.seconds(30);
+
+	/** default time-to-live of registered sources */
+	private static final Duration TTL = Duration.minutes(1);
+
+	private final Duration timeout;
+	private final Duration ttl;
+	private final ExecutorService executor;
+	private final ConcurrentMap<String, Registration> registrations;
+
+	/**
+	 * Constructor
+	 */
+	public DashboardService()
+	{
+		this(THREADS, CAPACITY, TIMEOUT, TTL);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads the number of workers
+	 * @param capacity the max number of queued sources
+	 * @param timeout the max duration of a source computation
+	 * @param ttl the time-to-live of registered sources
+	 */
+	public DashboardService(int threads, int capacity, Duration timeout, Duration ttl)
+	{
+		this.timeout = Args.notNull(timeout, "timeout");
+		this.ttl = Args.notNull(ttl, "ttl");
+		this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(capacity), new DashboardThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+		this.registrations = new ConcurrentHashMap<String, Registration>();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the executor
+	 *
+	 * @return the {@link ExecutorService}
+	 */
+	public ExecutorService getExecutor()
+	{
+		return this.executor;
+	}
+
+	/**
+	 * Gets the max duration of a source computation
+	 *
+	 * @return the timeout
+	 */
+	public Duration getTimeout()
+	{
+		return this.timeout;
+	}
+
+	// Methods //
+
+	/**
+	 * Registers the sources of a dashboard
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param sources the {@link ICallbackSource}{@code s}, by id
+	 * @return the token
+	 */
+	public String register(String owner, Map<String, ICallbackSource> sources)
+	{
+		this.purge();
+
+		String token = UUID.randomUUID().toString();
+		this.registrations.put(token, new Registration(owner, sources, System.currentTimeMillis() + this.ttl.getMilliseconds()));
+
+		return token;
+	}
+
+	/**
+	 * Consumes the sources registered under the supplied token
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param token the token
+	 * @return the {@link ICallbackSource}{@code s}, by id, or {@code null} if the token is unknown, expired or not owned by the owner
+	 */
+	public Map<String, ICallbackSource> consume(String owner, String token)
+	{
+		Registration registration = token != null ? this.registrations.remove(token) : null;
+
+		if (registration != null && registration.owner.equals(owner) && !registration.isExpired())
+		{
+			return registration.sources;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes expired registrations
+	 */
+	public void purge()
+	{
+		for (Iterator<Registration> iterator = this.registrations.values().iterator(); iterator.hasNext();)
+		{
+			if (iterator.next().isExpired())
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Shuts the service down
+	 */
+	public void shutdown()
+	{
+		this.executor.shutdownNow();
+		this.registrations.clear();
+	}
+
+	// Events //
+
+	@Override
+	public void onAfterInitialized(Application application)
+	{
+		// noop
+	}
+
+	@Override
+	public void onBeforeDestroyed(Application application)
+	{
+		this.shutdown();
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the {@link DashboardService} of the current application, installing a default one if needed
+	 *
+	 * @return the {@code DashboardService}
+	 */
+	public static DashboardService get()
+	{
+		return DashboardService.get(Application.get());
+	}
+
+	/**
+	 * Gets the {@link DashboardService} of the supplied application, installing a default one if needed
+	 *
+	 * @param application the {@link Application}
+	 * @return the {@code DashboardService}
+	 */
+	public static DashboardService get(Application application)
+	{
+		synchronized (application)
+		{
+			DashboardService service = application.getMetaData(KEY);
+
+			if (service == null)
+			{
+				service = new DashboardService();
+				DashboardService.install(application, service);
+			}
+
+			return service;
+		}
+	}
+
+	/**
+	 * Installs a {@link DashboardService}
+	 *
+	 * @param application the {@link Application}
+	 * @param service the {@code DashboardService}
+	 */
+	public static void install(Application application, DashboardService service)
+	{
+		synchronized (application)
+		{
+			application.setMetaData(KEY, service);
+			application.getApplicationListeners().add(service);
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the sources registered under a token
+	 */
+	private static class Registration
+	{
+		private final String owner;
+		private final Map<String, ICallbackSource> sources;
+		private final long expiration;
+
+		public Registration(String owner, Map<String, ICallbackSource> sources, long expiration)
+		{
+			this.owner = owner;
+			this.sources = sources;
+			this.expiration = expiration;
+		}
+
+		public boolean isExpired()
+		{
+			return System.currentTimeMillis() > this.expiration;
+		}
+	}
+
+	/**
+	 * Provides the {@link ThreadFactory} of dashboard workers
+	 */
+	private static class DashboardThreadFactory implements ThreadFactory
+	{
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, "dashboard-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
+}
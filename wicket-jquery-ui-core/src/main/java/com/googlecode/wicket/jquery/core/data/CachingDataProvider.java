@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.ISortState;
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.ISortStateLocator;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.filter.IFilterStateLocator;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+
+/**
+ * Provides an {@link IDataProvider} decorator that caches the pages and the size of the decorated provider in a {@link DataProviderCache}.<br>
+ * Entries are keyed by the region (which identifies the provider), the sort state, the filter state, the projection, and the requested range; so several widgets - or several users, if the scope is {@link Scope#APPLICATION} - sharing the same region share the same entries. If no region is supplied, the region is private to the decorator instance.<br>
+ * <br>
+ * The decorator is a {@link ISortStateLocator}, a {@link IFilterStateLocator} and a {@link IProjectionDataProvider} which delegates to the decorated provider, if it is applicable; otherwise {@link #getSortState()} and {@link #getFilterState()} return {@code null}.<br>
+ * <br>
+ * <b>Note:</b> pages are cached as lists of the objects returned by the decorated provider; with the {@link Scope#APPLICATION} scope these objects are shared between users, so they are expected to be immutable (ie: DTOs), and the region should be chosen explicitly. The sort and filter states should be {@link java.io.Serializable}, otherwise the cache is bypassed.<br>
+ * Pages of a {@link Scope#SESSION} cache are not cached when the provider is read outside of the session (ie: by a worker thread).<br>
+ * The sort, filter and projection state is read once per request, on the first call to {@link #size()} or {@link #iterator(long, long)}; it is read again after {@link #setFilterState(Object)}, {@link #setProjection(Set)} and {@link #detach()}.
+ *
+ * @param <T> the model object type
+ * @author Sebastien Briquet - sebfz1
+ */
+public class CachingDataProvider<T> implements IProjectionDataProvider<T>, ISortStateLocator<String>, IFilterStateLocator<Object>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Cache scope
+	 */
+	public enum Scope
+	{
+		/** entries are shared by all sessions */
+		APPLICATION,
+		/** entries are private to the current session */
+		SESSION
+	}
+
+	private final IDataProvider<T> provider;
+	private final String region;
+	private final Scope scope;
+
+	private Set<String> projection = null;
+
+	/** the state of the current request, see {@link #getState()} */
+	private transient byte[] state = null;
+	private transient boolean stateRead = false;
+
+	/**
+	 * Constructor, using a region that is private to this instance, and the {@link Scope#SESSION} scope<br>
+	 * The region is kept by copies of this instance (ie: once deserialized), so the entries are only shared by the widgets using this very decorator.
+	 *
+	 * @param provider the decorated {@link IDataProvider}
+	 */
+	public CachingDataProvider(IDataProvider<T> provider)
+	{
+		this(provider, CachingDataProvider.newRegion(provider), Scope.SESSION);
+	}
+
+	/**
+	 * Constructor, using the {@link Scope#SESSION} scope
+	 *
+	 * @param provider the decorated {@link IDataProvider}
+	 * @param region the region, which identifies the provider
+	 */
+	public CachingDataProvider(IDataProvider<T> provider, String region)
+	{
+		this(provider, region, Scope.SESSION);
+	}
+
+	/**
+	 * Constructor<br>
+	 * <b>Caution:</b> with the {@link Scope#APPLICATION} scope, entries of the region are visible to all users; the region should therefore not be shared by providers returning user-specific rows.
+	 *
+	 * @param provider the decorated {@link IDataProvider}
+	 * @param region the region, which identifies the provider
+	 * @param scope the {@link Scope}
+	 */
+	public CachingDataProvider(IDataProvider<T> provider, String region, Scope scope)
+	{
+		this.provider = Args.notNull(provider, "provider");
+		this.region = Args.notNull(region, "region");
+		this.scope = Args.notNull(scope, "scope");
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the decorated {@link IDataProvider}
+	 *
+	 * @return the {@code IDataProvider}
+	 */
+	public IDataProvider<T> getDataProvider()
+	{
+		return this.provider;
+	}
+
+	/**
+	 * Gets the region
+	 *
+	 * @return the region
+	 */
+	public String getRegion()
+	{
+		return this.region;
+	}
+
+	/**
+	 * Gets the {@link DataProviderCache}, according to the {@link Scope}
+	 *
+	 * @return the {@code DataProviderCache}, or {@code null} if the scope is {@link Scope#SESSION} and there is no session
+	 */
+	protected DataProviderCache getCache()
+	{
+		if (this.scope == Scope.SESSION)
+		{
+			return Session.exists() ? DataProviderCache.get(Session.get()) : null;
+		}
+
+		return DataProviderCache.get();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ISortState<String> getSortState()
+	{
+		if (this.provider instanceof ISortStateLocator<?>)
+		{
+			return ((ISortStateLocator<String>) this.provider).getSortState();
+		}
+
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object getFilterState()
+	{
+		if (this.provider instanceof IFilterStateLocator<?>)
+		{
+			return ((IFilterStateLocator<Object>) this.provider).getFilterState();
+		}
+
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void setFilterState(Object state)
+	{
+		if (this.provider instanceof IFilterStateLocator<?>)
+		{
+			((IFilterStateLocator<Object>) this.provider).setFilterState(state);
+		}
+
+		this.stateRead = false;
+	}
+
+	@Override
+	public void setProjection(Set<String> properties)
+	{
+		this.projection = properties;
+		this.stateRead = false;
+
+		if (this.provider instanceof IProjectionDataProvider<?>)
+		{
+			((IProjectionDataProvider<?>) this.provider).setProjection(properties);
+		}
+	}
+
+	// Methods //
+
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		final byte[] state = this.getRequestState();
+		final DataProviderCache cache = this.getCache();
+
+		if (state == null || cache == null)
+		{
+			return this.provider.iterator(first, count);
+		}
+
+		List<T> list = cache.get(new DataProviderCache.Key(this.region, state, first, count), new Callable<List<T>>() {
+
+			@Override
+			public List<T> call() throws Exception
+			{
+				return CachingDataProvider.toList(CachingDataProvider.this.provider.iterator(first, count));
+			}
+		});
+
+		return list.iterator();
+	}
+
+	@Override
+	public long size()
+	{
+		final byte[] state = this.getRequestState();
+		final DataProviderCache cache = this.getCache();
+
+		if (state == null || cache == null)
+		{
+			return this.provider.size();
+		}
+
+		return cache.get(new DataProviderCache.Key(this.region, state, -1, -1), new Callable<Long>() {
+
+			@Override
+			public Long call() throws Exception
+			{
+				return CachingDataProvider.this.provider.size();
+			}
+		});
+	}
+
+	@Override
+	public IModel<T> model(T object)
+	{
+		return this.provider.model(object);
+	}
+
+	/**
+	 * Invalidates the entries of the region, so next calls will hit the decorated provider
+	 */
+	public void invalidate()
+	{
+		DataProviderCache cache = this.getCache();
+
+		if (cache != null)
+		{
+			cache.invalidate(this.region);
+		}
+	}
+
+	@Override
+	public void detach()
+	{
+		this.projection = null;
+		this.state = null;
+		this.stateRead = false;
+		this.provider.detach();
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the sort, filter and projection state, serialized as the part of the cache key
+	 *
+	 * @return the state, or {@code null} if the state is not serializable
+	 */
+	protected byte[] getState()
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try
+		{
+			ObjectOutputStream stream = new ObjectOutputStream(output);
+			stream.writeObject(this.getSortState());
+			stream.writeObject(this.getFilterState());
+			stream.writeObject(this.projection != null ? new ArrayList<String>(this.projection) : null);
+			stream.close();
+		}
+		catch (IOException e)
+		{
+			return null; // not serializable, the cache is bypassed
+		}
+
+		return output.toByteArray();
+	}
+
+	/**
+	 * Gets the state of the current request, serializing it on first call only
+	 *
+	 * @return the state, or {@code null} if the state is not serializable
+	 */
+	private byte[] getRequestState()
+	{
+		if (!this.stateRead)
+		{
+			this.state = this.getState();
+			this.stateRead = true;
+		}
+
+		return this.state;
+	}
+
+	/**
+	 * Gets a new region, which is private to a decorator instance
+	 *
+	 * @param provider the decorated {@link IDataProvider}
+	 * @return the region
+	 */
+	private static String newRegion(IDataProvider<?> provider)
+	{
+		return Args.notNull(provider, "provider").getClass().getName() + "@" + UUID.randomUUID();
+	}
+
+	/**
+	 * Copies the iterator's items to a new list
+	 *
+	 * @param iterator the {@link Iterator}, which may be {@code null}
+	 * @return a new {@link List}
+	 */
+	private static <T> List<T> toList(Iterator<? extends T> iterator)
+	{
+		if (iterator == null)
+		{
+			return Collections.emptyList();
+		}
+
+		List<T> list = Generics.newArrayList();
+
+		while (iterator.hasNext())
+		{
+			list.add(iterator.next());
+		}
+
+		return list;
+	}
+}
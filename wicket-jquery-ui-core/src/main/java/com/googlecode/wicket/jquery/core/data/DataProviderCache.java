@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.data;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Session;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.time.Duration;
+
+/**
+ * Provides a bounded LRU cache of data-provider results, with a time-to-live, used by {@link CachingDataProvider}.<br>
+ * Concurrent requests for the same {@link Key} are de-duplicated: only the first one loads the value, the others wait for its result (single-flight).<br>
+ * <br>
+ * An application-wide cache is lazily installed with default settings by {@link #get()}; a custom cache can be installed beforehand, ie: in {@code Application#init()}:
+ *
+ * <pre>
+ * DataProviderCache.install(this, new DataProviderCache(1000, Duration.minutes(5)));
+ * </pre>
+ *
+ * Session-wide caches are created on demand by {@link #get(Session)}, with the settings of the application-wide cache.<br>
+ * <br>
+ * <b>Note:</b> entries are not serialized; a session-wide cache is empty after the session has been deserialized.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DataProviderCache implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final MetaDataKey<DataProviderCache> APPLICATION_KEY = new MetaDataKey<DataProviderCache>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	private static final MetaDataKey<DataProviderCache> SESSION_KEY = new MetaDataKey<DataProviderCache>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/** default max number of entries */
+	private static final int CAPACITY = 256;
+
+	/** default time-to-live of entries */
+	private static final Duration TTL = Duration.seconds(60);
+
+	private final int capacity;
+	private final Duration ttl;
+
+	private transient Map<Key, CacheEntry> entries = null;
+	private transient Map<Key, FutureTask<?>> flights = null;
+	private transient long generation = 0;
+
+	/**
+	 * Constructor
+	 */
+	public DataProviderCache()
+	{
+		this(CAPACITY, TTL);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity the max number of entries
+	 * @param ttl the time-to-live of entries
+	 */
+	public DataProviderCache(int capacity, Duration ttl)
+	{
+		this.capacity = capacity;
+		this.ttl = Args.notNull(ttl, "ttl");
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the max number of entries
+	 *
+	 * @return the max number of entries
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Gets the time-to-live of entries
+	 *
+	 * @return the time-to-live
+	 */
+	public Duration getTimeToLive()
+	{
+		return this.ttl;
+	}
+
+	/**
+	 * Gets the number of entries, including expired ones that have not been evicted yet
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size()
+	{
+		return this.getEntries().size();
+	}
+
+	private Map<Key, CacheEntry> getEntries()
+	{
+		if (this.entries == null)
+		{
+			this.entries = new LruMap(this.capacity);
+		}
+
+		return this.entries;
+	}
+
+	private Map<Key, FutureTask<?>> getFlights()
+	{
+		if (this.flights == null)
+		{
+			this.flights = Generics.newHashMap();
+		}
+
+		return this.flights;
+	}
+
+	// Methods //
+
+	/**
+	 * Gets the value associated to the supplied key, loading it if it is not cached or if it has expired.<br>
+	 * If the same key is already being loaded by another thread, the current thread waits for that result instead of loading it again.
+	 *
+	 * @param <V> the type of the value
+	 * @param key the {@link Key}
+	 * @param loader the {@link Callable} that loads the value
+	 * @return the value
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(Key key, Callable<V> loader)
+	{
+		FutureTask<?> task;
+		boolean leader = false;
+		long current;
+
+		synchronized (this)
+		{
+			CacheEntry entry = this.getEntries().get(key);
+
+			if (entry != null)
+			{
+				if (!entry.isExpired())
+				{
+					return (V) entry.value;
+				}
+
+				this.getEntries().remove(key);
+			}
+
+			current = this.generation;
+			task = this.getFlights().get(key);
+
+			if (task == null)
+			{
+				task = new FutureTask<V>(loader);
+				this.getFlights().put(key, task);
+				leader = true;
+			}
+		}
+
+		if (leader)
+		{
+			try
+			{
+				task.run();
+			}
+			finally
+			{
+				synchronized (this)
+				{
+					this.getFlights().remove(key);
+
+					// the value is not kept if the cache has been invalidated while loading //
+					if (current == this.generation && DataProviderCache.isSuccessful(task))
+					{
+						this.getEntries().put(key, new CacheEntry(DataProviderCache.getResult(task), System.currentTimeMillis() + this.ttl.getMilliseconds()));
+					}
+				}
+			}
+		}
+
+		return (V) DataProviderCache.getResult(task);
+	}
+
+	/**
+	 * Invalidates all entries
+	 */
+	public synchronized void invalidate()
+	{
+		this.getEntries().clear();
+		this.generation++;
+	}
+
+	/**
+	 * Invalidates the entries of the supplied region
+	 *
+	 * @param region the region (ie: the name of a {@link CachingDataProvider})
+	 */
+	public synchronized void invalidate(String region)
+	{
+		Iterator<Key> iterator = this.getEntries().keySet().iterator();
+
+		while (iterator.hasNext())
+		{
+			if (iterator.next().region.equals(region))
+			{
+				iterator.remove();
+			}
+		}
+
+		this.generation++;
+	}
+
+	/**
+	 * Evicts expired entries
+	 */
+	public synchronized void purge()
+	{
+		Iterator<CacheEntry> iterator = this.getEntries().values().iterator();
+
+		while (iterator.hasNext())
+		{
+			if (iterator.next().isExpired())
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	// Helpers //
+
+	/**
+	 * Indicates whether the (done) task has completed normally
+	 *
+	 * @param task the {@link FutureTask}
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean isSuccessful(FutureTask<?> task)
+	{
+		try
+		{
+			task.get();
+
+			return true;
+		}
+		catch (Exception e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the result of the task, waiting for its completion if needed
+	 *
+	 * @param task the {@link FutureTask}
+	 * @return the result
+	 */
+	private static Object getResult(FutureTask<?> task)
+	{
+		try
+		{
+			return task.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new WicketRuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+
+			throw new WicketRuntimeException(cause);
+		}
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the {@link DataProviderCache} of the current application, installing a default one if needed
+	 *
+	 * @return the {@code DataProviderCache}
+	 */
+	public static DataProviderCache get()
+	{
+		return DataProviderCache.get(Application.get());
+	}
+
+	/**
+	 * Gets the {@link DataProviderCache} of the supplied application, installing a default one if needed
+	 *
+	 * @param application the {@link Application}
+	 * @return the {@code DataProviderCache}
+	 */
+	public static DataProviderCache get(Application application)
+	{
+		synchronized (application)
+		{
+			DataProviderCache cache = application.getMetaData(APPLICATION_KEY);
+
+			if (cache == null)
+			{
+				cache = new DataProviderCache();
+				DataProviderCache.install(application, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Gets the {@link DataProviderCache} of the supplied session, creating one if needed
+	 *
+	 * @param session the {@link Session}
+	 * @return the {@code DataProviderCache}
+	 */
+	public static DataProviderCache get(Session session)
+	{
+		synchronized (session)
+		{
+			DataProviderCache cache = session.getMetaData(SESSION_KEY);
+
+			if (cache == null)
+			{
+				DataProviderCache settings = DataProviderCache.get(session.getApplication());
+
+				cache = new DataProviderCache(settings.getCapacity(), settings.getTimeToLive());
+				session.setMetaData(SESSION_KEY, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Installs a {@link DataProviderCache} as the application-wide cache
+	 *
+	 * @param application the {@link Application}
+	 * @param cache the {@code DataProviderCache}
+	 */
+	public static void install(Application application, DataProviderCache cache)
+	{
+		synchronized (application)
+		{
+			application.setMetaData(APPLICATION_KEY, cache);
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the key of a cached value
+	 */
+	public static final class Key
+	{
+		private final String region;
+		private final byte[] state;
+		private final long first;
+		private final long count;
+
+		/**
+		 * Constructor
+		 *
+		 * @param region the region (ie: the name of a {@link CachingDataProvider})
+		 * @param state the serialized sort, filter and projection state
+		 * @param first the first row index, or {@code -1} for the size
+		 * @param count the number of rows, or {@code -1} for the size
+		 */
+		public Key(String region, byte[] state, long first, long count)
+		{
+			this.region = Args.notNull(region, "region");
+			this.state = state;
+			this.first = first;
+			this.count = count;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = this.region.hashCode();
+			hash = 31 * hash + Arrays.hashCode(this.state);
+			hash = 31 * hash + (int) (this.first ^ (this.first >>> 32));
+			hash = 31 * hash + (int) (this.count ^ (this.count >>> 32));
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (this == object)
+			{
+				return true;
+			}
+
+			if (object instanceof Key)
+			{
+				Key key = (Key) object;
+
+				return this.first == key.first && this.count == key.count && this.region.equals(key.region) && Arrays.equals(this.state, key.state);
+			}
+
+			return false;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s[%d, %d]", this.region, this.first, this.count);
+		}
+	}
+
+	/**
+	 * Provides a cached value, with its expiration time
+	 */
+	private static class CacheEntry
+	{
+		private final Object value;
+		private final long expiration;
+
+		public CacheEntry(Object value, long expiration)
+		{
+			this.value = value;
+			this.expiration = expiration;
+		}
+
+		public boolean isExpired()
+		{
+			return System.currentTimeMillis() > this.expiration;
+		}
+	}
+
+	/**
+	 * Provides a LRU of {@link CacheEntry}{@code s}
+	 */
+	private static class LruMap extends LinkedHashMap<Key, CacheEntry>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		public LruMap(int capacity)
+		{
+			super(16, 0.75f, true); // access-order
+
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Entry<Key, CacheEntry> eldest)
+		{
+			return this.size() > this.capacity;
+		}
+	}
+}
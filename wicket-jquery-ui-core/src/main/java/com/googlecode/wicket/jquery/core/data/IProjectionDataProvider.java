@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.data;
+
+import java.util.Set;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+
+/**
+ * Specifies an {@link IDataProvider} that is aware of the properties actually required by the widget it feeds.<br>
+ * The projection is supplied before {@link IDataProvider#iterator(long, long)} is called, so implementations can run narrow queries (ie: a {@code SELECT} of the required columns only, or a DTO projection) instead of loading full entities.
+ *
+ * @param <T> the model object type
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IProjectionDataProvider<T> extends IDataProvider<T>
+{
+	/**
+	 * Sets the property paths (ie: "mybean.myproperty") that are required by the next call(s) to {@link IDataProvider#iterator(long, long)}<br>
+	 * An empty set means that the projection is unknown, so all properties are required.
+	 *
+	 * @param properties the set of property paths
+	 */
+	void setProjection(Set<String> properties);
+}
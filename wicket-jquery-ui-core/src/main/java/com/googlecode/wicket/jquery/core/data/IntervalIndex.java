@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+
+/**
+ * Provides a thread-safe index of values by interval, answering range-overlap queries in O(log n + k)<br>
+ * Intervals are half-open ({@code [start, end)}) and are expressed as {@code long}{@code s} (ie: epoch millis); an empty interval ({@code end <= start}) is treated as an instant.<br>
+ * <br>
+ * The index is an augmented interval tree, laid out as a sorted array, in which each node holds the max end of its subtree. Reads are lock-free on an immutable snapshot; updates are serialized and publish a new snapshot (copy-on-write), which suits read-mostly data like calendar events.<br>
+ * <br>
+ * <b>Note:</b> the index is not serializable; it is intended to be held by an application-scoped store, not by a page.
+ *
+ * @param <T> the value type
+ * @author Sebastien Briquet - sebfz1
+ */
+public class IntervalIndex<T>
+{
+	private volatile Snapshot<T> snapshot;
+
+	/**
+	 * Constructor
+	 */
+	public IntervalIndex()
+	{
+		this.snapshot = new Snapshot<T>(new ArrayList<Entry<T>>());
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the number of indexed values
+	 *
+	 * @return the size
+	 */
+	public int size()
+	{
+		return this.snapshot.entries.length;
+	}
+
+	/**
+	 * Gets the value indexed under the supplied key
+	 *
+	 * @param key the key
+	 * @return the value, or {@code null} if not found
+	 */
+	public T get(Object key)
+	{
+		Entry<T> entry = this.snapshot.keys.get(key);
+
+		return entry != null ? entry.value : null;
+	}
+
+	/**
+	 * Gets all values, ordered by start
+	 *
+	 * @return the list of values
+	 */
+	public List<T> values()
+	{
+		List<T> list = new ArrayList<T>(this.snapshot.entries.length);
+
+		for (Entry<T> entry : this.snapshot.entries)
+		{
+			list.add(entry.value);
+		}
+
+		return list;
+	}
+
+	// Methods //
+
+	/**
+	 * Finds the values which interval overlaps {@code [start, end)}, ordered by start
+	 *
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @return the list of values
+	 */
+	public List<T> find(long start, long end)
+	{
+		List<T> list = Generics.newArrayList();
+		Snapshot<T> current = this.snapshot; // consistent view
+
+		current.find(0, current.entries.length, start, end, list);
+
+		return list;
+	}
+
+	/**
+	 * Indexes a value, replacing the one indexed under the same key if any
+	 *
+	 * @param key the key (ie: the event id)
+	 * @param start the start of the interval
+	 * @param end the end of the interval
+	 * @param value the value
+	 */
+	public synchronized void put(Object key, long start, long end, T value)
+	{
+		Args.notNull(key, "key");
+
+		List<Entry<T>> entries = this.copy(key);
+		Entry<T> entry = new Entry<T>(key, start, Math.max(end, start + 1), value);
+
+		int index = Collections.binarySearch(entries, entry);
+		entries.add(index < 0 ? -(index + 1) : index, entry);
+
+		this.snapshot = new Snapshot<T>(entries);
+	}
+
+	/**
+	 * Removes the value indexed under the supplied key
+	 *
+	 * @param key the key
+	 * @return the removed value, or {@code null} if not found
+	 */
+	public synchronized T remove(Object key)
+	{
+		Entry<T> entry = this.snapshot.keys.get(key);
+
+		if (entry != null)
+		{
+			this.snapshot = new Snapshot<T>(this.copy(key));
+
+			return entry.value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes all values
+	 */
+	public synchronized void clear()
+	{
+		this.snapshot = new Snapshot<T>(new ArrayList<Entry<T>>());
+	}
+
+	/**
+	 * Gets a copy of the current entries, excluding the one indexed under the supplied key
+	 *
+	 * @param key the key to exclude
+	 * @return the list of entries
+	 */
+	private List<Entry<T>> copy(Object key)
+	{
+		List<Entry<T>> entries = new ArrayList<Entry<T>>(this.snapshot.entries.length + 1);
+
+		for (Entry<T> entry : this.snapshot.entries)
+		{
+			if (!entry.key.equals(key))
+			{
+				entries.add(entry);
+			}
+		}
+
+		return entries;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides an indexed value
+	 */
+	private static class Entry<T> implements Comparable<Entry<T>>
+	{
+		private final Object key;
+		private final long start;
+		private final long end;
+		private final T value;
+
+		public Entry(Object key, long start, long end, T value)
+		{
+			this.key = key;
+			this.start = start;
+			this.end = end;
+			this.value = value;
+		}
+
+		@Override
+		public int compareTo(Entry<T> other)
+		{
+			return this.start < other.start ? -1 : (this.start == other.start ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Provides an immutable state of the index<br>
+	 * Entries are sorted by start; the node of the range {@code [lo, hi)} is its middle entry, and {@code max} holds the max end of the node's subtree
+	 */
+	private static class Snapshot<T>
+	{
+		private final Entry<T>[] entries;
+		private final long[] max;
+		private final Map<Object, Entry<T>> keys;
+
+		@SuppressWarnings("unchecked")
+		public Snapshot(List<Entry<T>> list)
+		{
+			this.entries = list.toArray(new Entry[list.size()]);
+			this.max = new long[this.entries.length];
+			this.keys = new HashMap<Object, Entry<T>>(this.entries.length * 2);
+
+			for (Entry<T> entry : this.entries)
+			{
+				this.keys.put(entry.key, entry);
+			}
+
+			Arrays.fill(this.max, Long.MIN_VALUE);
+			this.augment(0, this.entries.length);
+		}
+
+		/**
+		 * Computes the max end of the subtree {@code [lo, hi)}
+		 *
+		 * @return the max end
+		 */
+		private long augment(int lo, int hi)
+		{
+			if (lo >= hi)
+			{
+				return Long.MIN_VALUE;
+			}
+
+			int mid = (lo + hi) >>> 1;
+			long value = Math.max(this.entries[mid].end, Math.max(this.augment(lo, mid), this.augment(mid + 1, hi)));
+			this.max[mid] = value;
+
+			return value;
+		}
+
+		/**
+		 * Collects the values of the subtree {@code [lo, hi)} overlapping {@code [start, end)}, in order
+		 */
+		private void find(int lo, int hi, long start, long end, List<T> list)
+		{
+			if (lo >= hi)
+			{
+				return;
+			}
+
+			int mid = (lo + hi) >>> 1;
+
+			if (this.max[mid] <= start)
+			{
+				return; // the whole subtree ends before the range
+			}
+
+			this.find(lo, mid, start, end, list);
+
+			Entry<T> entry = this.entries[mid];
+
+			if (entry.start < end)
+			{
+				if (entry.end > start)
+				{
+					list.add(entry.value);
+				}
+
+				this.find(mid + 1, hi, start, end, list); // right entries start after the node
+			}
+		}
+	}
+}
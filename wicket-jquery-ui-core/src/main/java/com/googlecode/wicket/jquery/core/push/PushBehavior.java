@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Component;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.Session;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.util.lang.Args;
+
+import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
+
+/**
+ * Provides the behavior that subscribes a component to a topic of the {@link PushService}<br>
+ * The page opens a single {@link PushChannel} - one connection - shared by all its subscribing components; each received message is applied client-side by the {@link #getPushStatement(Component)}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public abstract class PushBehavior extends Behavior
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final MetaDataKey<String> CHANNEL = new MetaDataKey<String>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	private final String topic;
+
+	/**
+	 * Constructor
+	 *
+	 * @param topic the topic to subscribe
+	 */
+	public PushBehavior(String topic)
+	{
+		this.topic = Args.notNull(topic, "topic");
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the subscribed topic
+	 *
+	 * @return the topic
+	 */
+	public String getTopic()
+	{
+		return this.topic;
+	}
+
+	/**
+	 * Gets the javascript statement that applies a pushed message, which is available as {@code message} variable.<br>
+	 * The message has a {@code topic}, a {@code sequence}, an {@code operation} - either 'create', 'update', 'destroy' or 'reset' - and the {@code data}.<br>
+	 * The 'reset' operation is received when messages have been dropped, and means that the data should be read again.
+	 *
+	 * @param component the bound {@link Component}
+	 * @return the javascript statement
+	 */
+	protected abstract String getPushStatement(Component component);
+
+	// Methods //
+
+	@Override
+	public void bind(Component component)
+	{
+		super.bind(component);
+
+		Application.get().getResourceReferenceRegistry().registerResourceReference(PushResourceReference.get());
+	}
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		PushChannel channel = PushBehavior.getChannel(component.getPage());
+		PushService.get().subscribe(channel, this.topic);
+
+		PageParameters parameters = new PageParameters().add("channel", channel.getId());
+		CharSequence url = RequestCycle.get().urlFor(PushResourceReference.get(), parameters);
+		String function = String.format("function(message) { %s }", this.getPushStatement(component));
+		String key = component.getMarkupId() + ":" + this.topic;
+
+		response.render(new JavaScriptPackageHeaderItem(PushBehavior.class));
+		response.render(OnDomReadyHeaderItem.forScript(String.format("push_subscribe('%s', '%s', %s, %s, %s);", url, channel.getId(), JSONObject.quote(key), JSONObject.quote(this.topic), function)));
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the {@link PushChannel} of the page, opening a new one if needed
+	 *
+	 * @param page the {@link Page}
+	 * @return the {@code PushChannel}
+	 */
+	private static PushChannel getChannel(Page page)
+	{
+		Session session = Session.get();
+		session.bind();
+
+		PushService service = PushService.get();
+		PushChannel channel = service.getChannel(session.getId(), page.getMetaData(CHANNEL));
+
+		if (channel == null)
+		{
+			channel = service.open(session.getId());
+			page.setMetaData(CHANNEL, channel.getId());
+		}
+
+		return channel;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+var push_channels = {};
+
+/**
+ * Subscribes a handler to a topic; the channel connection is opened once, and shared by all its handlers
+ *
+ * @param url the push resource url
+ * @param channel the channel id
+ * @param key the handler key
+ * @param topic the topic
+ * @param handler the function applying the message
+ */
+function push_subscribe(url, channel, key, topic, handler) {
+	var c = push_channels[channel];
+
+	if (!c) {
+		if (!window.EventSource) {
+			return; // not supported
+		}
+
+		c = push_channels[channel] = { handlers: {}, source: new EventSource(url) };
+
+		c.source.onmessage = function(e) {
+			var message = JSON.parse(e.data);
+			message.sequence = parseInt(e.lastEventId, 10); // the event id, which is the sequence number in the channel
+
+			push_dispatch(c, message); // messages of a channel are streamed in sequence order
+		};
+
+		c.source.addEventListener('reset', function() {
+			push_dispatch(c, { operation: 'reset' });
+		});
+	}
+
+	c.handlers[key] = { topic: topic, handler: handler };
+}
+
+/**
+ * Dispatches a message to the handlers of its topic, or to all handlers if the message has no topic
+ *
+ * @param c the channel
+ * @param message the message
+ */
+function push_dispatch(c, message) {
+	for (var key in c.handlers) {
+		if (c.handlers.hasOwnProperty(key)) {
+			var h = c.handlers[key];
+
+			if (!message.topic || message.topic === h.topic) {
+				try {
+					h.handler(message);
+				} catch (e) {
+					if (window.console) {
+						console.error(e);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.time.Duration;
+
+/**
+ * Provides the channel of a page, holding the pending {@link PushMessage}{@code s} of its subscribed topics<br>
+ * The queue is bounded: when a client does not keep up, pending messages are dropped and the channel is flagged for reset, so the subscribers re-read their data instead (backpressure).
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class PushChannel
+{
+	private final String id;
+	private final String owner;
+	private final Set<String> topics;
+	private final BlockingQueue<PushMessage> queue;
+
+	private volatile boolean reset = false;
+	private volatile long accessed;
+
+	/** the sequence number of the last offered message, guarded by the channel's lock */
+	private long sequence = 0;
+
+	/** the sequence number of the last message written to the client */
+	private volatile long written = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id the channel id
+	 * @param owner the owner (ie: the session id)
+	 * @param capacity the max number of pending messages
+	 */
+	public PushChannel(String id, String owner, int capacity)
+	{
+		this.id = id;
+		this.owner = owner;
+		this.topics = new CopyOnWriteArraySet<String>();
+		this.queue = new ArrayBlockingQueue<PushMessage>(capacity);
+		this.accessed = System.currentTimeMillis();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the channel id
+	 *
+	 * @return the id
+	 */
+	public String getId()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Gets the owner
+	 *
+	 * @return the owner
+	 */
+	public String getOwner()
+	{
+		return this.owner;
+	}
+
+	/**
+	 * Gets the subscribed topics
+	 *
+	 * @return the topics
+	 */
+	public Set<String> getTopics()
+	{
+		return this.topics;
+	}
+
+	/**
+	 * Gets the sequence number of the last message written to the client
+	 *
+	 * @return the sequence number, or {@code 0} if no message has been written
+	 */
+	public long getWritten()
+	{
+		return this.written;
+	}
+
+	/**
+	 * Sets the sequence number of the last message written to the client
+	 *
+	 * @param sequence the sequence number
+	 */
+	public void setWritten(long sequence)
+	{
+		this.written = sequence;
+	}
+
+	/**
+	 * Indicates whether the channel has not been accessed for the supplied duration
+	 *
+	 * @param ttl the time-to-live
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isExpired(Duration ttl)
+	{
+		return System.currentTimeMillis() - this.accessed > ttl.getMilliseconds();
+	}
+
+	// Methods //
+
+	/**
+	 * Marks the channel as accessed
+	 */
+	public void touch()
+	{
+		this.accessed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Offers a message to the channel<br>
+	 * The message is assigned the next sequence number of the channel, under the channel's lock, so the queue order is the sequence order even if messages are published concurrently.<br>
+	 * If the queue is full, pending messages are dropped and the channel is flagged for reset
+	 *
+	 * @param message the {@link PushMessage}
+	 */
+	public synchronized void offer(PushMessage message)
+	{
+		if (!this.queue.offer(new PushMessage(message, ++this.sequence)))
+		{
+			this.queue.clear();
+			this.reset = true;
+		}
+	}
+
+	/**
+	 * Waits for the pending messages
+	 *
+	 * @param timeout the max duration to wait for a first message
+	 * @return the pending messages, which may be empty
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public List<PushMessage> poll(Duration timeout) throws InterruptedException
+	{
+		List<PushMessage> messages = Generics.newArrayList();
+		PushMessage message = this.queue.poll(timeout.getMilliseconds(), TimeUnit.MILLISECONDS);
+
+		if (message != null)
+		{
+			messages.add(message);
+			this.queue.drainTo(messages);
+		}
+
+		this.touch();
+
+		return messages;
+	}
+
+	/**
+	 * Indicates whether the channel has been flagged for reset, and clears the flag
+	 *
+	 * @return {@code true} if messages have been dropped since last call
+	 */
+	public boolean reset()
+	{
+		boolean value = this.reset;
+		this.reset = false;
+
+		return value;
+	}
+}
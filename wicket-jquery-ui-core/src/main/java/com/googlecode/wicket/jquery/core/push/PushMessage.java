@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Provides a message published to a topic of the {@link PushService}<br>
+ * The message is serialized once, when created; the same payload is then shared by all subscribers of the topic.<br>
+ * The sequence number is not part of the payload: it is assigned by each {@link PushChannel} the message is offered to, and is sent as the event id.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class PushMessage
+{
+	/**
+	 * Operation applied by the subscribers
+	 */
+	public enum Operation
+	{
+		CREATE, UPDATE, DESTROY;
+
+		@Override
+		public String toString()
+		{
+			return this.name().toLowerCase();
+		}
+	}
+
+	private final String topic;
+	private final long sequence;
+	private final String payload;
+
+	/**
+	 * Constructor
+	 *
+	 * @param topic the topic
+	 * @param operation the {@link Operation}
+	 * @param data the data, as json object or json array string
+	 */
+	public PushMessage(String topic, Operation operation, String data)
+	{
+		this.topic = Args.notNull(topic, "topic");
+		this.sequence = 0;
+		this.payload = PushMessage.toPayload(topic, Args.notNull(operation, "operation"), Args.notNull(data, "data"));
+	}
+
+	/**
+	 * Constructor, sharing the payload of the supplied message
+	 *
+	 * @param message the {@link PushMessage}
+	 * @param sequence the sequence number, in the channel
+	 */
+	PushMessage(PushMessage message, long sequence)
+	{
+		this.topic = message.topic;
+		this.sequence = sequence;
+		this.payload = message.payload;
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the topic
+	 *
+	 * @return the topic
+	 */
+	public String getTopic()
+	{
+		return this.topic;
+	}
+
+	/**
+	 * Gets the sequence number, in the channel the message has been offered to
+	 *
+	 * @return the sequence number, or {@code 0} if the message has not been offered to a channel
+	 */
+	public long getSequence()
+	{
+		return this.sequence;
+	}
+
+	/**
+	 * Gets the serialized message, as json object string
+	 *
+	 * @return the payload
+	 */
+	public String getPayload()
+	{
+		return this.payload;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.payload;
+	}
+
+	// Helpers //
+
+	/**
+	 * Serializes the message
+	 *
+	 * @param topic the topic
+	 * @param operation the {@link Operation}
+	 * @param data the data, as json string
+	 * @return the json object string
+	 */
+	private static String toPayload(String topic, Operation operation, String data)
+	{
+		StringBuilder builder = new StringBuilder();
+
+		builder.append("{ \"topic\": ").append(JSONObject.quote(topic));
+		builder.append(", \"operation\": \"").append(operation).append('"');
+		builder.append(", \"data\": ").append(data).append(" }");
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.util.string.StringValue;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the shared resource that streams the messages of a {@link PushChannel}, as server-sent events.<br>
+ * The connection is held until the {@link PushService} timeout, then the client (EventSource) reconnects; messages published in the meantime are kept by the channel. A {@code reset} event is sent when messages have been dropped because the client did not keep up, or when the client reconnects without having received all the written messages ({@code Last-Event-ID}).<br>
+ * <br>
+ * <b>Note:</b> each open connection holds a request thread, so the servlet container should be sized accordingly.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class PushResource extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(PushResource.class);
+
+	/** heartbeat interval, keeps the connection open through proxies */
+	private static final Duration HEARTBEAT = Duration.seconds(10);
+
+	/** client reconnection delay, in milliseconds */
+	private static final int RETRY = 1000;
+
+	/** header supplied by the client on reconnection */
+	private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+	@Override
+	protected ResourceResponse newResourceResponse(Attributes attributes)
+	{
+		final ResourceResponse response = new ResourceResponse();
+		final String id = attributes.getRequest().getRequestParameters().getParameterValue("channel").toOptionalString();
+		final PushChannel channel = Session.exists() ? PushService.get().getChannel(Session.get().getId(), id) : null;
+		final long last = PushResource.getLastEventId(attributes.getRequest());
+
+		if (channel == null)
+		{
+			response.setError(HttpURLConnection.HTTP_NOT_FOUND);
+
+			return response;
+		}
+
+		response.setContentType("text/event-stream");
+		response.setTextEncoding("UTF-8");
+		response.disableCaching();
+		response.setWriteCallback(new WriteCallback() {
+
+			@Override
+			public void writeData(Attributes attributes) throws IOException
+			{
+				PushResource.this.write(attributes.getResponse(), channel, last);
+			}
+		});
+
+		return response;
+	}
+
+	/**
+	 * Streams the messages of the channel until the connection timeout
+	 *
+	 * @param response the {@link Response}
+	 * @param channel the {@link PushChannel}
+	 * @param last the sequence number of the last message received by the client, or {@code 0}
+	 */
+	private void write(Response response, PushChannel channel, long last)
+	{
+		final long deadline = System.currentTimeMillis() + PushService.get().getTimeout().getMilliseconds();
+		final long written = channel.getWritten();
+
+		response.write("retry: " + RETRY + "\n\n");
+
+		if (last < written)
+		{
+			// written messages have not been received, subscribers re-read their data //
+			response.write("id: " + written + "\nevent: reset\ndata: {}\n\n");
+		}
+
+		PushResource.flush(response);
+
+		try
+		{
+			while (System.currentTimeMillis() < deadline)
+			{
+				long remaining = Math.min(HEARTBEAT.getMilliseconds(), deadline - System.currentTimeMillis());
+				StringBuilder builder = new StringBuilder();
+
+				for (PushMessage message : channel.poll(Duration.milliseconds(Math.max(0, remaining))))
+				{
+					builder.append("id: ").append(message.getSequence()).append('\n');
+					PushResource.appendData(builder, message.getPayload());
+					channel.setWritten(message.getSequence());
+				}
+
+				if (channel.reset())
+				{
+					builder.insert(0, "event: reset\ndata: {}\n\n"); // subscribers re-read their data
+				}
+
+				if (builder.length() == 0)
+				{
+					builder.append(": heartbeat\n\n");
+				}
+
+				response.write(builder);
+				PushResource.flush(response);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (RuntimeException e)
+		{
+			LOG.debug("Push connection closed: {}", e.getMessage()); // ie: the client has gone away
+		}
+	}
+
+	// Helpers //
+
+	/**
+	 * Appends the data of an event, as one {@code data} field per line, so that line breaks of the payload do not end the event
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param payload the payload
+	 */
+	private static void appendData(StringBuilder builder, String payload)
+	{
+		for (String line : payload.split("\r\n|\r|\n", -1))
+		{
+			builder.append("data: ").append(line).append('\n');
+		}
+
+		builder.append('\n');
+	}
+
+	/**
+	 * Gets the sequence number of the last message received by the client, supplied on reconnection
+	 *
+	 * @param request the {@link Request}
+	 * @return the sequence number, or {@code 0} if not supplied
+	 */
+	private static long getLastEventId(Request request)
+	{
+		if (request instanceof WebRequest)
+		{
+			return StringValue.valueOf(((WebRequest) request).getHeader(LAST_EVENT_ID)).toLong(0L);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Flushes the response, if supported
+	 *
+	 * @param response the {@link Response}
+	 */
+	private static void flush(Response response)
+	{
+		if (response instanceof WebResponse)
+		{
+			((WebResponse) response).flush();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.ResourceReference;
+
+/**
+ * The resource reference of the {@link PushResource}.<br>
+ * The reference is registered by the {@link PushBehavior}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class PushResourceReference extends ResourceReference
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final PushResourceReference INSTANCE = new PushResourceReference();
+
+	/**
+	 * Gets the single instance of the resource reference
+	 *
+	 * @return the {@link PushResourceReference}
+	 */
+	public static PushResourceReference get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Private constructor
+	 */
+	private PushResourceReference()
+	{
+		super(PushResourceReference.class, "push");
+	}
+
+	@Override
+	public IResource getResource()
+	{
+		return new PushResource();
+	}
+}
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.push;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.core.push.PushMessage.Operation;
+
+/**
+ * Provides the application-wide publish/subscribe service of server-push updates.<br>
+ * Pages open a {@link PushChannel}, to which their widgets subscribe topics; server-side code publishes changes to a topic, and the resulting {@link PushMessage} - serialized once - is offered to the channels subscribing that topic. Channels are drained by the {@link PushResource} (server-sent events) and are purged when not accessed within the time-to-live.<br>
+ * <br>
+ * Expired channels are purged, at most once per half time-to-live, when channels are opened or accessed and when changes are published.<br>
+ * <br>
+ * The service is lazily installed with default settings by {@link #get()}; a custom service can be installed beforehand, ie: in {@code Application#init()}:
+ *
+ * <pre>
+ * PushService.install(this, new PushService(512, Duration.seconds(25), Duration.minutes(2)));
+ * </pre>
+ *
+ * Then, ie: from a service layer:
+ *
+ * <pre>
+ * PushService.get(application).publish("orders", Operation.UPDATE, json);
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class PushService
+{
+	private static final MetaDataKey<PushService> KEY = new MetaDataKey<PushService>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/** default max number of pending messages, per channel */
+	private static final int CAPACITY = 256;
+
+	/** default max duration of a connection */
+	private static final Duration TIMEOUT = Duration.seconds(25);
+
+	/** default time-to-live of channels */
+	private static final Duration TTL = Duration.minutes(2);
+
+	private final int capacity;
+	private final Duration timeout;
+	private final Duration ttl;
+	private final ConcurrentMap<String, PushChannel> channels;
+	private final ConcurrentMap<String, Set<PushChannel>> subscriptions;
+	private final AtomicLong purged;
+
+	/**
+	 * Constructor
+	 */
+	public PushService()
+	{
+		this(CAPACITY, TIMEOUT, TTL);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity the max number of pending messages, per channel
+	 * @param timeout the max duration of a connection, after which the client reconnects
+	 * @param ttl the time-to-live of channels
+	 */
+	public PushService(int capacity, Duration timeout, Duration ttl)
+	{
+		this.capacity = capacity;
+		this.timeout = Args.notNull(timeout, "timeout");
+		this.ttl = Args.notNull(ttl, "ttl");
+		this.channels = new ConcurrentHashMap<String, PushChannel>();
+		this.subscriptions = new ConcurrentHashMap<String, Set<PushChannel>>();
+		this.purged = new AtomicLong(System.currentTimeMillis());
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the max duration of a connection
+	 *
+	 * @return the timeout
+	 */
+	public Duration getTimeout()
+	{
+		return this.timeout;
+	}
+
+	// Methods //
+
+	/**
+	 * Opens a new {@link PushChannel}
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @return the {@code PushChannel}
+	 */
+	public PushChannel open(String owner)
+	{
+		this.purgeIfDue();
+
+		PushChannel channel = new PushChannel(UUID.randomUUID().toString(), owner, this.capacity);
+		this.channels.put(channel.getId(), channel);
+
+		return channel;
+	}
+
+	/**
+	 * Gets a {@link PushChannel}
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param id the channel id
+	 * @return the {@code PushChannel}, or {@code null} if not found, expired or not owned by the supplied owner
+	 */
+	public PushChannel getChannel(String owner, String id)
+	{
+		this.purgeIfDue();
+
+		PushChannel channel = id != null ? this.channels.get(id) : null;
+
+		if (channel != null && channel.getOwner().equals(owner) && !channel.isExpired(this.ttl))
+		{
+			return channel;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Subscribes a topic
+	 *
+	 * @param channel the {@link PushChannel}
+	 * @param topic the topic
+	 */
+	public void subscribe(PushChannel channel, String topic)
+	{
+		boolean added = false;
+
+		while (!added)
+		{
+			Set<PushChannel> set = this.subscriptions.get(topic);
+
+			if (set == null)
+			{
+				Set<PushChannel> value = Collections.newSetFromMap(new ConcurrentHashMap<PushChannel, Boolean>());
+				set = this.subscriptions.putIfAbsent(topic, value);
+
+				if (set == null)
+				{
+					set = value;
+				}
+			}
+
+			synchronized (set)
+			{
+				if (this.subscriptions.get(topic) == set) // otherwise, the set has been removed by close() as it was empty
+				{
+					set.add(channel);
+					added = true;
+				}
+			}
+		}
+
+		channel.getTopics().add(topic);
+		channel.touch();
+	}
+
+	/**
+	 * Closes a {@link PushChannel}
+	 *
+	 * @param channel the {@code PushChannel}
+	 */
+	public void close(PushChannel channel)
+	{
+		this.channels.remove(channel.getId());
+
+		for (String topic : channel.getTopics())
+		{
+			Set<PushChannel> set = this.subscriptions.get(topic);
+
+			if (set != null)
+			{
+				synchronized (set)
+				{
+					set.remove(channel);
+
+					if (set.isEmpty())
+					{
+						this.subscriptions.remove(topic, set);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Publishes a change to a topic
+	 *
+	 * @param topic the topic
+	 * @param operation the {@link Operation}
+	 * @param object the changed object
+	 */
+	public void publish(String topic, Operation operation, JSONObject object)
+	{
+		this.publish(topic, operation, object.toString());
+	}
+
+	/**
+	 * Publishes changes to a topic
+	 *
+	 * @param topic the topic
+	 * @param operation the {@link Operation}
+	 * @param array the changed objects
+	 */
+	public void publish(String topic, Operation operation, JSONArray array)
+	{
+		this.publish(topic, operation, array.toString());
+	}
+
+	/**
+	 * Publishes a change to a topic<br>
+	 * The message is serialized once, and offered to all channels subscribing the topic
+	 *
+	 * @param topic the topic
+	 * @param operation the {@link Operation}
+	 * @param data the changed object(s), as json object or json array string
+	 */
+	public void publish(String topic, Operation operation, String data)
+	{
+		this.purgeIfDue();
+
+		Set<PushChannel> set = this.subscriptions.get(topic);
+
+		if (set != null && !set.isEmpty())
+		{
+			PushMessage message = new PushMessage(topic, operation, data);
+
+			for (PushChannel channel : set)
+			{
+				channel.offer(message);
+			}
+		}
+	}
+
+	/**
+	 * Removes the channels that have expired
+	 */
+	public void purge()
+	{
+		for (PushChannel channel : this.channels.values())
+		{
+			if (channel.isExpired(this.ttl))
+			{
+				this.close(channel);
+			}
+		}
+	}
+
+	/**
+	 * Removes the channels that have expired, if the last purge is older than half the time-to-live
+	 */
+	private void purgeIfDue()
+	{
+		final long now = System.currentTimeMillis();
+		final long last = this.purged.get();
+
+		if (now - last > this.ttl.getMilliseconds() / 2 && this.purged.compareAndSet(last, now))
+		{
+			this.purge();
+		}
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the {@link PushService} of the current application, installing a default one if needed
+	 *
+	 * @return the {@code PushService}
+	 */
+	public static PushService get()
+	{
+		return PushService.get(Application.get());
+	}
+
+	/**
+	 * Gets the {@link PushService} of the supplied application, installing a default one if needed
+	 *
+	 * @param application the {@link Application}
+	 * @return the {@code PushService}
+	 */
+	public static PushService get(Application application)
+	{
+		synchronized (application)
+		{
+			PushService service = application.getMetaData(KEY);
+
+			if (service == null)
+			{
+				service = new PushService();
+				PushService.install(application, service);
+			}
+
+			return service;
+		}
+	}
+
+	/**
+	 * Installs a {@link PushService}
+	 *
+	 * @param application the {@link Application}
+	 * @param service the {@code PushService}
+	 */
+	public static void install(Application application, PushService service)
+	{
+		synchronized (application)
+		{
+			application.setMetaData(KEY, service);
+		}
+	}
+}
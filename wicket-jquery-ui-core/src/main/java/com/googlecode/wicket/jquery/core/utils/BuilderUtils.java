@@ -25,6 +25,8 @@ import org.apache.wicket.ajax.json.JSONObject;
  */
 public class BuilderUtils
 {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
 	/**
 	 * Utility class
 	 */
@@ -57,4 +59,67 @@ public class BuilderUtils
 	{
 		builder.append(JSONObject.quote(key)).append(": ").append(JSONObject.quote(value));
 	}
+
+	/**
+	 * Helper method that appends a quoted JSON string to the specified builder, without intermediate {@code String}<br>
+	 * This is equivalent to {@code builder.append(JSONObject.quote(value))}
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param value the value, {@code null} being appended as an empty string
+	 * @return the builder
+	 */
+	public static StringBuilder quote(StringBuilder builder, CharSequence value)
+	{
+		builder.append('"');
+
+		if (value != null)
+		{
+			for (int i = 0; i < value.length(); i++)
+			{
+				char c = value.charAt(i);
+
+				switch (c)
+				{
+				case '"':
+				case '\\':
+					builder.append('\\').append(c);
+					break;
+				case '/':
+					if (i > 0 && value.charAt(i - 1) == '<')
+					{
+						builder.append('\\');
+					}
+
+					builder.append(c);
+					break;
+				case '\b':
+					builder.append("\\b");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\f':
+					builder.append("\\f");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				default:
+					if (c < ' ')
+					{
+						builder.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+					}
+					else
+					{
+						builder.append(c);
+					}
+				}
+			}
+		}
+
+		return builder.append('"');
+	}
 }
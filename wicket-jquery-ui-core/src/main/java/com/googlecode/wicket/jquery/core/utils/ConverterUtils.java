@@ -19,7 +19,6 @@ package com.googlecode.wicket.jquery.core.utils;
 import java.util.Date;
 
 import org.apache.wicket.Application;
-import org.apache.wicket.Session;
 import org.apache.wicket.util.convert.IConverter;
 
 /**
@@ -54,7 +53,7 @@ public class ConverterUtils
 
 		if (converter != null)
 		{
-			value = converter.convertToString(object, Session.get().getLocale());
+			value = converter.convertToString(object, WorkerContext.getLocale());
 		}
 		else
 		{
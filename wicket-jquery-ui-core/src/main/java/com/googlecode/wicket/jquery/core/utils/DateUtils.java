@@ -157,6 +157,133 @@ public class DateUtils
 		return formatter.format(date);
 	}
 
+	/**
+	 * Appends the ISO8601/javascript representation (UTC) of a timestamp to the builder. ie: 2009-11-05T13:15:00.000Z<br>
+	 * This is equivalent to {@link #toUTCString(Date)}, without allocating any formatter.
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param time the timestamp
+	 * @return the builder
+	 */
+	public static StringBuilder appendUTCString(StringBuilder builder, long time)
+	{
+		final long day = 86400000L;
+
+		long days = time / day;
+		long millis = time % day;
+
+		if (millis < 0)
+		{
+			millis += day;
+			days--;
+		}
+
+		// civil date from days since epoch //
+		long z = days + 719468;
+		long era = (z >= 0 ? z : z - 146096) / 146097;
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		long d = doy - (153 * mp + 2) / 5 + 1;
+		long m = mp < 10 ? mp + 3 : mp - 9;
+		long y = yoe + era * 400 + (m <= 2 ? 1 : 0);
+
+		DateUtils.pad(builder, y, 4).append('-');
+		DateUtils.pad(builder, m, 2).append('-');
+		DateUtils.pad(builder, d, 2).append('T');
+		DateUtils.pad(builder, millis / 3600000, 2).append(':');
+		DateUtils.pad(builder, (millis / 60000) % 60, 2).append(':');
+		DateUtils.pad(builder, (millis / 1000) % 60, 2).append('.');
+		DateUtils.pad(builder, millis % 1000, 3).append('Z');
+
+		return builder;
+	}
+
+	/**
+	 * Appends the ISO8601 representation of a {@link LocalDateTime} to the builder, without intermediate {@code String}<br>
+	 * This is equivalent to {@link LocalDateTime#toString()}. ie: 2009-11-05T13:15, 2009-11-05T13:15:30, 2009-11-05T13:15:30.500
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param datetime the {@link LocalDateTime}
+	 * @return the builder
+	 */
+	public static StringBuilder appendISOString(StringBuilder builder, LocalDateTime datetime)
+	{
+		final int year = datetime.getYear();
+
+		if (year > 9999)
+		{
+			builder.append('+').append(year);
+		}
+		else if (year >= 0)
+		{
+			DateUtils.pad(builder, year, 4);
+		}
+		else if (year > -1000)
+		{
+			DateUtils.pad(builder.append('-'), -year, 4);
+		}
+		else
+		{
+			builder.append(year);
+		}
+
+		DateUtils.pad(builder.append('-'), datetime.getMonthValue(), 2);
+		DateUtils.pad(builder.append('-'), datetime.getDayOfMonth(), 2);
+		DateUtils.pad(builder.append('T'), datetime.getHour(), 2);
+		DateUtils.pad(builder.append(':'), datetime.getMinute(), 2);
+
+		final int second = datetime.getSecond();
+		final int nano = datetime.getNano();
+
+		if (second > 0 || nano > 0)
+		{
+			DateUtils.pad(builder.append(':'), second, 2);
+
+			if (nano > 0)
+			{
+				builder.append('.');
+
+				if (nano % 1000000 == 0)
+				{
+					DateUtils.pad(builder, nano / 1000000, 3);
+				}
+				else if (nano % 1000 == 0)
+				{
+					DateUtils.pad(builder, nano / 1000, 6);
+				}
+				else
+				{
+					DateUtils.pad(builder, nano, 9);
+				}
+			}
+		}
+
+		return builder;
+	}
+
+	/**
+	 * Appends a zero-padded number to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param value the number
+	 * @param digits the min number of digits
+	 * @return the builder
+	 */
+	private static StringBuilder pad(StringBuilder builder, long value, int digits)
+	{
+		for (long limit = 10; digits > 1; digits--, limit *= 10)
+		{
+			if (value < limit)
+			{
+				builder.append('0');
+			}
+		}
+
+		return builder.append(value);
+	}
+
 	/**
 	 * Adds the specified amount of hours to a date
 	 *
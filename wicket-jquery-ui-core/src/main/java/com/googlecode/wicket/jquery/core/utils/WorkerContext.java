@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.core.utils;
+
+import java.util.Locale;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Session;
+import org.apache.wicket.ThreadContext;
+
+/**
+ * Provides the context of a task that runs on a worker thread, on behalf of a request<br>
+ * The {@link Application} and the {@link Session}'s {@link Locale} are captured on the request thread; the {@code Session} itself, which is not thread-safe, is not made available to the worker.<br>
+ * <br>
+ * Usage:
+ *
+ * <pre>
+ * final WorkerContext context = new WorkerContext(); // request thread
+ *
+ * // worker thread
+ * ThreadContext previous = context.attach();
+ *
+ * try
+ * {
+ * 	// converters should use WorkerContext.getLocale()
+ * }
+ * finally
+ * {
+ * 	WorkerContext.detach(previous);
+ * }
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class WorkerContext
+{
+	private static final ThreadLocal<Locale> LOCALE = new ThreadLocal<Locale>();
+
+	private final Application application;
+	private final Locale locale;
+
+	/**
+	 * Constructor, which should be called on the request thread
+	 */
+	public WorkerContext()
+	{
+		this.application = Application.exists() ? Application.get() : null;
+		this.locale = WorkerContext.getLocale();
+	}
+
+	/**
+	 * Attaches the context to the current thread
+	 *
+	 * @return the previous {@link ThreadContext} of the thread, to be supplied to {@link #detach(ThreadContext)}
+	 */
+	public ThreadContext attach()
+	{
+		ThreadContext previous = ThreadContext.detach();
+
+		ThreadContext.setApplication(this.application);
+		LOCALE.set(this.locale);
+
+		return previous;
+	}
+
+	/**
+	 * Detaches the context from the current thread
+	 *
+	 * @param previous the {@link ThreadContext} returned by {@link #attach()}
+	 */
+	public static void detach(ThreadContext previous)
+	{
+		LOCALE.remove();
+		ThreadContext.restore(previous);
+	}
+
+	/**
+	 * Gets the {@link Locale} of the current thread: the captured locale on a worker thread, the {@link Session}'s locale on a request thread
+	 *
+	 * @return the {@code Locale}, or the default {@code Locale} if none
+	 */
+	public static Locale getLocale()
+	{
+		Locale locale = LOCALE.get();
+
+		if (locale != null)
+		{
+			return locale;
+		}
+
+		return Session.exists() ? Session.get().getLocale() : Locale.getDefault();
+	}
+}
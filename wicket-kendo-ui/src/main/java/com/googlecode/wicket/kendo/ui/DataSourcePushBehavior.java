@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.util.lang.Args;
+
+import com.googlecode.wicket.jquery.core.push.PushBehavior;
+import com.googlecode.wicket.jquery.core.push.PushService;
+
+/**
+ * Provides a {@link PushBehavior} that applies the pushed messages to the data-source of a Kendo UI widget<br>
+ * Messages are applied as {@code pushCreate}, {@code pushUpdate} and {@code pushDestroy} operations, so the widget is updated without any read; a 'reset' message triggers a {@code read}.<br>
+ * <br>
+ * Usage:
+ *
+ * <pre>
+ * table.add(new DataSourcePushBehavior("orders", DataTableBehavior.METHOD)); // rows, as sent by the DataTable
+ * chart.add(new DataSourcePushBehavior("sales", ChartBehavior.METHOD)); // series points
+ * scheduler.add(new DataSourcePushBehavior("meetings", SchedulerBehavior.METHOD)); // events, as converted by the ISchedulerConverter
+ *
+ * PushService.get().publish("orders", Operation.UPDATE, json);
+ * </pre>
+ *
+ * @see PushService
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DataSourcePushBehavior extends PushBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String method;
+
+	/**
+	 * Constructor
+	 *
+	 * @param topic the topic to subscribe
+	 * @param method the Kendo UI widget method (ie: {@code kendoGrid})
+	 */
+	public DataSourcePushBehavior(String topic, String method)
+	{
+		super(topic);
+
+		this.method = Args.notNull(method, "method");
+	}
+
+	@Override
+	protected String getPushStatement(Component component)
+	{
+		return String.format("var $w = %s; " // lf
+				+ "if ($w) { " // lf
+				+ "var ds = $w.dataSource; " // lf
+				+ "if (message.operation === 'reset') { ds.read(); } " // lf
+				+ "else { ds['push' + message.operation.charAt(0).toUpperCase() + message.operation.substring(1)](message.data); } " // lf
+				+ "}", KendoUIBehavior.widget(component, this.method));
+	}
+}
@@ -154,6 +154,17 @@ public class KendoDataSource extends Options implements IKendoDataSource
 		this.transport.set("destroy", function);
 	}
 
+	/**
+	 * Sets the 'transport.submit' callback function, used in batch mode to send all pending changes in one request
+	 *
+	 * @param function the javascript function
+	 * @see <a href="http://docs.telerik.com/kendo-ui/api/javascript/data/datasource/configuration/transport.submit">configuration-transport.submit</a>
+	 */
+	public void setTransportSubmit(String function)
+	{
+		this.transport.set("submit", function);
+	}
+
 	/**
 	 * Prepares the data-source to be rendered
 	 *
@@ -219,6 +230,31 @@ public class KendoDataSource extends Options implements IKendoDataSource
 				+ "	});" // lf
 				+ "}";
 	}
+
+	/**
+	 * Gets the {@code schema.parse} function that rebuilds the records of a compact response.<br>
+	 * A compact response provides the field names once, as {@code fields}, and the records as positional arrays, as {@code rows}; other responses are left unchanged
+	 *
+	 * @return the 'parse' function
+	 */
+	public static String getCompactParseFunction()
+	{
+		return "function(response) {" // lf
+				+ " if (response.fields && response.rows) {" // lf
+				+ "		var fields = response.fields, rows = response.rows, results = new Array(rows.length);" // lf
+				+ "		for (var i = 0; i < rows.length; i++) {" // lf
+				+ "			var row = rows[i], record = {};" // lf
+				+ "			for (var j = 0; j < fields.length; j++) {" // lf
+				+ "				record[fields[j]] = row[j];" // lf
+				+ "			}" // lf
+				+ "			results[i] = record;" // lf
+				+ "		}" // lf
+				+ "		response.results = results;" // lf
+				+ "		delete response.rows;" // lf
+				+ "	}" // lf
+				+ "	return response;" // lf
+				+ "}";
+	}
 	
 	// Classes //
 	
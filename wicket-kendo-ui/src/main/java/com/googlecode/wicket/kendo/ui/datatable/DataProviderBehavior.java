@@ -17,11 +17,13 @@
 package com.googlecode.wicket.kendo.ui.datatable;
 
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.Component;
-import org.apache.wicket.Session;
 import org.apache.wicket.ajax.json.JSONException;
 import org.apache.wicket.ajax.json.JSONArray;
 import org.apache.wicket.ajax.json.JSONObject;
@@ -36,10 +38,19 @@ import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.request.IRequestParameters;
 import org.apache.wicket.util.convert.ConversionException;
+import org.apache.wicket.util.lang.Generics;
 
 import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+import com.googlecode.wicket.jquery.core.data.IProjectionDataProvider;
+import com.googlecode.wicket.jquery.core.utils.WorkerContext;
+import com.googlecode.wicket.kendo.ui.datatable.column.AbstractColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.IdPropertyColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.PropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.group.GroupDescriptor;
+import com.googlecode.wicket.kendo.ui.datatable.group.GroupHeader;
+import com.googlecode.wicket.kendo.ui.datatable.group.IGroupDataProvider;
 import com.googlecode.wicket.kendo.ui.utils.PropertyUtils;
 
 /**
@@ -59,6 +70,12 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 	private final IDataProvider<T> provider;
 	private final IModel<List<IColumn>> columns;
 
+	/** the projection supplied to the provider, if any */
+	private transient Set<String> projection = null;
+
+	/** whether rows are sent in the compact format */
+	private boolean compact = false;
+
 	/**
 	 * Constructor
 	 *
@@ -71,6 +88,42 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		this.provider = provider;
 	}
 
+	// Properties //
+
+	/**
+	 * Gets the {@link IDataProvider}
+	 *
+	 * @return the {@code IDataProvider}
+	 */
+	protected final IDataProvider<T> getDataProvider()
+	{
+		return this.provider;
+	}
+
+	/**
+	 * Indicates whether rows are sent in the compact format
+	 *
+	 * @return {@code false} by default
+	 */
+	public boolean isCompactFormatEnabled()
+	{
+		return this.compact;
+	}
+
+	/**
+	 * Sets whether rows are sent in the compact format.<br>
+	 * If {@code true}, the field names are sent once, as {@code fields}, and rows are sent as positional arrays, as {@code rows}; the datasource is expected to rebuild the records using {@link com.googlecode.wicket.kendo.ui.KendoDataSource#getCompactParseFunction()}
+	 *
+	 * @param compact whether rows are sent in the compact format
+	 * @return this, for chaining
+	 */
+	public DataProviderBehavior<T> setCompactFormatEnabled(boolean compact)
+	{
+		this.compact = compact;
+
+		return this;
+	}
+
 	// Methods //
 
 	@SuppressWarnings("unchecked")
@@ -96,7 +149,7 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		final int count = parameters.getParameterValue("take").toInt(Short.MAX_VALUE);
 
 		// ISortStateLocator //
-		if (this.provider instanceof ISortStateLocator<?>)
+		if (this.provider instanceof ISortStateLocator<?> && ((ISortStateLocator<?>) this.provider).getSortState() != null)
 		{
 			String property = parameters.getParameterValue("sort[0][field]").toOptionalString();
 			String direction = parameters.getParameterValue("sort[0][dir]").toOptionalString();
@@ -120,7 +173,7 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 			T object = ((IFilterStateLocator<T>) this.provider).getFilterState();
 			PropertyResolverConverter converter = this.newPropertyResolverConverter();
 
-			for (int i = 0; i < COLS; i++)
+			for (int i = 0; object != null && i < COLS; i++)
 			{
 				String field = parameters.getParameterValue(String.format(fieldPattern, i)).toOptionalString();
 				String value = parameters.getParameterValue(String.format(valuePattern, i)).toOptionalString();
@@ -136,35 +189,166 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 			}
 		}
 
-		// response //
-		final JSONArray results = new JSONArray();
-		final Iterator<? extends T> iterator = this.provider.iterator(first, count);
+		// IProjectionDataProvider //
+		if (this.provider instanceof IProjectionDataProvider<?>)
+		{
+			this.projection = this.getProjection();
+			((IProjectionDataProvider<?>) this.provider).setProjection(this.projection);
+		}
 
-		if (iterator != null)
+		// IGroupDataProvider //
+		if (this.provider instanceof IGroupDataProvider<?>)
 		{
-			while (iterator.hasNext())
+			List<GroupDescriptor> descriptors = GroupDescriptor.parse(parameters);
+
+			if (!descriptors.isEmpty())
 			{
-				results.put(this.newJsonRow(iterator.next()));
+				@SuppressWarnings("unchecked")
+				IGroupDataProvider<T> provider = (IGroupDataProvider<T>) this.provider;
+
+				return this.getGroupResponse(provider, descriptors, GroupDescriptor.parseKeys(parameters), first, count);
 			}
 		}
 
+		// response //
+		return this.getPageResponse(parameters, first, count);
+	}
+
+	/**
+	 * Gets the response text of a page of rows
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @param first the first row index
+	 * @param count the number of rows
+	 * @return the response text
+	 */
+	protected String getPageResponse(IRequestParameters parameters, int first, int count)
+	{
 		JSONObject object = new JSONObject();
-		object.put("results", results);
+		this.putRows(object, this.provider.iterator(first, count));
 		object.put("__count", this.provider.size());
 
 		return object.toString();
 	}
 
+	/**
+	 * Gets the response text when the datasource is grouped.<br>
+	 * If no group keys are supplied, the response contains the page of top-level group headers; otherwise it contains the page of members of the group identified by the keys
+	 *
+	 * @param provider the {@link IGroupDataProvider}
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}
+	 * @param keys the group keys, which may be empty
+	 * @param first the first group or member index
+	 * @param count the number of groups or members
+	 * @return the response text
+	 */
+	protected String getGroupResponse(IGroupDataProvider<T> provider, List<GroupDescriptor> descriptors, List<String> keys, int first, int count)
+	{
+		JSONObject object = new JSONObject();
+
+		if (keys.isEmpty())
+		{
+			JSONArray groups = new JSONArray();
+
+			for (GroupHeader header : provider.groups(descriptors, first, count))
+			{
+				groups.put(header.toJson());
+			}
+
+			object.put("groups", groups);
+			object.put("__count", provider.groupCount(descriptors));
+		}
+		else
+		{
+			this.putRows(object, provider.iterator(descriptors, keys, first, count));
+		}
+
+		return object.toString();
+	}
+
+	/**
+	 * Puts the rows to the response object, either as {@code results} or - in compact format - as {@code fields} and {@code rows}
+	 *
+	 * @param object the response {@link JSONObject}
+	 * @param iterator the beans {@link Iterator}, which may be {@code null}
+	 */
+	protected void putRows(JSONObject object, Iterator<? extends T> iterator)
+	{
+		if (this.compact)
+		{
+			object.put("fields", this.newJsonFields());
+			object.put("rows", this.newJsonArrays(iterator));
+		}
+		else
+		{
+			object.put("results", this.newJsonRows(iterator));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * The source is a detached copy of this behavior, so subclasses (ie: {@link VirtualDataProviderBehavior}) are preserved; the sort, filter and group state are supplied by the request parameters.
+	 */
+	@Override
+	public ICallbackSource newCallbackSource()
+	{
+		return AjaxCallbackBehavior.newCallbackSource(this);
+	}
+
 	@Override
 	public void detach(Component component)
 	{
 		super.detach(component);
 
+		this.projection = null;
 		this.provider.detach();
 	}
 
 	// Factories //
 
+	/**
+	 * Gets the property paths required by the grid, supplied to an {@link IProjectionDataProvider}<br>
+	 * The projection consists of the {@link PropertyColumn}{@code s} that are visible or that can be shown from the column menu, of the {@link PropertyColumn}{@code s} referenced by the template of such columns, and of the {@link IdPropertyColumn}{@code s}; only these columns are then sent to the client.
+	 *
+	 * @return the set of property paths
+	 */
+	protected Set<String> getProjection()
+	{
+		Set<String> properties = new LinkedHashSet<String>();
+		List<String> templates = Generics.newArrayList();
+
+		for (IColumn column : this.columns.getObject())
+		{
+			if (DataProviderBehavior.isDisplayable(column))
+			{
+				if (column.getTemplate() != null)
+				{
+					templates.add(column.getTemplate());
+				}
+
+				if (column instanceof PropertyColumn)
+				{
+					properties.add(((PropertyColumn) column).getProperty());
+				}
+			}
+		}
+
+		for (IColumn column : this.columns.getObject())
+		{
+			if (column instanceof PropertyColumn)
+			{
+				PropertyColumn pc = (PropertyColumn) column;
+
+				if (pc instanceof IdPropertyColumn || DataProviderBehavior.isReferenced(templates, pc.getField()))
+				{
+					properties.add(pc.getProperty());
+				}
+			}
+		}
+
+		return properties;
+	}
+
 	/**
 	 * Get a new {@link PropertyResolverConverter}
 	 *
@@ -172,7 +356,28 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 	 */
 	protected PropertyResolverConverter newPropertyResolverConverter()
 	{
-		return new PropertyResolverConverter(Application.get().getConverterLocator(), Session.get().getLocale());
+		return new PropertyResolverConverter(Application.get().getConverterLocator(), WorkerContext.getLocale());
+	}
+
+	/**
+	 * Gets a new JSON array from the beans
+	 *
+	 * @param iterator the beans {@link Iterator}, which may be {@code null}
+	 * @return a new JSON array
+	 */
+	protected JSONArray newJsonRows(Iterator<? extends T> iterator)
+	{
+		final JSONArray results = new JSONArray();
+
+		if (iterator != null)
+		{
+			while (iterator.hasNext())
+			{
+				results.put(this.newJsonRow(iterator.next()));
+			}
+		}
+
+		return results;
 	}
 
 	/**
@@ -192,7 +397,11 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 				if (column instanceof PropertyColumn)
 				{
 					PropertyColumn pc = (PropertyColumn) column;
-					object.put(pc.getField(), pc.getValue(bean));
+
+					if (this.projection == null || this.projection.contains(pc.getProperty()))
+					{
+						object.put(pc.getField(), pc.getValue(bean));
+					}
 				}
 			}
 		}
@@ -203,4 +412,139 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 
 		return object;
 	}
+
+	/**
+	 * Gets the field names of the compact format, in the order of the values of {@link #newJsonValues(Object, List)}
+	 *
+	 * @return a new JSON array
+	 */
+	protected JSONArray newJsonFields()
+	{
+		JSONArray fields = new JSONArray();
+
+		for (PropertyColumn column : this.getRowColumns())
+		{
+			fields.put(column.getField());
+		}
+
+		return fields;
+	}
+
+	/**
+	 * Gets a new JSON array of positional arrays from the beans (compact format)
+	 *
+	 * @param iterator the beans {@link Iterator}, which may be {@code null}
+	 * @return a new JSON array
+	 */
+	protected JSONArray newJsonArrays(Iterator<? extends T> iterator)
+	{
+		final JSONArray results = new JSONArray();
+
+		if (iterator != null)
+		{
+			final List<PropertyColumn> columns = this.getRowColumns(); // computed once per response
+
+			while (iterator.hasNext())
+			{
+				results.put(this.newJsonValues(iterator.next(), columns));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Gets a new JSON array of the bean values, in the order of the fields of {@link #newJsonFields()} (compact format)
+	 *
+	 * @param bean T object
+	 * @param columns the {@link PropertyColumn}{@code s} that are sent to the client
+	 * @return a new JSON array
+	 */
+	protected JSONArray newJsonValues(T bean, List<PropertyColumn> columns)
+	{
+		JSONArray array = new JSONArray();
+
+		try
+		{
+			for (PropertyColumn column : columns)
+			{
+				Object value = column.getValue(bean);
+				array.put(value != null ? value : JSONObject.NULL);
+			}
+		}
+		catch (JSONException e)
+		{
+			throw new ConversionException(e);
+		}
+
+		return array;
+	}
+
+	// Helpers //
+
+	/**
+	 * Indicates whether the column is visible, or hidden but can be shown from the column menu
+	 *
+	 * @param column the {@link IColumn}
+	 * @return {@code true} if the column may be displayed
+	 */
+	private static boolean isDisplayable(IColumn column)
+	{
+		if (column instanceof AbstractColumn && !((AbstractColumn) column).isVisible())
+		{
+			return !"false".equals(column.getMenu());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Indicates whether a field is referenced by one of the templates
+	 *
+	 * @param templates the column templates
+	 * @param field the field name
+	 * @return {@code true} if the field is referenced
+	 */
+	private static boolean isReferenced(List<String> templates, String field)
+	{
+		if (field != null)
+		{
+			Pattern pattern = Pattern.compile("(?<![\\w$])" + Pattern.quote(field) + "(?![\\w$])");
+
+			for (String template : templates)
+			{
+				if (pattern.matcher(template).find())
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the {@link PropertyColumn}{@code s} that are sent to the client, according to the projection
+	 *
+	 * @return the list of {@code PropertyColumn}{@code s}
+	 */
+	final List<PropertyColumn> getRowColumns()
+	{
+		List<PropertyColumn> list = Generics.newArrayList();
+
+		for (IColumn column : this.columns.getObject())
+		{
+			if (column instanceof PropertyColumn)
+			{
+				PropertyColumn pc = (PropertyColumn) column;
+
+				if (this.projection == null || this.projection.contains(pc.getProperty()))
+				{
+					list.add(pc);
+				}
+			}
+		}
+
+		return list;
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable;
+
+import java.util.List;
+
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.lang.Generics;
+
+/**
+ * Provides the pending changes of a {@link com.googlecode.wicket.kendo.ui.KendoDataSource} in batch mode, sent by a single 'submit' request.<br>
+ * Listeners are expected to persist all changes (ie: in one transaction), and may update the supplied {@link JSONObject}{@code s} in place (ie: to set server-assigned ids); created and updated objects are then sent back to the client as affected rows.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DataSourceBatch
+{
+	private final List<JSONObject> created;
+	private final List<JSONObject> updated;
+	private final List<JSONObject> destroyed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param created the created objects, as json array string
+	 * @param updated the updated objects, as json array string
+	 * @param destroyed the destroyed objects, as json array string
+	 */
+	public DataSourceBatch(String created, String updated, String destroyed)
+	{
+		this.created = DataSourceBatch.toList(created);
+		this.updated = DataSourceBatch.toList(updated);
+		this.destroyed = DataSourceBatch.toList(destroyed);
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the created objects
+	 *
+	 * @return the list of created {@link JSONObject}{@code s}
+	 */
+	public List<JSONObject> getCreated()
+	{
+		return this.created;
+	}
+
+	/**
+	 * Gets the updated objects
+	 *
+	 * @return the list of updated {@link JSONObject}{@code s}
+	 */
+	public List<JSONObject> getUpdated()
+	{
+		return this.updated;
+	}
+
+	/**
+	 * Gets the destroyed objects
+	 *
+	 * @return the list of destroyed {@link JSONObject}{@code s}
+	 */
+	public List<JSONObject> getDestroyed()
+	{
+		return this.destroyed;
+	}
+
+	/**
+	 * Indicates whether the batch does not contain any change
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isEmpty()
+	{
+		return this.created.isEmpty() && this.updated.isEmpty() && this.destroyed.isEmpty();
+	}
+
+	// Methods //
+
+	/**
+	 * Gets the javascript statement that acknowledges the batch to the datasource's pending 'submit' operation, which is held by the supplied variable
+	 *
+	 * @param variable the javascript variable holding the 'submit' operations, by key
+	 * @param key the key of the 'submit' operation
+	 * @return the javascript statement
+	 */
+	public String toScript(String variable, int key)
+	{
+		StringBuilder builder = new StringBuilder();
+
+		builder.append("var s = ").append(variable).append(", e = s && s[").append(key).append("]; ");
+		builder.append("if (e) { ");
+		builder.append("delete s[").append(key).append("]; ");
+		builder.append("e.success(").append(DataSourceBatch.toResults(this.created)).append(", 'create'); ");
+		builder.append("e.success(").append(DataSourceBatch.toResults(this.updated)).append(", 'update'); ");
+		builder.append("e.success(").append(DataSourceBatch.toResults(null)).append(", 'destroy'); ");
+		builder.append("}");
+
+		return builder.toString();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("created: %s, updated: %s, destroyed: %s", this.created, this.updated, this.destroyed);
+	}
+
+	// Helpers //
+
+	/**
+	 * Converts a json array string to a list of {@link JSONObject}{@code s}
+	 *
+	 * @param json the json array string
+	 * @return the list of {@code JSONObject}{@code s}
+	 */
+	private static List<JSONObject> toList(String json)
+	{
+		List<JSONObject> list = Generics.newArrayList();
+
+		if (json != null)
+		{
+			JSONArray array = new JSONArray(json);
+
+			for (int i = 0; i < array.length(); i++)
+			{
+				list.add(array.getJSONObject(i));
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Gets the list of {@link JSONObject}{@code s} as datasource response, according to the {@code schema.data}
+	 *
+	 * @param list the list of {@code JSONObject}{@code s}, which may be {@code null}
+	 * @return the json response
+	 */
+	private static String toResults(List<JSONObject> list)
+	{
+		JSONObject object = new JSONObject();
+		object.put("results", list != null ? new JSONArray(list) : new JSONArray());
+
+		return object.toString();
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.attributes.AjaxCallListener;
+import org.apache.wicket.ajax.attributes.AjaxRequestAttributes;
+import org.apache.wicket.ajax.attributes.CallbackParameter;
+
+import com.googlecode.wicket.jquery.core.JQueryEvent;
+import com.googlecode.wicket.jquery.core.ajax.IJQueryAjaxAware;
+import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxBehavior;
+import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxPostBehavior;
+import com.googlecode.wicket.jquery.core.utils.RequestCycleUtils;
+
+/**
+ * Provides a {@link JQueryAjaxBehavior} for handling the datasource 'submit' operation, in batch mode.<br>
+ * All pending creates, updates and deletes are posted in one request, and only the affected rows are sent back to the datasource.<br>
+ * Each request holds its own 'submit' operation, by key, so several queued requests are acknowledged independently.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DataSourceBatchAjaxBehavior extends JQueryAjaxPostBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	private final IJQueryAjaxAware source;
+
+	/**
+	 * Constructor
+	 *
+	 * @param source the {@link IJQueryAjaxAware}
+	 */
+	public DataSourceBatchAjaxBehavior(IJQueryAjaxAware source)
+	{
+		super(source);
+
+		this.source = source;
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the javascript variable holding the pending 'submit' operations, by key
+	 *
+	 * @return the variable name
+	 */
+	protected String getVariable()
+	{
+		return String.format("window.%s_submit", this.getComponent().getMarkupId());
+	}
+
+	// Methods //
+
+	@Override
+	protected void respond(AjaxRequestTarget target)
+	{
+		SyncEvent event = this.newEvent();
+
+		if (this.source != null)
+		{
+			this.source.onAjax(target, event);
+		}
+
+		target.appendJavaScript(event.getBatch().toScript(this.getVariable(), event.getKey()));
+	}
+
+	@Override
+	protected void updateAjaxAttributes(AjaxRequestAttributes attributes)
+	{
+		super.updateAjaxAttributes(attributes);
+
+		// rejects the 'submit' operation of the failed request //
+		String statement = String.format("var s = %s; jQuery.each(attrs.ep || [], function(i, p) { var e = s && p.name === 'key' && s[p.value]; if (e) { delete s[p.value]; e.error(); } });", this.getVariable());
+		attributes.getAjaxCallListeners().add(new AjaxCallListener().onFailure(statement));
+	}
+
+	@Override
+	protected CallbackParameter[] getCallbackParameters()
+	{
+		return new CallbackParameter[] { // lf
+				CallbackParameter.context("e"), // lf
+				CallbackParameter.resolved("key", "key"), // lf
+				CallbackParameter.resolved("created", "kendo.stringify(e.data.created)"), // lf
+				CallbackParameter.resolved("updated", "kendo.stringify(e.data.updated)"), // lf
+				CallbackParameter.resolved("destroyed", "kendo.stringify(e.data.destroyed)"), // lf
+				CallbackParameter.resolved("timezoneOffset", "new Date().getTimezoneOffset()") };
+	}
+
+	@Override
+	public CharSequence getCallbackFunctionBody(CallbackParameter... parameters)
+	{
+		String variable = this.getVariable();
+
+		return String.format("var s = %s || (%s = { seq: 0 }), key = ++s.seq; s[key] = e; ", variable, variable) + super.getCallbackFunctionBody(parameters);
+	}
+
+	// Factories //
+
+	@Override
+	protected SyncEvent newEvent()
+	{
+		return new SyncEvent();
+	}
+
+	// Event objects //
+
+	/**
+	 * Provides an event object that will be broadcasted by the {@link DataSourceBatchAjaxBehavior} 'submit' callback
+	 */
+	public static class SyncEvent extends JQueryEvent
+	{
+		private final int key;
+		private final DataSourceBatch batch;
+
+		public SyncEvent()
+		{
+			this.key = RequestCycleUtils.getRequestParameterValue("key").toInt(0);
+
+			String created = RequestCycleUtils.getRequestParameterValue("created").toOptionalString();
+			String updated = RequestCycleUtils.getRequestParameterValue("updated").toOptionalString();
+			String destroyed = RequestCycleUtils.getRequestParameterValue("destroyed").toOptionalString();
+
+			this.batch = new DataSourceBatch(created, updated, destroyed);
+		}
+
+		/**
+		 * Gets the {@link DataSourceBatch}
+		 *
+		 * @return the {@code DataSourceBatch}
+		 */
+		public DataSourceBatch getBatch()
+		{
+			return this.batch;
+		}
+
+		/**
+		 * Gets the key of the pending 'submit' operation
+		 *
+		 * @return the key
+		 */
+		public int getKey()
+		{
+			return this.key;
+		}
+	}
+}
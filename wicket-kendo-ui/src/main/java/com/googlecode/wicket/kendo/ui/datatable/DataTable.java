@@ -21,6 +21,7 @@ import java.util.List;
 
 import org.apache.wicket.IGenericComponent;
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONArray;
 import org.apache.wicket.ajax.json.JSONObject;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
@@ -30,24 +31,32 @@ import org.apache.wicket.markup.MarkupStream;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.html.WebComponent;
 import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.AbstractReadOnlyModel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
+import org.apache.wicket.util.lang.Generics;
 
 import com.googlecode.wicket.jquery.core.IJQueryWidget;
 import com.googlecode.wicket.jquery.core.JQueryBehavior;
+import com.googlecode.wicket.jquery.core.JQueryEvent;
 import com.googlecode.wicket.jquery.core.Options;
 import com.googlecode.wicket.jquery.core.ajax.IJQueryAjaxAware;
 import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxBehavior;
+import com.googlecode.wicket.jquery.core.data.CachingDataProvider;
 import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
 import com.googlecode.wicket.kendo.ui.KendoBehaviorFactory;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatchAjaxBehavior.SyncEvent;
 import com.googlecode.wicket.kendo.ui.datatable.behavior.DataBoundBehavior;
 import com.googlecode.wicket.kendo.ui.datatable.button.CommandAjaxBehavior;
 import com.googlecode.wicket.kendo.ui.datatable.button.CommandAjaxBehavior.CommandClickEvent;
 import com.googlecode.wicket.kendo.ui.datatable.button.CommandButton;
 import com.googlecode.wicket.kendo.ui.datatable.button.ToolbarButton;
 import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.IdPropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.group.IGroupDataProvider;
 
 /**
  * Provides a Kendo UI data-table
@@ -55,7 +64,7 @@ import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
  * @param <T> the model object type
  * @author Sebastien Briquet - sebfz1
  */
-public class DataTable<T> extends WebComponent implements IGenericComponent<List<IColumn>>, IJQueryWidget, IDataTableListener
+public class DataTable<T> extends WebComponent implements IGenericComponent<List<IColumn>>, IJQueryWidget, IDataTableSyncListener
 {
 	private static final long serialVersionUID = 1L;
 
@@ -63,6 +72,7 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 
 	private final IDataProvider<T> provider;
 	private AbstractAjaxBehavior providerBehavior;
+	private AbstractAjaxBehavior detailBehavior = null;
 
 	protected final Options options;
 
@@ -229,6 +239,8 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 	 */
 	public void reload(IPartialPageRequestHandler handler, boolean reset)
 	{
+		this.invalidate();
+
 		if (reset)
 		{
 			this.reset(handler);
@@ -256,6 +268,8 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 	 */
 	public void refresh(IPartialPageRequestHandler handler, boolean reset)
 	{
+		this.invalidate();
+
 		if (reset)
 		{
 			this.reset(handler);
@@ -264,6 +278,176 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.read(); }", this.widget()));
 	}
 
+	/**
+	 * Updates the supplied rows, without reading from the datasource<br>
+	 * Only the supplied rows are serialized, and are applied to the matching rows of the current page (by {@link IdPropertyColumn}).<br>
+	 * If the table has no {@code IdPropertyColumn}, or if the data-provider behavior is not a {@link DataProviderBehavior}, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param rows the updated rows
+	 */
+	public void update(IPartialPageRequestHandler handler, List<? extends T> rows)
+	{
+		String json = this.getRowsAsString(rows);
+
+		if (json != null && this.getIdField() != null)
+		{
+			this.push(handler, "pushUpdate", json);
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Removes the rows having the supplied ids, without reading from the datasource<br>
+	 * If the table has no {@link IdPropertyColumn}, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param ids the ids of the removed rows
+	 */
+	public void remove(IPartialPageRequestHandler handler, List<?> ids)
+	{
+		final String field = this.getIdField();
+
+		if (field != null)
+		{
+			JSONArray array = new JSONArray();
+
+			for (Object id : ids)
+			{
+				array.put(new JSONObject().put(field, id));
+			}
+
+			this.push(handler, "pushDestroy", array.toString());
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Inserts the supplied rows, without reading from the datasource<br>
+	 * If the data-provider behavior is not a {@link DataProviderBehavior}, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param rows the inserted rows
+	 * @param index the index, in the current page, at which the rows are inserted
+	 */
+	public void insert(IPartialPageRequestHandler handler, List<? extends T> rows, int index)
+	{
+		String json = this.getRowsAsString(rows);
+
+		if (json != null)
+		{
+			this.push(handler, String.format("pushInsert(%d, %s)", index, json));
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Pushes changes to the datasource
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param method the datasource push method
+	 * @param rows the rows, as json array string
+	 */
+	private void push(IPartialPageRequestHandler handler, String method, String rows)
+	{
+		this.push(handler, String.format("%s(%s)", method, rows));
+	}
+
+	/**
+	 * Pushes changes to the datasource
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param statement the datasource push statement
+	 */
+	private void push(IPartialPageRequestHandler handler, String statement)
+	{
+		this.invalidate();
+
+		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.%s; }", this.widget(), statement));
+	}
+
+	/**
+	 * Gets the rows as json array string, according to the columns
+	 *
+	 * @param rows the rows
+	 * @return the json array string, or {@code null} if the data-provider behavior is not a {@link DataProviderBehavior}
+	 */
+	@SuppressWarnings("unchecked")
+	private String getRowsAsString(List<? extends T> rows)
+	{
+		if (this.providerBehavior instanceof DataProviderBehavior<?>)
+		{
+			return ((DataProviderBehavior<T>) this.providerBehavior).newJsonRows(rows.iterator()).toString();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the field of the {@link IdPropertyColumn}, if any
+	 *
+	 * @return the field, or {@code null} if the table has no {@code IdPropertyColumn}
+	 */
+	private String getIdField()
+	{
+		for (IColumn column : this.getColumns())
+		{
+			if (column instanceof IdPropertyColumn)
+			{
+				return column.getField();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the detail columns as json array string
+	 *
+	 * @return the json array string
+	 */
+	private String getDetailColumnsAsString()
+	{
+		StringBuilder builder = new StringBuilder("[ ");
+
+		for (IColumn column : this.getDetailColumns())
+		{
+			if (builder.length() > 2)
+			{
+				builder.append(", ");
+			}
+
+			builder.append("{ ").append(column.toString()).append(" }");
+		}
+
+		return builder.append(" ]").toString();
+	}
+
+	/**
+	 * Invalidates server-side cached rows, if any (see {@link VirtualDataProviderBehavior} and {@link CachingDataProvider})
+	 */
+	protected void invalidate()
+	{
+		if (this.providerBehavior instanceof VirtualDataProviderBehavior<?>)
+		{
+			((VirtualDataProviderBehavior<?>) this.providerBehavior).invalidate();
+		}
+
+		if (this.getDataProvider() instanceof CachingDataProvider<?>)
+		{
+			((CachingDataProvider<?>) this.getDataProvider()).invalidate();
+		}
+	}
+
 	// Properties //
 
 	@Override
@@ -327,6 +511,26 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Gets the {@link IExportableColumn}{@code s}, as a new {@link List}
+	 *
+	 * @return the {@link List} of {@link IExportableColumn}{@code s}
+	 */
+	public List<IExportableColumn> getExportableColumns()
+	{
+		List<IExportableColumn> columns = Generics.newArrayList();
+
+		for (IColumn column : this.getColumns())
+		{
+			if (column instanceof IExportableColumn)
+			{
+				columns.add((IExportableColumn) column);
+			}
+		}
+
+		return columns;
+	}
+
 	/**
 	 * Gets the data-provider behavior's url
 	 *
@@ -347,6 +551,108 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Indicates whether virtual scrolling is enabled<br>
+	 * If {@code true}, the {@link DataProviderBehavior} is a {@link VirtualDataProviderBehavior} that prefetches {@link #getPrefetchCount()} rows ahead of the requested page.<br>
+	 * <b>Note:</b> the {@code height} option should be set.
+	 * 
+	 * @return {@code false} by default
+	 */
+	protected boolean isVirtualScrollEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the number of rows to be fetched in addition to the requested page, when virtual scrolling is enabled
+	 * 
+	 * @return the number of rows per page by default
+	 */
+	protected int getPrefetchCount()
+	{
+		return (int) this.getRowCount();
+	}
+
+	/**
+	 * Indicates whether the datasource should run in batch-sync mode<br>
+	 * If {@code true}, all pending changes are sent in one request, and {@link #onSync(AjaxRequestTarget, DataSourceBatch)} is triggered instead of {@code onCreate}, {@code onUpdate} and {@code onDelete}
+	 * 
+	 * @return {@code false} by default
+	 */
+	protected boolean isBatchSyncEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the {@link IDetailDataProviderFactory} of the detail rows<br>
+	 * If not {@code null}, each row can be expanded to display a detail grid - having its own paging and sorting - whose rows are loaded on expansion only.<br>
+	 * <b>Note:</b> the table should have an {@link IdPropertyColumn}, whose value is supplied to the factory.
+	 * 
+	 * @return {@code null} by default
+	 * @see #getDetailColumns()
+	 */
+	protected IDetailDataProviderFactory getDetailDataProviderFactory()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets the columns of the detail grids<br>
+	 * {@link com.googlecode.wicket.kendo.ui.datatable.column.CommandColumn}{@code s} are not supported
+	 * 
+	 * @return an empty list by default
+	 * @see #getDetailDataProviderFactory()
+	 */
+	protected List<IColumn> getDetailColumns()
+	{
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets the number of rows per page of the detail grids
+	 * 
+	 * @return the number of rows per page by default
+	 */
+	protected long getDetailRowCount()
+	{
+		return this.getRowCount();
+	}
+
+	/**
+	 * Indicates whether rows should be sent in the compact format<br>
+	 * If {@code true}, the field names are sent once and rows are sent as positional arrays, which reduces the payload of large pages
+	 * 
+	 * @return {@code false} by default
+	 * @see DataProviderBehavior#setCompactFormatEnabled(boolean)
+	 */
+	protected boolean isCompactFormatEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether grouping should be performed server-side, with group members loaded lazily when expanded
+	 * 
+	 * @return {@code true} if the {@link IDataProvider} is an {@link IGroupDataProvider}
+	 */
+	protected boolean isServerGroupingEnabled()
+	{
+		return this.getDataProvider() instanceof IGroupDataProvider<?>;
+	}
+
+	/**
+	 * Indicates whether sorting should be performed server-side
+	 * 
+	 * @return {@code true} if the {@link IDataProvider} is an {@link ISortStateLocator} having a sort state
+	 */
+	protected boolean isSortable()
+	{
+		IDataProvider<T> provider = this.getDataProvider();
+
+		return provider instanceof ISortStateLocator<?> && ((ISortStateLocator<?>) provider).getSortState() != null;
+	}
+
 	// Events //
 
 	@Override
@@ -357,16 +663,36 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 		this.providerBehavior = this.newDataProviderBehavior(this.getModel(), this.getDataProvider());
 		this.add(this.providerBehavior);
 
+		final IDetailDataProviderFactory factory = this.getDetailDataProviderFactory();
+
+		if (factory != null)
+		{
+			this.detailBehavior = this.newDetailDataProviderBehavior(this.newDetailColumnsModel(), factory);
+			this.add(this.detailBehavior);
+		}
+
 		this.add(JQueryWidget.newWidgetBehavior(this)); // cannot be in ctor as the markupId may be set manually afterward
 	}
 
 	@Override
 	public void onConfigure(JQueryBehavior behavior)
 	{
-		behavior.setOption("sortable", this.getDataProvider() instanceof ISortStateLocator<?>);
+		behavior.setOption("sortable", this.isSortable());
 		behavior.setOption("autoBind", this.getBehaviors(DataBoundBehavior.class).isEmpty()); // false if DataBoundBehavior is added
 		behavior.setOption("dataBound", "datatable_dataBound"); // DataTable.js
 		behavior.setOption("edit", "datatable_edit"); // DataTable.js
+
+		// detail rows //
+		final String field = this.getIdField();
+
+		if (this.detailBehavior != null && field != null)
+		{
+			behavior.setOption("detailInit", "datatable_detailInit"); // DataTable.js
+			behavior.setOption("detailUrl", Options.asString(this.detailBehavior.getCallbackUrl()));
+			behavior.setOption("detailColumns", this.getDetailColumnsAsString());
+			behavior.setOption("detailIdField", Options.asString(field));
+			behavior.setOption("detailPageSize", this.getDetailRowCount());
+		}
 	}
 
 	/**
@@ -453,6 +779,12 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 		// noop
 	}
 
+	@Override
+	public void onSync(AjaxRequestTarget target, DataSourceBatch batch)
+	{
+		// noop
+	}
+
 	// IJQueryWidget //
 
 	@Override
@@ -482,6 +814,30 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 				return DataTable.this.getToolbarButtons();
 			}
 
+			@Override
+			protected boolean isVirtualScrollEnabled()
+			{
+				return DataTable.this.isVirtualScrollEnabled();
+			}
+
+			@Override
+			protected boolean isBatchSyncEnabled()
+			{
+				return DataTable.this.isBatchSyncEnabled();
+			}
+
+			@Override
+			protected boolean isServerGroupingEnabled()
+			{
+				return DataTable.this.isServerGroupingEnabled();
+			}
+
+			@Override
+			protected boolean isCompactFormatEnabled()
+			{
+				return DataTable.this.isCompactFormatEnabled();
+			}
+
 			// Events //
 
 			@Override
@@ -490,6 +846,18 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 				DataTable.this.onConfigure(dataSource);
 			}
 
+			@Override
+			public void onAjax(AjaxRequestTarget target, JQueryEvent event)
+			{
+				// cached rows are stale as soon as the datasource changes, invalidates them before the listener reads again
+				if (event instanceof DataSourceEvent || event instanceof SyncEvent)
+				{
+					DataTable.this.invalidate();
+				}
+
+				super.onAjax(target, event);
+			}
+
 			// Factories //
 
 			@Override
@@ -503,7 +871,7 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 	// Factories //
 
 	/**
-	 * Gets a new {@link DataProviderBehavior}
+	 * Gets a new {@link DataProviderBehavior}, or a new {@link VirtualDataProviderBehavior} if virtual scrolling is enabled
 	 *
 	 * @param columns the list of {@link IColumn}
 	 * @param provider the {@link IDataProvider}
@@ -511,7 +879,43 @@ public class DataTable<T> extends WebComponent implements IGenericComponent<List
 	 */
 	protected AbstractAjaxBehavior newDataProviderBehavior(final IModel<List<IColumn>> columns, final IDataProvider<T> provider)
 	{
-		return new DataProviderBehavior<T>(columns, provider);
+		if (this.isVirtualScrollEnabled())
+		{
+			return new VirtualDataProviderBehavior<T>(columns, provider, this.getPrefetchCount()).setCompactFormatEnabled(this.isCompactFormatEnabled());
+		}
+
+		return new DataProviderBehavior<T>(columns, provider).setCompactFormatEnabled(this.isCompactFormatEnabled());
+	}
+
+	/**
+	 * Gets a new {@link DetailDataProviderBehavior}, shared by all detail grids
+	 *
+	 * @param columns the list of detail {@link IColumn}
+	 * @param factory the {@link IDetailDataProviderFactory}
+	 * @return the {@link AbstractAjaxBehavior}
+	 */
+	protected AbstractAjaxBehavior newDetailDataProviderBehavior(final IModel<List<IColumn>> columns, final IDetailDataProviderFactory factory)
+	{
+		return new DetailDataProviderBehavior(columns, factory);
+	}
+
+	/**
+	 * Gets a new model of the detail columns, which are retrieved by {@link #getDetailColumns()}
+	 *
+	 * @return a new {@link IModel}
+	 */
+	private IModel<List<IColumn>> newDetailColumnsModel()
+	{
+		return new AbstractReadOnlyModel<List<IColumn>>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public List<IColumn> getObject()
+			{
+				return DataTable.this.getDetailColumns();
+			}
+		};
 	}
 
 	/**
@@ -18,6 +18,147 @@ function datatable_dataBound(e) {
 	$grid.tbody.find("a.k-state-disabled.k-grid-delete").each(function () {
         $(this).remove();
     });
+
+	// server grouping //
+	if ($grid.options.groupUrl && $grid.dataSource.group().length > 0) {
+		datatable_groupBound($grid);
+	}
+}
+
+/**
+ * Collapses groups whose members are not loaded yet, and loads them when expanded (server grouping)
+ */
+function datatable_groupBound($grid) {
+	var entries = [];
+	var columns = $grid.columns.length + $grid.dataSource.group().length;
+
+	// flattens groups, in the same order as grouping rows are rendered //
+	(function flatten(groups, keys) {
+		jQuery.each(groups, function(index, group) {
+			var path = keys.concat([group.__key]);
+			entries.push({ group: group, path: path });
+
+			if (group.hasSubgroups) {
+				flatten(group.items, path);
+			}
+		});
+	})($grid.dataSource.view(), []);
+
+	$grid.tbody.find("tr.k-grouping-row").each(function(index) {
+		var $row = jQuery(this);
+		var entry = entries[index];
+
+		if (!entry || entry.group.hasSubgroups) {
+			return;
+		}
+
+		if (!entry.group.__loaded) {
+			$grid.collapseGroup($row);
+			$row.find(".k-icon").one("click", function() {
+				datatable_groupLoad($grid, entry, 0);
+			});
+		}
+		else if (entry.group.items.length < entry.group.__count) {
+			var $more = jQuery("<tr class='k-grouping-more'><td colspan='" + columns + "'><a href='#' class='k-link'>&hellip;</a></td></tr>");
+			var $last = $row.nextUntil("tr.k-grouping-row, tr.k-group-footer").last();
+
+			($last.length > 0 ? $last : $row).after($more);
+			$more.find("a").one("click", function(e) {
+				e.preventDefault();
+				datatable_groupLoad($grid, entry, entry.group.items.length);
+			});
+		}
+	});
+}
+
+/**
+ * Loads a page of group members, starting at 'skip' (server grouping)
+ */
+function datatable_groupLoad($grid, entry, skip) {
+	var ds = $grid.dataSource;
+	var data = { skip: skip, take: ds.pageSize(), sort: ds.sort(), filter: ds.filter(), group: ds.group() };
+
+	jQuery.each(entry.path, function(index, key) {
+		data["groupKey[" + index + "]"] = key;
+	});
+
+	jQuery.ajax({
+		url: $grid.options.groupUrl,
+		data: data,
+		cache: false,
+		success: function(result) {
+			result = ds.reader.parse(result); // schema.parse, if any
+
+			entry.group.__loaded = true;
+			entry.group.items.push.apply(entry.group.items, result.results);
+			$grid.refresh();
+		},
+		error: function(result) {
+			ds.trigger("error", { xhr: result });
+		}
+	});
+}
+
+/**
+ * Creates the detail grid of an expanded row, which is read on expansion only (detail rows)
+ */
+function datatable_detailInit(e) {
+	var $grid = e.sender;
+	var id = e.data[$grid.options.detailIdField];
+
+	jQuery("<div/>").appendTo(e.detailCell).kendoGrid({
+		columns: $grid.options.detailColumns,
+		pageable: true,
+		sortable: true,
+		dataSource: {
+			pageSize: $grid.options.detailPageSize,
+			serverPaging: true,
+			serverSorting: true,
+			schema: { data: "results", total: "__count" },
+			transport: {
+				read: function(options) {
+					datatable_detailRead($grid, id, options);
+				}
+			}
+		}
+	});
+}
+
+/**
+ * Queues the read of a detail grid; reads queued in the same event loop are sent in one request (detail rows)
+ */
+function datatable_detailRead($grid, id, options) {
+	var batch = $grid.__detailBatch;
+
+	if (!batch) {
+		batch = $grid.__detailBatch = [];
+
+		setTimeout(function() {
+			$grid.__detailBatch = null;
+
+			var requests = jQuery.map(batch, function(entry) {
+				return jQuery.extend({}, entry.options.data, { id: entry.id });
+			});
+
+			jQuery.ajax({
+				url: $grid.options.detailUrl,
+				data: { requests: kendo.stringify(requests) },
+				cache: false,
+				success: function(results) {
+					jQuery.each(batch, function(index, entry) {
+						entry.options.success(results[index]);
+					});
+				},
+				error: function(result) {
+					jQuery.each(batch, function(index, entry) {
+						entry.options.error(result);
+					});
+				}
+			});
+		}, 0);
+	}
+
+	batch.push({ id: id, options: options });
 }
 
 /**
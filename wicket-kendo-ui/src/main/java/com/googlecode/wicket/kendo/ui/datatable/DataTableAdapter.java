@@ -29,7 +29,7 @@ import com.googlecode.wicket.kendo.ui.datatable.button.ToolbarButton;
  *
  * @author Sebastien Briquet - sebfz1
  */
-public class DataTableAdapter implements IDataTableListener
+public class DataTableAdapter implements IDataTableSyncListener
 {
 	private static final long serialVersionUID = 1L;
 
@@ -74,4 +74,10 @@ public class DataTableAdapter implements IDataTableListener
 	{
 		// noop		
 	}
+
+	@Override
+	public void onSync(AjaxRequestTarget target, DataSourceBatch batch)
+	{
+		// noop
+	}
 }
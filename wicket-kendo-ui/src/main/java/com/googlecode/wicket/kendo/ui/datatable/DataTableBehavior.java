@@ -18,8 +18,10 @@ package com.googlecode.wicket.kendo.ui.datatable;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.wicket.Component;
+import org.apache.wicket.Session;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.attributes.CallbackParameter;
 import org.apache.wicket.ajax.json.JSONObject;
@@ -34,6 +36,7 @@ import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxBehavior;
 import com.googlecode.wicket.jquery.core.utils.RequestCycleUtils;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatchAjaxBehavior.SyncEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.CreateEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.DeleteEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.UpdateEvent;
@@ -43,9 +46,11 @@ import com.googlecode.wicket.kendo.ui.datatable.button.CommandButton;
 import com.googlecode.wicket.kendo.ui.datatable.button.ToolbarAjaxBehavior;
 import com.googlecode.wicket.kendo.ui.datatable.button.ToolbarAjaxBehavior.ToolbarClickEvent;
 import com.googlecode.wicket.kendo.ui.datatable.button.ToolbarButton;
+import com.googlecode.wicket.kendo.ui.datatable.column.AbstractColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.CommandColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.IdPropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.group.IGroupDataProvider;
 
 /**
  * Provides a {@value #METHOD} behavior<br>
@@ -69,6 +74,19 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 	private DataSourceAjaxBehavior onCreateAjaxBehavior;
 	private DataSourceAjaxBehavior onUpdateAjaxBehavior;
 	private DataSourceAjaxBehavior onDeleteAjaxBehavior;
+	private DataSourceBatchAjaxBehavior onSyncAjaxBehavior = null;
+
+	/** command behaviors, indexed by button name at bind time (buttons are equal by name, but their hash code is not) */
+	private final Map<String, JQueryAjaxBehavior> commandBehaviors = Generics.newHashMap();
+
+	/** indicates whether the toolbar events have been registered */
+	private boolean toolbarRegistered = false;
+
+	// cached configuration, rebuilt when the columns or the buttons' visibility change //
+	private transient List<Object> configurationKey = null;
+	private transient String columnsAsString = null;
+	private transient Options schemaModel = null;
+	private transient List<ToolbarButton> toolbarButtons = null;
 
 	/**
 	 * Constructor
@@ -129,6 +147,12 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		this.onDeleteAjaxBehavior = this.newOnDeleteAjaxBehavior(this);
 		component.add(this.onDeleteAjaxBehavior);
 
+		if (this.isBatchSyncEnabled())
+		{
+			this.onSyncAjaxBehavior = this.newOnSyncAjaxBehavior(this);
+			component.add(this.onSyncAjaxBehavior);
+		}
+
 		// toolbar buttons //
 		for (ToolbarButton button : this.getVisibleToolbarButtons())
 		{
@@ -143,7 +167,10 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		{
 			if (!button.isBuiltIn())
 			{
-				component.add(this.newCommandAjaxBehavior(this, button));
+				JQueryAjaxBehavior behavior = this.newCommandAjaxBehavior(this, button);
+
+				this.commandBehaviors.put(button.getName(), behavior);
+				component.add(behavior);
 			}
 		}
 	}
@@ -187,6 +214,54 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		return false;
 	}
 
+	/**
+	 * Indicates whether virtual scrolling is enabled.<br>
+	 * If {@code true}, the grid is configured with {@code scrollable.virtual} - merged into the {@code scrollable} option if it is an {@link Options} - and pages are read from the server while scrolling
+	 * 
+	 * @return {@code false} by default
+	 * @see <a href="http://docs.telerik.com/kendo-ui/api/javascript/ui/grid/configuration/scrollable.virtual">scrollable.virtual</a>
+	 */
+	protected boolean isVirtualScrollEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the datasource should run in batch-sync mode.<br>
+	 * If {@code true}, all pending creates, updates and deletes are sent in one 'submit' request, and only the affected rows are sent back (the datasource is not re-read)
+	 * 
+	 * @return {@code false} by default
+	 * @see IDataTableSyncListener#onSync(AjaxRequestTarget, DataSourceBatch)
+	 */
+	protected boolean isBatchSyncEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether grouping should be performed server-side.<br>
+	 * If {@code true}, the data-provider sends group headers only, and group members are loaded lazily when a group is expanded
+	 * 
+	 * @return {@code false} by default
+	 * @see IGroupDataProvider
+	 */
+	protected boolean isServerGroupingEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the data-provider sends rows in the compact format.<br>
+	 * If {@code true}, the field names are sent once and rows are sent as positional arrays; the datasource's {@code schema.parse} rebuilds the records client-side
+	 * 
+	 * @return {@code false} by default
+	 * @see KendoDataSource#getCompactParseFunction()
+	 */
+	protected boolean isCompactFormatEnabled()
+	{
+		return false;
+	}
+
 	/**
 	 * Gets the {@code List} of {@link ToolbarButton}{@code s}
 	 * 
@@ -272,10 +347,10 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 	 * Gets the {@code List} of visible {@link CommandButton}{@code s} as json string
 	 * 
 	 * @param column the {@code CommandColumn}, containing the {@code CommandButton}{@code s}
-	 * @param behaviors the {@code List} of {@code CommandAjaxBehavior}{@code s} which may be bound to buttons
+	 * @param behaviors the {@code Map} of {@code JQueryAjaxBehavior}{@code s}, indexed by {@code CommandButton} name
 	 * @return the {@code List} of visible {@code CommandButton} as json string
 	 */
-	private static List<String> getCommandButtonsAsString(CommandColumn column, List<CommandAjaxBehavior> behaviors)
+	private static List<String> getCommandButtonsAsString(CommandColumn column, Map<String, JQueryAjaxBehavior> behaviors)
 	{
 		List<String> list = Generics.newArrayList();
 
@@ -283,9 +358,7 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		{
 			if (button.isVisible())
 			{
-				JQueryAjaxBehavior behavior = getCommandAjaxBehavior(button, behaviors);
-
-				list.add(button.toString(behavior));
+				list.add(button.toString(behaviors.get(button.getName())));
 			}
 		}
 
@@ -316,10 +389,10 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 	 * Gets the {@code List} of {@link IColumn}{@code s} as json string
 	 * 
 	 * @param columns the {@code List} of {@link IColumn}{@code s}
-	 * @param behaviors the {@code List} of {@link CommandAjaxBehavior}{@code s} associated to {@link CommandButton}{@code s}
+	 * @param behaviors the {@code Map} of {@link JQueryAjaxBehavior}{@code s}, indexed by {@link CommandButton} name
 	 * @return the JSON string
 	 */
-	private static String getColumnsAsString(List<IColumn> columns, List<CommandAjaxBehavior> behaviors)
+	private static String getColumnsAsString(List<IColumn> columns, Map<String, JQueryAjaxBehavior> behaviors)
 	{
 		StringBuilder builder = new StringBuilder("[ ");
 
@@ -360,12 +433,59 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		return KendoDataSource.getReadCallbackFunction(this.getProviderUrl(), this.useCache());
 	}
 
+	/**
+	 * Gets the key of the cached configuration (columns, schema and toolbar)<br>
+	 * The key consists of the columns and their visibility, the buttons' visibility and the session's locale.
+	 *
+	 * @param columns the {@code List} of {@link IColumn}{@code s}
+	 * @return the key
+	 */
+	private List<Object> getConfigurationKey(List<IColumn> columns)
+	{
+		List<Object> key = Generics.newArrayList();
+		key.add(Session.exists() ? Session.get().getLocale() : null);
+
+		for (IColumn column : columns)
+		{
+			key.add(column);
+
+			if (column instanceof AbstractColumn)
+			{
+				key.add(((AbstractColumn) column).isVisible());
+			}
+
+			if (column instanceof CommandColumn)
+			{
+				for (CommandButton button : ((CommandColumn) column).getButtons())
+				{
+					key.add(button.isVisible());
+				}
+			}
+		}
+
+		for (ToolbarButton button : this.getToolbarButtons())
+		{
+			key.add(button.isVisible());
+		}
+
+		return key;
+	}
+
 	// Events //
 
 	@Override
 	public void onConfigure(Component component)
 	{
 		List<IColumn> columns = this.columns.getObject();
+		List<Object> key = this.getConfigurationKey(columns);
+
+		if (!key.equals(this.configurationKey))
+		{
+			this.configurationKey = key;
+			this.toolbarButtons = this.getVisibleToolbarButtons();
+			this.columnsAsString = getColumnsAsString(columns, this.commandBehaviors);
+			this.schemaModel = this.newSchemaModelOptions(columns);
+		}
 
 		// this.setOption("edit", this.onEditAjaxBehavior.getCallbackFunction());
 		this.setOption("cancel", this.onCancelAjaxBehavior.getCallbackFunction());
@@ -375,20 +495,34 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 			this.setOption("columnReorder", this.onColumnReorderAjaxBehavior.getCallbackFunction());
 		}
 
+		if (this.isVirtualScrollEnabled())
+		{
+			Object scrollable = this.getOption("scrollable");
+
+			if (scrollable instanceof Options)
+			{
+				((Options) scrollable).set("virtual", true); // keeps user-defined scrollable options
+			}
+			else
+			{
+				this.setOption("scrollable", new Options("virtual", true));
+			}
+		}
+
 		// toolbar //
-		if (this.hasVisibleToolbarButtons())
+		if (!this.toolbarButtons.isEmpty())
 		{
-			this.setOption("toolbar", this.getVisibleToolbarButtons());
+			this.setOption("toolbar", this.toolbarButtons);
 		}
 
 		// columns (+ column buttons) //
-		this.setOption("columns", getColumnsAsString(columns, component.getBehaviors(CommandAjaxBehavior.class)));
+		this.setOption("columns", this.columnsAsString);
 
 		// schema //
 		Options schema = new Options();
 		schema.set("data", Options.asString("results"));
 		schema.set("total", Options.asString("__count"));
-		schema.set("model", this.newSchemaModelOptions(columns));
+		schema.set("model", this.schemaModel);
 
 		// data-source //
 		this.setOption("dataSource", this.dataSource.getName());
@@ -398,20 +532,49 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		this.dataSource.set("serverPaging", true);
 		this.dataSource.set("serverSorting", true);
 		this.dataSource.set("serverFiltering", true);
+
+		// grouping //
+		if (this.isServerGroupingEnabled())
+		{
+			schema.set("groups", Options.asString("groups"));
+
+			this.dataSource.set("serverGrouping", true);
+			this.setOption("groupUrl", Options.asString(this.getProviderUrl())); // DataTable.js
+		}
+
+		// compact format //
+		if (this.isCompactFormatEnabled())
+		{
+			schema.set("parse", KendoDataSource.getCompactParseFunction());
+		}
+
 		this.dataSource.setTransportRead(this.getReadCallbackFunction());
 		this.dataSource.setTransportCreate(this.onCreateAjaxBehavior.getCallbackFunction());
 		this.dataSource.setTransportUpdate(this.onUpdateAjaxBehavior.getCallbackFunction());
 		this.dataSource.setTransportDelete(this.onDeleteAjaxBehavior.getCallbackFunction());
 
+		// batch-sync //
+		if (this.onSyncAjaxBehavior != null)
+		{
+			this.dataSource.set("batch", true);
+			this.dataSource.set("sync", (Object) null); // affected rows are sent back, no need to re-read
+			this.dataSource.setTransportSubmit(this.onSyncAjaxBehavior.getCallbackFunction());
+		}
+
 		this.onConfigure(this.dataSource); // last chance to set options
 
 		// ajax //
-		for (ToolbarAjaxBehavior behavior : component.getBehaviors(ToolbarAjaxBehavior.class))
+		if (!this.toolbarRegistered)
 		{
-			String selector = String.format("%s .k-grid-toolbar .k-grid-%s", this.getSelector(), behavior.getButtonName());
+			for (ToolbarAjaxBehavior behavior : component.getBehaviors(ToolbarAjaxBehavior.class))
+			{
+				String selector = String.format("%s .k-grid-toolbar .k-grid-%s", this.getSelector(), behavior.getButtonName());
 
-			this.off(selector, "click");
-			this.on(selector, "click", behavior.getCallbackFunction());
+				this.off(selector, "click");
+				this.on(selector, "click", behavior.getCallbackFunction());
+			}
+
+			this.toolbarRegistered = true; // statements are rendered on each render
 		}
 
 		super.onConfigure(component);
@@ -471,6 +634,11 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		{
 			this.listener.onDelete(target, ((DataSourceEvent) event).getObject());
 		}
+
+		if (event instanceof SyncEvent && this.listener instanceof IDataTableSyncListener)
+		{
+			((IDataTableSyncListener) this.listener).onSync(target, ((SyncEvent) event).getBatch());
+		}
 	}
 
 	// Factories //
@@ -636,6 +804,17 @@ public abstract class DataTableBehavior extends KendoUIBehavior implements IJQue
 		};
 	}
 
+	/**
+	 * Gets a new {@link DataSourceBatchAjaxBehavior} that will be wired to the datasource's 'submit' operation, in batch-sync mode
+	 *
+	 * @param source the {@link IJQueryAjaxAware}
+	 * @return a new {@code DataSourceBatchAjaxBehavior}
+	 */
+	protected DataSourceBatchAjaxBehavior newOnSyncAjaxBehavior(IJQueryAjaxAware source)
+	{
+		return new DataSourceBatchAjaxBehavior(source);
+	}
+
 	/**
 	 * Gets the {@link JQueryAjaxBehavior} that will be called when the user clicks a toolbar button
 	 *
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.parameter.UrlRequestParametersAdapter;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.dashboard.DashboardService;
+import com.googlecode.wicket.jquery.core.utils.WorkerContext;
+import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
+
+/**
+ * Provides the data source {@link AjaxCallbackBehavior} of the {@link DataTable} detail rows.<br>
+ * The behavior is shared by all detail grids: the reads of the detail grids that are expanded at the same time are sent in one request, as a json array ({@code requests}) of datasource read parameters, each one having the parent row {@code id}. The response is the json array of the corresponding pages.<br>
+ * Pages are read in parallel, on a bounded executor; a page that fails or exceeds the timeout is answered as an empty page.<br>
+ * <br>
+ * <b>Note:</b> the providers are created on the request thread, but are read on worker threads, outside of the page lock; they should therefore not share mutable state with the page. Workers have access to the {@code Application} and to the session's locale - used by the converters - but neither to the {@code Session} nor to the request cycle (see {@link WorkerContext}).<br>
+ * <b>Note:</b> the parent row {@code id} is supplied by the client, the {@link IDetailDataProviderFactory} is responsible for checking that the user is allowed to read its detail rows.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class DetailDataProviderBehavior extends AjaxCallbackBehavior
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(DetailDataProviderBehavior.class);
+
+	/** the response of a page that cannot be read */
+	private static final String EMPTY_PAGE = "{ \"results\": [], \"__count\": 0 }";
+
+	private final IModel<List<IColumn>> columns;
+	private final IDetailDataProviderFactory factory;
+
+	/**
+	 * Constructor
+	 *
+	 * @param columns the list of detail {@link IColumn}
+	 * @param factory the {@link IDetailDataProviderFactory}
+	 */
+	public DetailDataProviderBehavior(final IModel<List<IColumn>> columns, final IDetailDataProviderFactory factory)
+	{
+		this.columns = columns;
+		this.factory = factory;
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the executor on which pages are read
+	 *
+	 * @return the {@link DashboardService}'s executor by default
+	 */
+	protected ExecutorService getExecutor()
+	{
+		return DashboardService.get().getExecutor();
+	}
+
+	/**
+	 * Gets the max duration of the read of all pages
+	 *
+	 * @return the {@link DashboardService}'s timeout by default
+	 */
+	protected Duration getTimeout()
+	{
+		return DashboardService.get().getTimeout();
+	}
+
+	// Methods //
+
+	@Override
+	protected String getResponse(IRequestParameters parameters)
+	{
+		final JSONArray requests = new JSONArray(parameters.getParameterValue("requests").toString("[]"));
+
+		// submits pages //
+		final ExecutorService executor = this.getExecutor();
+		final List<Future<String>> futures = Generics.newArrayList(requests.length());
+		this.columns.getObject(); // loads the columns in the request thread, workers are then only reading them
+
+		for (int i = 0; i < requests.length(); i++)
+		{
+			JSONObject request = requests.getJSONObject(i);
+			IDataProvider<?> provider = this.factory.newDataProvider(request.optString("id")); // in the request thread
+
+			futures.add(executor.submit(new PageCallable(provider, DetailDataProviderBehavior.toParameters(request))));
+		}
+
+		// builds the response //
+		final long deadline = System.currentTimeMillis() + this.getTimeout().getMilliseconds();
+		final StringBuilder builder = new StringBuilder("[ ");
+
+		for (int i = 0; i < futures.size(); i++)
+		{
+			if (i > 0)
+			{
+				builder.append(", ");
+			}
+
+			builder.append(this.getPageResponse(futures.get(i), deadline));
+		}
+
+		return builder.append(" ]").toString();
+	}
+
+	/**
+	 * Gets the response text of a page of detail rows
+	 *
+	 * @param provider the {@link IDataProvider} of the detail rows
+	 * @param parameters the datasource read parameters ({@code skip}, {@code take}, {@code sort})
+	 * @return the response text
+	 */
+	@SuppressWarnings("unchecked")
+	protected String getPageResponse(IDataProvider<?> provider, IRequestParameters parameters)
+	{
+		try
+		{
+			return new DataProviderBehavior<Object>(this.columns, (IDataProvider<Object>) provider).getResponse(parameters);
+		}
+		finally
+		{
+			provider.detach();
+		}
+	}
+
+	@Override
+	public void detach(Component component)
+	{
+		super.detach(component);
+
+		this.columns.detach();
+	}
+
+	// Helpers //
+
+	/**
+	 * Waits for the response text of a page
+	 *
+	 * @param future the {@link Future} of the page
+	 * @param deadline the deadline, in milliseconds
+	 * @return the response text, or an empty page if the page cannot be read
+	 */
+	private String getPageResponse(Future<String> future, long deadline)
+	{
+		try
+		{
+			return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e)
+		{
+			future.cancel(true);
+			LOG.warn("Detail rows have not been read within the timeout");
+		}
+		catch (ExecutionException e)
+		{
+			LOG.error("Detail rows cannot be read", e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		return EMPTY_PAGE;
+	}
+
+	/**
+	 * Converts a json read request to {@link IRequestParameters}, named as they would be by {@code jQuery.param} (ie: {@code sort[0][field]})
+	 *
+	 * @param request the json request
+	 * @return the {@code IRequestParameters}
+	 */
+	private static IRequestParameters toParameters(JSONObject request)
+	{
+		Url url = new Url();
+
+		for (Iterator<String> iterator = request.keys(); iterator.hasNext();)
+		{
+			String key = iterator.next();
+			DetailDataProviderBehavior.addParameters(url, key, request.get(key));
+		}
+
+		return new UrlRequestParametersAdapter(url);
+	}
+
+	/**
+	 * Adds the value as query parameter(s), recursively
+	 *
+	 * @param url the {@link Url}
+	 * @param name the parameter name
+	 * @param value the json value
+	 */
+	private static void addParameters(Url url, String name, Object value)
+	{
+		if (value instanceof JSONObject)
+		{
+			JSONObject object = (JSONObject) value;
+
+			for (Iterator<String> iterator = object.keys(); iterator.hasNext();)
+			{
+				String key = iterator.next();
+				DetailDataProviderBehavior.addParameters(url, String.format("%s[%s]", name, key), object.get(key));
+			}
+		}
+		else if (value instanceof JSONArray)
+		{
+			JSONArray array = (JSONArray) value;
+
+			for (int i = 0; i < array.length(); i++)
+			{
+				DetailDataProviderBehavior.addParameters(url, String.format("%s[%d]", name, i), array.get(i));
+			}
+		}
+		else if (value != null && value != JSONObject.NULL)
+		{
+			url.addQueryParameter(name, String.valueOf(value));
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the {@link Callable} that reads a page of detail rows, in a worker thread
+	 */
+	private class PageCallable implements Callable<String>
+	{
+		private final IDataProvider<?> provider;
+		private final IRequestParameters parameters;
+		private final WorkerContext context;
+
+		public PageCallable(IDataProvider<?> provider, IRequestParameters parameters)
+		{
+			this.provider = provider;
+			this.parameters = parameters;
+			this.context = new WorkerContext();
+		}
+
+		@Override
+		public String call() throws Exception
+		{
+			ThreadContext previous = this.context.attach();
+
+			try
+			{
+				return DetailDataProviderBehavior.this.getPageResponse(this.provider, this.parameters);
+			}
+			finally
+			{
+				WorkerContext.detach(previous);
+			}
+		}
+	}
+}
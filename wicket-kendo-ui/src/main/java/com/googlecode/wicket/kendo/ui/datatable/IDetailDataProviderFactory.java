@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * Specifies the factory of the {@link IDataProvider}{@code s} of the {@link DataTable} detail rows.<br>
+ * A provider is requested each time the detail grid of a parent row reads a page; it is read on a worker thread, outside of the page lock, and is detached right after (see {@link DetailDataProviderBehavior}).<br>
+ * <b>Caution:</b> the parent row id is supplied by the client, so the factory must check that the user is allowed to read the detail rows of that parent (ie: by throwing an {@link org.apache.wicket.authorization.UnauthorizedActionException}).
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IDetailDataProviderFactory extends IClusterable
+{
+	/**
+	 * Gets a new {@link IDataProvider} of the detail rows of a parent row<br>
+	 * The provider may be an {@link org.apache.wicket.extensions.markup.html.repeater.data.sort.ISortStateLocator}, so the detail grid is sorted server-side
+	 *
+	 * @param id the parent row id, as rendered by the {@link com.googlecode.wicket.kendo.ui.datatable.column.IdPropertyColumn}; it should be authorized
+	 * @return a new {@code IDataProvider}
+	 */
+	IDataProvider<?> newDataProvider(String id);
+}
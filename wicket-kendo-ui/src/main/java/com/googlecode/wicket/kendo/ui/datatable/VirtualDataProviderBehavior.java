@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.io.IClusterable;
+
+import com.googlecode.wicket.jquery.core.Options;
+import com.googlecode.wicket.jquery.core.utils.BuilderUtils;
+import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.PropertyColumn;
+
+/**
+ * Provides the {@link DataTable} data source behavior for virtual scrolling.<br>
+ * Each provider call fetches the requested rows plus a prefetch window, in a single query. The recently served windows are kept in a small LRU, so next pages and scroll-backs are answered without hitting the provider again.<br>
+ * <br>
+ * <b>Note:</b> windows are kept as serialized json rows, per grid (this behavior) and per page; they are keyed by the sort, filter and group state and are invalidated by {@link DataTable#refresh(org.apache.wicket.core.request.handler.IPartialPageRequestHandler)}
+ *
+ * @param <T> the type of the model object
+ * @author Sebastien Briquet - sebfz1
+ */
+public class VirtualDataProviderBehavior<T> extends DataProviderBehavior<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/** default number of windows */
+	private static final int CAPACITY = 4;
+
+	private final int prefetch;
+	private final WindowCache cache;
+
+	/**
+	 * Constructor
+	 *
+	 * @param columns the list of {@link IColumn}
+	 * @param provider the {@link IDataProvider}
+	 * @param prefetch the number of rows to fetch in addition to the requested ones
+	 */
+	public VirtualDataProviderBehavior(final IModel<List<IColumn>> columns, final IDataProvider<T> provider, int prefetch)
+	{
+		this(columns, provider, prefetch, CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param columns the list of {@link IColumn}
+	 * @param provider the {@link IDataProvider}
+	 * @param prefetch the number of rows to fetch in addition to the requested ones
+	 * @param capacity the max number of windows to keep
+	 */
+	public VirtualDataProviderBehavior(final IModel<List<IColumn>> columns, final IDataProvider<T> provider, int prefetch, int capacity)
+	{
+		super(columns, provider);
+
+		this.prefetch = prefetch;
+		this.cache = new WindowCache(capacity);
+	}
+
+	// Methods //
+
+	/**
+	 * Clears the windows, so next requests will hit the provider
+	 */
+	public void invalidate()
+	{
+		this.cache.clear();
+	}
+
+	@Override
+	protected String getPageResponse(IRequestParameters parameters, int first, int count)
+	{
+		String state = VirtualDataProviderBehavior.getState(parameters);
+		Window window = this.cache.find(state, first, count);
+
+		if (window == null)
+		{
+			window = this.newWindow(state, first, count + this.prefetch);
+			this.cache.put(window);
+		}
+
+		// builds JSON result //
+		StringBuilder builder = new StringBuilder();
+		builder.append("{ ");
+		BuilderUtils.append(builder, "__count", window.size);
+		builder.append(", ");
+
+		if (this.isCompactFormatEnabled())
+		{
+			BuilderUtils.append(builder, "fields", this.newJsonFields());
+			builder.append(", ");
+			builder.append(Options.QUOTE).append("rows").append(Options.QUOTE).append(": ");
+		}
+		else
+		{
+			builder.append(Options.QUOTE).append("results").append(Options.QUOTE).append(": ");
+		}
+
+		builder.append("[ ");
+
+		int from = (int) (first - window.first);
+		int to = Math.min(from + count, window.rows.size());
+
+		for (int index = from; index < to; index++)
+		{
+			if (index > from)
+			{
+				builder.append(", ");
+			}
+
+			builder.append(window.rows.get(index));
+		}
+
+		builder.append(" ] }");
+
+		return builder.toString();
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link Window}, fetching the rows from the provider in a single call<br>
+	 * Rows are serialized as json objects, or as positional arrays if the compact format is enabled
+	 *
+	 * @param state the sort and filter state
+	 * @param first the first row index
+	 * @param count the number of rows, including the prefetch window
+	 * @return a new {@code Window}
+	 */
+	private Window newWindow(String state, int first, int count)
+	{
+		final IDataProvider<T> provider = this.getDataProvider();
+		final List<String> rows = new ArrayList<String>(count);
+		final Iterator<? extends T> iterator = provider.iterator(first, count);
+
+		if (iterator != null)
+		{
+			final List<PropertyColumn> columns = this.getRowColumns(); // computed once per window
+
+			while (iterator.hasNext())
+			{
+				T bean = iterator.next();
+				rows.add(this.isCompactFormatEnabled() ? this.newJsonValues(bean, columns).toString() : this.newJsonRow(bean).toString());
+			}
+		}
+
+		return new Window(state, first, rows, provider.size());
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the sort, filter and group state, as a string, from the request parameters
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @return the state
+	 */
+	private static String getState(IRequestParameters parameters)
+	{
+		List<String> names = new ArrayList<String>();
+
+		for (String name : parameters.getParameterNames())
+		{
+			if (name.startsWith("sort") || name.startsWith("filter") || name.startsWith("group"))
+			{
+				names.add(name);
+			}
+		}
+
+		Collections.sort(names);
+
+		StringBuilder builder = new StringBuilder();
+
+		for (String name : names)
+		{
+			builder.append(name).append('=').append(parameters.getParameterValue(name)).append('&');
+		}
+
+		return builder.toString();
+	}
+
+	// Classes //
+
+	/**
+	 * Provides a window of serialized json rows
+	 */
+	private static class Window implements IClusterable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String state;
+		private final long first;
+		private final List<String> rows;
+		private final long size;
+
+		public Window(String state, long first, List<String> rows, long size)
+		{
+			this.state = state;
+			this.first = first;
+			this.rows = rows;
+			this.size = size;
+		}
+
+		/**
+		 * Indicates whether the window covers the requested range
+		 *
+		 * @param state the sort and filter state
+		 * @param first the first row index
+		 * @param count the number of rows
+		 * @return {@code true} or {@code false}
+		 */
+		public boolean covers(String state, long first, long count)
+		{
+			long last = Math.min(first + count, this.size); // the range may exceed the data size
+
+			return this.state.equals(state) && first >= this.first && last <= this.first + this.rows.size();
+		}
+	}
+
+	/**
+	 * Provides a LRU of {@link Window}{@code s}
+	 */
+	private static class WindowCache extends LinkedHashMap<String, Window>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		public WindowCache(int capacity)
+		{
+			super(capacity + 1, 1f, true); // access-order
+
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Finds the {@link Window} covering the requested range
+		 *
+		 * @param state the sort and filter state
+		 * @param first the first row index
+		 * @param count the number of rows
+		 * @return the {@code Window} or {@code null} if not found
+		 */
+		public Window find(String state, long first, long count)
+		{
+			for (Entry<String, Window> entry : this.entrySet())
+			{
+				if (entry.getValue().covers(state, first, count))
+				{
+					return this.get(entry.getKey()); // marks the entry as recently used
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Adds a {@link Window}
+		 *
+		 * @param window the {@code Window}
+		 */
+		public void put(Window window)
+		{
+			this.put(window.state + window.first, window);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, Window> eldest)
+		{
+			return this.size() > this.capacity;
+		}
+	}
+}
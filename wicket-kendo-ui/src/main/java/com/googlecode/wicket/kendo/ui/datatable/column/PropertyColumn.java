@@ -110,6 +110,16 @@ public class PropertyColumn extends AbstractColumn implements IExportableColumn
 		return PropertyUtils.escape(super.getField()); // fixes #56
 	}
 
+	/**
+	 * Gets the (unescaped) property name
+	 *
+	 * @return the property name (ie: "mybean.myproperty")
+	 */
+	public String getProperty()
+	{
+		return this.property;
+	}
+
 	/**
 	 * Gets the value of the supplied object.<br>
 	 * Implementation may call {@link #getField()}
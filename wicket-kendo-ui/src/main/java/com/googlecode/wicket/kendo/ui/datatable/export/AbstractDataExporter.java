@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+
+import com.googlecode.wicket.jquery.core.data.IProjectionDataProvider;
+import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.PropertyColumn;
+
+/**
+ * Provides the base class of streamed {@link IDataExporter}{@code s}<br>
+ * Rows are retrieved by chunks (see {@link #setChunkSize(int)}), the provider being detached and the output being flushed between chunks, so the memory footprint is bounded by the chunk size rather than by the number of exported rows.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public abstract class AbstractDataExporter implements IDataExporter
+{
+	private static final long serialVersionUID = 1L;
+
+	/** default number of rows retrieved per provider call */
+	private static final int CHUNK_SIZE = 1000;
+
+	private boolean exportHeadersEnabled = true;
+	private int chunkSize = CHUNK_SIZE;
+
+	/**
+	 * Constructor
+	 */
+	public AbstractDataExporter()
+	{
+		// noop
+	}
+
+	// Properties //
+
+	/**
+	 * Indicates whether headers will be written to the output
+	 *
+	 * @return true or false
+	 */
+	@Override
+	public boolean isExportHeadersEnabled()
+	{
+		return this.exportHeadersEnabled;
+	}
+
+	/**
+	 * Sets whether headers will be written to the output
+	 *
+	 * @param enabled true or false
+	 * @return this, for chaining
+	 */
+	public AbstractDataExporter setExportHeadersEnabled(boolean enabled)
+	{
+		this.exportHeadersEnabled = enabled;
+
+		return this;
+	}
+
+	/**
+	 * Sets the number of rows retrieved per {@link IDataProvider#iterator(long, long)} call.
+	 *
+	 * @param chunkSize the chunk size, {@code 1000} by default
+	 * @return this, for chaining
+	 */
+	public AbstractDataExporter setChunkSize(int chunkSize)
+	{
+		this.chunkSize = Args.withinRange(1, Integer.MAX_VALUE, chunkSize, "chunkSize");
+
+		return this;
+	}
+
+	// Methods //
+
+	/**
+	 * Gets the property paths required by the export, supplied to an {@link IProjectionDataProvider}<br>
+	 * The projection is empty - meaning all properties - if one of the columns is not a {@link PropertyColumn}, as its data model cannot be inferred.
+	 *
+	 * @param columns the list of {@link IExportableColumn}
+	 * @return the set of property paths
+	 */
+	protected Set<String> getProjection(List<IExportableColumn> columns)
+	{
+		Set<String> properties = new LinkedHashSet<String>();
+
+		for (IExportableColumn column : columns)
+		{
+			if (!(column instanceof PropertyColumn))
+			{
+				return Collections.emptySet();
+			}
+
+			properties.add(((PropertyColumn) column).getProperty());
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Exports all data provided by the {@link IDataProvider} to the {@link OutputStream}.
+	 *
+	 * @param <T> the object type
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IColumn}
+	 * @param output the {@link OutputStream}
+	 * @throws IOException if this could not write the file out
+	 */
+	@Override
+	public <T> void exportData(IDataProvider<T> provider, List<IExportableColumn> columns, OutputStream output) throws IOException
+	{
+		this.exportData(provider, columns, output, 0, provider.size());
+	}
+
+	/**
+	 * Exports the data provided by the {@link IDataProvider} to the {@link OutputStream}.<br>
+	 * Rows are retrieved by chunks, the provider being detached and the output being flushed between chunks.
+	 *
+	 * @param <T> the object type
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IColumn}
+	 * @param output the {@link OutputStream}
+	 * @param first the first row of datacount
+	 * @param count the number of elements to retrieve
+	 * @throws IOException if this could not write the file out
+	 */
+	public <T> void exportData(IDataProvider<T> provider, List<IExportableColumn> columns, OutputStream output, long first, long count) throws IOException
+	{
+		// IProjectionDataProvider //
+		if (provider instanceof IProjectionDataProvider<?>)
+		{
+			((IProjectionDataProvider<?>) provider).setProjection(this.getProjection(columns));
+		}
+
+		// column models are built once, against a row model which is rebound for each row //
+		final RowModel rowModel = new RowModel();
+		final List<IModel<Object>> models = new ArrayList<IModel<Object>>(columns.size());
+
+		for (IExportableColumn column : columns)
+		{
+			models.add(column.newDataModel(rowModel));
+		}
+
+		IRowWriter writer = this.newRowWriter(columns, output);
+
+		try
+		{
+			// headers //
+			if (this.isExportHeadersEnabled())
+			{
+				writer.writeHeaders();
+			}
+
+			// rows //
+			final long last = first + count;
+
+			for (long offset = first; offset < last; offset += this.chunkSize)
+			{
+				final long size = Math.min(this.chunkSize, last - offset);
+				final Iterator<? extends T> iterator = provider.iterator(offset, size);
+				long rows = 0;
+
+				while (iterator.hasNext())
+				{
+					rowModel.setObject(iterator.next());
+					writer.writeRow(models);
+					rows++;
+				}
+
+				rowModel.detach();
+				provider.detach();
+				writer.flush();
+
+				if (rows < size)
+				{
+					break; // no more rows
+				}
+			}
+		}
+		finally
+		{
+			for (IModel<Object> model : models)
+			{
+				model.detach();
+			}
+
+			writer.close();
+		}
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link IRowWriter}, which is used for a single export
+	 *
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param output the {@link OutputStream}
+	 * @return a new {@code IRowWriter}
+	 * @throws IOException if an I/O error occurs
+	 */
+	protected abstract IRowWriter newRowWriter(List<IExportableColumn> columns, OutputStream output) throws IOException;
+
+	// Classes //
+
+	/**
+	 * Specifies the writer of an export output.<br>
+	 * Closing the writer completes the output and closes the underlying {@link OutputStream}.
+	 */
+	public interface IRowWriter extends Closeable
+	{
+		/**
+		 * Writes the headers
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		void writeHeaders() throws IOException;
+
+		/**
+		 * Writes a row
+		 *
+		 * @param models the column data models, bound to the current row
+		 * @throws IOException if an I/O error occurs
+		 */
+		void writeRow(List<IModel<Object>> models) throws IOException;
+
+		/**
+		 * Flushes the output
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		void flush() throws IOException;
+	}
+
+	/**
+	 * Provides a row model, that is rebound to each exported row.<br>
+	 * Unlike {@link IDataProvider#model(Object)}, this does not allocate a model per row and per column.
+	 */
+	private static class RowModel implements IModel<Object>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private transient Object object = null;
+
+		@Override
+		public Object getObject()
+		{
+			return this.object;
+		}
+
+		@Override
+		public void setObject(Object object)
+		{
+			this.object = object;
+		}
+
+		@Override
+		public void detach()
+		{
+			this.object = null;
+		}
+	}
+}
@@ -16,17 +16,20 @@
  */
 package com.googlecode.wicket.kendo.ui.datatable.export;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
+import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Generics;
 import org.apache.wicket.util.resource.AbstractResourceStreamWriter;
 import org.apache.wicket.util.resource.IResourceStream;
@@ -36,7 +39,6 @@ import org.slf4j.LoggerFactory;
 
 import com.googlecode.wicket.jquery.core.utils.ConverterUtils;
 import com.googlecode.wicket.kendo.ui.datatable.DataTable;
-import com.googlecode.wicket.kendo.ui.datatable.column.IColumn;
 import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
 
 /**
@@ -44,7 +46,7 @@ import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
  *
  * @author Sebastien Briquet - sebfz1
  */
-public class CSVDataExporter implements IDataExporter
+public class CSVDataExporter extends AbstractDataExporter
 {
 	private static final long serialVersionUID = 1L;
 	private static final Logger LOG = LoggerFactory.getLogger(CSVDataExporter.class);
@@ -53,11 +55,17 @@ public class CSVDataExporter implements IDataExporter
 	private static final String CRLF = "\r\n";
 	private static final String MIME = "text/csv";
 
-	private static final char delimiter = ',';
-	private static final String characterSet = "utf-8";
+	/** exporter classes overriding the deprecated {@link #quoteValue(String)} */
+	private static final ConcurrentMap<Class<?>, Boolean> QUOTING = Generics.newConcurrentHashMap();
+
+	/** buffer size of the encoder */
+	private static final int BUFFER_SIZE = 8192;
 
 	private final String contentType;
-	private boolean exportHeadersEnabled = true;
+
+	private char delimiter = ',';
+	private String characterSet = "utf-8";
+	private String lineEnding = CRLF;
 
 	/**
 	 * Constructor
@@ -87,149 +95,135 @@ public class CSVDataExporter implements IDataExporter
 	@Override
 	public String getContentType()
 	{
-		return String.format("%s; charset=%s; header=%s", this.contentType, CSVDataExporter.characterSet, this.exportHeadersEnabled ? "present" : "absent");
+		return String.format("%s; charset=%s; header=%s", this.contentType, this.characterSet, this.isExportHeadersEnabled() ? "present" : "absent");
 	}
 
-	/**
-	 * Indicates whether headers will be written to the output
-	 *
-	 * @return true or false
-	 */
 	@Override
-	public boolean isExportHeadersEnabled()
+	public CSVDataExporter setExportHeadersEnabled(boolean enabled)
 	{
-		return this.exportHeadersEnabled;
+		super.setExportHeadersEnabled(enabled);
+
+		return this;
 	}
 
-	// Methods //
+	@Override
+	public CSVDataExporter setChunkSize(int chunkSize)
+	{
+		super.setChunkSize(chunkSize);
+
+		return this;
+	}
 
 	/**
-	 * Quotes a value for export to CSV.<br>
-	 * According to RFC4180, this should just duplicate all occurrences of the quote character and wrap the result in the quote character.
+	 * Sets the delimiter
 	 *
-	 * @param value The value to be quoted.
-	 * @return a quoted copy of the value.
+	 * @param delimiter the delimiter, {@code ','} by default
+	 * @return this, for chaining
 	 */
-	protected String quoteValue(String value)
+	public CSVDataExporter setDelimiter(char delimiter)
 	{
-		return QUOTE + value.replace("" + QUOTE, "" + QUOTE + QUOTE) + QUOTE;
+		this.delimiter = delimiter;
+
+		return this;
 	}
 
 	/**
-	 * Writes the headers to the output
+	 * Sets the character set
 	 *
-	 * @param provider the {@link IDataProvider}
-	 * @param columns the list of {@link IColumn}
-	 * @param writer the {@link PrintWriter}
+	 * @param characterSet the character set, "utf-8" by default
+	 * @return this, for chaining
 	 */
-	private void exportHeaders(List<IExportableColumn> columns, PrintWriter writer)
+	public CSVDataExporter setCharacterSet(String characterSet)
 	{
-		boolean first = true;
+		this.characterSet = Args.notEmpty(characterSet, "characterSet");
 
-		for (IExportableColumn column : columns)
-		{
-			if (first)
-			{
-				first = false;
-			}
-			else
-			{
-				writer.print(CSVDataExporter.delimiter);
-			}
-
-			writer.print(this.quoteValue(column.getTitle()));
-		}
-
-		writer.print(CRLF);
+		return this;
 	}
 
 	/**
-	 * Exports a row to the output
+	 * Sets the line ending
 	 *
-	 * @param provider the {@link IDataProvider}
-	 * @param columns the list of {@link IColumn}
-	 * @param row the row of typed objects
-	 * @param writer the {@link PrintWriter}
+	 * @param lineEnding the line ending, {@code "\r\n"} by default (RFC4180)
+	 * @return this, for chaining
 	 */
-	private <T> void exportRow(IDataProvider<T> provider, List<IExportableColumn> columns, T row, PrintWriter writer)
+	public CSVDataExporter setLineEnding(String lineEnding)
 	{
-		boolean first = true;
-
-		for (IExportableColumn column : columns)
-		{
-			if (first)
-			{
-				first = false;
-			}
-			else
-			{
-				writer.print(CSVDataExporter.delimiter);
-			}
-
-			Object object = column.newDataModel(provider.model(row)).getObject();
-
-			if (object != null)
-			{
-				String value = ConverterUtils.toString(object);
-				writer.print(this.quoteValue(value));
-			}
-		}
+		this.lineEnding = Args.notNull(lineEnding, "lineEnding");
 
-		writer.print(CRLF);
+		return this;
 	}
 
+	// Methods //
+
 	/**
-	 * Exports all data provided by the {@link IDataProvider} to the {@link OutputStream}.
+	 * Quotes a value for export to CSV.<br>
+	 * According to RFC4180, this should just duplicate all occurrences of the quote character and wrap the result in the quote character.
 	 *
-	 * @param <T> the object type
-	 * @param provider the {@link IDataProvider}
-	 * @param columns the list of {@link IColumn}
-	 * @param output the {@link OutputStream}
-	 * @throws IOException if this could not write the file out
+	 * @param value The value to be quoted.
+	 * @return a quoted copy of the value.
+	 * @deprecated use {@link #writeValue(Writer, CharSequence)} instead; overrides are still honoured until this method is removed
 	 */
-	@Override
-	public <T> void exportData(IDataProvider<T> provider, List<IExportableColumn> columns, OutputStream output) throws IOException
+	@Deprecated
+	protected String quoteValue(String value)
 	{
-		this.exportData(provider, columns, output, 0, provider.size());
+		return QUOTE + value.replace("" + QUOTE, "" + QUOTE + QUOTE) + QUOTE;
 	}
 
 	/**
-	 * Exports the data provided by the {@link IDataProvider} to the {@link OutputStream}.
+	 * Writes a quoted value to the output.<br>
+	 * According to RFC4180, this duplicates all occurrences of the quote character and wraps the value in the quote character; characters are written as they are read, so no intermediate copy is allocated.
 	 *
-	 * @param <T> the object type
-	 * @param provider the {@link IDataProvider}
-	 * @param columns the list of {@link IColumn}
-	 * @param output the {@link OutputStream}
-	 * @param first the first row of datacount
-	 * @param count the number of elements to retrieve
-	 * @throws IOException if this could not write the file out
+	 * @param writer the {@link Writer}
+	 * @param value the value to be quoted
+	 * @throws IOException if an I/O error occurs
 	 */
-	public <T> void exportData(IDataProvider<T> provider, List<IExportableColumn> columns, OutputStream output, long first, long count) throws IOException
+	protected void writeValue(Writer writer, CharSequence value) throws IOException
 	{
-		PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, Charset.forName(CSVDataExporter.characterSet)));
+		writer.write(QUOTE);
 
-		try
+		for (int i = 0, length = value.length(); i < length; i++)
 		{
-			// headers //
-			if (this.isExportHeadersEnabled())
+			char c = value.charAt(i);
+
+			if (c == QUOTE)
 			{
-				this.exportHeaders(columns, writer);
+				writer.write(QUOTE);
 			}
 
-			// rows //
-			Iterator<? extends T> iterator = provider.iterator(first, count);
+			writer.write(c);
+		}
 
-			while (iterator.hasNext())
-			{
-				this.exportRow(provider, columns, iterator.next(), writer);
-			}
+		writer.write(QUOTE);
+	}
+
+	/**
+	 * Writes a quoted value to the output, using {@link #quoteValue(String)} if it is overridden, {@link #writeValue(Writer, CharSequence)} otherwise
+	 *
+	 * @param writer the {@link Writer}
+	 * @param value the value to be quoted
+	 * @throws IOException if an I/O error occurs
+	 */
+	@SuppressWarnings("deprecation")
+	private void write(Writer writer, CharSequence value) throws IOException
+	{
+		if (CSVDataExporter.isQuoting(this.getClass()))
+		{
+			writer.write(this.quoteValue(value.toString()));
 		}
-		finally
+		else
 		{
-			writer.close();
+			this.writeValue(writer, value);
 		}
 	}
 
+	// Factories //
+
+	@Override
+	protected IRowWriter newRowWriter(List<IExportableColumn> columns, OutputStream output)
+	{
+		return new CSVRowWriter(columns, new BufferedWriter(new OutputStreamWriter(output, Charset.forName(this.characterSet)), BUFFER_SIZE));
+	}
+
 	public static void export(DataTable<?> table, String filename)
 	{
 		CSVDataExporter.export(RequestCycle.get(), table, filename);
@@ -238,7 +232,8 @@ public class CSVDataExporter implements IDataExporter
 	// Statics //
 
 	/**
-	 * Exports {@link DataTable} data to a CSV file
+	 * Exports {@link DataTable} data to a CSV file, within the request thread<br>
+	 * <b>Note:</b> for large exports, consider using an {@link ExportJobProgressBar}, which runs the export in the background.
 	 *
 	 * @param cycle the {@link RequestCycle}
 	 * @param table the {@link DataTable}
@@ -246,17 +241,7 @@ public class CSVDataExporter implements IDataExporter
 	 */
 	public static void export(RequestCycle cycle, final DataTable<?> table, String filename)
 	{
-		List<IExportableColumn> columns = Generics.newArrayList();
-
-		for (IColumn column : table.getColumns())
-		{
-			if (column instanceof IExportableColumn)
-			{
-				columns.add((IExportableColumn) column);
-			}
-		}
-
-		CSVDataExporter.export(cycle, table.getDataProvider(), columns, filename);
+		CSVDataExporter.export(cycle, table.getDataProvider(), table.getExportableColumns(), filename);
 	}
 
 	/**
@@ -282,6 +267,120 @@ public class CSVDataExporter implements IDataExporter
 		}
 	}
 
+	// Helpers //
+
+	/**
+	 * Indicates whether an exporter class overrides the deprecated {@link #quoteValue(String)}
+	 *
+	 * @param type the exporter class
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean isQuoting(Class<?> type)
+	{
+		Boolean quoting = QUOTING.get(type);
+
+		if (quoting == null)
+		{
+			quoting = false;
+
+			for (Class<?> c = type; c != CSVDataExporter.class && c != null; c = c.getSuperclass())
+			{
+				try
+				{
+					c.getDeclaredMethod("quoteValue", String.class);
+					quoting = true;
+					break;
+				}
+				catch (NoSuchMethodException e)
+				{
+					// continue
+				}
+			}
+
+			QUOTING.put(type, quoting);
+		}
+
+		return quoting;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the CSV {@link IRowWriter}
+	 */
+	private class CSVRowWriter implements IRowWriter
+	{
+		private final List<IExportableColumn> columns;
+		private final Writer writer;
+
+		public CSVRowWriter(List<IExportableColumn> columns, Writer writer)
+		{
+			this.columns = columns;
+			this.writer = writer;
+		}
+
+		@Override
+		public void writeHeaders() throws IOException
+		{
+			boolean first = true;
+
+			for (IExportableColumn column : this.columns)
+			{
+				if (first)
+				{
+					first = false;
+				}
+				else
+				{
+					this.writer.write(CSVDataExporter.this.delimiter);
+				}
+
+				CSVDataExporter.this.write(this.writer, column.getTitle());
+			}
+
+			this.writer.write(CSVDataExporter.this.lineEnding);
+		}
+
+		@Override
+		public void writeRow(List<IModel<Object>> models) throws IOException
+		{
+			boolean first = true;
+
+			for (IModel<Object> model : models)
+			{
+				if (first)
+				{
+					first = false;
+				}
+				else
+				{
+					this.writer.write(CSVDataExporter.this.delimiter);
+				}
+
+				Object object = model.getObject();
+
+				if (object != null)
+				{
+					CSVDataExporter.this.write(this.writer, object instanceof CharSequence ? (CharSequence) object : ConverterUtils.toString(object));
+				}
+			}
+
+			this.writer.write(CSVDataExporter.this.lineEnding);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			this.writer.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			this.writer.close();
+		}
+	}
+
 	/**
 	 * Provides the {@link IResourceStreamWriter} for the {@link CSVDataExporter}
 	 */
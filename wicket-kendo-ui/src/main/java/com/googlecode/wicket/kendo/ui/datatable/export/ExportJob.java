@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.jquery.core.data.IProjectionDataProvider;
+import com.googlecode.wicket.jquery.core.utils.WorkerContext;
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+
+/**
+ * Provides an export job, that runs an {@link IDataExporter} in the background and writes its output to a temporary file.<br>
+ * The job is created and scheduled by the {@link ExportJobService}; it reports its progress in terms of exported rows and written bytes, and can be cancelled at any time.<br>
+ * <br>
+ * <b>Note:</b> the provider and columns are used by a worker thread, outside of the page lock. They should therefore not be altered by the page while the job is running (ie: supply a dedicated provider instance).
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ExportJob implements Runnable
+{
+	private static final Logger LOG = LoggerFactory.getLogger(ExportJob.class);
+
+	/**
+	 * Job states
+	 */
+	public enum State
+	{
+		PENDING, RUNNING, DONE, FAILED, CANCELLED
+	}
+
+	private final String id;
+	private final String owner;
+	private final String filename;
+	private final IDataExporter exporter;
+	private final IDataProvider<?> provider;
+	private final List<IExportableColumn> columns;
+
+	private final WorkerContext context;
+
+	private volatile State state = State.PENDING;
+	private volatile long size = -1;
+	private volatile long rows = 0;
+	private volatile long bytes = 0;
+	private volatile long timestamp;
+
+	private File file = null;
+	private Future<?> future = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param exporter the {@link IDataExporter}
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param filename the file name of the output
+	 */
+	ExportJob(String owner, IDataExporter exporter, IDataProvider<?> provider, List<IExportableColumn> columns, String filename)
+	{
+		this.id = UUID.randomUUID().toString();
+		this.owner = owner;
+		this.filename = filename;
+		this.exporter = exporter;
+		this.provider = provider;
+		this.columns = columns;
+
+		this.context = new WorkerContext();
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the job id
+	 *
+	 * @return the job id
+	 */
+	public String getId()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Gets the job owner
+	 *
+	 * @return the owner (ie: the session id)
+	 */
+	public String getOwner()
+	{
+		return this.owner;
+	}
+
+	/**
+	 * Gets the file name of the output
+	 *
+	 * @return the file name
+	 */
+	public String getFilename()
+	{
+		return this.filename;
+	}
+
+	/**
+	 * Gets the content type of the output
+	 *
+	 * @return the content type
+	 */
+	public String getContentType()
+	{
+		return this.exporter.getContentType();
+	}
+
+	/**
+	 * Gets the job state
+	 *
+	 * @return the {@link State}
+	 */
+	public State getState()
+	{
+		return this.state;
+	}
+
+	/**
+	 * Gets the total number of rows to export
+	 *
+	 * @return the number of rows or {@code -1} if not yet known
+	 */
+	public long getSize()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Gets the number of exported rows
+	 *
+	 * @return the number of rows
+	 */
+	public long getRows()
+	{
+		return this.rows;
+	}
+
+	/**
+	 * Gets the number of written bytes
+	 *
+	 * @return the number of bytes
+	 */
+	public long getBytes()
+	{
+		return this.bytes;
+	}
+
+	/**
+	 * Gets the progress, as a percentage
+	 *
+	 * @return the progress, from {@code 0} to {@code 100}
+	 */
+	public int getProgress()
+	{
+		if (this.state == State.DONE)
+		{
+			return 100;
+		}
+
+		long total = this.size;
+
+		if (total <= 0)
+		{
+			return 0;
+		}
+
+		return (int) Math.min(99, this.rows * 100 / total); // 100 is reached once the output is complete
+	}
+
+	/**
+	 * Gets the time of the last state change
+	 *
+	 * @return the time in milliseconds
+	 */
+	long getTimestamp()
+	{
+		return this.timestamp;
+	}
+
+	/**
+	 * Gets the output file
+	 *
+	 * @return the {@link File}, or {@code null} if the job is not {@link State#DONE}
+	 */
+	public File getFile()
+	{
+		return this.isDone() ? this.file : null;
+	}
+
+	/**
+	 * Indicates whether the output is complete and available
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isDone()
+	{
+		return this.state == State.DONE;
+	}
+
+	/**
+	 * Indicates whether the job is pending or running
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isActive()
+	{
+		return this.state == State.PENDING || this.state == State.RUNNING;
+	}
+
+	/**
+	 * Indicates whether the job has been cancelled
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isCancelled()
+	{
+		return this.state == State.CANCELLED;
+	}
+
+	/**
+	 * Sets the {@link Future} of the scheduled job
+	 *
+	 * @param future the {@code Future}
+	 */
+	void setFuture(Future<?> future)
+	{
+		this.future = future;
+	}
+
+	// Methods //
+
+	/**
+	 * Cancels the job<br>
+	 * A running job stops at the next row; the output file, if any, is deleted.
+	 */
+	public synchronized void cancel()
+	{
+		State previous = this.state;
+
+		if (this.isActive())
+		{
+			this.setState(State.CANCELLED);
+
+			if (this.future != null)
+			{
+				this.future.cancel(false);
+			}
+		}
+
+		if (previous != State.RUNNING)
+		{
+			this.delete(); // otherwise, the worker deletes the file on completion
+		}
+	}
+
+	/**
+	 * Deletes the output file
+	 */
+	synchronized void delete()
+	{
+		if (this.file != null)
+		{
+			if (!this.file.delete())
+			{
+				LOG.warn("Unable to delete export file {}", this.file);
+			}
+
+			this.file = null;
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		synchronized (this)
+		{
+			if (this.state != State.PENDING)
+			{
+				return; // cancelled before being started
+			}
+
+			this.setState(State.RUNNING);
+		}
+
+		ThreadContext previous = this.context.attach();
+
+		try
+		{
+			this.file = File.createTempFile("export-", ".tmp");
+			this.export(this.provider);
+
+			this.complete(State.DONE);
+		}
+		catch (CancellationException e)
+		{
+			this.complete(State.CANCELLED);
+		}
+		catch (Exception e)
+		{
+			LOG.error(e.getMessage(), e);
+			this.complete(State.FAILED);
+		}
+		finally
+		{
+			WorkerContext.detach(previous);
+		}
+	}
+
+	/**
+	 * Exports the data to the output file
+	 *
+	 * @param <T> the object type
+	 * @param provider the {@link IDataProvider}
+	 * @throws IOException if the output could not be written
+	 */
+	private <T> void export(IDataProvider<T> provider) throws IOException
+	{
+		OutputStream output = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(this.file)));
+
+		try
+		{
+			this.size = provider.size();
+			this.exporter.exportData(new JobDataProvider<T>(provider), this.columns, output);
+		}
+		finally
+		{
+			output.close(); // closing twice is harmless
+			provider.detach();
+		}
+	}
+
+	// Helpers //
+
+	/**
+	 * Sets the state
+	 *
+	 * @param state the {@link State}
+	 */
+	private void setState(State state)
+	{
+		this.state = state;
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Completes the job with the supplied state, unless it has been cancelled in the meantime
+	 *
+	 * @param state the {@link State}
+	 */
+	private synchronized void complete(State state)
+	{
+		if (this.state == State.RUNNING)
+		{
+			this.setState(state);
+		}
+
+		if (this.state != State.DONE)
+		{
+			this.delete();
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("ExportJob [id: %s, state: %s, rows: %d/%d, bytes: %d]", this.id, this.state, this.rows, this.size, this.bytes);
+	}
+
+	// Classes //
+
+	/**
+	 * Provides an {@link OutputStream} that counts the written bytes
+	 */
+	private class CountingOutputStream extends FilterOutputStream
+	{
+		public CountingOutputStream(OutputStream output)
+		{
+			super(output);
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			this.out.write(b);
+			ExportJob.this.bytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			this.out.write(b, off, len);
+			ExportJob.this.bytes += len;
+		}
+	}
+
+	/**
+	 * Provides an {@link IDataProvider} wrapper that counts the exported rows and stops when the job is cancelled
+	 *
+	 * @param <T> the object type
+	 */
+	private class JobDataProvider<T> implements IProjectionDataProvider<T>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final IDataProvider<T> provider;
+
+		public JobDataProvider(IDataProvider<T> provider)
+		{
+			this.provider = provider;
+		}
+
+		@Override
+		public void setProjection(Set<String> properties)
+		{
+			if (this.provider instanceof IProjectionDataProvider<?>)
+			{
+				((IProjectionDataProvider<?>) this.provider).setProjection(properties);
+			}
+		}
+
+		@Override
+		public Iterator<? extends T> iterator(long first, long count)
+		{
+			final Iterator<? extends T> iterator = this.provider.iterator(first, count);
+
+			return new Iterator<T>() {
+
+				@Override
+				public boolean hasNext()
+				{
+					if (ExportJob.this.isCancelled() || Thread.currentThread().isInterrupted())
+					{
+						throw new CancellationException();
+					}
+
+					return iterator.hasNext();
+				}
+
+				@Override
+				public T next()
+				{
+					T object = iterator.next();
+					ExportJob.this.rows++;
+
+					return object;
+				}
+
+				@Override
+				public void remove()
+				{
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public long size()
+		{
+			return this.provider.size();
+		}
+
+		@Override
+		public IModel<T> model(T object)
+		{
+			return this.provider.model(object);
+		}
+
+		@Override
+		public void detach()
+		{
+			this.provider.detach();
+		}
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.ajax.AbstractAjaxTimerBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
+import org.apache.wicket.core.util.lang.WicketObjects;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.core.Options;
+import com.googlecode.wicket.kendo.ui.datatable.DataTable;
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+import com.googlecode.wicket.kendo.ui.widget.progressbar.ProgressBar;
+
+/**
+ * Provides a Kendo UI progress-bar that runs and monitors an {@link ExportJob}.<br>
+ * The job is submitted to the {@link ExportJobService} and runs outside of the request thread; the progress-bar polls its progress and the output is downloaded once the job is complete.
+ *
+ * <pre>
+ * progressbar.start(target, new CSVDataExporter(), table, "export.csv");
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ExportJobProgressBar extends ProgressBar
+{
+	private static final long serialVersionUID = 1L;
+
+	/** default polling interval */
+	private static final Duration INTERVAL = Duration.seconds(1);
+
+	private final AbstractAjaxTimerBehavior timerBehavior;
+
+	/** the current job id */
+	private String jobId = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id the markup id
+	 */
+	public ExportJobProgressBar(String id)
+	{
+		this(id, INTERVAL, new Options());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param id the markup id
+	 * @param interval the polling interval
+	 * @param options the {@link Options}
+	 */
+	public ExportJobProgressBar(String id, Duration interval, Options options)
+	{
+		super(id, Model.of(0), options);
+
+		this.timerBehavior = this.newTimerBehavior(interval);
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the current {@link ExportJob}
+	 *
+	 * @return the {@code ExportJob}, or {@code null} if no job has been started or if the job has been purged
+	 */
+	public ExportJob getJob()
+	{
+		return ExportJobService.get().get(Session.get().getId(), this.jobId);
+	}
+
+	// Methods //
+
+	/**
+	 * Starts exporting the {@link DataTable} data
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param exporter the {@link IDataExporter}
+	 * @param table the {@link DataTable}
+	 * @param filename the file name of the output
+	 * @throws RejectedExecutionException if the user has too many active jobs, or if the queue is full
+	 */
+	public void start(IPartialPageRequestHandler handler, IDataExporter exporter, DataTable<?> table, String filename)
+	{
+		this.start(handler, exporter, table.getDataProvider(), table.getExportableColumns(), filename);
+	}
+
+	/**
+	 * Starts exporting the {@link IDataProvider} data<br>
+	 * The job works on a detached copy of the provider, so the page state is neither shared with nor altered by the worker thread
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param exporter the {@link IDataExporter}
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param filename the file name of the output
+	 * @throws RejectedExecutionException if the user has too many active jobs, or if the queue is full
+	 */
+	public void start(IPartialPageRequestHandler handler, IDataExporter exporter, IDataProvider<?> provider, List<IExportableColumn> columns, String filename)
+	{
+		List<IExportableColumn> snapshot = new ArrayList<IExportableColumn>(columns);
+		ExportJob job = ExportJobService.get().submit(exporter, WicketObjects.cloneObject(provider), snapshot, filename);
+
+		this.jobId = job.getId();
+		this.setModelObject(0);
+		this.refresh(handler);
+		this.timerBehavior.restart(handler);
+	}
+
+	/**
+	 * Cancels the current job, if any
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 */
+	public void cancel(IPartialPageRequestHandler handler)
+	{
+		ExportJob job = this.getJob();
+
+		if (job != null)
+		{
+			ExportJobService.get().remove(job);
+		}
+
+		this.jobId = null;
+		this.timerBehavior.stop(handler);
+		this.setModelObject(0);
+		this.refresh(handler);
+	}
+
+	/**
+	 * Downloads the output of the current job<br>
+	 * The output is served by the {@link ExportJobResource}, which does not lock the page
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 */
+	public void download(IPartialPageRequestHandler handler)
+	{
+		PageParameters parameters = new PageParameters().add(ExportJobResource.PARAM_JOB, this.jobId);
+		CharSequence url = RequestCycle.get().urlFor(ExportJobResourceReference.get(), parameters);
+
+		handler.appendJavaScript(String.format("window.location.href = %s;", JSONObject.quote(url.toString())));
+	}
+
+	// Events //
+
+	@Override
+	protected void onInitialize()
+	{
+		super.onInitialize();
+
+		this.add(this.timerBehavior);
+		this.getApplication().getResourceReferenceRegistry().registerResourceReference(ExportJobResourceReference.get());
+
+		this.timerBehavior.stop(null); // started on demand
+	}
+
+	/**
+	 * Triggered on each poll, while the job is running
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param job the {@link ExportJob}
+	 */
+	protected void onProgress(IPartialPageRequestHandler handler, ExportJob job)
+	{
+		// noop
+	}
+
+	/**
+	 * Triggered when the job failed or has been cancelled
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param job the {@link ExportJob}, which may be {@code null} if it has been purged
+	 */
+	protected void onError(IPartialPageRequestHandler handler, ExportJob job)
+	{
+		// noop
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link AbstractAjaxTimerBehavior} that polls the job progress
+	 *
+	 * @param interval the polling interval
+	 * @return a new {@code AbstractAjaxTimerBehavior}
+	 */
+	private AbstractAjaxTimerBehavior newTimerBehavior(Duration interval)
+	{
+		return new AbstractAjaxTimerBehavior(interval) { // NOSONAR
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void onTimer(AjaxRequestTarget target)
+			{
+				ExportJob job = ExportJobProgressBar.this.getJob();
+
+				if (job == null || job.getState() == ExportJob.State.FAILED || job.isCancelled())
+				{
+					this.stop(target);
+					ExportJobProgressBar.this.onError(target, job);
+
+					return;
+				}
+
+				ExportJobProgressBar.this.setModelObject(job.getProgress());
+				ExportJobProgressBar.this.refresh(target); // fires #onComplete if done
+				ExportJobProgressBar.this.onProgress(target, job);
+
+				if (job.isDone())
+				{
+					this.stop(target);
+					ExportJobProgressBar.this.download(target);
+				}
+			}
+		};
+	}
+}
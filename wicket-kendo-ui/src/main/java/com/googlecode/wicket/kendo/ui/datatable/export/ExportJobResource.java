@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.ContentDisposition;
+import org.apache.wicket.request.resource.PartWriterCallback;
+import org.apache.wicket.util.time.Time;
+
+/**
+ * Provides the shared resource that serves the output of a completed {@link ExportJob}, identified by the {@code job} request parameter.<br>
+ * Byte ranges are supported, so interrupted downloads can be resumed.<br>
+ * Being a shared resource, the download does not lock the page.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ExportJobResource extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+
+	/** the request parameter holding the job id */
+	static final String PARAM_JOB = "job";
+
+	@Override
+	protected ResourceResponse newResourceResponse(Attributes attributes)
+	{
+		final ResourceResponse response = new ResourceResponse();
+		final String id = attributes.getRequest().getRequestParameters().getParameterValue(PARAM_JOB).toOptionalString();
+		final ExportJob job = Session.exists() ? ExportJobService.get().get(Session.get().getId(), id) : null;
+		final File file = job != null ? job.getFile() : null;
+
+		if (file == null)
+		{
+			response.setError(HttpURLConnection.HTTP_NOT_FOUND);
+
+			return response;
+		}
+
+		final long length = file.length();
+		final Long startbyte = RequestCycle.get().getMetaData(CONTENT_RANGE_STARTBYTE);
+		final Long endbyte = RequestCycle.get().getMetaData(CONTENT_RANGE_ENDBYTE);
+
+		response.setFileName(job.getFilename());
+		response.setContentType(job.getContentType());
+		response.setContentDisposition(ContentDisposition.ATTACHMENT);
+		response.setAcceptRange(ContentRangeType.BYTES);
+		response.setContentLength(length);
+		response.setLastModified(Time.millis(file.lastModified()));
+		response.disableCaching();
+
+		if (response.dataNeedsToBeWritten(attributes))
+		{
+			response.setWriteCallback(new WriteCallback() {
+
+				@Override
+				public void writeData(Attributes attributes) throws IOException
+				{
+					new PartWriterCallback(new FileInputStream(file), length, startbyte, endbyte).setClose(true).writeData(attributes);
+				}
+			});
+		}
+
+		return response;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.ResourceReference;
+
+/**
+ * The resource reference of the {@link ExportJobResource}.<br>
+ * The reference is registered by the {@link ExportJobProgressBar}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ExportJobResourceReference extends ResourceReference
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final ExportJobResourceReference INSTANCE = new ExportJobResourceReference();
+
+	/**
+	 * Gets the single instance of the resource reference
+	 *
+	 * @return the {@link ExportJobResourceReference}
+	 */
+	public static ExportJobResourceReference get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Private constructor
+	 */
+	private ExportJobResourceReference()
+	{
+		super(ExportJobResourceReference.class, "export");
+	}
+
+	@Override
+	public IResource getResource()
+	{
+		return new ExportJobResource();
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IApplicationListener;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Session;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+
+/**
+ * Provides the application-wide service that runs {@link ExportJob}{@code s} on a bounded executor.<br>
+ * The service limits the number of concurrent workers, the number of queued jobs and the number of active jobs per user (session). Completed jobs are kept for a retention period, so their output can be downloaded, and are purged afterward by a periodic task.<br>
+ * <br>
+ * The service is lazily installed with default settings by {@link #get()}; a custom service can be installed beforehand, ie: in {@code Application#init()}:
+ *
+ * <pre>
+ * ExportJobService.install(this, new ExportJobService(4, 32, 2, Duration.minutes(30)));
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ExportJobService implements IApplicationListener
+{
+	private static final Logger LOG = LoggerFactory.getLogger(ExportJobService.class);
+
+	private static final MetaDataKey<ExportJobService> KEY = new MetaDataKey<ExportJobService>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/** default number of workers */
+	private static final int THREADS = 2;
+
+	/** default number of queued jobs */
+	private static final int CAPACITY = 16;
+
+	/** default number of active jobs per user */
+	private static final int JOBS_PER_USER = 1;
+
+	/** default retention period of completed jobs */
+	private static final Duration RETENTION = Duration.minutes(10);
+
+	private final int jobsPerUser;
+	private final Duration retention;
+	private final ExecutorService executor;
+	private final ScheduledExecutorService scheduler;
+	private final ConcurrentMap<String, ExportJob> jobs;
+
+	/**
+	 * Constructor
+	 */
+	public ExportJobService()
+	{
+		this(THREADS, CAPACITY, JOBS_PER_USER, RETENTION);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads the number of workers
+	 * @param capacity the max number of queued jobs
+	 * @param jobsPerUser the max number of active (pending or running) jobs per user
+	 * @param retention the retention period of completed jobs
+	 */
+	public ExportJobService(int threads, int capacity, int jobsPerUser, Duration retention)
+	{
+		this.jobsPerUser = jobsPerUser;
+		this.retention = Args.notNull(retention, "retention");
+		this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(capacity), new ExportThreadFactory("export-job-"));
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ExportThreadFactory("export-purge-"));
+		this.jobs = new ConcurrentHashMap<String, ExportJob>();
+
+		final long period = Math.max(1000L, retention.getMilliseconds() / 2); // expired outputs are deleted within half a retention period
+		this.scheduler.scheduleWithFixedDelay(new PurgeTask(), period, period, TimeUnit.MILLISECONDS);
+	}
+
+	// Methods //
+
+	/**
+	 * Submits a new {@link ExportJob} on behalf of the current session
+	 *
+	 * @param exporter the {@link IDataExporter}
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param filename the file name of the output
+	 * @return the new {@code ExportJob}
+	 * @throws RejectedExecutionException if the user has too many active jobs, or if the queue is full
+	 */
+	public ExportJob submit(IDataExporter exporter, IDataProvider<?> provider, List<IExportableColumn> columns, String filename)
+	{
+		Session session = Session.get();
+		session.bind(); // ensures the session id
+
+		return this.submit(session.getId(), exporter, provider, columns, filename);
+	}
+
+	/**
+	 * Submits a new {@link ExportJob}
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param exporter the {@link IDataExporter}
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param filename the file name of the output
+	 * @return the new {@code ExportJob}
+	 * @throws RejectedExecutionException if the owner has too many active jobs, or if the queue is full
+	 */
+	public synchronized ExportJob submit(String owner, IDataExporter exporter, IDataProvider<?> provider, List<IExportableColumn> columns, String filename)
+	{
+		this.purge();
+
+		if (this.getActiveCount(owner) >= this.jobsPerUser)
+		{
+			throw new RejectedExecutionException(String.format("Too many active export jobs for %s", owner));
+		}
+
+		ExportJob job = new ExportJob(owner, exporter, provider, columns, filename);
+		job.setFuture(this.executor.submit(job)); // may throw RejectedExecutionException
+		this.jobs.put(job.getId(), job);
+
+		return job;
+	}
+
+	/**
+	 * Gets an {@link ExportJob}
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @param id the job id
+	 * @return the {@code ExportJob}, or {@code null} if not found or not owned by the supplied owner
+	 */
+	public ExportJob get(String owner, String id)
+	{
+		ExportJob job = id != null ? this.jobs.get(id) : null;
+
+		if (job != null && job.getOwner().equals(owner))
+		{
+			return job;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Cancels and removes an {@link ExportJob}, deleting its output
+	 *
+	 * @param job the {@code ExportJob}
+	 */
+	public void remove(ExportJob job)
+	{
+		if (this.jobs.remove(job.getId()) != null)
+		{
+			job.cancel();
+		}
+	}
+
+	/**
+	 * Gets the number of active (pending or running) jobs of an owner
+	 *
+	 * @param owner the owner (ie: the session id)
+	 * @return the number of active jobs
+	 */
+	public int getActiveCount(String owner)
+	{
+		int count = 0;
+
+		for (ExportJob job : this.jobs.values())
+		{
+			if (job.isActive() && job.getOwner().equals(owner))
+			{
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Removes the completed jobs whose retention period has expired<br>
+	 * This method is called periodically, and on each submission
+	 */
+	protected void purge()
+	{
+		final long expiry = System.currentTimeMillis() - this.retention.getMilliseconds();
+
+		for (Iterator<ExportJob> iterator = this.jobs.values().iterator(); iterator.hasNext();)
+		{
+			ExportJob job = iterator.next();
+
+			if (!job.isActive() && job.getTimestamp() < expiry)
+			{
+				iterator.remove();
+				job.delete();
+			}
+		}
+	}
+
+	/**
+	 * Shuts the service down, cancelling all jobs
+	 */
+	public void shutdown()
+	{
+		this.executor.shutdownNow();
+		this.scheduler.shutdownNow();
+
+		for (ExportJob job : this.jobs.values())
+		{
+			job.cancel();
+		}
+
+		this.jobs.clear();
+	}
+
+	// IApplicationListener //
+
+	@Override
+	public void onAfterInitialized(Application application)
+	{
+		// noop
+	}
+
+	@Override
+	public void onBeforeDestroyed(Application application)
+	{
+		this.shutdown();
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the {@link ExportJobService} of the current application, installing a default one if needed
+	 *
+	 * @return the {@code ExportJobService}
+	 */
+	public static ExportJobService get()
+	{
+		return ExportJobService.get(Application.get());
+	}
+
+	/**
+	 * Gets the {@link ExportJobService} of the supplied application, installing a default one if needed
+	 *
+	 * @param application the {@link Application}
+	 * @return the {@code ExportJobService}
+	 */
+	public static ExportJobService get(Application application)
+	{
+		synchronized (application)
+		{
+			ExportJobService service = application.getMetaData(KEY);
+
+			if (service == null)
+			{
+				service = new ExportJobService();
+				ExportJobService.install(application, service);
+			}
+
+			return service;
+		}
+	}
+
+	/**
+	 * Installs an {@link ExportJobService}
+	 *
+	 * @param application the {@link Application}
+	 * @param service the {@code ExportJobService}
+	 */
+	public static void install(Application application, ExportJobService service)
+	{
+		synchronized (application)
+		{
+			application.setMetaData(KEY, service);
+			application.getApplicationListeners().add(service);
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the {@link ThreadFactory} of export workers
+	 */
+	private static class ExportThreadFactory implements ThreadFactory
+	{
+		private final String prefix;
+		private final AtomicInteger counter = new AtomicInteger();
+
+		public ExportThreadFactory(String prefix)
+		{
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, this.prefix + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
+
+	/**
+	 * Provides the periodic task that purges the expired jobs
+	 */
+	private class PurgeTask implements Runnable
+	{
+		@Override
+		public void run()
+		{
+			try
+			{
+				ExportJobService.this.purge();
+			}
+			catch (RuntimeException e)
+			{
+				LOG.error(e.getMessage(), e); // otherwise, the subsequent executions are suppressed
+			}
+		}
+	}
+}
@@ -0,0 +1,550 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalDateTime;
+
+import com.googlecode.wicket.jquery.core.utils.ConverterUtils;
+import com.googlecode.wicket.kendo.ui.datatable.DataTable;
+import com.googlecode.wicket.kendo.ui.datatable.column.CurrencyPropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.DatePropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.IExportableColumn;
+import com.googlecode.wicket.kendo.ui.datatable.column.NumberPropertyColumn;
+import com.googlecode.wicket.kendo.ui.datatable.export.CSVDataExporter.DataExporterResourceStreamWriter;
+
+/**
+ * Provides Excel (xlsx) export capability for the {@link DataTable}<br>
+ * The SpreadsheetML parts are written as a streamed zip; strings are written inline (no shared-strings table), so the memory footprint does not depend on the number of rows.<br>
+ * Cells are typed: {@link NumberPropertyColumn}{@code s}, {@link CurrencyPropertyColumn}{@code s} and {@link DatePropertyColumn}{@code s} - as well as {@link Number}, {@link Date} and {@link Boolean} values - are written as numeric, currency, date and boolean cells respectively.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class XLSXDataExporter extends AbstractDataExporter
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(XLSXDataExporter.class);
+
+	private static final String MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+	private static final Charset UTF_8 = Charset.forName("utf-8");
+
+	/** buffer size of the encoder */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** max length of a sheet name */
+	private static final int SHEET_NAME_LENGTH = 31;
+
+	/** number of days between 1899-12-30 (excel epoch) and 1970-01-01 */
+	private static final long EPOCH_OFFSET = 25569L;
+
+	private static final double MILLIS_PER_DAY = 86400000d;
+	private static final double SECONDS_PER_DAY = 86400d;
+
+	// cellXfs indexes, see styles.xml //
+	private static final int STYLE_HEADER = 1;
+	private static final int STYLE_DATE = 2;
+	private static final int STYLE_DATETIME = 3;
+	private static final int STYLE_CURRENCY = 4;
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+	private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final String NS_RELS = "http://schemas.openxmlformats.org/package/2006/relationships";
+	private static final String NS_DOC_RELS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	private String sheetName = "Sheet1";
+
+	/**
+	 * Constructor
+	 */
+	public XLSXDataExporter()
+	{
+		super();
+	}
+
+	// Properties //
+
+	@Override
+	public String getContentType()
+	{
+		return MIME;
+	}
+
+	@Override
+	public XLSXDataExporter setExportHeadersEnabled(boolean enabled)
+	{
+		super.setExportHeadersEnabled(enabled);
+
+		return this;
+	}
+
+	@Override
+	public XLSXDataExporter setChunkSize(int chunkSize)
+	{
+		super.setChunkSize(chunkSize);
+
+		return this;
+	}
+
+	/**
+	 * Sets the name of the sheet
+	 *
+	 * @param sheetName the sheet name, "Sheet1" by default
+	 * @return this, for chaining
+	 */
+	public XLSXDataExporter setSheetName(String sheetName)
+	{
+		Args.notEmpty(sheetName, "sheetName");
+
+		this.sheetName = sheetName.length() > SHEET_NAME_LENGTH ? sheetName.substring(0, SHEET_NAME_LENGTH) : sheetName;
+
+		return this;
+	}
+
+	// Methods //
+
+	/**
+	 * Gets the cell style of a column, that is either {@link CellStyle#NUMBER}, {@link CellStyle#CURRENCY}, {@link CellStyle#DATE} or {@link CellStyle#AUTO}
+	 *
+	 * @param column the {@link IExportableColumn}
+	 * @return the {@link CellStyle}
+	 */
+	protected CellStyle getCellStyle(IExportableColumn column)
+	{
+		if (column instanceof CurrencyPropertyColumn)
+		{
+			return CellStyle.CURRENCY;
+		}
+
+		if (column instanceof NumberPropertyColumn)
+		{
+			return CellStyle.NUMBER;
+		}
+
+		if (column instanceof DatePropertyColumn)
+		{
+			return CellStyle.DATE;
+		}
+
+		return CellStyle.AUTO;
+	}
+
+	// Factories //
+
+	@Override
+	protected IRowWriter newRowWriter(List<IExportableColumn> columns, OutputStream output) throws IOException
+	{
+		return new XLSXRowWriter(columns, output);
+	}
+
+	// Statics //
+
+	/**
+	 * Exports {@link DataTable} data to a xlsx file, within the request thread
+	 *
+	 * @param cycle the {@link RequestCycle}
+	 * @param table the {@link DataTable}
+	 * @param filename the file name of the output
+	 */
+	public static void export(RequestCycle cycle, final DataTable<?> table, String filename)
+	{
+		XLSXDataExporter.export(cycle, table.getDataProvider(), table.getExportableColumns(), filename);
+	}
+
+	/**
+	 * Exports {@link DataTable} data to a xlsx file, within the request thread
+	 *
+	 * @param cycle the {@link RequestCycle}
+	 * @param provider the {@link IDataProvider}
+	 * @param columns the list of {@link IExportableColumn}
+	 * @param filename the file name of the output
+	 */
+	public static void export(RequestCycle cycle, final IDataProvider<?> provider, final List<IExportableColumn> columns, String filename)
+	{
+		IResourceStream stream = new DataExporterResourceStreamWriter(new XLSXDataExporter(), provider, columns);
+		cycle.scheduleRequestHandlerAfterCurrent(new ResourceStreamRequestHandler(stream, filename));
+
+		try
+		{
+			stream.close();
+		}
+		catch (IOException e)
+		{
+			LOG.error(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Gets the column reference (ie: "A", "AB") of the supplied column index
+	 *
+	 * @param index the 0-based column index
+	 * @return the column reference
+	 */
+	private static String toColumnReference(int index)
+	{
+		StringBuilder builder = new StringBuilder();
+
+		for (int i = index + 1; i > 0; i = (i - 1) / 26)
+		{
+			builder.insert(0, (char) ('A' + (i - 1) % 26));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Writes an xml-escaped text to the output; characters that are not allowed in xml are skipped.
+	 *
+	 * @param writer the {@link Writer}
+	 * @param text the text
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void writeEscaped(Writer writer, CharSequence text) throws IOException
+	{
+		for (int i = 0, length = text.length(); i < length; i++)
+		{
+			char c = text.charAt(i);
+
+			switch (c)
+			{
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '"':
+					writer.write("&quot;");
+					break;
+				default:
+					if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r')
+					{
+						writer.write(c);
+					}
+			}
+		}
+	}
+
+	// Classes //
+
+	/**
+	 * Cell styles
+	 */
+	public enum CellStyle
+	{
+		/** typed according to the value: number, date, boolean or string */
+		AUTO,
+		/** numeric cell */
+		NUMBER,
+		/** numeric cell, with a currency format */
+		CURRENCY,
+		/** date cell */
+		DATE
+	}
+
+	/**
+	 * Provides the SpreadsheetML {@link IRowWriter}
+	 */
+	private class XLSXRowWriter implements IRowWriter
+	{
+		private final List<IExportableColumn> columns;
+		private final ZipOutputStream zip;
+		private final Writer writer;
+		private final String[] references;
+		private final CellStyle[] styles;
+		private final TimeZone timezone;
+
+		private long row = 0;
+
+		public XLSXRowWriter(List<IExportableColumn> columns, OutputStream output) throws IOException
+		{
+			this.zip = new ZipOutputStream(output);
+			this.writer = new BufferedWriter(new OutputStreamWriter(this.zip, UTF_8), BUFFER_SIZE);
+			this.references = new String[columns.size()];
+			this.styles = new CellStyle[columns.size()];
+			this.timezone = TimeZone.getDefault();
+
+			for (int i = 0; i < columns.size(); i++)
+			{
+				this.references[i] = XLSXDataExporter.toColumnReference(i);
+				this.styles[i] = XLSXDataExporter.this.getCellStyle(columns.get(i));
+			}
+
+			this.columns = columns;
+			this.writePackage();
+			this.beginEntry("xl/worksheets/sheet1.xml");
+			this.writer.write(XML);
+			this.writer.write("<worksheet xmlns=\"" + NS_MAIN + "\"><sheetData>");
+		}
+
+		@Override
+		public void writeHeaders() throws IOException
+		{
+			this.beginRow();
+
+			for (int i = 0; i < this.columns.size(); i++)
+			{
+				this.writeString(i, this.columns.get(i).getTitle(), STYLE_HEADER);
+			}
+
+			this.writer.write("</row>");
+		}
+
+		@Override
+		public void writeRow(List<IModel<Object>> models) throws IOException
+		{
+			this.beginRow();
+
+			for (int i = 0; i < models.size(); i++)
+			{
+				this.writeCell(i, models.get(i).getObject());
+			}
+
+			this.writer.write("</row>");
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			this.writer.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				this.writer.write("</sheetData></worksheet>");
+				this.endEntry();
+			}
+			finally
+			{
+				this.zip.close();
+			}
+		}
+
+		// Helpers //
+
+		private void beginRow() throws IOException
+		{
+			this.row++;
+			this.writer.write("<row r=\"");
+			this.writer.write(Long.toString(this.row));
+			this.writer.write("\">");
+		}
+
+		private void beginCell(int index, String type, int style) throws IOException
+		{
+			this.writer.write("<c r=\"");
+			this.writer.write(this.references[index]);
+			this.writer.write(Long.toString(this.row));
+			this.writer.write('"');
+
+			if (type != null)
+			{
+				this.writer.write(" t=\"");
+				this.writer.write(type);
+				this.writer.write('"');
+			}
+
+			if (style > 0)
+			{
+				this.writer.write(" s=\"");
+				this.writer.write(Integer.toString(style));
+				this.writer.write('"');
+			}
+
+			this.writer.write('>');
+		}
+
+		private void writeCell(int index, Object object) throws IOException
+		{
+			if (object == null)
+			{
+				return; // missing cells are allowed, as cells are referenced
+			}
+
+			final CellStyle style = this.styles[index];
+
+			if (object instanceof Number)
+			{
+				this.writeNumber(index, (Number) object, style == CellStyle.CURRENCY ? STYLE_CURRENCY : 0);
+			}
+			else if (object instanceof Date)
+			{
+				Date date = (Date) object;
+				double days = (date.getTime() + this.timezone.getOffset(date.getTime())) / MILLIS_PER_DAY + EPOCH_OFFSET;
+				this.writeNumber(index, days, style == CellStyle.DATE ? STYLE_DATE : STYLE_DATETIME);
+			}
+			else if (object instanceof LocalDate)
+			{
+				this.writeNumber(index, ((LocalDate) object).toEpochDay() + EPOCH_OFFSET, STYLE_DATE);
+			}
+			else if (object instanceof LocalDateTime)
+			{
+				LocalDateTime datetime = (LocalDateTime) object;
+				double days = datetime.toLocalDate().toEpochDay() + EPOCH_OFFSET + datetime.toLocalTime().toSecondOfDay() / SECONDS_PER_DAY;
+				this.writeNumber(index, days, style == CellStyle.DATE ? STYLE_DATE : STYLE_DATETIME);
+			}
+			else if (object instanceof Boolean)
+			{
+				this.beginCell(index, "b", 0);
+				this.writer.write("<v>");
+				this.writer.write((Boolean) object ? '1' : '0');
+				this.writer.write("</v></c>");
+			}
+			else
+			{
+				this.writeString(index, object instanceof CharSequence ? (CharSequence) object : ConverterUtils.toString(object), 0);
+			}
+		}
+
+		private void writeNumber(int index, Number number, int style) throws IOException
+		{
+			String value;
+
+			if (number instanceof BigDecimal)
+			{
+				value = ((BigDecimal) number).toPlainString();
+			}
+			else if (number instanceof Double || number instanceof Float)
+			{
+				double d = number.doubleValue();
+
+				if (Double.isNaN(d) || Double.isInfinite(d))
+				{
+					this.writeString(index, number.toString(), 0);
+
+					return;
+				}
+
+				value = Double.toString(d);
+			}
+			else
+			{
+				value = number.toString();
+			}
+
+			this.beginCell(index, "n", style);
+			this.writer.write("<v>");
+			this.writer.write(value);
+			this.writer.write("</v></c>");
+		}
+
+		private void writeString(int index, CharSequence text, int style) throws IOException
+		{
+			this.beginCell(index, "inlineStr", style);
+			this.writer.write("<is><t xml:space=\"preserve\">");
+			XLSXDataExporter.writeEscaped(this.writer, text);
+			this.writer.write("</t></is></c>");
+		}
+
+		private void beginEntry(String name) throws IOException
+		{
+			this.zip.putNextEntry(new ZipEntry(name));
+		}
+
+		private void endEntry() throws IOException
+		{
+			this.writer.flush();
+			this.zip.closeEntry();
+		}
+
+		private void writeEntry(String name, String content) throws IOException
+		{
+			this.beginEntry(name);
+			this.writer.write(XML);
+			this.writer.write(content);
+			this.endEntry();
+		}
+
+		/**
+		 * Writes the package parts, but the sheet
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		private void writePackage() throws IOException
+		{
+			this.writeEntry("[Content_Types].xml", // lf
+					"<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" // lf
+							+ "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" // lf
+							+ "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" // lf
+							+ "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" // lf
+							+ "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" // lf
+							+ "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>" // lf
+							+ "</Types>");
+
+			this.writeEntry("_rels/.rels", // lf
+					"<Relationships xmlns=\"" + NS_RELS + "\">" // lf
+							+ "<Relationship Id=\"rId1\" Type=\"" + NS_DOC_RELS + "/officeDocument\" Target=\"xl/workbook.xml\"/>" // lf
+							+ "</Relationships>");
+
+			this.beginEntry("xl/workbook.xml");
+			this.writer.write(XML);
+			this.writer.write("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_DOC_RELS + "\"><sheets><sheet name=\"");
+			XLSXDataExporter.writeEscaped(this.writer, XLSXDataExporter.this.sheetName);
+			this.writer.write("\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+			this.endEntry();
+
+			this.writeEntry("xl/_rels/workbook.xml.rels", // lf
+					"<Relationships xmlns=\"" + NS_RELS + "\">" // lf
+							+ "<Relationship Id=\"rId1\" Type=\"" + NS_DOC_RELS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>" // lf
+							+ "<Relationship Id=\"rId2\" Type=\"" + NS_DOC_RELS + "/styles\" Target=\"styles.xml\"/>" // lf
+							+ "</Relationships>");
+
+			this.writeEntry("xl/styles.xml", // lf
+					"<styleSheet xmlns=\"" + NS_MAIN + "\">" // lf
+							+ "<numFmts count=\"2\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd\"/><numFmt numFmtId=\"165\" formatCode=\"yyyy-mm-dd hh:mm:ss\"/></numFmts>" // lf
+							+ "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font><font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>" // lf
+							+ "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>" // lf
+							+ "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>" // lf
+							+ "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>" // lf
+							+ "<cellXfs count=\"5\">" // lf
+							+ "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" // lf
+							+ "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>" // lf
+							+ "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" // lf
+							+ "<xf numFmtId=\"165\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" // lf
+							+ "<xf numFmtId=\"7\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" // lf
+							+ "</cellXfs>" // lf
+							+ "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>" // lf
+							+ "</styleSheet>");
+		}
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.group;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+
+import com.googlecode.wicket.kendo.ui.utils.PropertyUtils;
+
+/**
+ * Provides a group descriptor, as sent by the datasource's {@code group[n]} parameters when {@code serverGrouping} is enabled
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class GroupDescriptor implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+	private static final String ASC = "asc";
+
+	/** The max number of group levels */
+	private static final int LEVELS = 10;
+
+	/** The max number of aggregates per group */
+	private static final int AGGREGATES = 20;
+
+	private final String property;
+	private final SortOrder order;
+	private final List<AggregateDescriptor> aggregates;
+
+	/**
+	 * Constructor
+	 *
+	 * @param property the property name (ie: "mybean.myproperty")
+	 * @param order the {@link SortOrder} of the groups
+	 */
+	public GroupDescriptor(String property, SortOrder order)
+	{
+		this(property, order, Collections.<AggregateDescriptor> emptyList());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param property the property name (ie: "mybean.myproperty")
+	 * @param order the {@link SortOrder} of the groups
+	 * @param aggregates the list of {@link AggregateDescriptor}{@code s}
+	 */
+	public GroupDescriptor(String property, SortOrder order, List<AggregateDescriptor> aggregates)
+	{
+		this.property = Args.notNull(property, "property");
+		this.order = order;
+		this.aggregates = aggregates;
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the (unescaped) property name
+	 *
+	 * @return the property name
+	 */
+	public String getProperty()
+	{
+		return this.property;
+	}
+
+	/**
+	 * Gets the (escaped) field name, as known by the datasource
+	 *
+	 * @return the field name
+	 */
+	public String getField()
+	{
+		return PropertyUtils.escape(this.property);
+	}
+
+	/**
+	 * Gets the {@link SortOrder} of the groups
+	 *
+	 * @return the {@code SortOrder}
+	 */
+	public SortOrder getOrder()
+	{
+		return this.order;
+	}
+
+	/**
+	 * Gets the list of {@link AggregateDescriptor}{@code s} to compute for each group
+	 *
+	 * @return the list of {@code AggregateDescriptor}{@code s}
+	 */
+	public List<AggregateDescriptor> getAggregates()
+	{
+		return this.aggregates;
+	}
+
+	@Override
+	public boolean equals(Object object)
+	{
+		if (object instanceof GroupDescriptor)
+		{
+			GroupDescriptor other = (GroupDescriptor) object;
+
+			return this.property.equals(other.property) && this.order == other.order && this.aggregates.equals(other.aggregates);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return this.property.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s %s %s", this.property, this.order, this.aggregates);
+	}
+
+	// Factories //
+
+	/**
+	 * Parses the {@code group[n]} request parameters
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @return the list of {@link GroupDescriptor}{@code s}, which may be empty
+	 */
+	public static List<GroupDescriptor> parse(IRequestParameters parameters)
+	{
+		List<GroupDescriptor> descriptors = Generics.newArrayList();
+
+		for (int i = 0; i < LEVELS; i++)
+		{
+			String field = parameters.getParameterValue(String.format("group[%d][field]", i)).toOptionalString();
+
+			if (field == null)
+			{
+				break;
+			}
+
+			String direction = parameters.getParameterValue(String.format("group[%d][dir]", i)).toOptionalString();
+			SortOrder order = ASC.equals(direction) || direction == null ? SortOrder.ASCENDING : SortOrder.DESCENDING;
+			List<AggregateDescriptor> aggregates = Generics.newArrayList();
+
+			for (int j = 0; j < AGGREGATES; j++)
+			{
+				String aggregateField = parameters.getParameterValue(String.format("group[%d][aggregates][%d][field]", i, j)).toOptionalString();
+				String aggregate = parameters.getParameterValue(String.format("group[%d][aggregates][%d][aggregate]", i, j)).toOptionalString();
+
+				if (aggregateField == null || aggregate == null)
+				{
+					break;
+				}
+
+				aggregates.add(new AggregateDescriptor(PropertyUtils.unescape(aggregateField), aggregate));
+			}
+
+			descriptors.add(new GroupDescriptor(PropertyUtils.unescape(field), order, aggregates));
+		}
+
+		return descriptors;
+	}
+
+	/**
+	 * Parses the {@code groupKey[n]} request parameters, identifying the group whose members are requested
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @return the list of group keys, one per level, which may be empty
+	 * @see GroupHeader#getKey()
+	 */
+	public static List<String> parseKeys(IRequestParameters parameters)
+	{
+		List<String> keys = Generics.newArrayList();
+
+		for (int i = 0; i < LEVELS; i++)
+		{
+			String key = parameters.getParameterValue(String.format("groupKey[%d]", i)).toOptionalString();
+
+			if (key == null)
+			{
+				break;
+			}
+
+			keys.add(key);
+		}
+
+		return keys;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides an aggregate descriptor, ie: { field: "price", aggregate: "sum" }
+	 */
+	public static class AggregateDescriptor implements IClusterable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String property;
+		private final String aggregate;
+
+		/**
+		 * Constructor
+		 *
+		 * @param property the property name (ie: "mybean.myproperty")
+		 * @param aggregate the aggregate name: "average", "count", "max", "min" or "sum"
+		 */
+		public AggregateDescriptor(String property, String aggregate)
+		{
+			this.property = Args.notNull(property, "property");
+			this.aggregate = Args.notNull(aggregate, "aggregate");
+		}
+
+		/**
+		 * Gets the (unescaped) property name
+		 *
+		 * @return the property name
+		 */
+		public String getProperty()
+		{
+			return this.property;
+		}
+
+		/**
+		 * Gets the (escaped) field name, as known by the datasource
+		 *
+		 * @return the field name
+		 */
+		public String getField()
+		{
+			return PropertyUtils.escape(this.property);
+		}
+
+		/**
+		 * Gets the aggregate name
+		 *
+		 * @return "average", "count", "max", "min" or "sum"
+		 */
+		public String getAggregate()
+		{
+			return this.aggregate;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (object instanceof AggregateDescriptor)
+			{
+				AggregateDescriptor other = (AggregateDescriptor) object;
+
+				return this.property.equals(other.property) && this.aggregate.equals(other.aggregate);
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.property.hashCode() * 31 + this.aggregate.hashCode();
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s(%s)", this.aggregate, this.property);
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.group;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Generics;
+
+/**
+ * Provides a group header, that is a group without its members.<br>
+ * Members are loaded lazily, when the group is expanded (see {@link IGroupDataProvider#iterator(List, List, long, long)})
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class GroupHeader implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String field;
+	private final Object value;
+	private final String key;
+	private final long count;
+
+	private final Map<String, Map<String, Object>> aggregates;
+	private final List<GroupHeader> subgroups;
+
+	/**
+	 * Constructor
+	 *
+	 * @param field the (escaped) field name
+	 * @param value the group value
+	 * @param key the group key, used to retrieve the group afterward
+	 * @param count the number of members in the group
+	 */
+	public GroupHeader(String field, Object value, String key, long count)
+	{
+		this.field = field;
+		this.value = value;
+		this.key = key;
+		this.count = count;
+
+		this.aggregates = new LinkedHashMap<String, Map<String, Object>>();
+		this.subgroups = Generics.newArrayList();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the (escaped) field name
+	 *
+	 * @return the field name
+	 */
+	public String getField()
+	{
+		return this.field;
+	}
+
+	/**
+	 * Gets the group value
+	 *
+	 * @return the group value
+	 */
+	public Object getValue()
+	{
+		return this.value;
+	}
+
+	/**
+	 * Gets the group key.<br>
+	 * The key is sent back by the client, as {@code groupKey[n]} parameter, when the group is expanded
+	 *
+	 * @return the group key
+	 */
+	public String getKey()
+	{
+		return this.key;
+	}
+
+	/**
+	 * Gets the number of members in the group
+	 *
+	 * @return the number of members
+	 */
+	public long getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Gets the sub-groups
+	 *
+	 * @return the (mutable) list of sub-groups
+	 */
+	public List<GroupHeader> getSubgroups()
+	{
+		return this.subgroups;
+	}
+
+	/**
+	 * Indicates whether the group has sub-groups
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean hasSubgroups()
+	{
+		return !this.subgroups.isEmpty();
+	}
+
+	// Methods //
+
+	/**
+	 * Sets an aggregate value
+	 *
+	 * @param field the (escaped) field name
+	 * @param aggregate the aggregate name: "average", "count", "max", "min" or "sum"
+	 * @param value the aggregate value
+	 * @return this, for chaining
+	 */
+	public GroupHeader setAggregate(String field, String aggregate, Object value)
+	{
+		Map<String, Object> map = this.aggregates.get(field);
+
+		if (map == null)
+		{
+			map = new LinkedHashMap<String, Object>();
+			this.aggregates.put(field, map);
+		}
+
+		map.put(aggregate, value);
+
+		return this;
+	}
+
+	/**
+	 * Gets the group as {@link JSONObject}, as expected by the datasource's {@code schema.groups}
+	 *
+	 * @return a new {@code JSONObject}
+	 */
+	public JSONObject toJson()
+	{
+		JSONObject object = new JSONObject();
+		object.put("field", this.field);
+		object.put("value", this.value == null ? JSONObject.NULL : this.value);
+		object.put("hasSubgroups", this.hasSubgroups());
+		object.put("aggregates", new JSONObject(this.aggregates));
+		object.put("__key", this.key);
+		object.put("__count", this.count);
+
+		JSONArray items = new JSONArray();
+
+		for (GroupHeader subgroup : this.subgroups)
+		{
+			items.put(subgroup.toJson());
+		}
+
+		object.put("items", items);
+
+		return object;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.toJson().toString();
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.group;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+
+import com.googlecode.wicket.kendo.ui.datatable.DataTable;
+
+/**
+ * Specifies an {@link IDataProvider} that supports server-side grouping.<br>
+ * When the {@link DataTable} is grouped, the provider is first asked for the group headers only (values, counts and aggregates); group members are then loaded lazily - and paged - when a group is expanded.
+ *
+ * @param <T> the type of the model object
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IGroupDataProvider<T> extends IDataProvider<T>
+{
+	/**
+	 * Gets the number of top-level groups
+	 *
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}, one per group level
+	 * @return the number of top-level groups
+	 */
+	long groupCount(List<GroupDescriptor> descriptors);
+
+	/**
+	 * Gets a page of top-level group headers, including their sub-group headers if there are several group levels
+	 *
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}, one per group level
+	 * @param first the index of the first top-level group
+	 * @param count the number of top-level groups
+	 * @return the list of {@link GroupHeader}{@code s}
+	 */
+	List<GroupHeader> groups(List<GroupDescriptor> descriptors, long first, long count);
+
+	/**
+	 * Gets an iterator over a page of the members of a (leaf) group
+	 *
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}, one per group level
+	 * @param keys the group keys, one per group level, identifying the group (see {@link GroupHeader#getKey()})
+	 * @param first the index of the first member
+	 * @param count the number of members
+	 * @return the iterator
+	 */
+	Iterator<? extends T> iterator(List<GroupDescriptor> descriptors, List<String> keys, long first, long count);
+}
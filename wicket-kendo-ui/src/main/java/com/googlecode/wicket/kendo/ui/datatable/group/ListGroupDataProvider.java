@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.datatable.group;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.core.util.lang.PropertyResolver;
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.markup.repeater.data.ListDataProvider;
+import org.apache.wicket.util.lang.Generics;
+
+import com.googlecode.wicket.kendo.ui.datatable.group.GroupDescriptor.AggregateDescriptor;
+
+/**
+ * Provides an in-memory, hash-based, {@link IGroupDataProvider}.<br>
+ * Groups are built in a single pass over the rows, by hashing the group values of each row. The rows are the ones served by {@link #iterator(long, long)}, so a subclass that filters or sorts them (ie: an {@link org.apache.wicket.extensions.markup.html.repeater.data.table.filter.IFilterStateLocator} or an {@link org.apache.wicket.extensions.markup.html.repeater.data.sort.ISortStateLocator}) is honoured; members keep the order of the rows.<br>
+ * The resulting index is kept across requests, and is rebuilt only if the group descriptors or the rows change.<br>
+ * <br>
+ * <b>Note:</b> rows are compared by {@code equals}, so the index is not rebuilt if the group value of a row is modified in place; call {@link #invalidate()} in that case.
+ *
+ * @param <T> the type of the model object
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ListGroupDataProvider<T extends Serializable> extends ListDataProvider<T> implements IGroupDataProvider<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/** the key of the {@code null} group; keys of non-null values are prefixed, so they cannot collide with it */
+	private static final String NULL_KEY = "~";
+	private static final String VALUE_PREFIX = "=";
+
+	/** the rows the index has been built for */
+	private transient List<T> rows = null;
+
+	/** the descriptors the index has been built for */
+	private transient List<GroupDescriptor> descriptors = null;
+
+	/** the top-level groups */
+	private transient List<Bucket<T>> index = null;
+
+	/**
+	 * Constructor
+	 */
+	public ListGroupDataProvider()
+	{
+		super();
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param list the {@link List} of data
+	 */
+	public ListGroupDataProvider(List<T> list)
+	{
+		super(list);
+	}
+
+	// Methods //
+
+	/**
+	 * Invalidates the group index, so it is rebuilt on next request
+	 */
+	public void invalidate()
+	{
+		this.rows = null;
+		this.descriptors = null;
+		this.index = null;
+	}
+
+	/**
+	 * Gets the top-level groups, building the index if needed
+	 *
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}
+	 * @return the list of top-level {@link Bucket}{@code s}
+	 */
+	private List<Bucket<T>> getIndex(List<GroupDescriptor> descriptors)
+	{
+		final List<T> rows = this.getRows();
+
+		if (this.index == null || !descriptors.equals(this.descriptors) || !rows.equals(this.rows))
+		{
+			this.index = ListGroupDataProvider.group(rows, descriptors, 0);
+			this.descriptors = descriptors;
+			this.rows = rows;
+		}
+
+		return this.index;
+	}
+
+	/**
+	 * Gets the rows to be grouped, as served by {@link #iterator(long, long)}
+	 *
+	 * @return the list of rows
+	 */
+	private List<T> getRows()
+	{
+		final List<T> rows = Generics.newArrayList();
+		final Iterator<? extends T> iterator = this.iterator(0, this.size());
+
+		while (iterator != null && iterator.hasNext())
+		{
+			rows.add(iterator.next());
+		}
+
+		return rows;
+	}
+
+	@Override
+	public long groupCount(List<GroupDescriptor> descriptors)
+	{
+		return this.getIndex(descriptors).size();
+	}
+
+	@Override
+	public List<GroupHeader> groups(List<GroupDescriptor> descriptors, long first, long count)
+	{
+		List<Bucket<T>> buckets = this.getIndex(descriptors);
+		List<GroupHeader> headers = Generics.newArrayList();
+
+		int from = (int) Math.min(first, buckets.size());
+		int to = (int) Math.min(first + count, buckets.size());
+
+		for (Bucket<T> bucket : buckets.subList(from, to))
+		{
+			headers.add(this.newGroupHeader(bucket, descriptors, 0));
+		}
+
+		return headers;
+	}
+
+	@Override
+	public Iterator<? extends T> iterator(List<GroupDescriptor> descriptors, List<String> keys, long first, long count)
+	{
+		List<Bucket<T>> buckets = this.getIndex(descriptors);
+		Bucket<T> bucket = null;
+
+		for (String key : keys)
+		{
+			bucket = find(buckets, key);
+
+			if (bucket == null)
+			{
+				return Collections.<T> emptyList().iterator();
+			}
+
+			buckets = bucket.subgroups;
+		}
+
+		if (bucket == null)
+		{
+			return Collections.<T> emptyList().iterator();
+		}
+
+		int from = (int) Math.min(first, bucket.rows.size());
+		int to = (int) Math.min(first + count, bucket.rows.size());
+
+		return bucket.rows.subList(from, to).iterator();
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link GroupHeader} for the supplied {@link Bucket}, computing its aggregates
+	 *
+	 * @param bucket the {@code Bucket}
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}
+	 * @param level the group level
+	 * @return a new {@code GroupHeader}
+	 */
+	private GroupHeader newGroupHeader(Bucket<T> bucket, List<GroupDescriptor> descriptors, int level)
+	{
+		GroupDescriptor descriptor = descriptors.get(level);
+		GroupHeader header = new GroupHeader(descriptor.getField(), bucket.value, bucket.key, bucket.rows.size());
+
+		for (AggregateDescriptor aggregate : descriptor.getAggregates())
+		{
+			header.setAggregate(aggregate.getField(), aggregate.getAggregate(), aggregate(bucket.rows, aggregate));
+		}
+
+		for (Bucket<T> subgroup : bucket.subgroups)
+		{
+			header.getSubgroups().add(this.newGroupHeader(subgroup, descriptors, level + 1));
+		}
+
+		return header;
+	}
+
+	// Helpers //
+
+	/**
+	 * Hashes the rows into groups, recursively
+	 *
+	 * @param rows the rows to group
+	 * @param descriptors the list of {@link GroupDescriptor}{@code s}
+	 * @param level the group level
+	 * @return the list of {@link Bucket}{@code s}
+	 */
+	private static <T> List<Bucket<T>> group(List<T> rows, List<GroupDescriptor> descriptors, int level)
+	{
+		if (level >= descriptors.size())
+		{
+			return Collections.emptyList();
+		}
+
+		GroupDescriptor descriptor = descriptors.get(level);
+		Map<String, Bucket<T>> map = new LinkedHashMap<String, Bucket<T>>();
+
+		for (T row : rows)
+		{
+			Object value = PropertyResolver.getValue(descriptor.getProperty(), row);
+			String key = ListGroupDataProvider.toKey(value);
+			Bucket<T> bucket = map.get(key);
+
+			if (bucket == null)
+			{
+				bucket = new Bucket<T>(key, value);
+				map.put(key, bucket);
+			}
+
+			bucket.rows.add(row);
+		}
+
+		List<Bucket<T>> buckets = new ArrayList<Bucket<T>>(map.values());
+		Collections.sort(buckets, new BucketComparator(descriptor.getOrder()));
+
+		for (Bucket<T> bucket : buckets)
+		{
+			bucket.subgroups = group(bucket.rows, descriptors, level + 1);
+		}
+
+		return buckets;
+	}
+
+	/**
+	 * Gets the group key of a value
+	 *
+	 * @param value the group value
+	 * @return the dedicated {@code null} key, or the prefixed string value
+	 */
+	private static String toKey(Object value)
+	{
+		return value == null ? NULL_KEY : VALUE_PREFIX + value;
+	}
+
+	/**
+	 * Finds the {@link Bucket} matching the key
+	 *
+	 * @param buckets the list of {@code Bucket}{@code s}
+	 * @param key the group key
+	 * @return the {@code Bucket} or {@code null} if not found
+	 */
+	private static <T> Bucket<T> find(List<Bucket<T>> buckets, String key)
+	{
+		for (Bucket<T> bucket : buckets)
+		{
+			if (bucket.key.equals(key))
+			{
+				return bucket;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Computes an aggregate over the rows
+	 *
+	 * @param rows the rows
+	 * @param descriptor the {@link AggregateDescriptor}
+	 * @return the aggregate value, or {@code null} if it does not apply
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <T> Object aggregate(List<T> rows, AggregateDescriptor descriptor)
+	{
+		String aggregate = descriptor.getAggregate();
+
+		if ("count".equals(aggregate))
+		{
+			return rows.size();
+		}
+
+		double sum = 0;
+		int count = 0;
+		Comparable min = null;
+		Comparable max = null;
+
+		for (T row : rows)
+		{
+			Object value = PropertyResolver.getValue(descriptor.getProperty(), row);
+
+			if (value instanceof Number)
+			{
+				sum += ((Number) value).doubleValue();
+				count++;
+			}
+
+			if (value instanceof Comparable)
+			{
+				Comparable comparable = (Comparable) value;
+
+				if (min == null || comparable.compareTo(min) < 0)
+				{
+					min = comparable;
+				}
+
+				if (max == null || comparable.compareTo(max) > 0)
+				{
+					max = comparable;
+				}
+			}
+		}
+
+		if ("sum".equals(aggregate))
+		{
+			return sum;
+		}
+
+		if ("average".equals(aggregate))
+		{
+			return count > 0 ? sum / count : null;
+		}
+
+		if ("min".equals(aggregate))
+		{
+			return min;
+		}
+
+		if ("max".equals(aggregate))
+		{
+			return max;
+		}
+
+		return null;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides a hashed group
+	 *
+	 * @param <T> the type of the model object
+	 */
+	private static class Bucket<T>
+	{
+		private final String key;
+		private final Object value;
+		private final List<T> rows;
+		private List<Bucket<T>> subgroups;
+
+		public Bucket(String key, Object value)
+		{
+			this.key = key;
+			this.value = value;
+			this.rows = Generics.newArrayList();
+			this.subgroups = Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Provides a {@link Comparator} for {@link Bucket}{@code s}, comparing their values
+	 */
+	private static class BucketComparator implements Comparator<Bucket<?>>
+	{
+		private final SortOrder order;
+
+		public BucketComparator(SortOrder order)
+		{
+			this.order = order;
+		}
+
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public int compare(Bucket<?> b1, Bucket<?> b2)
+		{
+			int result;
+
+			if (b1.value instanceof Comparable && b2.value instanceof Comparable)
+			{
+				result = ((Comparable) b1.value).compareTo(b2.value);
+			}
+			else if (b1.value == null || b2.value == null)
+			{
+				result = b1.value == null ? (b2.value == null ? 0 : -1) : 1;
+			}
+			else
+			{
+				result = b1.key.compareTo(b2.key);
+			}
+
+			return this.order == SortOrder.DESCENDING ? -result : result;
+		}
+	}
+}
@@ -19,10 +19,13 @@ package com.googlecode.wicket.kendo.ui.dataviz.chart;
 import java.util.List;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
 import org.apache.wicket.ajax.json.JSONString;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.lang.Generics;
 
 import com.googlecode.wicket.jquery.core.JQueryBehavior;
 import com.googlecode.wicket.jquery.core.JQueryGenericContainer;
@@ -31,6 +34,7 @@ import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
 import com.googlecode.wicket.jquery.core.behavior.ListModelBehavior;
 import com.googlecode.wicket.jquery.core.converter.IJsonConverter;
 import com.googlecode.wicket.jquery.core.converter.JsonConverter;
+import com.googlecode.wicket.jquery.core.utils.JsonUtils;
 import com.googlecode.wicket.kendo.ui.KendoBehaviorFactory;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
@@ -52,6 +56,9 @@ public class Chart<T> extends JQueryGenericContainer<List<T>> implements IChartL
 	private final IJsonConverter<T> converter;
 	private AjaxCallbackBehavior modelBehavior; // loads data
 
+	/** sequence number of the last point sent to the client, in streaming mode */
+	private long sequence = 0;
+
 	/**
 	 * Constructor
 	 *
@@ -260,13 +267,44 @@ public class Chart<T> extends JQueryGenericContainer<List<T>> implements IChartL
 	}
 
 	/**
-	 * Refreshes the widget by reading from the datasource
+	 * Refreshes the widget by reading from the datasource<br>
+	 * If the chart is downsampled, the zoomed range is cleared, so the overview is read
 	 *
 	 * @param handler the {@link IPartialPageRequestHandler}
 	 */
 	public void refresh(IPartialPageRequestHandler handler)
 	{
-		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.read(); }", this.widget()));
+		handler.appendJavaScript(String.format("chart_reset(%s);", this.widget())); // ChartBehavior.js
+	}
+
+	/**
+	 * Appends the points added to the {@link ChartBuffer} since the last load or append (streaming mode)<br>
+	 * Only the new points are sent; the client keeps at most {@link #getWindowSize()} points, the oldest ones being trimmed.
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @see #getBuffer()
+	 */
+	public void append(IPartialPageRequestHandler handler)
+	{
+		final ChartBuffer<T> buffer = this.getBuffer();
+
+		if (buffer != null)
+		{
+			final List<T> points = Generics.newArrayList();
+			this.sequence = buffer.read(this.sequence, points);
+
+			if (!points.isEmpty())
+			{
+				List<JSONObject> objects = Generics.newArrayList(points.size());
+
+				for (T point : points)
+				{
+					objects.add(this.converter.toJson(point));
+				}
+
+				handler.appendJavaScript(String.format("chart_append(%s, %s, %d);", this.widget(), JsonUtils.toString(objects), this.getWindowSize())); // ChartBehavior.js
+			}
+		}
 	}
 
 	// Properties //
@@ -301,6 +339,42 @@ public class Chart<T> extends JQueryGenericContainer<List<T>> implements IChartL
 		return this.converter;
 	}
 
+	/**
+	 * Gets the {@link ChartBuffer} of the streaming mode<br>
+	 * If not {@code null}, the data is loaded from the buffer, instead of the model, and the new points are sent by {@link #append(IPartialPageRequestHandler)}<br>
+	 * <br>
+	 * <b>Note:</b> the buffer should be held outside of the page (ie: at application level), as it is not serializable
+	 *
+	 * @return {@code null} by default, meaning that the streaming mode is disabled
+	 */
+	protected ChartBuffer<T> getBuffer()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets the max number of points kept on the client, in streaming mode
+	 *
+	 * @return the {@link ChartBuffer}'s capacity by default
+	 */
+	protected int getWindowSize()
+	{
+		return this.getBuffer().getCapacity();
+	}
+
+	/**
+	 * Gets the {@link Downsampler}<br>
+	 * If not {@code null}, the data is reduced to the client's plot width (one point per pixel) and the zoomed range is re-queried at a higher resolution (see {@link ChartModelBehavior})<br>
+	 * <br>
+	 * <b>Note:</b> zooming requires the 'zoomable' option (or 'pannable' for panning)
+	 *
+	 * @return {@code null} by default, meaning that the data is not downsampled
+	 */
+	protected Downsampler getDownsampler()
+	{
+		return null;
+	}
+
 	@Override
 	public boolean isSeriesClickEventEnabled()
 	{
@@ -388,6 +462,12 @@ public class Chart<T> extends JQueryGenericContainer<List<T>> implements IChartL
 				return Chart.this.getCallbackUrl();
 			}
 
+			@Override
+			protected Downsampler getDownsampler()
+			{
+				return Chart.this.getDownsampler();
+			}
+
 			// Events //
 
 			@Override
@@ -405,10 +485,58 @@ public class Chart<T> extends JQueryGenericContainer<List<T>> implements IChartL
 	 *
 	 * @param model the @{@code List} {@link Model}
 	 * @param converter the {@link IJsonConverter}
-	 * @return a new {@link ListModelBehavior}, by default
+	 * @return a new behavior loading the {@link ChartBuffer}'s points in streaming mode, a new {@link ChartModelBehavior} if the data is downsampled, a new {@link ListModelBehavior} otherwise
 	 */
 	protected AjaxCallbackBehavior newListModelBehavior(final IModel<List<T>> model, IJsonConverter<T> converter)
 	{
+		if (this.getBuffer() != null)
+		{
+			return new BufferBehavior<T>(converter);
+		}
+
+		Downsampler downsampler = this.getDownsampler();
+
+		if (downsampler != null)
+		{
+			return new ChartModelBehavior<T>(model, converter, downsampler);
+		}
+
 		return new ListModelBehavior<T>(model, converter);
 	}
+
+	// Classes //
+
+	/**
+	 * Provides the behavior that loads the {@link ChartBuffer}'s points, and records the sequence number of the last point on the bound {@link Chart}<br>
+	 * It does not supply any callback source, so the points are always loaded by the {@code Chart} itself, not by a copy of it
+	 */
+	private static class BufferBehavior<T> extends AjaxCallbackBehavior
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final IJsonConverter<T> converter;
+
+		public BufferBehavior(IJsonConverter<T> converter)
+		{
+			this.converter = converter;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected String getResponse(IRequestParameters parameters)
+		{
+			final Chart<T> chart = (Chart<T>) this.getComponent();
+			final List<T> points = Generics.newArrayList();
+			chart.sequence = chart.getBuffer().read(0, points);
+
+			List<JSONObject> objects = Generics.newArrayList(points.size());
+
+			for (T point : points)
+			{
+				objects.add(this.converter.toJson(point));
+			}
+
+			return JsonUtils.toString(objects);
+		}
+	}
 }
@@ -21,12 +21,15 @@ import java.util.List;
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.attributes.CallbackParameter;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.util.lang.Args;
 
 import com.googlecode.wicket.jquery.core.JQueryEvent;
 import com.googlecode.wicket.jquery.core.Options;
 import com.googlecode.wicket.jquery.core.ajax.IJQueryAjaxAware;
 import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxBehavior;
+import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
 import com.googlecode.wicket.jquery.core.utils.JsonUtils;
 import com.googlecode.wicket.jquery.core.utils.RequestCycleUtils;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
@@ -47,7 +50,7 @@ public abstract class ChartBehavior extends KendoUIBehavior implements IJQueryAj
 	public static final String METHOD = "kendoChart";
 
 	private final IChartListener listener;
-	private KendoDataSource dataSource;
+	private ChartDataSource dataSource;
 
 	private JQueryAjaxBehavior onSeriesClickAjaxBehavior = null;
 	private final List<Series> series;
@@ -99,6 +102,14 @@ public abstract class ChartBehavior extends KendoUIBehavior implements IJQueryAj
 		}
 	}
 
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		response.render(new JavaScriptPackageHeaderItem(ChartBehavior.class));
+	}
+
 	// Properties //
 
 	/**
@@ -108,6 +119,17 @@ public abstract class ChartBehavior extends KendoUIBehavior implements IJQueryAj
 	 */
 	protected abstract CharSequence getProviderUrl();
 
+	/**
+	 * Gets the {@link Downsampler}<br>
+	 * If not {@code null}, the client supplies its plot width to the data-provider behavior, and the zoomed (or panned) range is re-queried
+	 *
+	 * @return {@code null} by default, meaning that the data is not downsampled
+	 */
+	protected Downsampler getDownsampler()
+	{
+		return null;
+	}
+
 	// Events //
 
 	@Override
@@ -125,6 +147,24 @@ public abstract class ChartBehavior extends KendoUIBehavior implements IJQueryAj
 		// data-source //
 		this.setOption("dataSource", this.dataSource.getName());
 		this.dataSource.setTransportReadUrl(this.getProviderUrl());
+
+		// downsampling //
+		Downsampler downsampler = this.getDownsampler();
+
+		if (downsampler != null)
+		{
+			this.dataSource.setTransportParameterMap(String.format("function(data) { return chart_parameters('%s', data); }", this.getSelector())); // ChartBehavior.js
+
+			if (downsampler.getField() != null)
+			{
+				String axis = downsampler.getAxis() != null ? JSONObject.quote(downsampler.getAxis()) : "null";
+				String function = String.format("function(e) { chart_zoom(e, %s, %s); }", axis, JSONObject.quote(downsampler.getField())); // ChartBehavior.js
+
+				this.setOption("zoomEnd", function);
+				this.setOption("dragEnd", function);
+			}
+		}
+
 		this.onConfigure(this.dataSource); // last chance to set options
 
 		super.onConfigure(component);
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.dataviz.chart;
+
+import java.util.Collection;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Provides a thread-safe ring buffer of {@link Chart} points, for the live streaming mode<br>
+ * Each added point gets a sequence number, starting from 1; readers supply the last sequence number they know, so they only get the new points.<br>
+ * The buffer keeps the latest points up to its capacity, older points being overwritten.<br>
+ * <br>
+ * <b>Note:</b> the buffer is typically fed by a background thread and held at application level; it is not serializable, so it should not be referenced by a {@link Chart} field (see {@link Chart#getBuffer()})
+ *
+ * @param <T> the model object type
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ChartBuffer<T>
+{
+	private final Object[] points;
+
+	/** sequence number of the last added point */
+	private long sequence = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity the max number of points to keep
+	 */
+	public ChartBuffer(int capacity)
+	{
+		this.points = new Object[Args.withinRange(1, Integer.MAX_VALUE, capacity, "capacity")];
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the max number of points to keep
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity()
+	{
+		return this.points.length;
+	}
+
+	/**
+	 * Gets the sequence number of the last added point
+	 *
+	 * @return {@code 0} if no point has been added
+	 */
+	public synchronized long getSequence()
+	{
+		return this.sequence;
+	}
+
+	// Methods //
+
+	/**
+	 * Adds a point
+	 *
+	 * @param point the point
+	 * @return the sequence number of the point
+	 */
+	public synchronized long add(T point)
+	{
+		this.points[(int) (this.sequence % this.points.length)] = point;
+
+		return ++this.sequence;
+	}
+
+	/**
+	 * Adds points
+	 *
+	 * @param points the points
+	 * @return the sequence number of the last point
+	 */
+	public synchronized long addAll(Collection<? extends T> points)
+	{
+		for (T point : points)
+		{
+			this.add(point);
+		}
+
+		return this.sequence;
+	}
+
+	/**
+	 * Reads the points added after the supplied sequence number, in order<br>
+	 * If some of these points have already been overwritten, only the kept ones are read.
+	 *
+	 * @param since the last known sequence number, {@code 0} to read all kept points
+	 * @param points the collection to add the points to
+	 * @return the sequence number of the last point, to be supplied to the next read
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized long read(long since, Collection<? super T> points)
+	{
+		final int capacity = this.points.length;
+
+		for (long s = Math.max(since, this.sequence - capacity) + 1; s <= this.sequence; s++)
+		{
+			points.add((T) this.points[(int) ((s - 1) % capacity)]);
+		}
+
+		return this.sequence;
+	}
+}
@@ -36,4 +36,14 @@ public class ChartDataSource extends KendoDataSource
 		this.set("serverFiltering", true);
 		this.transport.set("parameterMap", "function(data) { return { filter: JSON.stringify(data.filter) }; }");
 	}
+
+	/**
+	 * Sets the 'transport.parameterMap' function
+	 *
+	 * @param function the javascript function
+	 */
+	public void setTransportParameterMap(String function)
+	{
+		this.transport.set("parameterMap", function);
+	}
 }
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.dataviz.chart;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.core.util.lang.PropertyResolver;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+
+import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+import com.googlecode.wicket.jquery.core.converter.IJsonConverter;
+import com.googlecode.wicket.jquery.core.utils.JsonUtils;
+
+/**
+ * Provides the behavior that loads the {@link Chart}'s data, downsampled by a {@link Downsampler}<br>
+ * The client supplies its plot width ({@code width}, bounded by the {@link Downsampler#getThreshold()}) and, once zoomed, the x range ({@code from}, {@code to}); only the points of the range - plus the nearest point on each side, so lines are not clipped at the plot edges - are downsampled, so the zoomed range is rendered at a higher resolution.<br>
+ * Only the selected points are converted to json; if there are several y fields, the points selected for each of them are merged.
+ *
+ * @param <T> the model object type
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ChartModelBehavior<T> extends AjaxCallbackBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	private final IModel<List<T>> model;
+	private final IJsonConverter<T> converter;
+	private final Downsampler downsampler;
+
+	/**
+	 * Constructor
+	 *
+	 * @param model the {@code List} of objects
+	 * @param converter the {@link IJsonConverter}
+	 * @param downsampler the {@link Downsampler}
+	 */
+	public ChartModelBehavior(final IModel<List<T>> model, IJsonConverter<T> converter, Downsampler downsampler)
+	{
+		this.model = model;
+		this.converter = Args.notNull(converter, "converter");
+		this.downsampler = Args.notNull(downsampler, "downsampler");
+	}
+
+	// Methods //
+
+	@Override
+	protected String getResponse(IRequestParameters parameters)
+	{
+		final List<T> list = this.model.getObject();
+
+		if (list == null)
+		{
+			return "[]";
+		}
+
+		final int width = parameters.getParameterValue("width").toInt(0);
+		final Double from = parameters.getParameterValue("from").toOptionalDouble();
+		final Double to = parameters.getParameterValue("to").toOptionalDouble();
+
+		// selects the rows of the range //
+		final String field = this.downsampler.getField();
+		final double[] values = new double[list.size()];
+		final int[] rows = new int[list.size()];
+
+		int before = -1; // the nearest row before the range
+		int after = -1; // the nearest row after the range
+
+		for (int index = 0; index < list.size(); index++)
+		{
+			values[index] = field != null ? ChartModelBehavior.toDouble(PropertyResolver.getValue(field, list.get(index))) : index;
+
+			if (field != null && from != null && values[index] < from && (before < 0 || values[index] > values[before]))
+			{
+				before = index;
+			}
+
+			if (field != null && to != null && values[index] > to && (after < 0 || values[index] < values[after]))
+			{
+				after = index;
+			}
+		}
+
+		int count = 0;
+		for (int index = 0; index < list.size(); index++)
+		{
+			double x = values[index];
+
+			if (field == null || index == before || index == after || ((from == null || x >= from) && (to == null || x <= to)))
+			{
+				values[count] = x;
+				rows[count] = index;
+				count++;
+			}
+		}
+
+		final double[] x = count < values.length ? Arrays.copyOf(values, count) : values;
+		final int target = this.downsampler.getTarget(width);
+
+		// downsamples //
+		final List<JSONObject> objects = Generics.newArrayList();
+
+		if (count <= target)
+		{
+			for (int i = 0; i < count; i++)
+			{
+				objects.add(this.converter.toJson(list.get(rows[i])));
+			}
+		}
+		else if (this.downsampler.getMode() == Downsampling.AVERAGE)
+		{
+			this.average(objects, list, rows, count, target);
+		}
+		else
+		{
+			boolean[] selected = new boolean[count];
+
+			for (String name : this.downsampler.getFields())
+			{
+				double[] y = this.getValues(list, rows, count, name);
+				int[] indexes = this.downsampler.getMode() == Downsampling.LTTB ? Downsampler.lttb(x, y, target) : Downsampler.minMax(y, target / 2);
+
+				for (int index : indexes)
+				{
+					selected[index] = true;
+				}
+			}
+
+			for (int i = 0; i < count; i++)
+			{
+				if (selected[i])
+				{
+					objects.add(this.converter.toJson(list.get(rows[i])));
+				}
+			}
+		}
+
+		return JsonUtils.toString(objects);
+	}
+
+	/**
+	 * Adds one object per bucket, the first of the bucket, which y values are the average of the bucket's values
+	 *
+	 * @param objects the {@code List} of {@link JSONObject}{@code s} to add to
+	 * @param list the model object
+	 * @param rows the rows of the range
+	 * @param count the number of rows of the range
+	 * @param buckets the number of buckets
+	 */
+	private void average(List<JSONObject> objects, List<T> list, int[] rows, int count, int buckets)
+	{
+		final String[] fields = this.downsampler.getFields();
+		final double[][] y = new double[fields.length][];
+
+		for (int f = 0; f < fields.length; f++)
+		{
+			y[f] = this.getValues(list, rows, count, fields[f]);
+		}
+
+		final int[] bounds = Downsampler.buckets(count, buckets);
+
+		for (int b = 0; b < bounds.length - 1; b++)
+		{
+			JSONObject object = this.converter.toJson(list.get(rows[bounds[b]]));
+
+			for (int f = 0; f < fields.length; f++)
+			{
+				double sum = 0;
+				int length = 0;
+
+				for (int i = bounds[b]; i < bounds[b + 1]; i++)
+				{
+					if (!Double.isNaN(y[f][i]))
+					{
+						sum += y[f][i];
+						length++;
+					}
+				}
+
+				object.put(fields[f], length > 0 ? (Object) (sum / length) : JSONObject.NULL);
+			}
+
+			objects.add(object);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * The source is a detached copy of this behavior.
+	 */
+	@Override
+	public ICallbackSource newCallbackSource()
+	{
+		return AjaxCallbackBehavior.newCallbackSource(this);
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the values of a field
+	 *
+	 * @param list the model object
+	 * @param rows the rows of the range
+	 * @param count the number of rows of the range
+	 * @param field the field
+	 * @return the values, {@code NaN} if not a number
+	 */
+	private double[] getValues(List<T> list, int[] rows, int count, String field)
+	{
+		double[] values = new double[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			values[i] = ChartModelBehavior.toDouble(PropertyResolver.getValue(field, list.get(rows[i])));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Gets the {@code double} value of a {@code Number} or a {@code Date}
+	 *
+	 * @param value the value
+	 * @return the {@code double} value, or {@code NaN}
+	 */
+	private static double toDouble(Object value)
+	{
+		if (value instanceof Number)
+		{
+			return ((Number) value).doubleValue();
+		}
+
+		if (value instanceof Date)
+		{
+			return ((Date) value).getTime();
+		}
+
+		return Double.NaN;
+	}
+}
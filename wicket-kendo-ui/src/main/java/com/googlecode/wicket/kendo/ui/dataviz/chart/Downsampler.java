@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.dataviz.chart;
+
+import java.util.Arrays;
+
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Provides the downsampling settings of a {@link Chart}, and the {@link Downsampling} algorithms<br>
+ * The {@link Chart}'s data is reduced to a target number of points, which is the client's plot width (one point per pixel) bounded by the threshold, or the threshold if the width is unknown.<br>
+ * <br>
+ * <b>Note:</b> the x field should be a {@code Number} or a {@code Date} property of the model object, the y fields {@code Number} properties. If the x field is supplied, the zoomed range is re-queried at a higher resolution; otherwise the points are indexed by their position.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class Downsampler implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** default target number of points */
+	public static final int THRESHOLD = 1000;
+
+	private final Downsampling mode;
+	private final String field;
+	private final String[] fields;
+
+	private int threshold = THRESHOLD;
+	private String axis = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param mode the {@link Downsampling} algorithm
+	 * @param field the x field, may be {@code null}
+	 * @param fields the y fields, usually the fields of the {@code Series}; at least one is required
+	 */
+	public Downsampler(Downsampling mode, String field, String... fields)
+	{
+		Args.notNull(fields, "fields");
+		Args.withinRange(1, Integer.MAX_VALUE, fields.length, "fields.length");
+
+		for (String y : fields)
+		{
+			Args.notEmpty(y, "fields");
+		}
+
+		this.mode = Args.notNull(mode, "mode");
+		this.field = field;
+		this.fields = fields;
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the {@link Downsampling} algorithm
+	 *
+	 * @return the {@code Downsampling} algorithm
+	 */
+	public Downsampling getMode()
+	{
+		return this.mode;
+	}
+
+	/**
+	 * Gets the x field
+	 *
+	 * @return the x field, or {@code null}
+	 */
+	public String getField()
+	{
+		return this.field;
+	}
+
+	/**
+	 * Gets the y fields
+	 *
+	 * @return the y fields
+	 */
+	public String[] getFields()
+	{
+		return this.fields;
+	}
+
+	/**
+	 * Gets the maximum number of points, which is also the target number of points if the client's plot width is unknown
+	 *
+	 * @return {@link #THRESHOLD} by default
+	 */
+	public int getThreshold()
+	{
+		return this.threshold;
+	}
+
+	/**
+	 * Sets the maximum number of points, which is also the target number of points if the client's plot width is unknown
+	 *
+	 * @param threshold the number of points
+	 * @return this, for chaining
+	 */
+	public Downsampler setThreshold(int threshold)
+	{
+		this.threshold = threshold;
+
+		return this;
+	}
+
+	/**
+	 * Gets the name of the zoomable axis
+	 *
+	 * @return {@code null} by default, meaning the first axis reported by the 'zoomEnd' event
+	 */
+	public String getAxis()
+	{
+		return this.axis;
+	}
+
+	/**
+	 * Sets the name of the zoomable axis, should be the category axis
+	 *
+	 * @param axis the axis name
+	 * @return this, for chaining
+	 */
+	public Downsampler setAxis(String axis)
+	{
+		this.axis = axis;
+
+		return this;
+	}
+
+	/**
+	 * Gets the target number of points
+	 *
+	 * @param width the client's plot width, in pixels, or {@code 0} if unknown
+	 * @return the width if known, bounded by the threshold; the threshold otherwise
+	 */
+	public int getTarget(int width)
+	{
+		return width > 0 ? Math.min(width, this.threshold) : this.threshold;
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the points selected by the Largest-Triangle-Three-Buckets algorithm<br>
+	 * The first and last points are always selected; {@code NaN} values are never selected as bucket representatives, unless the whole bucket is {@code NaN}
+	 *
+	 * @param x the x values, in ascending order
+	 * @param y the y values
+	 * @param threshold the number of points to select
+	 * @return the indexes of the selected points, in ascending order
+	 */
+	public static int[] lttb(double[] x, double[] y, int threshold)
+	{
+		final int length = y.length;
+
+		if (threshold >= length || length < 3)
+		{
+			return Downsampler.range(length);
+		}
+
+		if (threshold < 3)
+		{
+			return new int[] { 0, length - 1 };
+		}
+
+		final int[] indexes = new int[threshold];
+		final double every = (double) (length - 2) / (threshold - 2);
+
+		int a = 0;
+		int count = 0;
+		indexes[count++] = a;
+
+		for (int i = 0; i < threshold - 2; i++)
+		{
+			// average point of the next bucket //
+			int start = (int) (((i + 1) * every) + 1);
+			int end = Math.min((int) (((i + 2) * every) + 1), length);
+
+			double avgX = 0;
+			double avgY = 0;
+			int avgLength = 0;
+
+			for (int j = start; j < end; j++)
+			{
+				if (!Double.isNaN(y[j]))
+				{
+					avgX += x[j];
+					avgY += y[j];
+					avgLength++;
+				}
+			}
+
+			if (avgLength > 0)
+			{
+				avgX /= avgLength;
+				avgY /= avgLength;
+			}
+			else
+			{
+				avgX = x[Math.min(start, length - 1)];
+				avgY = y[a];
+			}
+
+			// point of the current bucket forming the largest triangle //
+			int from = (int) ((i * every) + 1);
+			int to = (int) (((i + 1) * every) + 1);
+
+			double maxArea = -1;
+			int next = from;
+
+			for (int j = from; j < to; j++)
+			{
+				double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+
+				if (area > maxArea) // false for NaN
+				{
+					maxArea = area;
+					next = j;
+				}
+			}
+
+			indexes[count++] = next;
+			a = next;
+		}
+
+		indexes[count++] = length - 1;
+
+		return indexes;
+	}
+
+	/**
+	 * Gets the points holding the min and the max values of each bucket<br>
+	 * The first and last points are always selected; {@code NaN} values are ignored
+	 *
+	 * @param y the y values
+	 * @param buckets the number of buckets
+	 * @return the indexes of the selected points, in ascending order
+	 */
+	public static int[] minMax(double[] y, int buckets)
+	{
+		final int length = y.length;
+
+		if (buckets * 2 >= length)
+		{
+			return Downsampler.range(length);
+		}
+
+		final int[] bounds = Downsampler.buckets(length, buckets);
+		final int[] indexes = new int[buckets * 2 + 2];
+
+		int count = 0;
+		indexes[count++] = 0;
+
+		for (int b = 0; b < buckets; b++)
+		{
+			int min = -1;
+			int max = -1;
+
+			for (int j = bounds[b]; j < bounds[b + 1]; j++)
+			{
+				if (!Double.isNaN(y[j]))
+				{
+					if (min < 0 || y[j] < y[min])
+					{
+						min = j;
+					}
+
+					if (max < 0 || y[j] > y[max])
+					{
+						max = j;
+					}
+				}
+			}
+
+			if (min >= 0)
+			{
+				indexes[count++] = Math.min(min, max);
+
+				if (min != max)
+				{
+					indexes[count++] = Math.max(min, max);
+				}
+			}
+		}
+
+		indexes[count++] = length - 1;
+
+		return Downsampler.distinct(indexes, count);
+	}
+
+	/**
+	 * Gets the bounds of equally sized buckets
+	 *
+	 * @param length the number of points
+	 * @param buckets the number of buckets
+	 * @return the start indexes of the buckets, followed by the length
+	 */
+	public static int[] buckets(int length, int buckets)
+	{
+		final int count = Math.max(Math.min(buckets, length), 1);
+		final int[] bounds = new int[count + 1];
+
+		for (int b = 0; b <= count; b++)
+		{
+			bounds[b] = (int) ((long) b * length / count);
+		}
+
+		return bounds;
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets all indexes
+	 *
+	 * @param length the number of points
+	 * @return {@code [0..length)}
+	 */
+	private static int[] range(int length)
+	{
+		int[] indexes = new int[length];
+
+		for (int i = 0; i < length; i++)
+		{
+			indexes[i] = i;
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Gets the distinct indexes of a sorted array
+	 *
+	 * @param indexes the sorted indexes
+	 * @param count the number of indexes
+	 * @return the distinct indexes
+	 */
+	private static int[] distinct(int[] indexes, int count)
+	{
+		int size = 0;
+
+		for (int i = 0; i < count; i++)
+		{
+			if (size == 0 || indexes[i] != indexes[size - 1])
+			{
+				indexes[size++] = indexes[i];
+			}
+		}
+
+		return Arrays.copyOf(indexes, size);
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.dataviz.chart;
+
+/**
+ * Provides an enumeration of the {@link Downsampler} algorithms
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public enum Downsampling
+{
+	/** Largest-Triangle-Three-Buckets: keeps, in each bucket, the point forming the largest triangle with its neighbors; preserves the visual shape of the series */
+	LTTB,
+	/** keeps, in each bucket, the points holding the min and the max values; preserves the peaks */
+	MIN_MAX,
+	/** keeps, in each bucket, the first point, its values being the average of the bucket's values */
+	AVERAGE;
+}
@@ -18,15 +18,25 @@ package com.googlecode.wicket.kendo.ui.repeater;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.wicket.Component;
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.core.util.lang.PropertyResolver;
 import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.util.lang.Generics;
 
 import com.googlecode.wicket.jquery.core.Options;
 import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.behavior.ICallbackSource;
+import com.googlecode.wicket.jquery.core.data.IProjectionDataProvider;
+import com.googlecode.wicket.jquery.core.renderer.IChoiceRenderer;
 import com.googlecode.wicket.jquery.core.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.core.renderer.JsonRenderer;
+import com.googlecode.wicket.jquery.core.renderer.TextRenderer;
 import com.googlecode.wicket.jquery.core.template.IJQueryTemplate;
 import com.googlecode.wicket.jquery.core.utils.BuilderUtils;
 import com.googlecode.wicket.jquery.core.utils.ListUtils;
@@ -45,6 +55,9 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 	private final ITextRenderer<? super T> renderer;
 	private final IJQueryTemplate template;
 
+	/** whether rows are sent in the compact format */
+	private boolean compact = false;
+
 	/**
 	 * Constructor
 	 *
@@ -70,6 +83,32 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		this.template = template;
 	}
 
+	/**
+	 * Indicates whether rows are sent in the compact format
+	 *
+	 * @return {@code false} by default
+	 */
+	public boolean isCompactFormatEnabled()
+	{
+		return this.compact;
+	}
+
+	/**
+	 * Sets whether rows are sent in the compact format.<br>
+	 * If {@code true}, the field names are sent once, as {@code fields}, and rows are sent as positional arrays, as {@code rows}; the datasource is expected to rebuild the records using {@link com.googlecode.wicket.kendo.ui.KendoDataSource#getCompactParseFunction()}<br>
+	 * <br>
+	 * <b>Note:</b> the compact format does not apply to a {@link JsonRenderer}, which renders the whole bean; rows are then sent as json objects.
+	 *
+	 * @param compact whether rows are sent in the compact format
+	 * @return this, for chaining
+	 */
+	public DataProviderBehavior<T> setCompactFormatEnabled(boolean compact)
+	{
+		this.compact = compact;
+
+		return this;
+	}
+
 	/**
 	 * Gets the property set that should be appended to the JSON response.<br>
 	 * The value corresponding to the property is retrieved from the {@link ITextRenderer#getText(Object, String)}
@@ -86,12 +125,44 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Gets the property paths required by the view, supplied to an {@link IProjectionDataProvider}<br>
+	 * The projection consists of the renderer's fields and of the template properties. It is empty - meaning all properties - if the renderer renders the whole bean, or its {@code toString()}
+	 *
+	 * @return the set of property paths
+	 */
+	protected Set<String> getProjection()
+	{
+		Set<String> properties = new LinkedHashSet<String>();
+
+		if (this.renderer instanceof JsonRenderer<?>)
+		{
+			return properties; // the whole bean is rendered
+		}
+
+		if (this.renderer instanceof TextRenderer<?> && ((TextRenderer<?>) this.renderer).getExpression() == null)
+		{
+			return properties; // the bean's toString() is rendered
+		}
+
+		properties.addAll(this.renderer.getFields());
+		properties.addAll(this.getProperties());
+
+		return properties;
+	}
+
 	@Override
 	protected String getResponse(IRequestParameters parameters)
 	{
 		final int first = parameters.getParameterValue("skip").toInt(0);
 		final int count = parameters.getParameterValue("take").toInt(Short.MAX_VALUE);
 
+		// IProjectionDataProvider //
+		if (this.provider instanceof IProjectionDataProvider<?>)
+		{
+			((IProjectionDataProvider<?>) this.provider).setProjection(this.getProjection());
+		}
+
 		final long size = this.provider.size();
 		final Iterator<? extends T> iterator = this.provider.iterator(first, count);
 
@@ -100,33 +171,40 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		builder.append("{ ");
 		BuilderUtils.append(builder, "__count", size);
 		builder.append(", ");
-		builder.append(Options.QUOTE).append("results").append(Options.QUOTE).append(": ");
+
+		final List<String> fields = this.isCompactFormatApplicable() ? this.getCompactFields() : null;
+
+		if (fields != null)
+		{
+			builder.append(Options.QUOTE).append("fields").append(Options.QUOTE).append(": ");
+			builder.append(new JSONArray(fields));
+			builder.append(", ");
+			builder.append(Options.QUOTE).append("rows").append(Options.QUOTE).append(": ");
+		}
+		else
+		{
+			builder.append(Options.QUOTE).append("results").append(Options.QUOTE).append(": ");
+		}
+
 		builder.append("[ ");
 
 		if (iterator != null)
 		{
 			for (int index = 0; iterator.hasNext(); index++)
 			{
-				T object = iterator.next();
-
 				if (index > 0)
 				{
 					builder.append(", ");
 				}
 
-				builder.append("{ ");
-
-				// ITextRenderer //
-				builder.append(this.renderer.render(object));
-
-				// Additional properties (like template properties) //
-				for (String property : this.getProperties())
+				if (fields != null)
 				{
-					builder.append(", ");
-					BuilderUtils.append(builder, property, this.renderer.getText(object, property));
+					this.appendValues(builder, iterator.next(), fields);
+				}
+				else
+				{
+					this.appendRow(builder, iterator.next());
 				}
-
-				builder.append(" }");
 			}
 		}
 
@@ -135,6 +213,136 @@ public class DataProviderBehavior<T> extends AjaxCallbackBehavior
 		return builder.toString();
 	}
 
+	/**
+	 * Gets the supplied objects as json array string, as they would be rendered by the datasource's response
+	 *
+	 * @param objects the list of objects
+	 * @return the json array string
+	 */
+	public String getRowsAsString(List<? extends T> objects)
+	{
+		StringBuilder builder = new StringBuilder("[ ");
+
+		for (int index = 0; index < objects.size(); index++)
+		{
+			if (index > 0)
+			{
+				builder.append(", ");
+			}
+
+			this.appendRow(builder, objects.get(index));
+		}
+
+		return builder.append(" ]").toString();
+	}
+
+	/**
+	 * Appends an object, as json object, to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param object the object
+	 */
+	private void appendRow(StringBuilder builder, T object)
+	{
+		builder.append("{ ");
+
+		// ITextRenderer //
+		builder.append(this.renderer.render(object));
+
+		// Additional properties (like template properties) //
+		for (String property : this.getProperties())
+		{
+			builder.append(", ");
+			BuilderUtils.append(builder, property, this.renderer.getText(object, property));
+		}
+
+		builder.append(" }");
+	}
+
+	/**
+	 * Appends the values of an object, as positional json array, to the builder (compact format)
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param object the object
+	 * @param fields the fields, as returned by {@link #getCompactFields()}
+	 */
+	private void appendValues(StringBuilder builder, T object, List<String> fields)
+	{
+		JSONArray array = new JSONArray();
+
+		for (String field : fields)
+		{
+			array.put(this.getValue(object, field));
+		}
+
+		builder.append(array);
+	}
+
+	/**
+	 * Indicates whether rows can be sent in the compact format
+	 *
+	 * @return {@code true} if the compact format is enabled and the renderer does not render the whole bean
+	 */
+	private boolean isCompactFormatApplicable()
+	{
+		return this.compact && !(this.renderer instanceof JsonRenderer<?>);
+	}
+
+	/**
+	 * Gets the fields of the compact format: the renderer's fields, followed by the additional properties
+	 *
+	 * @return the list of fields
+	 */
+	protected List<String> getCompactFields()
+	{
+		List<String> fields = Generics.newArrayList();
+		fields.addAll(this.renderer.getFields());
+		fields.addAll(this.getProperties());
+
+		return fields;
+	}
+
+	/**
+	 * Gets the value of the supplied field (compact format)<br>
+	 * The text and value fields are rendered by the {@link ITextRenderer}; other fields are sent as numbers or booleans if their property value is one, or as the text rendered by the {@code ITextRenderer} otherwise
+	 *
+	 * @param object the object
+	 * @param field the field
+	 * @return the value, as put to the json array
+	 */
+	@SuppressWarnings("unchecked")
+	protected Object getValue(T object, String field)
+	{
+		if (field.equals(this.renderer.getTextField()))
+		{
+			return this.renderer.getText(object);
+		}
+
+		if (this.renderer instanceof IChoiceRenderer<?> && field.equals(((IChoiceRenderer<?>) this.renderer).getValueField()))
+		{
+			return ((IChoiceRenderer<? super T>) this.renderer).getValue(object);
+		}
+
+		Object value = PropertyResolver.getValue(field, object);
+
+		if (value instanceof Number || value instanceof Boolean)
+		{
+			return value;
+		}
+
+		return this.renderer.getText(object, field);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * The source is a detached copy of this behavior.
+	 */
+	@Override
+	public ICallbackSource newCallbackSource()
+	{
+		return AjaxCallbackBehavior.newCallbackSource(this);
+	}
+
 	@Override
 	public void detach(Component component)
 	{
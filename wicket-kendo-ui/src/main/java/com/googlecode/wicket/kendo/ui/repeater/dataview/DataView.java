@@ -19,6 +19,7 @@ package com.googlecode.wicket.kendo.ui.repeater.dataview;
 import java.util.List;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONArray;
 import org.apache.wicket.ajax.json.JSONObject;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
@@ -28,6 +29,7 @@ import org.apache.wicket.markup.repeater.data.IDataProvider;
 import com.googlecode.wicket.jquery.core.IJQueryWidget;
 import com.googlecode.wicket.jquery.core.JQueryBehavior;
 import com.googlecode.wicket.jquery.core.Options;
+import com.googlecode.wicket.jquery.core.data.CachingDataProvider;
 import com.googlecode.wicket.jquery.core.renderer.ITextRenderer;
 import com.googlecode.wicket.jquery.core.renderer.JsonRenderer;
 import com.googlecode.wicket.jquery.core.template.IJQueryTemplate;
@@ -35,9 +37,10 @@ import com.googlecode.wicket.jquery.core.template.JQueryTemplate;
 import com.googlecode.wicket.kendo.ui.KendoBehaviorFactory;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatch;
 import com.googlecode.wicket.kendo.ui.datatable.behavior.DataBoundBehavior;
 import com.googlecode.wicket.kendo.ui.repeater.DataProviderBehavior;
-import com.googlecode.wicket.kendo.ui.repeater.listview.IListViewListener;
+import com.googlecode.wicket.kendo.ui.repeater.listview.IListViewSyncListener;
 import com.googlecode.wicket.kendo.ui.repeater.listview.ListViewBehavior;
 import com.googlecode.wicket.kendo.ui.template.KendoTemplateBehavior;
 
@@ -47,7 +50,7 @@ import com.googlecode.wicket.kendo.ui.template.KendoTemplateBehavior;
  * @param <T> the model object type
  * @author Sebastien Briquet - sebfz1
  */
-public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IListViewListener
+public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IListViewSyncListener
 {
 	private static final long serialVersionUID = 1L;
 
@@ -173,9 +176,124 @@ public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IL
 	 */
 	public void refresh(IPartialPageRequestHandler handler)
 	{
+		this.invalidate();
+
 		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.read(); }", this.widget()));
 	}
 
+	/**
+	 * Updates the supplied rows, without reading from the datasource<br>
+	 * Only the supplied rows are rendered, and are applied to the matching rows of the current page (by {@link #getIdField()}).<br>
+	 * If no id field is supplied, or if the data-provider behavior is not a {@link DataProviderBehavior}, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param rows the updated rows
+	 */
+	public void update(IPartialPageRequestHandler handler, List<? extends T> rows)
+	{
+		String json = this.getRowsAsString(rows);
+
+		if (json != null && this.getIdField() != null)
+		{
+			this.push(handler, String.format("pushUpdate(%s)", json));
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Removes the rows having the supplied ids, without reading from the datasource<br>
+	 * If no id field is supplied, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param ids the ids of the removed rows
+	 */
+	public void remove(IPartialPageRequestHandler handler, List<?> ids)
+	{
+		final String field = this.getIdField();
+
+		if (field != null)
+		{
+			JSONArray array = new JSONArray();
+
+			for (Object id : ids)
+			{
+				array.put(new JSONObject().put(field, id));
+			}
+
+			this.push(handler, String.format("pushDestroy(%s)", array));
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Inserts the supplied rows, without reading from the datasource<br>
+	 * If the data-provider behavior is not a {@link DataProviderBehavior}, this is equivalent to {@link #refresh(IPartialPageRequestHandler)}
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param rows the inserted rows
+	 * @param index the index, in the current page, at which the rows are inserted
+	 */
+	public void insert(IPartialPageRequestHandler handler, List<? extends T> rows, int index)
+	{
+		String json = this.getRowsAsString(rows);
+
+		if (json != null)
+		{
+			this.push(handler, String.format("pushInsert(%d, %s)", index, json));
+		}
+		else
+		{
+			this.refresh(handler);
+		}
+	}
+
+	/**
+	 * Pushes changes to the datasource
+	 *
+	 * @param handler the {@link IPartialPageRequestHandler}
+	 * @param statement the datasource push statement
+	 */
+	private void push(IPartialPageRequestHandler handler, String statement)
+	{
+		this.invalidate();
+
+		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.%s; }", this.widget(), statement));
+	}
+
+	/**
+	 * Invalidates server-side cached rows, if any (see {@link CachingDataProvider})
+	 */
+	protected void invalidate()
+	{
+		if (this.provider instanceof CachingDataProvider<?>)
+		{
+			((CachingDataProvider<?>) this.provider).invalidate();
+		}
+	}
+
+	/**
+	 * Gets the rows as json array string, as rendered by the {@link ITextRenderer}
+	 *
+	 * @param rows the rows
+	 * @return the json array string, or {@code null} if the data-provider behavior is not a {@link DataProviderBehavior}
+	 */
+	@SuppressWarnings("unchecked")
+	private String getRowsAsString(List<? extends T> rows)
+	{
+		if (this.providerBehavior instanceof DataProviderBehavior<?>)
+		{
+			return ((DataProviderBehavior<T>) this.providerBehavior).getRowsAsString(rows);
+		}
+
+		return null;
+	}
+
 	// Properties //
 
 	/**
@@ -223,6 +341,61 @@ public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IL
 		return null;
 	}
 
+	/**
+	 * Gets the field that identifies the rows, which should be rendered by the {@link ITextRenderer} (or be a template property)<br>
+	 * The id is required by {@link #update(IPartialPageRequestHandler, List)} and {@link #remove(IPartialPageRequestHandler, List)}
+	 *
+	 * @return {@code null} by default
+	 */
+	protected String getIdField()
+	{
+		return null;
+	}
+
+	/**
+	 * Indicates whether the datasource should run in batch-sync mode<br>
+	 * If {@code true}, all pending changes are sent in one request, and {@link #onSync(AjaxRequestTarget, DataSourceBatch)} is triggered instead of {@code onCreate}, {@code onUpdate} and {@code onDelete}
+	 * 
+	 * @return {@code false} by default
+	 */
+	protected boolean isBatchSyncEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether rows should be sent in the compact format<br>
+	 * If {@code true}, the field names are sent once and rows are sent as positional arrays, which reduces the payload of large pages
+	 *
+	 * @return {@code false} by default
+	 * @see DataProviderBehavior#setCompactFormatEnabled(boolean)
+	 */
+	protected boolean isCompactFormatEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the endless-scroll mode is enabled<br>
+	 * If {@code true}, next pages are appended as the user nears the bottom (the next page being prefetched), so no {@link Pager} is needed. Beyond {@link #getMaxItemCount()} items, the items that have scrolled far away are removed.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isEndlessScrollEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the max number of items to be retained in the DOM, when the endless-scroll mode is enabled
+	 *
+	 * @return {@code 500} by default
+	 */
+	protected int getMaxItemCount()
+	{
+		return 500;
+	}
+
 	@Override
 	public boolean isSelectable()
 	{
@@ -322,6 +495,12 @@ public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IL
 		// noop
 	}
 
+	@Override
+	public void onSync(AjaxRequestTarget target, DataSourceBatch batch)
+	{
+		// noop
+	}
+
 	// IJQueryWidget //
 
 	@Override
@@ -345,6 +524,36 @@ public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IL
 				return DataView.this.getCallbackUrl();
 			}
 
+			@Override
+			protected boolean isBatchSyncEnabled()
+			{
+				return DataView.this.isBatchSyncEnabled();
+			}
+
+			@Override
+			protected String getIdField()
+			{
+				return DataView.this.getIdField();
+			}
+
+			@Override
+			protected boolean isCompactFormatEnabled()
+			{
+				return DataView.this.isCompactFormatEnabled();
+			}
+
+			@Override
+			protected boolean isEndlessScrollEnabled()
+			{
+				return DataView.this.isEndlessScrollEnabled();
+			}
+
+			@Override
+			protected int getMaxItemCount()
+			{
+				return DataView.this.getMaxItemCount();
+			}
+
 			// Events //
 
 			@Override
@@ -391,6 +600,6 @@ public class DataView<T> extends WebMarkupContainer implements IJQueryWidget, IL
 	 */
 	protected AbstractAjaxBehavior newDataProviderBehavior(IDataProvider<T> provider, ITextRenderer<? super T> renderer, IJQueryTemplate template)
 	{
-		return new DataProviderBehavior<T>(provider, renderer, template);
+		return new DataProviderBehavior<T>(provider, renderer, template).setCompactFormatEnabled(this.isCompactFormatEnabled());
 	}
 }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.repeater.listview;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
+
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatch;
+import com.googlecode.wicket.kendo.ui.repeater.dataview.DataView;
+
+/**
+ * Event listener of the {@link DataView} widget and the {@link ListViewBehavior}, in batch-sync mode
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IListViewSyncListener extends IListViewListener
+{
+	/**
+	 * Triggered when datasource 'submit' function is raised, in batch-sync mode<br>
+	 * All pending creates, updates and deletes are supplied at once, so they can be persisted in a single transaction.<br>
+	 * The {@link JSONObject}{@code s} may be updated in place (ie: to set server-assigned ids), they are sent back to the client as affected rows.
+	 * 
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param batch the {@link DataSourceBatch}
+	 */
+	void onSync(AjaxRequestTarget target, DataSourceBatch batch);
+}
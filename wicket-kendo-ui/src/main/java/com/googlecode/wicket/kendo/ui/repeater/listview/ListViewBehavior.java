@@ -24,6 +24,7 @@ import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.attributes.CallbackParameter;
 import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Generics;
 
@@ -31,10 +32,14 @@ import com.googlecode.wicket.jquery.core.JQueryEvent;
 import com.googlecode.wicket.jquery.core.Options;
 import com.googlecode.wicket.jquery.core.ajax.IJQueryAjaxAware;
 import com.googlecode.wicket.jquery.core.ajax.JQueryAjaxBehavior;
+import com.googlecode.wicket.jquery.core.resource.JavaScriptPackageHeaderItem;
 import com.googlecode.wicket.jquery.core.utils.RequestCycleUtils;
 import com.googlecode.wicket.kendo.ui.KendoDataSource;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceAjaxBehavior;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatch;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatchAjaxBehavior;
+import com.googlecode.wicket.kendo.ui.datatable.DataSourceBatchAjaxBehavior.SyncEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.CreateEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.DeleteEvent;
 import com.googlecode.wicket.kendo.ui.datatable.DataSourceEvent.UpdateEvent;
@@ -50,12 +55,16 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 
 	public static final String METHOD = "kendoListView";
 
+	/** default max number of items retained in the DOM, in endless-scroll mode */
+	private static final int MAX_ITEMS = 500;
+
 	private final IListViewListener listener;
 	private final KendoDataSource dataSource;
 
 	private JQueryAjaxBehavior onCreateAjaxBehavior;
 	private JQueryAjaxBehavior onUpdateAjaxBehavior;
 	private JQueryAjaxBehavior onDeleteAjaxBehavior;
+	private JQueryAjaxBehavior onSyncAjaxBehavior = null;
 
 	private JQueryAjaxBehavior onChangeAjaxBehavior = null;
 
@@ -110,6 +119,12 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		this.onDeleteAjaxBehavior = this.newOnDeleteAjaxBehavior(this);
 		component.add(this.onDeleteAjaxBehavior);
 
+		if (this.isBatchSyncEnabled())
+		{
+			this.onSyncAjaxBehavior = this.newOnSyncAjaxBehavior(this);
+			component.add(this.onSyncAjaxBehavior);
+		}
+
 		if (this.listener.isSelectable())
 		{
 			this.onChangeAjaxBehavior = this.newOnChangeAjaxBehavior(this, this.getDataSourceName());
@@ -117,6 +132,28 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		}
 	}
 
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		if (this.isEndlessScrollEnabled())
+		{
+			response.render(new JavaScriptPackageHeaderItem(ListViewBehavior.class)); // ListViewBehavior.js
+		}
+	}
+
+	@Override
+	protected String $()
+	{
+		if (this.isEndlessScrollEnabled())
+		{
+			return super.$() + String.format(" listview_endless('%s', %d);", this.selector, this.getMaxItemCount()); // ListViewBehavior.js
+		}
+
+		return super.$();
+	}
+
 	// Properties //
 
 	/**
@@ -154,6 +191,64 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		return false;
 	}
 
+	/**
+	 * Indicates whether the datasource should run in batch-sync mode.<br>
+	 * If {@code true}, all pending creates, updates and deletes are sent in one 'submit' request, and only the affected rows are sent back (the datasource is not re-read)
+	 * 
+	 * @return {@code false} by default
+	 * @see IListViewSyncListener#onSync(AjaxRequestTarget, DataSourceBatch)
+	 */
+	protected boolean isBatchSyncEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the field that identifies the rows, set as datasource's {@code schema.model.id}<br>
+	 * The id is required to update or remove rows without reading from the datasource (pushUpdate, pushDestroy)
+	 *
+	 * @return {@code null} by default
+	 */
+	protected String getIdField()
+	{
+		return null;
+	}
+
+	/**
+	 * Indicates whether the data-provider sends rows in the compact format.<br>
+	 * If {@code true}, the datasource's {@code schema.parse} rebuilds the records from the field names and the positional arrays
+	 *
+	 * @return {@code false} by default
+	 * @see KendoDataSource#getCompactParseFunction()
+	 */
+	protected boolean isCompactFormatEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the endless-scroll mode is enabled.<br>
+	 * If {@code true}, next pages are appended as the user nears the bottom of the list (or of the page, if the list is not scrollable), instead of being browsed by a pager. The next page is always prefetched in the background.
+	 *
+	 * @return {@code false} by default
+	 * @see #getMaxItemCount()
+	 */
+	protected boolean isEndlessScrollEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the max number of items to be retained in the DOM, when the endless-scroll mode is enabled<br>
+	 * Beyond that number, the items that have scrolled far away are removed.
+	 *
+	 * @return {@code 500} by default
+	 */
+	protected int getMaxItemCount()
+	{
+		return MAX_ITEMS;
+	}
+
 	/**
 	 * Gets the 'read' callback function<br>
 	 * As create, update and destroy need to be supplied as function, we should declare read as a function as well. Weird...
@@ -175,6 +270,16 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		schema.set("data", Options.asString("results"));
 		schema.set("total", Options.asString("__count"));
 
+		if (this.getIdField() != null)
+		{
+			schema.set("model", new Options("id", Options.asString(this.getIdField())));
+		}
+
+		if (this.isCompactFormatEnabled())
+		{
+			schema.set("parse", KendoDataSource.getCompactParseFunction());
+		}
+
 		// data-source //
 		this.setOption("dataSource", this.getDataSourceName());
 
@@ -186,6 +291,14 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		this.dataSource.setTransportUpdate(this.onUpdateAjaxBehavior.getCallbackFunction());
 		this.dataSource.setTransportDelete(this.onDeleteAjaxBehavior.getCallbackFunction());
 
+		// batch-sync //
+		if (this.onSyncAjaxBehavior != null)
+		{
+			this.dataSource.set("batch", true);
+			this.dataSource.set("sync", (Object) null); // affected rows are sent back, no need to re-read
+			this.dataSource.setTransportSubmit(this.onSyncAjaxBehavior.getCallbackFunction());
+		}
+
 		this.onConfigure(this.dataSource); // last chance to set options
 
 		// events //
@@ -225,6 +338,11 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 			this.listener.onDelete(target, ((DeleteEvent) event).getObject());
 		}
 
+		if (event instanceof SyncEvent && this.listener instanceof IListViewSyncListener)
+		{
+			((IListViewSyncListener) this.listener).onSync(target, ((SyncEvent) event).getBatch());
+		}
+
 		if (event instanceof ChangeEvent)
 		{
 			this.listener.onChange(target, ((ChangeEvent) event).getObjects());
@@ -293,6 +411,17 @@ public abstract class ListViewBehavior extends KendoUIBehavior implements IJQuer
 		};
 	}
 
+	/**
+	 * Gets a new {@link JQueryAjaxBehavior} that will be wired to the datasource's 'submit' operation, in batch-sync mode
+	 *
+	 * @param source the {@link IJQueryAjaxAware}
+	 * @return a new {@code DataSourceBatchAjaxBehavior} by default
+	 */
+	protected JQueryAjaxBehavior newOnSyncAjaxBehavior(IJQueryAjaxAware source)
+	{
+		return new DataSourceBatchAjaxBehavior(source);
+	}
+
 	/**
 	 * Gets a new {@link JQueryAjaxBehavior} that will be wired to the 'select' event
 	 *
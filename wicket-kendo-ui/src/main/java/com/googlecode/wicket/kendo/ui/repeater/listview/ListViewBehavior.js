@@ -0,0 +1,143 @@
+/**
+ * Enables the endless-scroll mode of a ListView.<br/>
+ * The next page is prefetched in the background and is appended when the user nears the bottom; beyond 'max' items, the oldest items are removed.<br/>
+ * Appended and removed items are also added to and removed from the datasource data, without re-rendering the listview, so they remain selectable.
+ */
+function listview_endless(selector, max) {
+	var $w = jQuery(selector).data('kendoListView');
+
+	if (!$w) {
+		return;
+	}
+
+	var ds = $w.dataSource;
+	var $scroller = /(auto|scroll)/.test($w.element.css('overflow-y')) ? $w.element : jQuery(window);
+	var namespace = '.endless' + selector.replace(/[^\w]/g, '_');
+	var state = { done: true };
+
+	function distance() {
+		if ($scroller[0] === window) {
+			return jQuery(document).height() - ($scroller.scrollTop() + $scroller.height());
+		}
+
+		var element = $scroller[0];
+		return element.scrollHeight - (element.scrollTop + element.clientHeight);
+	}
+
+	function prefetch() {
+		var current = state;
+
+		if (current.loading || current.prefetched || current.done) {
+			return;
+		}
+
+		if (current.skip >= ds.total()) {
+			current.done = true;
+			return;
+		}
+
+		current.loading = true;
+
+		ds.transport.read({
+			data: { skip: current.skip, take: ds.pageSize(), page: 1, pageSize: ds.pageSize(), sort: ds.sort(), filter: ds.filter() },
+			success: function(result) {
+				current.loading = false;
+				current.prefetched = ds.reader.data(ds.reader.parse(result));
+
+				if (current === state) {
+					check();
+				}
+			},
+			error: function(result) {
+				current.loading = false;
+				ds.trigger("error", { xhr: result });
+			}
+		});
+	}
+
+	function silently(fn) {
+		var data = ds.data();
+
+		data.unbind('change', ds._changeHandler); // the datasource would otherwise track the changes and re-render the listview
+
+		try {
+			fn(data);
+		}
+		finally {
+			data.bind('change', ds._changeHandler);
+		}
+	}
+
+	function append() {
+		var items = state.prefetched;
+		var count = $w.items().length;
+		var html = '';
+
+		state.prefetched = null;
+
+		if (items.length === 0) {
+			state.done = true;
+			return;
+		}
+
+		silently(function(data) {
+			var start = data.length;
+
+			data.push.apply(data, items); // wraps the records as models
+
+			for (var i = 0; i < items.length; i++) {
+				html += ((count + i) % 2 && $w.altTemplate ? $w.altTemplate : $w.template)(data[start + i]);
+			}
+
+			$w.element.append(html);
+
+			$w.items().slice(count).each(function(i) {
+				jQuery(this).attr(kendo.attr('uid'), data[start + i].uid).attr('role', 'option');
+			});
+		});
+
+		state.skip += items.length;
+
+		trim();
+		prefetch();
+	}
+
+	function trim() {
+		var $items = $w.items();
+		var excess = $items.length - max;
+
+		if (excess > 0) {
+			var height = $items.eq(excess).offset().top - $items.first().offset().top;
+
+			silently(function(data) {
+				data.splice(0, excess);
+			});
+
+			$items.slice(0, excess).remove();
+			$scroller.scrollTop($scroller.scrollTop() - height);
+		}
+	}
+
+	function check() {
+		if (distance() < $scroller.height()) {
+			if (state.prefetched) {
+				append();
+			}
+			else {
+				prefetch();
+			}
+		}
+	}
+
+	function reset() {
+		state = { skip: ds.skip() + ds.view().length, prefetched: null, loading: false, done: false };
+		prefetch();
+	}
+
+	$scroller.off('scroll' + namespace).on('scroll' + namespace, check);
+	$w.bind('dataBound', reset);
+
+	if (ds.view().length > 0) {
+		reset();
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler;
+
+import org.apache.wicket.ajax.json.JSONObject;
+
+/**
+ * Specifies an {@link ISchedulerConverter} that is able to write {@link SchedulerEvent}{@code s} as json directly, without building an intermediate {@link JSONObject}<br>
+ * The written json is expected to be equivalent to {@link #toJson(SchedulerEvent)}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public interface IStreamingSchedulerConverter extends ISchedulerConverter
+{
+	/**
+	 * Appends a {@link SchedulerEvent}, as a json object, to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param event the {@code SchedulerEvent}
+	 */
+	void append(StringBuilder builder, SchedulerEvent event);
+}
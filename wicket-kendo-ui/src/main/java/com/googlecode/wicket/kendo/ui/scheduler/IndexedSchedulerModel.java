@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler;
+
+import java.util.List;
+import java.util.TimeZone;
+
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.string.Strings;
+
+import com.googlecode.wicket.jquery.core.data.IntervalIndex;
+import com.googlecode.wicket.kendo.ui.scheduler.recurrence.RecurrenceRule;
+
+/**
+ * Provides a {@link SchedulerModel} backed by an {@link IntervalIndex}<br>
+ * {@link #load()} answers the range-overlap query of {@link #getStart()} and {@link #getEnd()} in O(log n + k), instead of scanning all events. The index is typically held by an application-scoped store, and is kept up to date by {@link #add(SchedulerEvent)}, {@link #update(SchedulerEvent)} and {@link #remove(SchedulerEvent)}, ie: from {@link ISchedulerListener}'s {@code onCreate}, {@code onUpdate} and {@code onDelete}.<br>
+ * <br>
+ * Usage:
+ *
+ * <pre>
+ * new IndexedSchedulerModel() {
+ *
+ * 	protected IntervalIndex&lt;SchedulerEvent&gt; getIndex()
+ * 	{
+ * 		return EventStore.get().getIndex(); // the model is serialized, the index is not
+ * 	}
+ * };
+ * </pre>
+ *
+ * <b>Note:</b> recurring events (having a recurrence rule) are indexed from their start to the end of their last occurrence, or with no end if the series is not bounded.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public abstract class IndexedSchedulerModel extends SchedulerModel
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 */
+	public IndexedSchedulerModel()
+	{
+		super();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the {@link IntervalIndex} of {@link SchedulerEvent}{@code s}
+	 *
+	 * @return the {@code IntervalIndex}
+	 */
+	protected abstract IntervalIndex<SchedulerEvent> getIndex();
+
+	// Methods //
+
+	@Override
+	protected List<SchedulerEvent> load()
+	{
+		return this.getIndex().find(this.getStart().getTime(), this.getEnd().getTime());
+	}
+
+	/**
+	 * Adds an event to the index
+	 *
+	 * @param event the {@link SchedulerEvent}, which should have an id
+	 */
+	public void add(SchedulerEvent event)
+	{
+		IndexedSchedulerModel.index(this.getIndex(), event);
+	}
+
+	/**
+	 * Updates an event of the index
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 */
+	public void update(SchedulerEvent event)
+	{
+		IndexedSchedulerModel.index(this.getIndex(), event);
+	}
+
+	/**
+	 * Removes an event from the index
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 */
+	public void remove(SchedulerEvent event)
+	{
+		this.getIndex().remove(event.getId());
+	}
+
+	// Statics //
+
+	/**
+	 * Indexes a {@link SchedulerEvent}, replacing the event having the same id if any
+	 *
+	 * @param index the {@link IntervalIndex}
+	 * @param event the {@code SchedulerEvent}
+	 */
+	public static void index(IntervalIndex<SchedulerEvent> index, SchedulerEvent event)
+	{
+		Args.notNull(event.getId(), "id");
+
+		index.put(event.getId(), event.getStart().getTime(), IndexedSchedulerModel.getEnd(event), event);
+	}
+
+	/**
+	 * Gets the end of an event, or the end of the last occurrence if the event is recurring
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @return the end, or {@link Long#MAX_VALUE} if the series is not bounded
+	 */
+	static long getEnd(SchedulerEvent event)
+	{
+		long start = event.getStart().getTime();
+		long end = event.getEnd().getTime();
+
+		if (!Strings.isEmpty(event.getRecurrenceRule()))
+		{
+			try
+			{
+				end = RecurrenceRule.compile(event.getRecurrenceRule()).getEnd(start, end - start, TimeZone.getTimeZone("UTC"));
+			}
+			catch (IllegalArgumentException e)
+			{
+				end = Long.MAX_VALUE; // cannot be expanded server-side
+			}
+		}
+
+		return end;
+	}
+}
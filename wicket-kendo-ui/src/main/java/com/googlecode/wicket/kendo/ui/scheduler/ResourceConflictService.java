@@ -0,0 +1,587 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.string.Strings;
+
+import com.googlecode.wicket.jquery.core.data.IntervalIndex;
+import com.googlecode.wicket.kendo.ui.scheduler.recurrence.RecurrenceRule;
+import com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceList;
+
+/**
+ * Provides conflict detection and availability queries of {@link SchedulerEvent}{@code s} per resource (ie: rooms, employees)<br>
+ * Events are indexed by {@link ResourceList} field and value, in one {@link IntervalIndex} per resource, so an overlap check costs O(log n + k) for each of the resources of the event, whatever the number of resources and events.<br>
+ * <br>
+ * The service is typically held by an application-scoped store, alongside the events, and is kept up to date by {@link #put(SchedulerEvent)} and {@link #remove(SchedulerEvent)}. It can then veto conflicting edits, see {@link Scheduler#getConflictService()}:
+ *
+ * <pre>
+ * protected ResourceConflictService getConflictService()
+ * {
+ * 	return EventStore.get().getConflictService();
+ * }
+ * </pre>
+ *
+ * The check and the storage of an event should be atomic, otherwise two concurrent edits may both be accepted: {@link #putIfNoConflict(SchedulerEvent)} checks and indexes an event under the service's lock; the {@link Scheduler} also holds this lock (the service's monitor) while committing an accepted edit.<br>
+ * <br>
+ * <b>Note:</b> resource values are compared by their string representation, so that json values (ie: {@code Integer}) match stored ones (ie: {@code Long}). Recurring events are expanded in UTC, consistent with {@link IndexedSchedulerModel}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class ResourceConflictService
+{
+	/** default max period, from the start of a recurring event, in which its occurrences are checked for conflicts */
+	public static final long HORIZON = 366L * 24 * 60 * 60 * 1000;
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private final List<String> fields;
+	private final ConcurrentMap<String, IntervalIndex<SchedulerEvent>> indexes;
+	private final Map<String, List<String>> keys;
+	private long horizon = HORIZON;
+
+	/**
+	 * Constructor
+	 *
+	 * @param layout the {@link SchedulerEventLayout} whose fields are indexed (ie: {@link Scheduler#getEventLayout()})
+	 */
+	public ResourceConflictService(SchedulerEventLayout layout)
+	{
+		this(layout.getFields());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param fields the resource fields to index (ie: 'roomId')
+	 */
+	public ResourceConflictService(String... fields)
+	{
+		this(Arrays.asList(fields));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param fields the resource fields to index (ie: 'roomId')
+	 */
+	public ResourceConflictService(List<String> fields)
+	{
+		this.fields = Collections.unmodifiableList(Args.notNull(fields, "fields"));
+		this.indexes = Generics.newConcurrentHashMap();
+		this.keys = Generics.newConcurrentHashMap();
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the indexed resource fields
+	 *
+	 * @return the list of fields
+	 */
+	public List<String> getFields()
+	{
+		return this.fields;
+	}
+
+	/**
+	 * Gets the max period, from the start of a recurring event, in which its occurrences are checked for conflicts
+	 *
+	 * @return {@link #HORIZON} by default
+	 */
+	public long getHorizon()
+	{
+		return this.horizon;
+	}
+
+	/**
+	 * Sets the max period, from the start of a recurring event, in which its occurrences are checked for conflicts
+	 *
+	 * @param horizon the period, in milliseconds
+	 * @return this, for chaining
+	 */
+	public ResourceConflictService setHorizon(long horizon)
+	{
+		this.horizon = horizon;
+
+		return this;
+	}
+
+	// Methods //
+
+	/**
+	 * Indexes an event, replacing the event having the same id if any
+	 *
+	 * @param event the {@link SchedulerEvent}, which should have an id
+	 */
+	public synchronized void put(SchedulerEvent event)
+	{
+		Args.notNull(event.getId(), "id");
+
+		final String id = String.valueOf(event.getId());
+		final long start = event.getStart().getTime();
+		final long end = IndexedSchedulerModel.getEnd(event);
+
+		this.remove(id);
+
+		List<String> list = this.getKeys(event);
+
+		for (String key : list)
+		{
+			IntervalIndex<SchedulerEvent> index = this.indexes.get(key);
+
+			if (index == null)
+			{
+				index = new IntervalIndex<SchedulerEvent>();
+				this.indexes.put(key, index);
+			}
+
+			index.put(id, start, end, event);
+		}
+
+		this.keys.put(id, list);
+	}
+
+	/**
+	 * Removes an event from the indexes
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 */
+	public void remove(SchedulerEvent event)
+	{
+		this.remove(String.valueOf(event.getId()));
+	}
+
+	/**
+	 * Removes an event from the indexes
+	 *
+	 * @param id the event id, as string
+	 */
+	private synchronized void remove(String id)
+	{
+		List<String> list = this.keys.remove(id);
+
+		if (list != null)
+		{
+			for (String key : list)
+			{
+				IntervalIndex<SchedulerEvent> index = this.indexes.get(key);
+
+				if (index != null)
+				{
+					index.remove(id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Clears the indexes
+	 */
+	public synchronized void clear()
+	{
+		this.indexes.clear();
+		this.keys.clear();
+	}
+
+	/**
+	 * Gets the indexed events that overlap the supplied event on at least one of its resources<br>
+	 * The event itself, and the events of its recurrence series, are ignored. If the event is recurring, its occurrences are checked up to the {@link #getHorizon()}.
+	 *
+	 * @param event the created or updated {@link SchedulerEvent}
+	 * @return the list of conflicting {@code SchedulerEvent}{@code s}, empty if none
+	 */
+	public synchronized List<SchedulerEvent> getConflicts(SchedulerEvent event)
+	{
+		final String id = String.valueOf(event.getId());
+		final Set<String> ignored = new HashSet<String>();
+		ignored.add(id);
+
+		if (!Strings.isEmpty(event.getRecurrenceId()))
+		{
+			ignored.add(event.getRecurrenceId()); // the series of an exception
+		}
+
+		final Map<String, SchedulerEvent> conflicts = new LinkedHashMap<String, SchedulerEvent>();
+		final List<long[]> occurrences = this.getOccurrences(event);
+
+		for (String key : this.getKeys(event))
+		{
+			IntervalIndex<SchedulerEvent> index = this.indexes.get(key);
+
+			if (index == null)
+			{
+				continue;
+			}
+
+			for (long[] occurrence : occurrences)
+			{
+				for (SchedulerEvent candidate : index.find(occurrence[0], occurrence[1]))
+				{
+					String candidateId = String.valueOf(candidate.getId());
+
+					if (ignored.contains(candidateId) || id.equals(candidate.getRecurrenceId()) || conflicts.containsKey(candidateId))
+					{
+						continue;
+					}
+
+					if (!ResourceConflictService.getOccurrences(candidate, occurrence[0], occurrence[1]).isEmpty())
+					{
+						conflicts.put(candidateId, candidate);
+					}
+				}
+			}
+		}
+
+		return new ArrayList<SchedulerEvent>(conflicts.values());
+	}
+
+	/**
+	 * Indexes an event, if it does not conflict with the indexed events<br>
+	 * The check and the indexing are atomic, so two concurrent conflicting events cannot both be indexed.
+	 *
+	 * @param event the {@link SchedulerEvent}, which should have an id
+	 * @return the list of conflicting {@code SchedulerEvent}{@code s}, empty if the event has been indexed
+	 * @see #getConflicts(SchedulerEvent)
+	 */
+	public synchronized List<SchedulerEvent> putIfNoConflict(SchedulerEvent event)
+	{
+		List<SchedulerEvent> conflicts = this.getConflicts(event);
+
+		if (conflicts.isEmpty())
+		{
+			this.put(event);
+		}
+
+		return conflicts;
+	}
+
+	/**
+	 * Indicates whether the supplied event overlaps an indexed event on at least one of its resources
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @return {@code true} or {@code false}
+	 * @see #getConflicts(SchedulerEvent)
+	 */
+	public boolean isConflicting(SchedulerEvent event)
+	{
+		return !this.getConflicts(event).isEmpty();
+	}
+
+	/**
+	 * Indicates whether a resource is free in the {@code [start, end)} range
+	 *
+	 * @param field the resource field (ie: 'roomId')
+	 * @param value the resource value
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isAvailable(String field, Object value, long start, long end)
+	{
+		IntervalIndex<SchedulerEvent> index = this.indexes.get(ResourceConflictService.getKey(field, value));
+
+		if (index != null)
+		{
+			for (SchedulerEvent event : index.find(start, end))
+			{
+				if (!ResourceConflictService.getOccurrences(event, start, end).isEmpty())
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the resource values that are free in the whole {@code [start, end)} range
+	 *
+	 * @param field the resource field (ie: 'roomId')
+	 * @param values the resource values to check
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @param <V> the value type
+	 * @return the list of available values
+	 */
+	public <V> List<V> getAvailable(String field, Collection<V> values, long start, long end)
+	{
+		List<V> list = Generics.newArrayList();
+
+		for (V value : values)
+		{
+			if (this.isAvailable(field, value, start, end))
+			{
+				list.add(value);
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Gets the busy slots of a resource within the {@code [start, end)} range<br>
+	 * Slots are clipped to the range, sorted, and overlapping slots are merged.
+	 *
+	 * @param field the resource field (ie: 'roomId')
+	 * @param value the resource value
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @return the list of {@code [start, end)} busy slots
+	 */
+	public List<long[]> getBusy(String field, Object value, long start, long end)
+	{
+		List<long[]> slots = Generics.newArrayList();
+		IntervalIndex<SchedulerEvent> index = this.indexes.get(ResourceConflictService.getKey(field, value));
+
+		if (index != null)
+		{
+			for (SchedulerEvent event : index.find(start, end))
+			{
+				for (long[] occurrence : ResourceConflictService.getOccurrences(event, start, end))
+				{
+					slots.add(new long[] { Math.max(occurrence[0], start), Math.min(occurrence[1], end) });
+				}
+			}
+		}
+
+		return ResourceConflictService.merge(slots);
+	}
+
+	/**
+	 * Gets the free slots of a resource within the {@code [start, end)} range
+	 *
+	 * @param field the resource field (ie: 'roomId')
+	 * @param value the resource value
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @return the list of {@code [start, end)} free slots
+	 */
+	public List<long[]> getFree(String field, Object value, long start, long end)
+	{
+		List<long[]> slots = Generics.newArrayList();
+		long from = start;
+
+		for (long[] busy : this.getBusy(field, value, start, end))
+		{
+			if (busy[0] > from)
+			{
+				slots.add(new long[] { from, busy[0] });
+			}
+
+			from = Math.max(from, busy[1]);
+		}
+
+		if (from < end)
+		{
+			slots.add(new long[] { from, end });
+		}
+
+		return slots;
+	}
+
+	/**
+	 * Gets the free slots of several resources within the {@code [start, end)} range
+	 *
+	 * @param field the resource field (ie: 'roomId')
+	 * @param values the resource values
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @param <V> the value type
+	 * @return the {@code Map} of {@code [start, end)} free slots, by resource value
+	 */
+	public <V> Map<V, List<long[]>> getFree(String field, Collection<V> values, long start, long end)
+	{
+		Map<V, List<long[]>> map = new LinkedHashMap<V, List<long[]>>();
+
+		for (V value : values)
+		{
+			map.put(value, this.getFree(field, value, start, end));
+		}
+
+		return map;
+	}
+
+	/**
+	 * Gets the index keys of the resources of an event
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @return the list of keys
+	 */
+	private List<String> getKeys(SchedulerEvent event)
+	{
+		List<String> list = Generics.newArrayList();
+
+		for (String field : this.fields)
+		{
+			Object value = event.getValue(field);
+
+			if (value instanceof Collection<?>)
+			{
+				for (Object object : (Collection<?>) value)
+				{
+					ResourceConflictService.addKey(list, field, object);
+				}
+			}
+			else
+			{
+				ResourceConflictService.addKey(list, field, value);
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Gets the occurrences of an edited event, up to the {@link #getHorizon()} if the event is recurring
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @return the list of {@code [start, end)} occurrences
+	 */
+	private List<long[]> getOccurrences(SchedulerEvent event)
+	{
+		final long start = event.getStart().getTime();
+		final long end = IndexedSchedulerModel.getEnd(event);
+
+		return ResourceConflictService.getOccurrences(event, start, Math.min(Math.max(end, start + 1), start + this.horizon));
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the index key of a resource
+	 *
+	 * @param field the resource field
+	 * @param value the resource value
+	 * @return the key
+	 */
+	private static String getKey(String field, Object value)
+	{
+		return field + '=' + value;
+	}
+
+	/**
+	 * Adds the index key of a resource to the list, if the value is not null
+	 *
+	 * @param list the list of keys
+	 * @param field the resource field
+	 * @param value the resource value
+	 */
+	private static void addKey(List<String> list, String field, Object value)
+	{
+		if (value != null && !JSONObject.NULL.equals(value))
+		{
+			String key = ResourceConflictService.getKey(field, value);
+
+			if (!list.contains(key))
+			{
+				list.add(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the occurrences of an event that overlap the {@code [from, to)} range
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @param from the start of the range
+	 * @param to the end of the range
+	 * @return the list of {@code [start, end)} occurrences
+	 */
+	private static List<long[]> getOccurrences(SchedulerEvent event, long from, long to)
+	{
+		final List<long[]> list = Generics.newArrayList();
+		final long start = event.getStart().getTime();
+		final long duration = Math.max(event.getEnd().getTime() - start, 1); // an instant still occupies the resource
+
+		if (!Strings.isEmpty(event.getRecurrenceRule()))
+		{
+			try
+			{
+				for (long occurrence : RecurrenceRule.compile(event.getRecurrenceRule()).expand(start, duration, event.getRecurrenceException(), UTC, from, to))
+				{
+					list.add(new long[] { occurrence, occurrence + duration });
+				}
+
+				return list;
+			}
+			catch (IllegalArgumentException e)
+			{
+				// the event is considered as a single occurrence
+			}
+		}
+
+		if (start < to && start + duration > from)
+		{
+			list.add(new long[] { start, start + duration });
+		}
+
+		return list;
+	}
+
+	/**
+	 * Sorts and merges overlapping (or adjacent) slots
+	 *
+	 * @param slots the list of {@code [start, end)} slots
+	 * @return the merged slots
+	 */
+	private static List<long[]> merge(List<long[]> slots)
+	{
+		Collections.sort(slots, new Comparator<long[]>() { // NOSONAR
+
+			@Override
+			public int compare(long[] o1, long[] o2)
+			{
+				return Long.compare(o1[0], o2[0]);
+			}
+		});
+
+		List<long[]> list = Generics.newArrayList();
+
+		for (long[] slot : slots)
+		{
+			long[] last = list.isEmpty() ? null : list.get(list.size() - 1);
+
+			if (last != null && slot[0] <= last[1])
+			{
+				last[1] = Math.max(last[1], slot[1]);
+			}
+			else
+			{
+				list.add(slot);
+			}
+		}
+
+		return list;
+	}
+}
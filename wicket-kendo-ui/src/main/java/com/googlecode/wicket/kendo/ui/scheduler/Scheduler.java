@@ -16,6 +16,7 @@
  */
 package com.googlecode.wicket.kendo.ui.scheduler;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
@@ -27,6 +28,7 @@ import com.googlecode.wicket.jquery.core.JQueryBehavior;
 import com.googlecode.wicket.jquery.core.JQueryContainer;
 import com.googlecode.wicket.jquery.core.Options;
 import com.googlecode.wicket.jquery.core.template.IJQueryTemplate;
+import com.googlecode.wicket.jquery.core.utils.RequestCycleUtils;
 import com.googlecode.wicket.kendo.ui.KendoUIBehavior;
 import com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceList;
 import com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceListModel;
@@ -183,13 +185,14 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 	}
 
 	/**
-	 * Refreshes the events currently available in the selected view.
+	 * Refreshes the events currently available in the selected view.<br>
+	 * In range-cache mode, the cached ranges are discarded beforehand, so the events are read from the server.
 	 *
 	 * @param handler the {@link IPartialPageRequestHandler}
 	 */
 	public void refresh(IPartialPageRequestHandler handler)
 	{
-		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.dataSource.read(); $w.refresh(); }", this.widget()));
+		handler.appendJavaScript(String.format("var $w = %s; if ($w) { $w.wicketRangeCache = null; $w.dataSource.read(); $w.refresh(); }", this.widget()));
 
 		this.onRefresh(handler);
 	}
@@ -288,6 +291,17 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 		return this.resourceListModel;
 	}
 
+	/**
+	 * Gets the {@link SchedulerEventLayout} of the sheduler's {@link ResourceListModel}<br>
+	 * This can be set to the {@link SchedulerEvent}{@code s} of the {@link SchedulerModel}, so their resource values are stored compactly.
+	 *
+	 * @return a new {@link SchedulerEventLayout}
+	 */
+	public SchedulerEventLayout getEventLayout()
+	{
+		return SchedulerEventLayout.of(this.resourceListModel.getObject());
+	}
+
 	/**
 	 * Gets the orientation of the group headers
 	 *
@@ -308,6 +322,83 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 		return false;
 	}
 
+	/**
+	 * Indicates whether recurring events are expanded server-side, so that only their occurrences within the displayed range are sent to the client<br>
+	 * The occurrences are then read-only, the series should be edited by other means.
+	 *
+	 * @return {@code false} by default
+	 * @see SchedulerModelBehavior#setRecurrenceExpansionEnabled(boolean)
+	 */
+	protected boolean isRecurrenceExpansionEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the range-cache mode is enabled<br>
+	 * When navigating, the client only requests the ranges that are not already loaded; the {@link SchedulerModel} is then loaded once per missing range.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isRangeCacheEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the events can be served by the browser's HTTP cache<br>
+	 * If {@code true}, requests are no longer made unique, so the browser revalidates the ranges that are versioned by the {@link SchedulerModel} (see {@link SchedulerModel#getVersion()}) and reuses the unchanged ones.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isHttpCachingEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether created and updated events are checked for conflicts before being committed by the client<br>
+	 * If {@link #getConflicts(SchedulerEvent)} returns conflicting events, the edit is vetoed: {@link #onConflict(AjaxRequestTarget, SchedulerEvent, List)} is triggered instead of {@code onCreate} or {@code onUpdate}, and the client's pending changes are cancelled.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isConflictCheckEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the {@link ResourceConflictService} that checks and indexes the created and updated events<br>
+	 * If not {@code null}, and if the conflict check is enabled, edits are committed atomically: the check, {@code onCreate} or {@code onUpdate}, and the indexing of the event are performed under the service's lock, so two concurrent conflicting edits cannot both be accepted.
+	 *
+	 * @return {@code null} by default
+	 * @see #isConflictCheckEnabled()
+	 */
+	protected ResourceConflictService getConflictService()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets the events that conflict with a created or updated event<br>
+	 * This is called only if the conflict check is enabled
+	 *
+	 * @param event the created or updated {@link SchedulerEvent}
+	 * @return the conflicts of the {@link #getConflictService()} if any, an empty list otherwise
+	 * @see #isConflictCheckEnabled()
+	 */
+	protected List<SchedulerEvent> getConflicts(SchedulerEvent event)
+	{
+		ResourceConflictService service = this.getConflictService();
+
+		if (service != null)
+		{
+			return service.getConflicts(event);
+		}
+
+		return Collections.emptyList();
+	}
+
 	// Events //
 
 	@Override
@@ -423,7 +514,7 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 	@Override
 	public void onCreate(AjaxRequestTarget target, JSONObject object)
 	{
-		this.onCreate(target, this.eventOf(object));
+		this.commit(target, this.eventOf(object), true);
 	}
 
 	/**
@@ -444,7 +535,7 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 	@Override
 	public void onUpdate(AjaxRequestTarget target, JSONObject object)
 	{
-		this.onUpdate(target, this.eventOf(object));
+		this.commit(target, this.eventOf(object), false);
 	}
 
 	/**
@@ -458,6 +549,20 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 		// noop
 	}
 
+	/**
+	 * Triggered when a created or updated {@link SchedulerEvent} is vetoed, because it conflicts with other events<br>
+	 * The client's pending changes are cancelled.
+	 *
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param event the vetoed {@link SchedulerEvent}
+	 * @param conflicts the conflicting {@code SchedulerEvent}{@code s}
+	 * @see #isConflictCheckEnabled()
+	 */
+	protected void onConflict(AjaxRequestTarget target, SchedulerEvent event, List<SchedulerEvent> conflicts)
+	{
+		// noop
+	}
+
 	/**
 	 * {@inheritDoc}<br>
 	 * <b>Warning:</b> to be overridden with care!
@@ -479,6 +584,89 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 		// noop
 	}
 
+	/**
+	 * Commits a created or updated event, if it is accepted<br>
+	 * If the conflict check is enabled and the {@link #getConflictService()} is supplied, the event is checked, committed and indexed under the service's lock
+	 *
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param event the {@link SchedulerEvent}
+	 * @param created whether the event is created or updated
+	 */
+	private void commit(AjaxRequestTarget target, SchedulerEvent event, boolean created)
+	{
+		final ResourceConflictService service = this.isConflictCheckEnabled() ? this.getConflictService() : null;
+
+		if (service == null)
+		{
+			if (this.accept(target, event))
+			{
+				this.onCommit(target, event, created);
+			}
+
+			return;
+		}
+
+		synchronized (service)
+		{
+			if (this.accept(target, event))
+			{
+				this.onCommit(target, event, created);
+
+				if (!SchedulerEvent.isNew(event))
+				{
+					service.put(event); // the id of a created event is supplied by onCreate
+				}
+			}
+		}
+	}
+
+	/**
+	 * Triggers {@code onCreate} or {@code onUpdate}
+	 *
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param event the {@link SchedulerEvent}
+	 * @param created whether the event is created or updated
+	 */
+	private void onCommit(AjaxRequestTarget target, SchedulerEvent event, boolean created)
+	{
+		if (created)
+		{
+			this.onCreate(target, event);
+		}
+		else
+		{
+			this.onUpdate(target, event);
+		}
+	}
+
+	/**
+	 * Checks a created or updated event for conflicts, if enabled, and resolves the pending client operation accordingly
+	 *
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param event the {@link SchedulerEvent}
+	 * @return {@code true} if the event is accepted, {@code false} if vetoed
+	 */
+	private boolean accept(AjaxRequestTarget target, SchedulerEvent event)
+	{
+		if (!this.isConflictCheckEnabled())
+		{
+			return true;
+		}
+
+		List<SchedulerEvent> conflicts = this.getConflicts(event);
+		boolean vetoed = !conflicts.isEmpty();
+
+		if (vetoed)
+		{
+			this.onConflict(target, event, conflicts);
+		}
+
+		String uid = RequestCycleUtils.getRequestParameterValue("uid").toString(""); // the pending operation key, see SchedulerBehavior.js
+		target.appendJavaScript(SchedulerBehavior.getResolveStatement(this.widget(), uid, vetoed));
+
+		return !vetoed;
+	}
+
 	// IJQueryWidget //
 
 	/**
@@ -499,6 +687,30 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 				return Scheduler.this.getCallbackUrl();
 			}
 
+			@Override
+			protected boolean isRecurrenceExpansionEnabled()
+			{
+				return Scheduler.this.isRecurrenceExpansionEnabled();
+			}
+
+			@Override
+			protected boolean isRangeCacheEnabled()
+			{
+				return Scheduler.this.isRangeCacheEnabled();
+			}
+
+			@Override
+			protected boolean isHttpCachingEnabled()
+			{
+				return Scheduler.this.isHttpCachingEnabled();
+			}
+
+			@Override
+			protected boolean isConflictCheckEnabled()
+			{
+				return Scheduler.this.isConflictCheckEnabled();
+			}
+
 			// Events //
 
 			@Override
@@ -553,6 +765,6 @@ public class Scheduler extends JQueryContainer implements ISchedulerListener
 	 */
 	protected SchedulerModelBehavior newSchedulerModelBehavior(final SchedulerModel model, final ISchedulerConverter converter)
 	{
-		return new SchedulerModelBehavior(model, converter);
+		return new SchedulerModelBehavior(model, converter).setRecurrenceExpansionEnabled(this.isRecurrenceExpansionEnabled());
 	}
 }
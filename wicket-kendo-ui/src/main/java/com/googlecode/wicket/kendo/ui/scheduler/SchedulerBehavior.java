@@ -18,6 +18,7 @@ package com.googlecode.wicket.kendo.ui.scheduler;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.attributes.AjaxCallListener;
 import org.apache.wicket.ajax.attributes.AjaxRequestAttributes;
 import org.apache.wicket.ajax.attributes.AjaxRequestAttributes.Method;
 import org.apache.wicket.ajax.attributes.CallbackParameter;
@@ -131,7 +132,17 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 		// events //
 		this.setOption("navigate", this.onNavigateAjaxBehavior.getCallbackFunction());
 
-		if (this.onEditAjaxBehavior != null)
+		if (this.isRecurrenceExpansionEnabled())
+		{
+			String statement = this.onEditAjaxBehavior != null ? String.format("(%s)(e);", this.onEditAjaxBehavior.getCallbackFunction()) : "";
+
+			// SchedulerBehavior.js //
+			this.setOption("edit", String.format("function(e) { if (!scheduler_protect(e)) { %s } }", statement));
+			this.setOption("moveStart", "scheduler_protect");
+			this.setOption("resizeStart", "scheduler_protect");
+			this.setOption("remove", "scheduler_protect");
+		}
+		else if (this.onEditAjaxBehavior != null)
 		{
 			this.setOption("edit", this.onEditAjaxBehavior.getCallbackFunction());
 		}
@@ -139,10 +150,18 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 		// data-source //
 		this.setOption("dataSource", this.dataSource.getName());
 
-		this.dataSource.setTransportRead(this.getReadCallbackFunction());
-		this.dataSource.setTransportCreate(this.onCreateAjaxBehavior.getCallbackFunction());
-		this.dataSource.setTransportUpdate(this.onUpdateAjaxBehavior.getCallbackFunction());
-		this.dataSource.setTransportDelete(this.onDeleteAjaxBehavior.getCallbackFunction());
+		if (this.isRangeCacheEnabled())
+		{
+			this.dataSource.setTransportRead(String.format("function(options) { scheduler_read(%s, '%s', options, %b); }", this.widget(), this.getDataSourceUrl(), this.isHttpCachingEnabled())); // SchedulerBehavior.js
+		}
+		else
+		{
+			this.dataSource.setTransportRead(this.getReadCallbackFunction());
+		}
+
+		this.dataSource.setTransportCreate(this.getTransportFunction(this.onCreateAjaxBehavior, "create"));
+		this.dataSource.setTransportUpdate(this.getTransportFunction(this.onUpdateAjaxBehavior, "update"));
+		this.dataSource.setTransportDelete(this.getTransportFunction(this.onDeleteAjaxBehavior, null));
 
 		this.onConfigure(this.dataSource); // last chance to set options
 		super.onConfigure(component);
@@ -204,6 +223,51 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 	 */
 	protected abstract CharSequence getDataSourceUrl();
 
+	/**
+	 * Indicates whether recurring events are expanded server-side<br>
+	 * If {@code true}, the expanded occurrences are read-only: editing, moving, resizing or deleting them is prevented, as it would apply to their whole series.
+	 *
+	 * @return {@code false} by default
+	 * @see SchedulerModelBehavior#setRecurrenceExpansionEnabled(boolean)
+	 */
+	protected boolean isRecurrenceExpansionEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the range-cache mode is enabled<br>
+	 * The client keeps the loaded ranges and their events, and only requests the ranges that are not already loaded when navigating; the ranges of created, updated and deleted events are invalidated.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isRangeCacheEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether the events can be served by the browser's HTTP cache<br>
+	 * If {@code true}, requests are no longer made unique, so the browser revalidates the versioned ranges and reuses the unchanged ones.
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isHttpCachingEnabled()
+	{
+		return false;
+	}
+
+	/**
+	 * Indicates whether created and updated events are checked for conflicts by the server before being committed by the client<br>
+	 * The datasource operation is completed only when the server accepts it; otherwise the client's pending changes are cancelled (see {@link Scheduler#getConflicts(SchedulerEvent)})
+	 *
+	 * @return {@code false} by default
+	 */
+	protected boolean isConflictCheckEnabled()
+	{
+		return false;
+	}
+
 	/**
 	 * Gets the 'read' callback function<br>
 	 * As create, update and destroy need to be supplied, we should declare read as a function. Weird...
@@ -220,7 +284,7 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 				+ "jQuery.ajax({" // lf
 				+ "		url: '" + this.getDataSourceUrl() + "'," // lf
 				+ "		data: { start: " + start + ", end: " + end + " }," // lf
-				+ "		cache: false," // lf
+				+ "		cache: " + this.isHttpCachingEnabled() + "," // lf
 				+ "		dataType: 'json'," // lf
 				+ "		success: function(result) { "// lf
 				+ "			options.success(result);" // lf
@@ -232,6 +296,56 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 				+ "}";
 	}
 
+	/**
+	 * Gets the datasource's transport function of the supplied behavior<br>
+	 * In range-cache mode, the ranges of the event are invalidated beforehand; if the conflict check is enabled, the completion of the 'create' and 'update' operations is deferred until the server resolves them.
+	 *
+	 * @param behavior the {@link JQueryAjaxBehavior}
+	 * @param operation the operation that can be vetoed ('create', 'update'), or {@code null}
+	 * @return the transport function
+	 */
+	private String getTransportFunction(JQueryAjaxBehavior behavior, String operation)
+	{
+		final boolean deferred = operation != null && this.isConflictCheckEnabled();
+
+		if (!deferred && !this.isRangeCacheEnabled())
+		{
+			return behavior.getCallbackFunction();
+		}
+
+		StringBuilder builder = new StringBuilder("function(e) { ");
+
+		// SchedulerBehavior.js //
+		if (this.isRangeCacheEnabled())
+		{
+			builder.append("scheduler_invalidate(").append(this.widget()).append(", e.data); ");
+		}
+
+		if (deferred)
+		{
+			builder.append(String.format("(%s)(scheduler_defer(%s, '%s', e)); }", behavior.getCallbackFunction(), this.widget(), operation));
+		}
+		else
+		{
+			builder.append(String.format("(%s)(e); }", behavior.getCallbackFunction()));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Gets the javascript statement that completes a pending operation, deferred by the conflict check
+	 *
+	 * @param widget the scheduler widget
+	 * @param uid the uid of the pending event, as posted by the operation request ({@code uid} parameter)
+	 * @param vetoed whether the operation is vetoed
+	 * @return the statement
+	 */
+	public static String getResolveStatement(String widget, String uid, boolean vetoed)
+	{
+		return String.format("scheduler_resolve(%s, %s, %b);", widget, JSONObject.quote(uid), vetoed); // SchedulerBehavior.js
+	}
+
 	// Factories //
 
 	/**
@@ -398,7 +512,8 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 	}
 
 	/**
-	 * Provides a {@link JQueryAjaxBehavior} for handling datasource operations
+	 * Provides a {@link JQueryAjaxBehavior} for handling datasource operations<br>
+	 * Operations deferred by the conflict check post the {@code uid} of their event, and are rejected if the request fails
 	 */
 	protected abstract static class DataSourceAjaxBehavior extends JQueryAjaxBehavior
 	{
@@ -415,12 +530,14 @@ public abstract class SchedulerBehavior extends KendoUIBehavior implements IJQue
 			super.updateAjaxAttributes(attributes);
 
 			attributes.setMethod(Method.POST); // #259
+			attributes.getAjaxCallListeners().add(new AjaxCallListener().onFailure("scheduler_reject(attrs);")); // SchedulerBehavior.js
 		}
 
 		@Override
 		protected CallbackParameter[] getCallbackParameters()
 		{
 			return new CallbackParameter[] { CallbackParameter.context("e"), // lf
+					CallbackParameter.resolved("uid", "e.uid || ''"), // lf
 					CallbackParameter.resolved("data", "kendo.stringify(e.data)") // lf
 			};
 		}
@@ -16,25 +16,34 @@
  */
 package com.googlecode.wicket.kendo.ui.scheduler;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.wicket.ajax.json.JSONArray;
 import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.util.lang.Generics;
 
 import com.googlecode.wicket.jquery.core.utils.DateUtils;
 import com.googlecode.wicket.jquery.core.utils.JsonUtils;
 import com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceList;
 
 /**
- * Default implementation of {@link ISchedulerConverter}
+ * Default implementation of {@link ISchedulerConverter}<br>
+ * <br>
+ * <b>Note:</b> events are written by {@link #append(StringBuilder, SchedulerEvent)} when they are loaded by the {@link SchedulerModelBehavior}; if a subclass overrides {@link #toJson(SchedulerEvent)} but not {@code #append(StringBuilder, SchedulerEvent)}, events are appended as {@code toJson(event)}, so the override still applies.
  * 
  * @author Sebastien Briquet - sebfz1
  *
  */
-public class SchedulerConverter implements ISchedulerConverter
+public class SchedulerConverter implements IStreamingSchedulerConverter
 {
 	private static final long serialVersionUID = 1L;
 
+	/** whether a converter class can be streamed, by class */
+	private static final ConcurrentMap<Class<?>, Boolean> STREAMABLE = Generics.newConcurrentHashMap();
+
 	@Override
 	public JSONObject toJson(SchedulerEvent event)
 	{
@@ -69,10 +78,65 @@ public class SchedulerConverter implements ISchedulerConverter
 		return object;
 	}
 
+	@Override
+	public void append(StringBuilder builder, SchedulerEvent event)
+	{
+		if (!SchedulerConverter.isStreamable(this.getClass()))
+		{
+			builder.append(this.toJson(event));
+			return;
+		}
+
+		builder.append("{");
+		builder.append("\"id\":");
+		SchedulerConverter.appendValue(builder, event.getId()); // Object
+		builder.append(",\"isAllDay\":").append(event.isAllDay());
+		SchedulerConverter.appendOpt(builder, "title", event.getTitle()); // may be null
+		SchedulerConverter.appendOpt(builder, "description", event.getDescription()); // may be null
+
+		Date start = event.getStart();
+
+		if (start != null)
+		{
+			DateUtils.appendUTCString(builder.append(",\"start\":\""), start.getTime()).append('"');
+		}
+
+		Date end = event.getEnd();
+
+		if (end != null)
+		{
+			DateUtils.appendUTCString(builder.append(",\"end\":\""), end.getTime()).append('"');
+		}
+
+		// recurrence //
+		SchedulerConverter.appendOpt(builder, "recurrenceId", event.getRecurrenceId()); // may be null
+		SchedulerConverter.appendOpt(builder, "recurrenceRule", event.getRecurrenceRule()); // may be null
+		SchedulerConverter.appendOpt(builder, "recurrenceException", event.getRecurrenceException()); // may be null
+
+		// resources //
+		SchedulerEventLayout layout = event.getLayout();
+
+		if (layout != null)
+		{
+			for (int index = 0; index < layout.size(); index++)
+			{
+				SchedulerConverter.appendOpt(builder, layout.getField(index), event.getValue(index));
+			}
+		}
+
+		for (Entry<String, Object> entry : event.getExtraValues().entrySet())
+		{
+			SchedulerConverter.appendOpt(builder, entry.getKey(), entry.getValue());
+		}
+
+		builder.append("}");
+	}
+
 	@Override
 	public SchedulerEvent toObject(JSONObject object, List<ResourceList> lists)
 	{
 		SchedulerEvent event = this.newSchedulerEvent();
+		event.setLayout(SchedulerEventLayout.of(lists));
 
 		event.setId(object.get("id")); // Object
 		event.setTitle(object.optString("title"));
@@ -114,4 +178,113 @@ public class SchedulerConverter implements ISchedulerConverter
 	{
 		return new SchedulerEvent();
 	}
+
+	// Helpers //
+
+	/**
+	 * Indicates whether a converter class can be streamed, that is, whether it does not override {@link #toJson(SchedulerEvent)} without overriding {@link #append(StringBuilder, SchedulerEvent)} as well
+	 *
+	 * @param type the converter class
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean isStreamable(Class<?> type)
+	{
+		Boolean streamable = STREAMABLE.get(type);
+
+		if (streamable == null)
+		{
+			streamable = true;
+
+			for (Class<?> c = type; c != SchedulerConverter.class && c != null; c = c.getSuperclass())
+			{
+				if (SchedulerConverter.declares(c, "append", StringBuilder.class, SchedulerEvent.class))
+				{
+					break; // the subclass writes the json itself
+				}
+
+				if (SchedulerConverter.declares(c, "toJson", SchedulerEvent.class))
+				{
+					streamable = false;
+					break;
+				}
+			}
+
+			STREAMABLE.put(type, streamable);
+		}
+
+		return streamable;
+	}
+
+	/**
+	 * Indicates whether a class declares a method
+	 *
+	 * @param type the class
+	 * @param method the method name
+	 * @param parameters the parameter types
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean declares(Class<?> type, String method, Class<?>... parameters)
+	{
+		try
+		{
+			type.getDeclaredMethod(method, parameters);
+
+			return true;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Appends a json key/value pair to the builder, if the value is not {@code null}
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param key the key
+	 * @param value the value
+	 */
+	private static void appendOpt(StringBuilder builder, String key, Object value)
+	{
+		if (value != null)
+		{
+			builder.append(',').append(JSONObject.quote(key)).append(':');
+			SchedulerConverter.appendValue(builder, value);
+		}
+	}
+
+	/**
+	 * Appends a json value to the builder
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param value the value
+	 */
+	private static void appendValue(StringBuilder builder, Object value)
+	{
+		if (value instanceof String)
+		{
+			builder.append(JSONObject.quote((String) value));
+		}
+		else if (value instanceof Number)
+		{
+			builder.append(JSONObject.numberToString((Number) value));
+		}
+		else if (value instanceof Boolean || value instanceof JSONObject || value instanceof JSONArray || value == null)
+		{
+			builder.append(value);
+		}
+		else
+		{
+			Object wrapped = JSONObject.wrap(value); // collections, maps, arrays...
+
+			if (wrapped != value)
+			{
+				SchedulerConverter.appendValue(builder, wrapped);
+			}
+			else
+			{
+				builder.append(JSONObject.quote(String.valueOf(value)));
+			}
+		}
+	}
 }
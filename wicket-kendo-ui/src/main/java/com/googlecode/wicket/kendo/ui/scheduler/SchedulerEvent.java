@@ -17,8 +17,10 @@
 package com.googlecode.wicket.kendo.ui.scheduler;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -44,6 +46,8 @@ import com.googlecode.wicket.jquery.core.utils.DateUtils;
  * </code>
  * </pre>
  * 
+ * Resource values are stored in a {@code Map} by default; if a {@link SchedulerEventLayout} is set, the values of the layout fields are stored in an array indexed by the {@link com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceList}{@code s} order (see {@link Scheduler#getEventLayout()}).
+ * 
  * @author Sebastien Briquet - sebfz1
  *
  */
@@ -67,8 +71,12 @@ public class SchedulerEvent implements Serializable
 	/** server side */
 	private boolean visible = true;
 
-	/** fields map */
-	private final Map<String, Object> fields = new HashMap<String, Object>();
+	/** fields map, for fields that are not part of the layout */
+	private Map<String, Object> fields = null;
+
+	/** compact layout */
+	private SchedulerEventLayout layout = null;
+	private Object[] values = null;
 
 	/**
 	 * Constructor
@@ -438,13 +446,93 @@ public class SchedulerEvent implements Serializable
 	// resources //
 
 	/**
-	 * Gets the event related fields
+	 * Gets the {@link SchedulerEventLayout}
+	 *
+	 * @return the {@code SchedulerEventLayout}, or {@code null} if not set
+	 */
+	public SchedulerEventLayout getLayout()
+	{
+		return this.layout;
+	}
+
+	/**
+	 * Sets the {@link SchedulerEventLayout}<br>
+	 * Values that have already been set are kept.
+	 *
+	 * @param layout the {@code SchedulerEventLayout}
+	 * @return this, for chaining
+	 */
+	public SchedulerEvent setLayout(SchedulerEventLayout layout)
+	{
+		final SchedulerEventLayout previous = this.layout;
+		final Object[] array = this.values;
+
+		this.layout = layout;
+		this.values = layout != null ? new Object[layout.size()] : null;
+
+		if (previous != null)
+		{
+			for (int index = 0; index < array.length; index++)
+			{
+				if (array[index] != null)
+				{
+					this.setValue(previous.getField(index), array[index]);
+				}
+			}
+		}
+
+		if (layout != null && this.fields != null)
+		{
+			for (int index = 0; index < layout.size(); index++)
+			{
+				if (this.fields.containsKey(layout.getField(index)))
+				{
+					this.values[index] = this.fields.remove(layout.getField(index));
+				}
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Gets the event related fields<br>
+	 * The fields of the layout come first, in the layout order
 	 *
 	 * @return the event related fields
 	 */
 	public Set<String> getFields()
 	{
-		return this.fields.keySet();
+		Set<String> set = new LinkedHashSet<String>();
+
+		if (this.layout != null)
+		{
+			for (int index = 0; index < this.values.length; index++)
+			{
+				if (this.values[index] != null)
+				{
+					set.add(this.layout.getField(index));
+				}
+			}
+		}
+
+		if (this.fields != null)
+		{
+			set.addAll(this.fields.keySet());
+		}
+
+		return set;
+	}
+
+	/**
+	 * Gets the values of the fields that are not part of the {@link SchedulerEventLayout}<br>
+	 * Unlike {@link #getFields()}, no copy is made; the map should not be modified
+	 *
+	 * @return the values, by field
+	 */
+	final Map<String, Object> getExtraValues()
+	{
+		return this.fields != null ? this.fields : Collections.<String, Object> emptyMap();
 	}
 
 	/**
@@ -455,7 +543,25 @@ public class SchedulerEvent implements Serializable
 	 */
 	public final Object getValue(String field)
 	{
-		return this.fields.get(field);
+		final int index = this.layout != null ? this.layout.indexOf(field) : -1;
+
+		if (index > -1)
+		{
+			return this.values[index];
+		}
+
+		return this.fields != null ? this.fields.get(field) : null;
+	}
+
+	/**
+	 * Gets a field value, by its layout index
+	 *
+	 * @param index the index of the field in the {@link SchedulerEventLayout}
+	 * @return the value as {@code Object}
+	 */
+	public final Object getValue(int index)
+	{
+		return this.values[index];
 	}
 
 	/**
@@ -467,7 +573,7 @@ public class SchedulerEvent implements Serializable
 	 */
 	public final Object getValue(String field, Object defaultValue)
 	{
-		Object value = this.fields.get(field);
+		Object value = this.getValue(field);
 
 		if (value != null)
 		{
@@ -485,7 +591,21 @@ public class SchedulerEvent implements Serializable
 	 */
 	public final void setValue(String field, Object value)
 	{
-		this.fields.put(field, value);
+		final int index = this.layout != null ? this.layout.indexOf(field) : -1;
+
+		if (index > -1)
+		{
+			this.values[index] = value;
+		}
+		else
+		{
+			if (this.fields == null)
+			{
+				this.fields = new HashMap<String, Object>();
+			}
+
+			this.fields.put(field, value);
+		}
 	}
 
 	// Methods //
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+import com.googlecode.wicket.kendo.ui.scheduler.resource.ResourceList;
+
+/**
+ * Provides the layout of the resource fields of {@link SchedulerEvent}{@code s}, in the {@link ResourceList}{@code s} order<br>
+ * An event having a layout stores its resource values in an array indexed by this order, instead of a per-event {@code Map}. The layout is immutable and is intended to be shared by all events of a same {@link Scheduler} (see {@link Scheduler#getEventLayout()}).
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class SchedulerEventLayout implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String[] fields;
+
+	/**
+	 * Constructor
+	 *
+	 * @param fields the resource fields, in the {@link ResourceList}{@code s} order
+	 */
+	public SchedulerEventLayout(List<String> fields)
+	{
+		Args.notNull(fields, "fields");
+
+		this.fields = fields.toArray(new String[fields.size()]);
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the resource fields
+	 *
+	 * @return the unmodifiable list of fields
+	 */
+	public List<String> getFields()
+	{
+		return Collections.unmodifiableList(Arrays.asList(this.fields));
+	}
+
+	/**
+	 * Gets the field at the specified index
+	 *
+	 * @param index the index
+	 * @return the field
+	 */
+	public String getField(int index)
+	{
+		return this.fields[index];
+	}
+
+	/**
+	 * Gets the number of fields
+	 *
+	 * @return the number of fields
+	 */
+	public int size()
+	{
+		return this.fields.length;
+	}
+
+	// Methods //
+
+	/**
+	 * Gets the index of the supplied field
+	 *
+	 * @param field the field (ie: 'resourceId')
+	 * @return the index, or {@code -1} if the field is not part of the layout
+	 */
+	public int indexOf(String field)
+	{
+		for (int index = 0; index < this.fields.length; index++)
+		{
+			if (this.fields[index].equals(field))
+			{
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+	@Override
+	public boolean equals(Object object)
+	{
+		return object instanceof SchedulerEventLayout && Arrays.equals(this.fields, ((SchedulerEventLayout) object).fields);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(this.fields);
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(this.fields);
+	}
+
+	// Factories //
+
+	/**
+	 * Gets a new {@link SchedulerEventLayout} for the supplied {@link ResourceList}{@code s}
+	 *
+	 * @param lists the {@code List} of {@code ResourceList}{@code s}
+	 * @return a new {@code SchedulerEventLayout}
+	 */
+	public static SchedulerEventLayout of(List<ResourceList> lists)
+	{
+		String[] fields = new String[lists.size()];
+
+		for (int index = 0; index < fields.length; index++)
+		{
+			fields[index] = lists.get(index).getField();
+		}
+
+		return new SchedulerEventLayout(Arrays.asList(fields));
+	}
+}
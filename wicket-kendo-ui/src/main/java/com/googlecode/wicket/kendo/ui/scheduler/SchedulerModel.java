@@ -101,4 +101,28 @@ public abstract class SchedulerModel extends LoadableDetachableModel<List<Schedu
 	{
 		this.end = date;
 	}
+
+	/**
+	 * Gets the version stamp of the events within the current start &amp; end dates, typically the last modification time of any event of the range<br>
+	 * The version should change whenever an event of the range is created, updated or deleted; it is used by the {@link SchedulerModelBehavior} as the response's ETag, so unchanged ranges are answered with {@code 304 Not Modified}.<br>
+	 * <br>
+	 * <b>Note:</b> this method is called before {@link #load()}, so it is expected to be cheap (ie: a {@code max(last_modified)} query)
+	 *
+	 * @return {@code null} by default, meaning that the range is not versioned
+	 */
+	public String getVersion()
+	{
+		return null;
+	}
+
+	/**
+	 * Indicates whether the events within the current start &amp; end dates will not change anymore (ie: a past range)<br>
+	 * If so, and if the range is versioned, the browser may cache the events without revalidating them.
+	 *
+	 * @return {@code false} by default
+	 */
+	public boolean isImmutable()
+	{
+		return false;
+	}
 }
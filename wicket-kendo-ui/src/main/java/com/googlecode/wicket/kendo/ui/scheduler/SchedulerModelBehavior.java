@@ -16,15 +16,31 @@
  */
 package com.googlecode.wicket.kendo.ui.scheduler;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
 
+import org.apache.wicket.ajax.json.JSONArray;
+import org.apache.wicket.ajax.json.JSONObject;
 import org.apache.wicket.request.IRequestParameters;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.string.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
+import com.googlecode.wicket.jquery.core.utils.DateUtils;
+import com.googlecode.wicket.kendo.ui.scheduler.recurrence.RecurrenceRule;
 
 /**
- * Provides the behavior that loads {@link SchedulerEvent}{@code s} according to {@link SchedulerModel} start &amp; end dates
+ * Provides the behavior that loads {@link SchedulerEvent}{@code s} according to {@link SchedulerModel} start &amp; end dates<br>
+ * <br>
+ * In range-cache mode, the client requests only the ranges that are not already loaded; the {@link SchedulerModel} is then loaded once per range.<br>
+ * If the recurrence expansion is enabled, recurring events are expanded server-side and only their occurrences within the requested range are sent, as regular events; the client does not have to expand the rules anymore. Occurrences keep the id of their series, so they are flagged as {@code occurrence} and are read-only: the scheduler prevents them from being edited, moved, resized or deleted (see {@link SchedulerBehavior#isRecurrenceExpansionEnabled()}); the series should be edited by other means.<br>
+ * Otherwise, if the converter is an {@link IStreamingSchedulerConverter}, events are written directly to the response, without intermediate {@link JSONObject}.<br>
+ * If the model supplies a version for each requested range (see {@link SchedulerModel#getVersion()}), the response is sent with an ETag, so unchanged ranges are answered with {@code 304 Not Modified}.
  *
  * @author Sebastien Briquet - sebfz1
  *
@@ -32,10 +48,14 @@ import com.googlecode.wicket.jquery.core.behavior.AjaxCallbackBehavior;
 public class SchedulerModelBehavior extends AjaxCallbackBehavior
 {
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(SchedulerModelBehavior.class);
 
 	private final SchedulerModel model;
 	private final ISchedulerConverter converter;
 
+	/** whether recurring events are expanded server-side */
+	private boolean expanded = false;
+
 	/**
 	 * Constructor
 	 *
@@ -48,6 +68,43 @@ public class SchedulerModelBehavior extends AjaxCallbackBehavior
 		this.converter = Args.notNull(converter, "converter");
 	}
 
+	// Properties //
+
+	/**
+	 * Indicates whether recurring events are expanded server-side
+	 *
+	 * @return {@code false} by default
+	 */
+	public boolean isRecurrenceExpansionEnabled()
+	{
+		return this.expanded;
+	}
+
+	/**
+	 * Sets whether recurring events are expanded server-side
+	 *
+	 * @param expanded whether recurring events are expanded server-side
+	 * @return this, for chaining
+	 */
+	public SchedulerModelBehavior setRecurrenceExpansionEnabled(boolean expanded)
+	{
+		this.expanded = expanded;
+
+		return this;
+	}
+
+	/**
+	 * Gets the {@link TimeZone} in which recurrence rules are expanded
+	 *
+	 * @return UTC by default, consistent with the {@link Scheduler}'s 'timezone' option
+	 */
+	protected TimeZone getTimeZone()
+	{
+		return TimeZone.getTimeZone("UTC");
+	}
+
+	// Methods //
+
 	/**
 	 * Sets the start date to the model<br>
 	 * This can be overridden to perform additional operation on date before the assignment.
@@ -73,39 +130,112 @@ public class SchedulerModelBehavior extends AjaxCallbackBehavior
 	}
 
 	@Override
-	protected String getResponse(IRequestParameters parameters)
+	protected String getVersion(IRequestParameters parameters)
+	{
+		if (this.model == null)
+		{
+			return null;
+		}
+
+		StringBuilder builder = new StringBuilder();
+
+		for (long[] range : this.getRanges(parameters))
+		{
+			this.setStartDate(this.model, range[0]);
+			this.setEndDate(this.model, range[1]);
+
+			String version = this.model.getVersion();
+			this.model.detach(); // in case the version has been computed from the events
+
+			if (version == null)
+			{
+				return null;
+			}
+
+			if (builder.length() > 0)
+			{
+				builder.append('-');
+			}
+
+			builder.append(version);
+		}
+
+		return builder.toString();
+	}
+
+	@Override
+	protected boolean isImmutable(IRequestParameters parameters)
 	{
-		final long start = parameters.getParameterValue("start").toLong(0);
-		final long end = parameters.getParameterValue("end").toLong(0);
+		if (this.model == null)
+		{
+			return false;
+		}
+
+		for (long[] range : this.getRanges(parameters))
+		{
+			this.setStartDate(this.model, range[0]);
+			this.setEndDate(this.model, range[1]);
+
+			if (!this.model.isImmutable())
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
 
+	@Override
+	protected String getResponse(IRequestParameters parameters)
+	{
 		StringBuilder builder = new StringBuilder("[ ");
 
 		if (this.model != null)
 		{
-			this.setStartDate(this.model, start);
-			this.setEndDate(this.model, end);
-
-			List<SchedulerEvent> list = this.model.getObject(); // calls load()
+			List<long[]> ranges = this.getRanges(parameters);
+			Set<String> keys = ranges.size() > 1 ? new HashSet<String>() : null; // events overlapping several ranges are sent once
 
-			if (list != null)
+			for (int index = 0; index < ranges.size(); index++)
 			{
+				long[] range = ranges.get(index);
 
-				int count = 0;
-				for (SchedulerEvent event : list)
+				if (index > 0)
 				{
-					if (this.model instanceof ISchedulerVisitor)
-					{
-						event.accept((ISchedulerVisitor) this.model); // last chance to set options
-					}
+					this.model.detach(); // loads the next range
+				}
+
+				this.setStartDate(this.model, range[0]);
+				this.setEndDate(this.model, range[1]);
 
-					if (event.isVisible())
+				List<SchedulerEvent> list = this.model.getObject(); // calls load()
+
+				if (list != null)
+				{
+					for (SchedulerEvent event : list)
 					{
-						if (count++ > 0)
+						if (this.model instanceof ISchedulerVisitor)
 						{
-							builder.append(", ");
+							event.accept((ISchedulerVisitor) this.model); // last chance to set options
 						}
 
-						builder.append(this.converter.toJson(event));
+						if (event.isVisible())
+						{
+							if (this.expanded)
+							{
+								this.appendOccurrences(builder, event, range[0], range[1], keys);
+							}
+							else if (this.converter instanceof IStreamingSchedulerConverter)
+							{
+								if (SchedulerModelBehavior.accept(builder, keys, event.getId(), event.getStart().getTime()))
+								{
+									((IStreamingSchedulerConverter) this.converter).append(builder, event);
+								}
+							}
+							else if (SchedulerModelBehavior.accept(builder, keys, event.getId(), event.getStart().getTime()))
+							{
+								builder.append(this.converter.toJson(event));
+							}
+						}
 					}
 				}
 			}
@@ -113,4 +243,131 @@ public class SchedulerModelBehavior extends AjaxCallbackBehavior
 
 		return builder.append(" ]").toString();
 	}
+
+	/**
+	 * Appends the occurrences of an event within the {@code [start, end)} range<br>
+	 * A non-recurring event is appended as-is, except its recurrence id (exceptions are sent as regular events, their series being expanded)
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param event the {@link SchedulerEvent}
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 * @param keys the keys of the events already appended
+	 */
+	private void appendOccurrences(StringBuilder builder, SchedulerEvent event, long start, long end, Set<String> keys)
+	{
+		JSONObject object = this.converter.toJson(event);
+		object.remove("recurrenceId");
+
+		String rule = event.getRecurrenceRule();
+		List<Long> occurrences = null;
+
+		if (!Strings.isEmpty(rule))
+		{
+			object.remove("recurrenceRule");
+			object.remove("recurrenceException");
+
+			try
+			{
+				occurrences = RecurrenceRule.compile(rule).expand(event.getStart().getTime(), this.getDuration(event), event.getRecurrenceException(), this.getTimeZone(), start, end);
+			}
+			catch (IllegalArgumentException e)
+			{
+				LOG.warn("Recurrence rule cannot be expanded: {}", e.getMessage());
+
+				object = this.converter.toJson(event); // sent as-is, expanded by the client
+			}
+		}
+
+		if (occurrences == null)
+		{
+			if (SchedulerModelBehavior.accept(builder, keys, event.getId(), event.getStart().getTime()))
+			{
+				builder.append(object);
+			}
+		}
+		else
+		{
+			object.put("occurrence", true); // read-only, editing it would change the whole series
+
+			for (long occurrence : occurrences)
+			{
+				if (SchedulerModelBehavior.accept(builder, keys, event.getId(), occurrence))
+				{
+					object.put("start", DateUtils.appendUTCString(new StringBuilder(), occurrence).toString());
+					object.put("end", DateUtils.appendUTCString(new StringBuilder(), occurrence + this.getDuration(event)).toString());
+
+					builder.append(object);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the duration of an event
+	 *
+	 * @param event the {@link SchedulerEvent}
+	 * @return the duration, in milliseconds
+	 */
+	private long getDuration(SchedulerEvent event)
+	{
+		return event.getEnd().getTime() - event.getStart().getTime();
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the requested ranges<br>
+	 * In range-cache mode, the client supplies the ranges that are not already loaded, as a json array of {@code [start, end]}; otherwise the range is {@code [start, end]}
+	 *
+	 * @param parameters the {@link IRequestParameters}
+	 * @return the list of ranges
+	 */
+	private List<long[]> getRanges(IRequestParameters parameters)
+	{
+		List<long[]> ranges = Generics.newArrayList();
+		String value = parameters.getParameterValue("ranges").toOptionalString();
+
+		if (value != null)
+		{
+			JSONArray array = new JSONArray(value);
+
+			for (int i = 0; i < array.length(); i++)
+			{
+				JSONArray range = array.getJSONArray(i);
+				ranges.add(new long[] { range.getLong(0), range.getLong(1) });
+			}
+		}
+		else
+		{
+			ranges.add(new long[] { parameters.getParameterValue("start").toLong(0), parameters.getParameterValue("end").toLong(0) });
+		}
+
+		return ranges;
+	}
+
+	/**
+	 * Indicates whether an event should be appended to the builder, that is, unless an event having the same id and start has already been appended<br>
+	 * If so, the separator is appended as well.
+	 *
+	 * @param builder the {@link StringBuilder}
+	 * @param keys the keys of the events already appended, or {@code null} if there is a single range
+	 * @param id the event id
+	 * @param start the event start
+	 * @return {@code true} or {@code false}
+	 */
+	private static boolean accept(StringBuilder builder, Set<String> keys, Object id, long start)
+	{
+		if (keys == null || keys.add(id + "@" + start))
+		{
+			if (builder.length() > 2)
+			{
+				builder.append(", ");
+			}
+
+			return true;
+		}
+
+		return false;
+	}
 }
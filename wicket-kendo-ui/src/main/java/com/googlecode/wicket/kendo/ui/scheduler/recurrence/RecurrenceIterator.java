@@ -0,0 +1,496 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler.recurrence;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+import org.apache.wicket.util.lang.Generics;
+
+import com.googlecode.wicket.kendo.ui.scheduler.recurrence.RecurrenceRule.Frequency;
+
+/**
+ * Provides a lazy iterator of the occurrence starts of a {@link RecurrenceRule}<br>
+ * Occurrences are computed one period (day, week, month or year) at a time, in the local time of the supplied time zone, so that the time of day is preserved across daylight saving changes.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class RecurrenceIterator implements Iterator<Long>
+{
+	/** max number of consecutive periods without occurrence (ie: FEB 30th) */
+	private static final int MAX_EMPTY = 1000;
+
+	private static final long DAY = 86400000L;
+
+	private final RecurrenceRule rule;
+	private final long start;
+	private final long until;
+	private final Calendar local; // in the time zone
+	private final Calendar utc; // for date computations
+	private final int year;
+	private final int month;
+	private final int day;
+
+	private final List<Long> buffer = Generics.newArrayList();
+	private int index = 0;
+	private int period = 0;
+	private int emitted = 0;
+	private boolean done = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param rule the {@link RecurrenceRule}
+	 * @param start the start of the series
+	 * @param timezone the {@link TimeZone} in which the rule is expanded
+	 */
+	public RecurrenceIterator(RecurrenceRule rule, long start, TimeZone timezone)
+	{
+		this.rule = rule;
+		this.start = start;
+		this.until = rule.until != null ? RecurrenceRule.toTime(rule.until, timezone) : Long.MAX_VALUE;
+
+		this.local = new GregorianCalendar(timezone);
+		this.local.setTimeInMillis(start);
+
+		this.utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+
+		this.year = this.local.get(Calendar.YEAR);
+		this.month = this.local.get(Calendar.MONTH) + 1;
+		this.day = this.local.get(Calendar.DAY_OF_MONTH);
+	}
+
+	// Methods //
+
+	/**
+	 * Skips the periods that end before the supplied time, if the rule is not bounded by a count<br>
+	 * This should be called before iterating.
+	 *
+	 * @param time the timestamp
+	 */
+	public void advance(long time)
+	{
+		if (this.rule.count > 0 || time <= this.start || this.emitted > 0)
+		{
+			return; // occurrences are counted from the start
+		}
+
+		long days = (time - this.start) / DAY;
+		long periods;
+
+		switch (this.rule.frequency)
+		{
+			case DAILY:
+				periods = days;
+				break;
+			case WEEKLY:
+				periods = days / 7;
+				break;
+			case MONTHLY:
+				periods = days / 31;
+				break;
+			default:
+				periods = days / 366;
+				break;
+		}
+
+		this.period = (int) Math.max(0, Math.min(Integer.MAX_VALUE, periods / this.rule.interval - 1));
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while (this.index >= this.buffer.size())
+		{
+			if (this.done)
+			{
+				return false;
+			}
+
+			this.fill();
+		}
+
+		return true;
+	}
+
+	@Override
+	public Long next()
+	{
+		if (!this.hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		return this.buffer.get(this.index++);
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Fills the buffer with the occurrences of the next non-empty period
+	 */
+	private void fill()
+	{
+		this.buffer.clear();
+		this.index = 0;
+
+		for (int empty = 0; this.buffer.isEmpty() && !this.done; empty++)
+		{
+			if (empty > MAX_EMPTY)
+			{
+				this.done = true;
+				break;
+			}
+
+			for (int date : this.getDates(this.period++))
+			{
+				long time = this.toTime(date);
+
+				if (time < this.start)
+				{
+					continue;
+				}
+
+				if (time > this.until)
+				{
+					this.done = true;
+					break;
+				}
+
+				this.buffer.add(time);
+
+				if (this.rule.count > 0 && ++this.emitted >= this.rule.count)
+				{
+					this.done = true;
+					break;
+				}
+			}
+		}
+	}
+
+	// Periods //
+
+	/**
+	 * Gets the dates of a period, after {@code BYSETPOS}
+	 *
+	 * @param period the period index
+	 * @return the dates, as {@code yyyyMMdd} integers
+	 */
+	private int[] getDates(int period)
+	{
+		SortedSet<Integer> dates = new TreeSet<Integer>();
+		int offset = period * this.rule.interval;
+
+		switch (this.rule.frequency)
+		{
+			case DAILY:
+				this.setDate(this.year, this.month, this.day);
+				this.utc.add(Calendar.DATE, offset);
+
+				if (this.matches(this.utc, true))
+				{
+					dates.add(this.getDate());
+				}
+				break;
+
+			case WEEKLY:
+				this.setDate(this.year, this.month, this.day);
+				this.utc.add(Calendar.DATE, -((this.utc.get(Calendar.DAY_OF_WEEK) - this.rule.weekStart + 7) % 7));
+				this.utc.add(Calendar.DATE, offset * 7);
+
+				for (int i = 0; i < 7; i++)
+				{
+					int weekday = this.utc.get(Calendar.DAY_OF_WEEK);
+					boolean day = this.rule.byDay.length == 0 ? weekday == this.getWeekday() : RecurrenceIterator.contains(this.rule.byDay, weekday);
+
+					if (day && this.matches(this.utc, false))
+					{
+						dates.add(this.getDate());
+					}
+
+					this.utc.add(Calendar.DATE, 1);
+				}
+				break;
+
+			case MONTHLY:
+				this.setDate(this.year, this.month, 1);
+				this.utc.add(Calendar.MONTH, offset);
+
+				int month = this.utc.get(Calendar.MONTH) + 1;
+
+				if (this.rule.byMonth.length == 0 || RecurrenceIterator.contains(this.rule.byMonth, month))
+				{
+					this.addMonthDates(dates, this.utc.get(Calendar.YEAR), month);
+				}
+				break;
+
+			case YEARLY:
+				int year = this.year + offset;
+
+				if (this.rule.byMonth.length == 0 && this.rule.byMonthDay.length == 0 && this.rule.byDay.length > 0)
+				{
+					this.addYearDates(dates, year); // ordinals are relative to the year
+				}
+				else
+				{
+					for (int m : this.rule.byMonth.length > 0 ? this.rule.byMonth : new int[] { this.month })
+					{
+						this.addMonthDates(dates, year, m);
+					}
+				}
+				break;
+
+			default:
+				break;
+		}
+
+		return this.setPos(dates);
+	}
+
+	/**
+	 * Adds the dates of a month, according to {@code BYMONTHDAY} and {@code BYDAY}
+	 */
+	private void addMonthDates(SortedSet<Integer> dates, int year, int month)
+	{
+		this.setDate(year, month, 1);
+		int length = this.utc.getActualMaximum(Calendar.DAY_OF_MONTH);
+
+		if (this.rule.byMonthDay.length > 0)
+		{
+			for (int value : this.rule.byMonthDay)
+			{
+				int d = value > 0 ? value : length + value + 1;
+
+				if (d >= 1 && d <= length)
+				{
+					this.setDate(year, month, d);
+
+					if (this.rule.byDay.length == 0 || RecurrenceIterator.contains(this.rule.byDay, this.utc.get(Calendar.DAY_OF_WEEK)))
+					{
+						dates.add(RecurrenceIterator.toDate(year, month, d));
+					}
+				}
+			}
+		}
+		else if (this.rule.byDay.length > 0)
+		{
+			for (int i = 0; i < this.rule.byDay.length; i++)
+			{
+				List<Integer> days = Generics.newArrayList();
+
+				for (int d = 1; d <= length; d++)
+				{
+					this.setDate(year, month, d);
+
+					if (this.utc.get(Calendar.DAY_OF_WEEK) == this.rule.byDay[i])
+					{
+						days.add(RecurrenceIterator.toDate(year, month, d));
+					}
+				}
+
+				RecurrenceIterator.addOrdinal(dates, days, this.rule.byDayOrdinal[i]);
+			}
+		}
+		else if (this.day <= length)
+		{
+			dates.add(RecurrenceIterator.toDate(year, month, this.day));
+		}
+	}
+
+	/**
+	 * Adds the dates of a year, according to {@code BYDAY}
+	 */
+	private void addYearDates(SortedSet<Integer> dates, int year)
+	{
+		for (int i = 0; i < this.rule.byDay.length; i++)
+		{
+			List<Integer> days = Generics.newArrayList();
+
+			this.setDate(year, 1, 1);
+
+			while (this.utc.get(Calendar.YEAR) == year)
+			{
+				if (this.utc.get(Calendar.DAY_OF_WEEK) == this.rule.byDay[i])
+				{
+					days.add(this.getDate());
+				}
+
+				this.utc.add(Calendar.DATE, 1);
+			}
+
+			RecurrenceIterator.addOrdinal(dates, days, this.rule.byDayOrdinal[i]);
+		}
+	}
+
+	/**
+	 * Indicates whether the current date matches the {@code BYMONTH}, {@code BYMONTHDAY} and - optionally - {@code BYDAY} filters
+	 */
+	private boolean matches(Calendar calendar, boolean byDay)
+	{
+		if (this.rule.byMonth.length > 0 && !RecurrenceIterator.contains(this.rule.byMonth, calendar.get(Calendar.MONTH) + 1))
+		{
+			return false;
+		}
+
+		if (this.rule.byMonthDay.length > 0)
+		{
+			int d = calendar.get(Calendar.DAY_OF_MONTH);
+			int length = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+
+			if (!RecurrenceIterator.contains(this.rule.byMonthDay, d) && !RecurrenceIterator.contains(this.rule.byMonthDay, d - length - 1))
+			{
+				return false;
+			}
+		}
+
+		return !byDay || this.rule.byDay.length == 0 || RecurrenceIterator.contains(this.rule.byDay, calendar.get(Calendar.DAY_OF_WEEK));
+	}
+
+	/**
+	 * Applies {@code BYSETPOS} to the sorted dates of a period
+	 */
+	private int[] setPos(SortedSet<Integer> dates)
+	{
+		if (this.rule.bySetPos.length == 0)
+		{
+			return RecurrenceIterator.toArray(dates);
+		}
+
+		Integer[] array = dates.toArray(new Integer[dates.size()]);
+		SortedSet<Integer> selected = new TreeSet<Integer>();
+
+		for (int position : this.rule.bySetPos)
+		{
+			int i = position > 0 ? position - 1 : array.length + position;
+
+			if (i >= 0 && i < array.length)
+			{
+				selected.add(array[i]);
+			}
+		}
+
+		return RecurrenceIterator.toArray(selected);
+	}
+
+	// Helpers //
+
+	/**
+	 * Gets the weekday of the series start
+	 */
+	private int getWeekday()
+	{
+		return this.local.get(Calendar.DAY_OF_WEEK);
+	}
+
+	/**
+	 * Sets the date of the utc calendar
+	 */
+	private void setDate(int year, int month, int day)
+	{
+		this.utc.clear();
+		this.utc.set(year, month - 1, day);
+	}
+
+	/**
+	 * Gets the date of the utc calendar, as {@code yyyyMMdd} integer
+	 */
+	private int getDate()
+	{
+		return RecurrenceIterator.toDate(this.utc.get(Calendar.YEAR), this.utc.get(Calendar.MONTH) + 1, this.utc.get(Calendar.DAY_OF_MONTH));
+	}
+
+	/**
+	 * Gets the timestamp of a date, at the local time of the series start
+	 */
+	private long toTime(int date)
+	{
+		Calendar calendar = (Calendar) this.local.clone();
+		calendar.set(date / 10000, (date / 100) % 100 - 1, date % 100);
+
+		return calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Gets a date as {@code yyyyMMdd} integer
+	 */
+	private static int toDate(int year, int month, int day)
+	{
+		return year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * Converts the sorted dates to an array
+	 */
+	private static int[] toArray(SortedSet<Integer> dates)
+	{
+		int[] array = new int[dates.size()];
+		int i = 0;
+
+		for (Integer date : dates)
+		{
+			array[i++] = date;
+		}
+
+		return array;
+	}
+
+	/**
+	 * Adds the day at the supplied ordinal (1-based, negative from the end), or all days if the ordinal is 0
+	 */
+	private static void addOrdinal(SortedSet<Integer> dates, List<Integer> days, int ordinal)
+	{
+		if (ordinal == 0)
+		{
+			dates.addAll(days);
+		}
+		else
+		{
+			int i = ordinal > 0 ? ordinal - 1 : days.size() + ordinal;
+
+			if (i >= 0 && i < days.size())
+			{
+				dates.add(days.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Indicates whether the array contains the value
+	 */
+	private static boolean contains(int[] array, int value)
+	{
+		for (int item : array)
+		{
+			if (item == value)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,465 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.kendo.ui.scheduler.recurrence;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Generics;
+import org.apache.wicket.util.string.Strings;
+
+/**
+ * Provides a compiled recurrence rule (RFC 5545 {@code RRULE}), as edited by the Kendo UI Scheduler<br>
+ * Supported parts are {@code FREQ} (DAILY, WEEKLY, MONTHLY, YEARLY), {@code INTERVAL}, {@code COUNT}, {@code UNTIL}, {@code BYMONTH}, {@code BYMONTHDAY}, {@code BYDAY} (with ordinals), {@code BYSETPOS} and {@code WKST}.<br>
+ * Compiled rules are immutable, and are cached by {@link #compile(String)}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public class RecurrenceRule implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** max number of cached rules */
+	private static final int CAPACITY = 512;
+
+	private static final String[] DAYS = { "SU", "MO", "TU", "WE", "TH", "FR", "SA" }; // java.util.Calendar order
+
+	private static final Map<String, RecurrenceRule> CACHE = Collections.synchronizedMap(new LinkedHashMap<String, RecurrenceRule>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, RecurrenceRule> eldest)
+		{
+			return this.size() > CAPACITY;
+		}
+	});
+
+	/**
+	 * Provides an enum of supported frequencies
+	 */
+	public enum Frequency
+	{
+		DAILY, WEEKLY, MONTHLY, YEARLY
+	}
+
+	private final String rule;
+	final Frequency frequency;
+	final int interval;
+	final int count;
+	final String until;
+	final int[] byMonth;
+	final int[] byMonthDay;
+	final int[] byDay;
+	final int[] byDayOrdinal;
+	final int[] bySetPos;
+	final int weekStart;
+
+	/**
+	 * Constructor
+	 *
+	 * @param rule the rule, ie: {@code FREQ=WEEKLY;BYDAY=MO,WE;COUNT=10}
+	 * @throws IllegalArgumentException if the rule is invalid or not supported
+	 */
+	public RecurrenceRule(String rule)
+	{
+		Map<String, String> parts = RecurrenceRule.split(rule);
+
+		this.rule = rule;
+		this.frequency = RecurrenceRule.toFrequency(parts.get("FREQ"));
+		this.interval = Math.max(1, RecurrenceRule.toInt(parts.get("INTERVAL"), 1));
+		this.count = Math.max(0, RecurrenceRule.toInt(parts.get("COUNT"), 0));
+		this.until = parts.get("UNTIL");
+		this.byMonth = RecurrenceRule.toInts(parts.get("BYMONTH"));
+		this.byMonthDay = RecurrenceRule.toInts(parts.get("BYMONTHDAY"));
+		this.bySetPos = RecurrenceRule.toInts(parts.get("BYSETPOS"));
+		this.weekStart = parts.containsKey("WKST") ? RecurrenceRule.toDay(parts.get("WKST")) : Calendar.MONDAY;
+
+		String[] days = Strings.isEmpty(parts.get("BYDAY")) ? new String[0] : parts.get("BYDAY").split(",");
+		this.byDay = new int[days.length];
+		this.byDayOrdinal = new int[days.length];
+
+		for (int i = 0; i < days.length; i++)
+		{
+			String day = days[i].trim();
+			int length = day.length();
+
+			if (length < 2)
+			{
+				throw new IllegalArgumentException("Invalid day: " + days[i]);
+			}
+
+			this.byDay[i] = RecurrenceRule.toDay(day.substring(length - 2));
+			this.byDayOrdinal[i] = length > 2 ? RecurrenceRule.toInt(day.substring(0, length - 2), 0) : 0;
+		}
+	}
+
+	// Properties //
+
+	/**
+	 * Gets the frequency
+	 *
+	 * @return the {@link Frequency}
+	 */
+	public Frequency getFrequency()
+	{
+		return this.frequency;
+	}
+
+	/**
+	 * Indicates whether the recurrence has an end, either by {@code COUNT} or {@code UNTIL}
+	 *
+	 * @return {@code true} or {@code false}
+	 */
+	public boolean isBounded()
+	{
+		return this.count > 0 || this.until != null;
+	}
+
+	// Methods //
+
+	/**
+	 * Gets a lazy iterator of occurrence starts, in ascending order
+	 *
+	 * @param start the start of the series (the first occurrence, if matching the rule)
+	 * @param timezone the {@link TimeZone} in which the rule is expanded
+	 * @return the {@link RecurrenceIterator}
+	 */
+	public RecurrenceIterator iterator(long start, TimeZone timezone)
+	{
+		return new RecurrenceIterator(this, start, timezone);
+	}
+
+	/**
+	 * Gets the starts of the occurrences overlapping the {@code [from, to)} range<br>
+	 * Unbounded series are not iterated from their start, but from the period preceding the range.
+	 *
+	 * @param start the start of the series
+	 * @param duration the duration of an occurrence, in milliseconds
+	 * @param exceptions the recurrence exceptions, as sent by the Kendo UI Scheduler (ie: {@code 20180115T090000Z;}), may be {@code null}
+	 * @param timezone the {@link TimeZone} in which the rule is expanded
+	 * @param from the start of the range, inclusive
+	 * @param to the end of the range, exclusive
+	 * @return the list of occurrence starts
+	 */
+	public List<Long> expand(long start, long duration, String exceptions, TimeZone timezone, long from, long to)
+	{
+		List<Long> list = Generics.newArrayList();
+		Exceptions excluded = RecurrenceRule.toExceptions(exceptions, timezone);
+		RecurrenceIterator iterator = this.iterator(start, timezone);
+
+		iterator.advance(from - duration);
+
+		while (iterator.hasNext())
+		{
+			long occurrence = iterator.next();
+
+			if (occurrence >= to)
+			{
+				break;
+			}
+
+			if (occurrence + Math.max(duration, 1) > from && !excluded.contains(occurrence, timezone))
+			{
+				list.add(occurrence);
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Gets the end of the last occurrence
+	 *
+	 * @param start the start of the series
+	 * @param duration the duration of an occurrence, in milliseconds
+	 * @param timezone the {@link TimeZone} in which the rule is expanded
+	 * @return the end of the series, or {@link Long#MAX_VALUE} if the rule is not bounded
+	 */
+	public long getEnd(long start, long duration, TimeZone timezone)
+	{
+		if (!this.isBounded())
+		{
+			return Long.MAX_VALUE;
+		}
+
+		long last = start;
+
+		for (Iterator<Long> iterator = this.iterator(start, timezone); iterator.hasNext();)
+		{
+			last = iterator.next();
+		}
+
+		return last + duration;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.rule;
+	}
+
+	// Statics //
+
+	/**
+	 * Gets the compiled {@link RecurrenceRule}, from the cache if available
+	 *
+	 * @param rule the rule
+	 * @return the {@code RecurrenceRule}
+	 * @throws IllegalArgumentException if the rule is invalid or not supported
+	 */
+	public static RecurrenceRule compile(String rule)
+	{
+		RecurrenceRule object = CACHE.get(rule);
+
+		if (object == null)
+		{
+			object = new RecurrenceRule(rule);
+			CACHE.put(rule, object);
+		}
+
+		return object;
+	}
+
+	/**
+	 * Parses a date, as formatted in {@code UNTIL} and recurrence exceptions<br>
+	 * Supported formats are {@code yyyyMMdd'T'HHmmss'Z'} (UTC), {@code yyyyMMdd'T'HHmmss} and {@code yyyyMMdd} (local to the supplied time zone). A date-only value is the end of that day, as {@code UNTIL} is inclusive.
+	 *
+	 * @param value the date
+	 * @param timezone the {@link TimeZone} of local dates
+	 * @return the timestamp
+	 * @throws IllegalArgumentException if the date cannot be parsed
+	 */
+	static long toTime(String value, TimeZone timezone)
+	{
+		long time = RecurrenceRule.toStartTime(value, timezone);
+
+		return RecurrenceRule.isDate(value) ? time + 86399999L : time;
+	}
+
+	/**
+	 * Parses a date, as {@link #toTime(String, TimeZone)} does, except that a date-only value is the start of that day
+	 *
+	 * @param value the date
+	 * @param timezone the {@link TimeZone} of local dates
+	 * @return the timestamp
+	 * @throws IllegalArgumentException if the date cannot be parsed
+	 */
+	private static long toStartTime(String value, TimeZone timezone)
+	{
+		String text = value.trim();
+		boolean utc = text.endsWith("Z");
+		boolean date = RecurrenceRule.isDate(text);
+
+		SimpleDateFormat format = new SimpleDateFormat(date ? "yyyyMMdd" : "yyyyMMdd'T'HHmmss");
+		format.setTimeZone(utc ? TimeZone.getTimeZone("UTC") : timezone);
+
+		try
+		{
+			return format.parse(utc ? text.substring(0, text.length() - 1) : text).getTime();
+		}
+		catch (ParseException e)
+		{
+			throw new IllegalArgumentException("Invalid date: " + value, e);
+		}
+	}
+
+	// Helpers //
+
+	/**
+	 * Indicates whether the value is a date-only value
+	 */
+	private static boolean isDate(String value)
+	{
+		return value.indexOf('T') < 0;
+	}
+
+	/**
+	 * Gets the start of the day of a timestamp
+	 */
+	private static long toStartOfDay(long time, TimeZone timezone)
+	{
+		Calendar calendar = Calendar.getInstance(timezone);
+		calendar.setTimeInMillis(time);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		return calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Splits the rule into its parts, by name
+	 */
+	private static Map<String, String> split(String rule)
+	{
+		Map<String, String> parts = Generics.newHashMap();
+		String text = Strings.isEmpty(rule) ? "" : rule.trim();
+
+		if (text.startsWith("RRULE:"))
+		{
+			text = text.substring(6);
+		}
+
+		for (String part : text.split(";"))
+		{
+			int index = part.indexOf('=');
+
+			if (index > 0)
+			{
+				parts.put(part.substring(0, index).trim().toUpperCase(), part.substring(index + 1).trim());
+			}
+		}
+
+		return parts;
+	}
+
+	/**
+	 * Converts the {@code FREQ} value
+	 */
+	private static Frequency toFrequency(String value)
+	{
+		try
+		{
+			return Frequency.valueOf(String.valueOf(value).toUpperCase());
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IllegalArgumentException("Unsupported frequency: " + value, e);
+		}
+	}
+
+	/**
+	 * Converts a day ({@code MO}, {@code TU}, ...) to its {@link Calendar} value
+	 */
+	private static int toDay(String value)
+	{
+		int index = Arrays.asList(DAYS).indexOf(value.toUpperCase());
+
+		if (index < 0)
+		{
+			throw new IllegalArgumentException("Invalid day: " + value);
+		}
+
+		return index + 1; // Calendar.SUNDAY is 1
+	}
+
+	/**
+	 * Converts a value, which may be signed, to an {@code int}
+	 */
+	private static int toInt(String value, int defaultValue)
+	{
+		if (Strings.isEmpty(value))
+		{
+			return defaultValue;
+		}
+
+		try
+		{
+			return Integer.parseInt(value.trim().startsWith("+") ? value.trim().substring(1) : value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid number: " + value, e);
+		}
+	}
+
+	/**
+	 * Converts a comma-separated list of values to an {@code int} array
+	 */
+	private static int[] toInts(String value)
+	{
+		if (Strings.isEmpty(value))
+		{
+			return new int[0];
+		}
+
+		String[] values = value.split(",");
+		int[] array = new int[values.length];
+
+		for (int i = 0; i < values.length; i++)
+		{
+			array[i] = RecurrenceRule.toInt(values[i], 0);
+		}
+
+		return array;
+	}
+
+	/**
+	 * Converts the recurrence exceptions to sets of timestamps and of days (date-only values)
+	 */
+	private static Exceptions toExceptions(String exceptions, TimeZone timezone)
+	{
+		Exceptions set = new Exceptions();
+
+		if (!Strings.isEmpty(exceptions))
+		{
+			for (String value : exceptions.split("[;,]"))
+			{
+				if (!Strings.isEmpty(value.trim()))
+				{
+					long time = RecurrenceRule.toStartTime(value, timezone);
+
+					if (RecurrenceRule.isDate(value.trim()))
+					{
+						set.days.add(time);
+					}
+					else
+					{
+						set.times.add(time);
+					}
+				}
+			}
+		}
+
+		return set;
+	}
+
+	// Classes //
+
+	/**
+	 * Provides the recurrence exceptions: a timed exception excludes the occurrence starting at that time, a date-only exception excludes the occurrences of that day
+	 */
+	private static class Exceptions
+	{
+		private final Set<Long> times = new HashSet<Long>();
+		private final Set<Long> days = new HashSet<Long>();
+
+		public boolean contains(long occurrence, TimeZone timezone)
+		{
+			if (this.times.contains(occurrence))
+			{
+				return true;
+			}
+
+			return !this.days.isEmpty() && this.days.contains(RecurrenceRule.toStartOfDay(occurrence, timezone));
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Gets the read parameters of a downsampled chart: the filter, the plot width and the zoomed range, if any
+ *
+ * @param selector the chart selector
+ * @param data the datasource data
+ * @returns the parameters
+ */
+function chart_parameters(selector, data) {
+	var $e = jQuery(selector);
+	var $w = $e.data('kendoChart');
+	var parameters = { filter: JSON.stringify(data.filter), width: Math.round($e.width()) };
+
+	if ($w && $w.wicketRange) {
+		parameters.from = $w.wicketRange.from;
+		parameters.to = $w.wicketRange.to;
+	}
+
+	return parameters;
+}
+
+/**
+ * Re-reads the data of a downsampled chart for the zoomed (or panned) range, at a higher resolution<br>
+ * Once the range reaches the bounds of the overview (the data read without range), the range is cleared and the overview is read again
+ *
+ * @param e the 'zoomEnd' or 'dragEnd' event
+ * @param axis the axis name, or null for the first axis
+ * @param field the x field
+ */
+function chart_zoom(e, axis, field) {
+	var $w = e.sender;
+	var ranges = e.axisRanges || {};
+	var range = axis !== null ? ranges[axis] : null;
+	var value = function(v) {
+		return v instanceof Date ? v.getTime() : (typeof v === 'string' ? new Date(v).getTime() : v);
+	};
+
+	if (!range) {
+		for (var key in ranges) {
+			if (ranges.hasOwnProperty(key)) {
+				range = ranges[key];
+				break;
+			}
+		}
+	}
+
+	if (range) {
+		var from = value(range.min);
+		var to = value(range.max);
+
+		if (!$w.wicketRange) {
+			$w.wicketBounds = chart_bounds($w.dataSource.data(), field, value);
+		}
+
+		var bounds = $w.wicketBounds;
+
+		if (bounds && from <= bounds.from && to >= bounds.to) {
+			if ($w.wicketRange) {
+				chart_reset($w);
+			}
+		} else {
+			$w.wicketRange = { from: from, to: to };
+			$w.dataSource.read();
+		}
+	}
+}
+
+/**
+ * Clears the zoomed range of a downsampled chart, and reads the overview again
+ *
+ * @param $w the chart widget
+ */
+function chart_reset($w) {
+	if ($w) {
+		$w.wicketRange = null;
+		$w.dataSource.read();
+	}
+}
+
+/**
+ * Gets the x bounds of the data
+ *
+ * @param data the datasource data
+ * @param field the x field
+ * @param value the function converting x values to numbers
+ * @returns the bounds, or null if the data is empty
+ */
+function chart_bounds(data, field, value) {
+	var bounds = null;
+
+	for (var i = 0; i < data.length; i++) {
+		var x = value(data[i][field]);
+
+		if (x !== null && x !== undefined && !isNaN(x)) {
+			if (bounds === null) {
+				bounds = { from: x, to: x };
+			} else {
+				bounds.from = Math.min(bounds.from, x);
+				bounds.to = Math.max(bounds.to, x);
+			}
+		}
+	}
+
+	return bounds;
+}
+
+/**
+ * Appends new points to a chart (streaming mode)<br>
+ * The oldest points are trimmed, so the chart keeps at most the window size
+ *
+ * @param $w the chart widget
+ * @param points the new points
+ * @param max the window size
+ */
+function chart_append($w, points, max) {
+	if ($w) {
+		var data = $w.dataSource.data();
+		var excess = data.length + points.length - max;
+
+		if (excess > 0) {
+			data.splice(0, Math.min(excess, data.length));
+		}
+
+		data.push.apply(data, points.slice(Math.max(points.length - max, 0)));
+	}
+}
@@ -12,3 +12,266 @@ function calculateKendoSchedulerViewEndPeriod(date) {
 
     return correctedDate;
 }
+
+/**
+ * Reads the events of the current view, fetching only the ranges that are not already loaded (range-cache mode)
+ *
+ * @param $w the scheduler widget
+ * @param url the data-source url
+ * @param options the transport read options
+ * @param cache whether the browser's HTTP cache can be used
+ */
+function scheduler_read($w, url, options, cache) {
+	var loaded = scheduler_cache($w);
+	var start = $w.view().startDate().getTime();
+	var end = calculateKendoSchedulerViewEndPeriod($w.view().endDate()).getTime();
+	var ranges = scheduler_subtract([[start, end]], loaded.ranges);
+
+	if (ranges.length === 0) {
+		options.success(scheduler_find(loaded, start, end));
+		return;
+	}
+
+	jQuery.ajax({
+		url: url,
+		data: { start: start, end: end, ranges: kendo.stringify(ranges) },
+		cache: !!cache,
+		dataType: 'json',
+		success: function(result) {
+			jQuery.each(result, function(index, event) {
+				loaded.events[event.id + '@' + event.start] = event;
+			});
+
+			loaded.ranges = scheduler_union(loaded.ranges.concat(ranges));
+			options.success(scheduler_find(loaded, start, end));
+		},
+		error: function(result) {
+			options.error(result);
+		}
+	});
+}
+
+/**
+ * Invalidates the cached ranges of an event, before and after its creation, update or deletion (range-cache mode)
+ *
+ * @param $w the scheduler widget
+ * @param event the created, updated or deleted event
+ */
+function scheduler_invalidate($w, event) {
+	var cache = scheduler_cache($w);
+	var ranges = [];
+	var add = function(start, end, recurring) {
+		ranges.push([new Date(start).getTime(), recurring ? Number.MAX_VALUE : new Date(end).getTime()]);
+	};
+
+	if (event.start) {
+		add(event.start, event.end, event.recurrenceRule);
+	}
+
+	for (var key in cache.events) {
+		if (cache.events.hasOwnProperty(key)) {
+			var cached = cache.events[key];
+
+			if (cached.id == event.id || (event.id && cached.recurrenceId == event.id)) {
+				add(cached.start, cached.end, cached.recurrenceRule);
+				delete cache.events[key];
+			}
+		}
+	}
+
+	cache.ranges = scheduler_subtract(cache.ranges, ranges);
+}
+
+/**
+ * Defers the completion of a datasource operation, until the server accepts or vetoes it (conflict check)<br>
+ * The pending operation is keyed by the uid of its event, which is posted to the server and sent back on resolution
+ *
+ * @param $w the scheduler widget
+ * @param operation the operation ('create', 'update')
+ * @param e the transport options
+ * @returns the transport options to supply to the callback, which will not complete the operation
+ */
+function scheduler_defer($w, operation, e) {
+	var pending = $w.wicketPending || ($w.wicketPending = {});
+	var uid = scheduler_uid($w, operation, e.data);
+
+	pending[uid] = e;
+
+	return jQuery.extend({}, e, { success: jQuery.noop, uid: uid });
+}
+
+/**
+ * Gets the uid of the event of a datasource operation<br>
+ * The transport data does not hold the uid: an updated event is found by id; a created event is the first created event that is not pending yet, as the datasource sends them in order
+ *
+ * @param $w the scheduler widget
+ * @param operation the operation ('create', 'update')
+ * @param data the transport data
+ * @returns the uid
+ */
+function scheduler_uid($w, operation, data) {
+	var ds = $w.dataSource;
+	var pending = $w.wicketPending || {};
+
+	if (operation === 'update') {
+		var model = ds.get(data.id);
+
+		if (model) {
+			return model.uid;
+		}
+	} else {
+		var created = ds.created();
+
+		for (var i = 0; i < created.length; i++) {
+			if (!pending[created[i].uid]) {
+				return created[i].uid;
+			}
+		}
+	}
+
+	return kendo.guid();
+}
+
+/**
+ * Completes a pending datasource operation (conflict check)<br>
+ * If the operation is vetoed, the changes of the event are cancelled and the range cache, which may hold the vetoed event, is discarded
+ *
+ * @param $w the scheduler widget
+ * @param uid the uid of the pending event
+ * @param vetoed whether the operation is vetoed
+ */
+function scheduler_resolve($w, uid, vetoed) {
+	var pending = $w.wicketPending;
+	var e = pending && pending[uid];
+
+	if (e) {
+		delete pending[uid];
+
+		if (vetoed) {
+			var model = $w.dataSource.getByUid(uid);
+
+			e.error({}, 'error', 'conflict');
+			$w.wicketRangeCache = null;
+			$w.dataSource.cancelChanges(model); // all changes, if the event is not found
+		} else {
+			e.success();
+		}
+	}
+}
+
+/**
+ * Rejects the pending datasource operation of a failed request (conflict check)
+ *
+ * @param attrs the ajax request attributes
+ */
+function scheduler_reject(attrs) {
+	var $w = jQuery('#' + attrs.c).data('kendoScheduler');
+	var pending = $w && $w.wicketPending;
+
+	jQuery.each(attrs.ep || [], function(i, p) {
+		var e = pending && p.name === 'uid' && pending[p.value];
+
+		if (e) {
+			delete pending[p.value];
+			e.error({}, 'error', 'failure');
+		}
+	});
+}
+
+/**
+ * Prevents an occurrence that has been expanded server-side from being edited, moved, resized or deleted (recurrence expansion)
+ *
+ * @param e the scheduler event
+ * @returns whether the event has been prevented
+ */
+function scheduler_protect(e) {
+	if (e.event && e.event.occurrence) {
+		e.preventDefault();
+		return true;
+	}
+
+	return false;
+}
+
+/**
+ * Gets the range cache of the widget
+ *
+ * @param $w the scheduler widget
+ * @returns the cache
+ */
+function scheduler_cache($w) {
+	if (!$w.wicketRangeCache) {
+		$w.wicketRangeCache = { ranges: [], events: {} };
+	}
+
+	return $w.wicketRangeCache;
+}
+
+/**
+ * Gets the cached events overlapping the [start, end) range
+ */
+function scheduler_find(cache, start, end) {
+	var events = [];
+
+	for (var key in cache.events) {
+		if (cache.events.hasOwnProperty(key)) {
+			var event = cache.events[key];
+
+			if (event.recurrenceRule || (new Date(event.start).getTime() < end && new Date(event.end).getTime() >= start)) {
+				events.push(event);
+			}
+		}
+	}
+
+	return events;
+}
+
+/**
+ * Gets the ranges minus the removed ranges
+ */
+function scheduler_subtract(ranges, removed) {
+	var result = ranges;
+
+	jQuery.each(removed, function(i, r) {
+		var next = [];
+
+		jQuery.each(result, function(j, range) {
+			if (r[1] <= range[0] || r[0] >= range[1]) {
+				next.push(range);
+			} else {
+				if (range[0] < r[0]) {
+					next.push([range[0], r[0]]);
+				}
+
+				if (r[1] < range[1]) {
+					next.push([r[1], range[1]]);
+				}
+			}
+		});
+
+		result = next;
+	});
+
+	return result;
+}
+
+/**
+ * Gets the union of the ranges, as sorted and non-overlapping ranges
+ */
+function scheduler_union(ranges) {
+	var result = [];
+
+	ranges.sort(function(a, b) { return a[0] - b[0]; });
+
+	jQuery.each(ranges, function(i, range) {
+		var last = result[result.length - 1];
+
+		if (last && range[0] <= last[1]) {
+			last[1] = Math.max(last[1], range[1]);
+		} else {
+			result.push([range[0], range[1]]);
+		}
+	});
+
+	return result;
+}